@@ -0,0 +1,116 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal benchmark harness for the report benchmarks, in the spirit of JMH without the extra dependency.
+ * <p>
+ * Every case runs a number of timed warmup and measurement iterations on the calling thread. The result
+ * reports throughput and, like the JMH gc profiler, the bytes allocated per operation and the allocation rate.
+ * <pre>
+ * -wi 3        warmup iterations
+ * -i 5         measurement iterations
+ * -time 1000   milliseconds per iteration
+ * -f regex     only run cases whose name matches
+ * -name value  benchmark specific option, e.g. -rows 1000,100000
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public interface Case {
+        void run() throws Exception;
+    }
+
+    private final int warmupIterations;
+    private final int iterations;
+    private final long iterationNanos;
+    private final Pattern filter;
+    private final Map<String, String> options;
+
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public BenchmarkRunner(String[] args) {
+        options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].startsWith("-") ? args[i].substring(1) : args[i], args[i + 1]);
+        }
+        warmupIterations = Integer.parseInt(option("wi", "3"));
+        iterations = Integer.parseInt(option("i", "5"));
+        iterationNanos = Long.parseLong(option("time", "1000")) * 1_000_000L;
+        filter = Pattern.compile(option("f", ".*"));
+
+        System.out.printf("%-48s %14s %12s %14s %12s%n", "Benchmark", "ops/s", "error", "B/op", "MB/s alloc");
+    }
+
+    public String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    public List<Integer> intsOption(String name, String defaultValue) {
+        List<Integer> values = new ArrayList<>();
+        for (String value : option(name, defaultValue).split(",")) {
+            values.add(Integer.parseInt(value.trim()));
+        }
+        return values;
+    }
+
+    public boolean isSelected(String name) {
+        return filter.matcher(name).find();
+    }
+
+    public void run(String name, Case benchmark) throws Exception {
+        if (!isSelected(name)) {
+            return;
+        }
+
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(benchmark);
+        }
+
+        double[] throughput = new double[iterations];
+        long totalOps = 0;
+        long totalBytes = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            long[] result = iteration(benchmark);
+            throughput[i] = result[0] / (result[2] / 1e9);
+            totalOps += result[0];
+            totalBytes += result[1];
+            totalNanos += result[2];
+        }
+
+        double mean = 0;
+        for (double value : throughput) {
+            mean += value / iterations;
+        }
+        double variance = 0;
+        for (double value : throughput) {
+            variance += (value - mean) * (value - mean) / Math.max(1, iterations - 1);
+        }
+
+        System.out.printf("%-48s %14.3f %12.3f %14d %12.1f%n", name, mean, Math.sqrt(variance),
+                totalBytes / Math.max(1, totalOps), totalBytes / (totalNanos / 1e9) / (1024 * 1024));
+    }
+
+    /**
+     * Returns operations, allocated bytes and elapsed nanoseconds of one timed iteration.
+     */
+    private long[] iteration(Case benchmark) throws Exception {
+        long threadId = Thread.currentThread().getId();
+        long ops = 0;
+        long allocatedStart = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            benchmark.run();
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedStart;
+        return new long[] {ops, allocated, elapsed};
+    }
+}
@@ -0,0 +1,244 @@
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.sf.jasperreports.engine.*;
+import net.sf.jasperreports.engine.util.JRValueStringUtils;
+import net.sf.jasperreports.engine.util.JasperReportCache;
+import net.sf.jasperreports.export.SimpleExporterInput;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills one report for many parameter sets in a single JVM.
+ * <pre>
+ * java -cp ".;lib/*" JasperBatchConverter &lt;report.jasper&gt; &lt;params.jsonl|params.csv&gt; &lt;output&gt; [html|pdf] [threads] [--merge]
+ * </pre>
+ * Each JSONL line is an object of parameter values, a CSV file has a header row with the parameter names.
+ * Values are converted to the classes of the report parameters. The output is a directory receiving one file per
+ * row, or with <code>--merge</code> a single document containing every row in input order. Rows that fail are
+ * reported and skipped, and the tool exits with status 2 if any row failed.
+ */
+public class JasperBatchConverter {
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>(Arrays.asList(args));
+        boolean merge = positional.removeIf("--merge"::equals);
+        if (positional.size() < 3) {
+            System.out.println("Usage: java JasperBatchConverter <report.jasper> <params.jsonl|params.csv> <output> [html|pdf] [threads] [--merge]");
+            System.exit(1);
+        }
+
+        File reportFile = new File(positional.get(0));
+        File paramsFile = new File(positional.get(1));
+        File output = new File(positional.get(2));
+        String format = positional.size() > 3 ? positional.get(3) : "html";
+        int threads = positional.size() > 4 ? Integer.parseInt(positional.get(4)) : Runtime.getRuntime().availableProcessors();
+
+        JasperReportsContext jasperReportsContext = DefaultJasperReportsContext.getInstance();
+        JasperReport jasperReport = JasperReportCache.getInstance(jasperReportsContext).getReport(jasperReportsContext, reportFile);
+        Map<String, JRParameter> reportParameters = new HashMap<>();
+        for (JRParameter parameter : jasperReport.getParameters()) {
+            if (!parameter.isSystemDefined()) {
+                reportParameters.put(parameter.getName(), parameter);
+            }
+        }
+
+        List<Map<String, Object>> rows = paramsFile.getName().endsWith(".csv") ? readCsv(paramsFile) : readJsonLines(paramsFile);
+        if (!merge) {
+            output.mkdirs();
+        }
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Future<JasperPrint>> results = new ArrayList<>();
+
+        int failed = 0;
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                Map<String, Object> row = rows.get(i);
+                File rowOutput = new File(output, (i + 1) + "." + format);
+                results.add(executor.submit(() -> {
+                    long itemStart = System.nanoTime();
+                    Map<String, Object> parameters = toParameterValues(row, reportParameters);
+                    JasperPrint jasperPrint = JasperFillManager.getInstance(jasperReportsContext)
+                            .fill(jasperReport, parameters, new JREmptyDataSource());
+                    if (!merge) {
+                        export(jasperPrint, format, rowOutput);
+                        jasperPrint = null;
+                    }
+                    latencies.add(System.nanoTime() - itemStart);
+                    return jasperPrint;
+                }));
+            }
+
+            List<JasperPrint> prints = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    JasperPrint jasperPrint = results.get(i).get();
+                    if (merge) {
+                        prints.add(jasperPrint);
+                    }
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.err.println("Row " + (i + 1) + " failed: " + e.getCause());
+                }
+            }
+
+            if (merge && !prints.isEmpty()) {
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+                    if ("pdf".equals(format)) {
+                        JasperToHtmlConverter.exportPdf(SimpleExporterInput.getInstance(prints), out);
+                    } else {
+                        JasperToHtmlConverter.exportHtml(SimpleExporterInput.getInstance(prints), out);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int filled = rows.size() - failed;
+        System.out.printf("%d reports in %.1fs, %.1f reports/s%n", filled, elapsed / 1e9, filled / (elapsed / 1e9));
+        if (!latencies.isEmpty()) {
+            LatencyStats.print(merge ? "fill" : "item", latencies);
+        }
+        if (failed > 0) {
+            System.err.println(failed + " of " + rows.size() + " rows failed");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Converts the values of a row to the classes of the report parameters, since JSONL numbers are read as
+     * Integer/Long/Double and CSV values as strings. Values of names that are not report parameters are kept as read.
+     */
+    static Map<String, Object> toParameterValues(Map<String, Object> row, Map<String, JRParameter> reportParameters) {
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            JRParameter parameter = reportParameters.get(entry.getKey());
+            values.put(entry.getKey(), parameter == null ? entry.getValue() : toValueClass(parameter, entry.getValue()));
+        }
+        return values;
+    }
+
+    private static Object toValueClass(JRParameter parameter, Object value) {
+        Class<?> valueClass = parameter.getValueClass();
+        if (value == null || valueClass.isInstance(value)) {
+            return value;
+        }
+        if (!(value instanceof String || value instanceof Number || value instanceof Boolean)
+                || !JRValueStringUtils.hasSerializer(parameter.getValueClassName())) {
+            throw new IllegalArgumentException("Cannot convert " + value.getClass().getName() + " value of parameter "
+                    + parameter.getName() + " to " + parameter.getValueClassName());
+        }
+        String data = value.toString();
+        if (value instanceof Number && isIntegral(valueClass)) {
+            // JSONL numbers like 3.0 are read as Double
+            data = new BigDecimal(data).toBigIntegerExact().toString();
+        }
+        return JRValueStringUtils.deserialize(parameter.getValueClassName(), data);
+    }
+
+    private static boolean isIntegral(Class<?> valueClass) {
+        return valueClass == Byte.class || valueClass == Short.class || valueClass == Integer.class
+                || valueClass == Long.class || valueClass == BigInteger.class;
+    }
+
+    private static void export(JasperPrint jasperPrint, String format, File file) throws IOException, JRException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            if ("pdf".equals(format)) {
+                JasperToHtmlConverter.exportPdf(jasperPrint, out);
+            } else {
+                JasperToHtmlConverter.exportHtml(jasperPrint, out);
+            }
+        }
+    }
+
+    static List<Map<String, Object>> readJsonLines(File file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    rows.add(mapper.readValue(line, new TypeReference<HashMap<String, Object>>() {}));
+                }
+            }
+        }
+        return rows;
+    }
+
+    static List<Map<String, Object>> readCsv(File file) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                return rows;
+            }
+            List<String> header = splitCsv(headerLine.startsWith("\uFEFF") ? headerLine.substring(1) : headerLine);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                List<String> values = splitCsv(line);
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int i = 0; i < header.size() && i < values.size(); i++) {
+                    row.put(header.get(i), values.get(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,661 @@
+import net.sf.jasperreports.engine.*;
+import net.sf.jasperreports.engine.base.JRBasePrintText;
+import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.design.CompiledClassCache;
+import net.sf.jasperreports.engine.design.JRAbstractJavaCompiler;
+import net.sf.jasperreports.engine.design.JRClassGenerator;
+import net.sf.jasperreports.engine.design.JRJdtCompiler;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.export.GridLayoutCache;
+import net.sf.jasperreports.engine.export.HtmlExporter;
+import net.sf.jasperreports.engine.export.JRCsvDataExporter;
+import net.sf.jasperreports.engine.export.JRCsvExporter;
+import net.sf.jasperreports.engine.export.JRCsvMetadataExporter;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.export.JsonDataExporter;
+import net.sf.jasperreports.engine.export.JsonMetadataExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.engine.export.zip.AbstractZip;
+import net.sf.jasperreports.engine.fill.DatasetSortUtil;
+import net.sf.jasperreports.engine.fill.DistinctCountSketch;
+import net.sf.jasperreports.engine.fill.JRCalculator;
+import net.sf.jasperreports.engine.fill.SortRunFiles;
+import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
+import net.sf.jasperreports.engine.fill.TextMeasurementCache;
+import net.sf.jasperreports.engine.fill.TextMeasurer;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+import net.sf.jasperreports.engine.util.JRStyledText;
+import net.sf.jasperreports.engine.util.JRStyledTextParser;
+import net.sf.jasperreports.engine.util.JRStyledTextUtil;
+import net.sf.jasperreports.engine.util.JasperPrintBinaryFormat;
+import net.sf.jasperreports.engine.util.JasperReportBinaryFormat;
+import net.sf.jasperreports.engine.util.MappedJasperPrint;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import net.sf.jasperreports.engine.xml.JRXmlWriter;
+import net.sf.jasperreports.export.CsvDataExporterConfiguration;
+import net.sf.jasperreports.export.SimpleCsvDataExporterConfiguration;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleJsonDataExporterConfiguration;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+import net.sf.jasperreports.export.SimpleXlsxExporterConfiguration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Throughput and allocation benchmarks of the fill, text measurement, styled text parsing and export hot paths.
+ * <pre>
+ * java -cp ".;lib/*" JasperBenchmark -rows 1000,100000,1000000 [-f regex] [-wi 3] [-i 5] [-time 1000]
+ *         [-expressions 2000] [-expressionRows 1000] [-datasets 4] [-elements 400] [-jrxml dir] [-jasper Files]
+ *         [-totals 20] [-totalsRows 1000000] [-distinctRows 1000000] [-xlsxRows 200000] [-layoutPages 10000]
+ * </pre>
+ */
+public class JasperBenchmark {
+
+    static final String LATIN_TEXT = "The quick brown fox jumps over the lazy dog while the students of class 3B "
+            + "wait for their annual results and the school bell rings twice.";
+    static final String ARABIC_TEXT = "يعلن مدير المؤسسة لجميع التلاميذ وأولياء أمورهم أن نتائج الدورة الأولى "
+            + "ستعلن يوم الاثنين المقبل في الساعة العاشرة صباحا بقاعة الاجتماعات.";
+    static final String STYLED_TEXT = "<style isBold=\"true\">Student:</style> <font size=\"12\">Youssef</font> "
+            + "<style forecolor=\"#ff0000\">absent</style> " + ARABIC_TEXT;
+
+    /**
+     * Output that discards everything written to it, so only the export itself is measured.
+     */
+    static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(args);
+        JasperReportsContext context = DefaultJasperReportsContext.getInstance();
+
+        // child context with the cross-fill text measurement cache, created before the default context gets its disabled cache
+        SimpleJasperReportsContext cachedContext = new SimpleJasperReportsContext(context);
+        cachedContext.setProperty(TextMeasurementCache.PROPERTY_SIZE, runner.option("measurementCache", "100000"));
+        TextMeasurementCache measurementCache = TextMeasurementCache.getInstance(cachedContext);
+
+        // child contexts compiling the units of a report in parallel, and with the compiled class cache,
+        // created before the default context gets its disabled class cache
+        SimpleJasperReportsContext parallelCompileContext = new SimpleJasperReportsContext(context);
+        parallelCompileContext.setProperty(JRJdtCompiler.PROPERTY_PARALLEL_THREADS,
+                String.valueOf(Runtime.getRuntime().availableProcessors()));
+        CompiledClassCache.getInstance(parallelCompileContext);
+        SimpleJasperReportsContext classCacheContext = new SimpleJasperReportsContext(context);
+        classCacheContext.setProperty(CompiledClassCache.PROPERTY_DIRECTORY,
+                Files.createTempDirectory("jasperreports-classes").toString());
+        CompiledClassCache classCache = CompiledClassCache.getInstance(classCacheContext);
+
+        // child context loading JRXML reports with the StAX loader instead of the digester
+        SimpleJasperReportsContext staxContext = new SimpleJasperReportsContext(context);
+        staxContext.setProperty(JRXmlLoader.PROPERTY_XML_LOADER, JRXmlLoader.XML_LOADER_STAX);
+
+        // child context incrementing numeric variables with their incrementers, boxing every value
+        SimpleJasperReportsContext boxedContext = new SimpleJasperReportsContext(context);
+        boxedContext.setProperty(JRCalculator.PROPERTY_PRIMITIVE_ACCUMULATORS_ENABLED, "false");
+
+        // child context counting distinct values with the HyperLogLog sketch above 10000 values
+        SimpleJasperReportsContext approximateContext = new SimpleJasperReportsContext(context);
+        approximateContext.setProperty(DistinctCountSketch.PROPERTY_APPROXIMATE, "true");
+
+        // child context deflating the zip entries of the XLSX export on several threads
+        SimpleJasperReportsContext parallelZipContext = new SimpleJasperReportsContext(context);
+        parallelZipContext.setProperty(AbstractZip.PROPERTY_PARALLEL_THREADS,
+                String.valueOf(Runtime.getRuntime().availableProcessors()));
+
+        // child context laying out every page of the grid exports from scratch
+        SimpleJasperReportsContext uncachedLayoutContext = new SimpleJasperReportsContext(context);
+        uncachedLayoutContext.setProperty(GridLayoutCache.PROPERTY_SIZE, "0");
+
+        runner.run("measure/latin", measureCase(context, LATIN_TEXT, Locale.ENGLISH));
+        runner.run("measure/arabic", measureCase(context, ARABIC_TEXT, new Locale("ar")));
+        runner.run("measure/latin-cached", measureCase(cachedContext, LATIN_TEXT, Locale.ENGLISH));
+        runner.run("measure/arabic-cached", measureCase(cachedContext, ARABIC_TEXT, new Locale("ar")));
+
+        JRStyledTextParser parser = JRStyledTextParser.getInstance();
+        runner.run("styledText/parse", () -> parser.parse(null, STYLED_TEXT, Locale.ENGLISH));
+
+        // the same report compiled with the default switch based evaluator and with one method per expression
+        int expressions = Integer.parseInt(runner.option("expressions", "2000"));
+        int expressionRows = Integer.parseInt(runner.option("expressionRows", "1000"));
+        for (boolean methodPerExpression : new boolean[] {false, true}) {
+            String name = "fill/expressions-" + (methodPerExpression ? "methods" : "switch") + "/" + expressions;
+            if (!runner.isSelected(name)) {
+                continue;
+            }
+            JasperDesign design = SyntheticReports.expressionsDesign(expressions);
+            design.setProperty(JRClassGenerator.PROPERTY_METHOD_PER_EXPRESSION, String.valueOf(methodPerExpression));
+            JasperReport expressionsReport = JasperCompileManager.compileReport(design);
+            List<SyntheticReports.Row> beans = SyntheticReports.beans(expressionRows);
+            runner.run(name, () -> SyntheticReports.fill(expressionsReport, beans));
+        }
+
+        // numeric totals incremented in boxed values and in primitive values boxed only when printed
+        int totals = Integer.parseInt(runner.option("totals", "20"));
+        int totalsRows = Integer.parseInt(runner.option("totalsRows", "1000000"));
+        if (runner.isSelected("fill/totals-")) {
+            JasperReport totalsReport = JasperCompileManager.compileReport(SyntheticReports.totalsDesign(totals));
+            List<SyntheticReports.Row> beans = SyntheticReports.beans(totalsRows);
+            checkTotals(SyntheticReports.fill(totalsReport, beans), JasperFillManager.getInstance(boxedContext)
+                    .fill(totalsReport, new HashMap<>(), new JRBeanCollectionDataSource(beans)));
+            runner.run("fill/totals-boxed/" + totals + "/" + totalsRows, () -> JasperFillManager.getInstance(boxedContext)
+                    .fill(totalsReport, new HashMap<>(), new JRBeanCollectionDataSource(beans)));
+            runner.run("fill/totals-primitive/" + totals + "/" + totalsRows,
+                    () -> SyntheticReports.fill(totalsReport, beans));
+        }
+
+        // a distinct count over many distinct values counted exactly and with the HyperLogLog sketch
+        int distinctRows = Integer.parseInt(runner.option("distinctRows", "1000000"));
+        if (runner.isSelected("fill/distinct-")) {
+            JasperReport distinctReport = JasperCompileManager.compileReport(SyntheticReports.distinctDesign());
+            List<SyntheticReports.Row> beans = SyntheticReports.beans(distinctRows);
+            JasperPrint approximate = JasperFillManager.getInstance(approximateContext)
+                    .fill(distinctReport, new HashMap<>(), new JRBeanCollectionDataSource(beans));
+            List<JRPrintElement> elements = approximate.getPages().get(0).getElements();
+            String count = ((JRPrintText) elements.get(elements.size() - 1)).getFullText();
+            System.out.printf("fill/distinct/%d approximate count %s (%.2f%% error)%n", distinctRows, count,
+                    100.0 * (Long.parseLong(count.replaceAll("\\D", "")) - distinctRows) / distinctRows);
+            runner.run("fill/distinct-exact/" + distinctRows, () -> SyntheticReports.fill(distinctReport, beans));
+            runner.run("fill/distinct-approximate/" + distinctRows, () -> JasperFillManager.getInstance(approximateContext)
+                    .fill(distinctReport, new HashMap<>(), new JRBeanCollectionDataSource(beans)));
+        }
+
+        // a report filled on a single page exported to XLSX with buffered entries and with streamed sheets
+        int xlsxRows = Integer.parseInt(runner.option("xlsxRows", "200000"));
+        if (runner.isSelected("export/xlsx-")) {
+            JasperDesign design = SyntheticReports.listDesign();
+            design.setIgnorePagination(true);
+            JasperPrint print = SyntheticReports.fill(JasperCompileManager.compileReport(design),
+                    SyntheticReports.beans(xlsxRows));
+            for (boolean streaming : new boolean[] {false, true}) {
+                String name = "export/xlsx-" + (streaming ? "streaming" : "buffered") + "/" + xlsxRows;
+                if (runner.isSelected(name)) {
+                    printExportHeap(name, xlsxRows, () -> exportXlsx(print, streaming));
+                    runner.run(name, () -> exportXlsx(print, streaming));
+                }
+            }
+        }
+
+        // a list report of many identical pages exported to XLSX with and without the page layout cache
+        int layoutPages = Integer.parseInt(runner.option("layoutPages", "10000"));
+        if (runner.isSelected("export/xlsx-layout-")) {
+            JasperDesign design = SyntheticReports.listDesign();
+            int rowsPerPage = (design.getPageHeight() - design.getTopMargin() - design.getBottomMargin()
+                    - design.getPageHeader().getHeight()) / design.getDetailSection().getBands()[0].getHeight();
+            JasperPrint print = SyntheticReports.fill(JasperCompileManager.compileReport(design),
+                    SyntheticReports.beans(layoutPages * rowsPerPage));
+            runner.run("export/xlsx-layout-cached/" + layoutPages, () -> exportXlsx(context, print));
+            runner.run("export/xlsx-layout-uncached/" + layoutPages, () -> exportXlsx(uncachedLayoutContext, print));
+        }
+
+        // a report with several datasets compiled serially, in parallel and from the compiled class cache
+        int datasets = Integer.parseInt(runner.option("datasets", "4"));
+        if (runner.isSelected("compile/datasets-")) {
+            JasperDesign design = SyntheticReports.datasetsDesign(datasets, expressions / (datasets + 1));
+            runner.run("compile/datasets-serial/" + datasets, () -> JasperCompileManager.compileReport(design));
+            runner.run("compile/datasets-parallel/" + datasets,
+                    () -> JasperCompileManager.getInstance(parallelCompileContext).compile(design));
+            runner.run("compile/datasets-cached/" + datasets,
+                    () -> JasperCompileManager.getInstance(classCacheContext).compile(design));
+        }
+
+        // the same report with its expressions compiled to a class and evaluated directly without compiling
+        for (boolean direct : new boolean[] {false, true}) {
+            String suffix = direct ? "direct" : "compiled";
+            if (!runner.isSelected("compile/" + suffix) && !runner.isSelected("fill/" + suffix)) {
+                continue;
+            }
+            JasperDesign design = SyntheticReports.formattedDesign();
+            design.setProperty(JRAbstractJavaCompiler.PROPERTY_DIRECT_EXPRESSIONS, String.valueOf(direct));
+            runner.run("compile/" + suffix, () -> JasperCompileManager.compileReport(design));
+            JasperReport formattedReport = JasperCompileManager.compileReport(design);
+            List<SyntheticReports.Row> beans = SyntheticReports.beans(expressionRows);
+            runner.run("fill/" + suffix + "/" + expressionRows, () -> SyntheticReports.fill(formattedReport, beans));
+        }
+
+        // a large report loaded from JRXML with the digester and the StAX loader, which must build the same design
+        int elements = Integer.parseInt(runner.option("elements", "400"));
+        if (runner.isSelected("load/")) {
+            byte[] jrxml = JRXmlWriter.writeReport(SyntheticReports.layoutDesign(elements), "UTF-8")
+                    .getBytes(StandardCharsets.UTF_8);
+            checkLoaders(context, "SyntheticLayout", jrxml);
+            runner.run("load/digester/" + elements,
+                    () -> JRXmlLoader.load(context, new ByteArrayInputStream(jrxml)));
+            runner.run("load/stax/" + elements,
+                    () -> JRXmlLoader.load(staxContext, new ByteArrayInputStream(jrxml)));
+        }
+        String jrxmlDir = runner.option("jrxml", null);
+        if (jrxmlDir != null) {
+            File[] files = new File(jrxmlDir).listFiles((dir, name) -> name.endsWith(".jrxml"));
+            for (File file : files == null ? new File[0] : files) {
+                checkLoaders(context, file.getName(), Files.readAllBytes(file.toPath()));
+            }
+        }
+
+        // compiled reports saved and loaded as Java serialized objects and in the binary format:
+        // the synthetic layout report and the compiled reports of a directory
+        if (runner.isSelected("jasper/")) {
+            compareJasper(runner, context, "SyntheticLayout-" + elements,
+                    JasperCompileManager.compileReport(SyntheticReports.layoutDesign(elements)));
+            File[] files = new File(runner.option("jasper", "Files")).listFiles((dir, name) -> name.endsWith(".jasper"));
+            for (File file : files == null ? new File[0] : files) {
+                compareJasper(runner, context, file.getName(), (JasperReport) JRLoader.loadObject(context, file));
+            }
+        }
+
+        JasperReport report = SyntheticReports.compileList();
+        JasperReport sortedReport = JasperCompileManager.compileReport(SyntheticReports.sortedListDesign());
+        JasperReport csvReport = JasperCompileManager.compileReport(SyntheticReports.csvListDesign());
+        JasperReport jsonReport = JasperCompileManager.compileReport(SyntheticReports.jsonListDesign());
+        for (int rows : runner.intsOption("rows", "1000")) {
+            List<SyntheticReports.Row> beans = SyntheticReports.beans(rows);
+            List<Object[]> arrays = SyntheticReports.arrays(rows);
+
+            runner.run("fill/bean/" + rows, () -> SyntheticReports.fill(report, beans));
+            runner.run("fill/array/" + rows, () -> SyntheticReports.fillArrays(report, arrays));
+            runner.run("fill/bean-cached/" + rows, () -> JasperFillManager.getInstance(cachedContext)
+                    .fill(report, new HashMap<>(), new JRBeanCollectionDataSource(beans)));
+
+            // the sorted list report sorted in memory and through runs spilled to disk
+            if (runner.isSelected("sort/")) {
+                SimpleJasperReportsContext spillContext = new SimpleJasperReportsContext(context);
+                spillContext.setProperty(DatasetSortUtil.PROPERTY_SPILL_THRESHOLD, String.valueOf(Math.max(1, rows / 8)));
+                runner.run("sort/fill-memory/" + rows, () -> SyntheticReports.fill(sortedReport, beans));
+                runner.run("sort/fill-spill/" + rows, () -> JasperFillManager.getInstance(spillContext)
+                        .fill(sortedReport, new HashMap<>(), new JRBeanCollectionDataSource(beans)));
+                // more runs than the merge fan-in, merged in intermediate passes
+                SimpleJasperReportsContext mergeContext = new SimpleJasperReportsContext(context);
+                mergeContext.setProperty(DatasetSortUtil.PROPERTY_SPILL_THRESHOLD, String.valueOf(Math.max(1, rows / 64)));
+                mergeContext.setProperty(DatasetSortUtil.PROPERTY_MERGE_FAN_IN, "8");
+                runner.run("sort/fill-spill-merge/" + rows, () -> JasperFillManager.getInstance(mergeContext)
+                        .fill(sortedReport, new HashMap<>(), new JRBeanCollectionDataSource(beans)));
+                printSpill(context, beans);
+            }
+
+            // the filled report saved and loaded as a Java serialized object and in the binary format
+            if (runner.isSelected("print/")) {
+                JasperPrint print = SyntheticReports.fill(report, beans);
+                ByteArrayOutputStream serializedOut = new ByteArrayOutputStream();
+                JRSaver.saveObject(print, serializedOut);
+                byte[] serialized = serializedOut.toByteArray();
+                ByteArrayOutputStream binaryOut = new ByteArrayOutputStream();
+                JasperPrintBinaryFormat.write(context, print, binaryOut);
+                byte[] binary = binaryOut.toByteArray();
+                checkPrint(print, (JasperPrint) JRLoader.loadObject(context, new ByteArrayInputStream(binary)));
+                System.out.printf("print/size/%d serialized %d bytes, binary %d bytes (%.1f%%)%n", rows,
+                        serialized.length, binary.length, 100.0 * binary.length / serialized.length);
+
+                runner.run("print/save-serialized/" + rows, () -> JRSaver.saveObject(print, NULL_OUTPUT));
+                runner.run("print/save-binary/" + rows, () -> JasperPrintBinaryFormat.write(context, print, NULL_OUTPUT));
+                runner.run("print/load-serialized/" + rows,
+                        () -> JRLoader.loadObject(context, new ByteArrayInputStream(serialized)));
+                runner.run("print/load-binary/" + rows,
+                        () -> JRLoader.loadObject(context, new ByteArrayInputStream(binary)));
+
+                // one page out of the middle of the document, read from the mapped file or after loading all pages
+                File printFile = File.createTempFile("benchmark", ".jrprint");
+                printFile.deleteOnExit();
+                Files.write(printFile.toPath(), binary);
+                int middlePage = print.getPages().size() / 2;
+                try (MappedJasperPrint mapped = MappedJasperPrint.open(context, printFile)) {
+                    checkPrint(print, mapped);
+                }
+                runner.run("print/page-mapped/" + rows, () -> {
+                    try (MappedJasperPrint mapped = MappedJasperPrint.open(context, printFile)) {
+                        mapped.getPages().get(middlePage).getElements();
+                    }
+                });
+                runner.run("print/page-loaded/" + rows, () -> ((JasperPrint) JRLoader.loadObject(context, printFile))
+                        .getPages().get(middlePage).getElements());
+            }
+
+            // the list report with CSV column names, exported by the metadata exporter and by the data exporter
+            if (runner.isSelected("export/csv-metadata/" + rows) || runner.isSelected("export/csv-data")) {
+                JasperPrint csvPrint = SyntheticReports.fill(csvReport, beans);
+                runner.run("export/csv-metadata/" + rows, () -> {
+                    JRCsvMetadataExporter exporter = new JRCsvMetadataExporter();
+                    exporter.setExporterInput(new SimpleExporterInput(csvPrint));
+                    exporter.setExporterOutput(new SimpleWriterExporterOutput(NULL_OUTPUT));
+                    exporter.exportReport();
+                });
+                for (String encoder : new String[] {CsvDataExporterConfiguration.VALUE_ENCODER_TEXT,
+                        CsvDataExporterConfiguration.VALUE_ENCODER_VALUE}) {
+                    runner.run("export/csv-data-" + encoder + "/" + rows, () -> {
+                        JRCsvDataExporter exporter = new JRCsvDataExporter();
+                        exporter.setExporterInput(new SimpleExporterInput(csvPrint));
+                        exporter.setExporterOutput(new SimpleWriterExporterOutput(NULL_OUTPUT));
+                        SimpleCsvDataExporterConfiguration configuration = new SimpleCsvDataExporterConfiguration();
+                        configuration.setValueEncoder(encoder);
+                        exporter.setConfiguration(configuration);
+                        exporter.exportReport();
+                    });
+                }
+            }
+
+            // the list report with JSON paths, exported by the metadata exporter and by the streaming exporter
+            if (runner.isSelected("export/json-")) {
+                JasperPrint jsonPrint = SyntheticReports.fill(jsonReport, beans);
+                checkJson(SyntheticReports.fill(jsonReport, beans.subList(0, Math.min(rows, 10000))));
+                for (String exporter : new String[] {"metadata", "data", "data-ndjson"}) {
+                    String name = "export/json-" + exporter + "/" + rows;
+                    if (runner.isSelected(name)) {
+                        printExportHeap(name, rows, () -> exportJson(jsonPrint, exporter, NULL_OUTPUT));
+                        runner.run(name, () -> exportJson(jsonPrint, exporter, NULL_OUTPUT));
+                    }
+                }
+            }
+
+            boolean export = false;
+            for (String format : new String[] {"html", "pdf", "xlsx", "xlsx-parallel-zip", "csv"}) {
+                export |= runner.isSelected("export/" + format + "/" + rows);
+            }
+            if (!export) {
+                continue;
+            }
+            JasperPrint jasperPrint = SyntheticReports.fill(report, beans);
+            runner.run("export/html/" + rows, () -> {
+                HtmlExporter exporter = new HtmlExporter();
+                exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                exporter.setExporterOutput(new SimpleHtmlExporterOutput(NULL_OUTPUT));
+                exporter.exportReport();
+            });
+            runner.run("export/pdf/" + rows, () -> {
+                JRPdfExporter exporter = new JRPdfExporter();
+                exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(NULL_OUTPUT));
+                exporter.exportReport();
+            });
+            runner.run("export/xlsx/" + rows, () -> {
+                JRXlsxExporter exporter = new JRXlsxExporter();
+                exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(NULL_OUTPUT));
+                exporter.exportReport();
+            });
+            runner.run("export/xlsx-parallel-zip/" + rows, () -> {
+                JRXlsxExporter exporter = new JRXlsxExporter(parallelZipContext);
+                exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(NULL_OUTPUT));
+                exporter.exportReport();
+            });
+            runner.run("export/csv/" + rows, () -> {
+                JRCsvExporter exporter = new JRCsvExporter();
+                exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+                exporter.setExporterOutput(new SimpleWriterExporterOutput(NULL_OUTPUT));
+                exporter.exportReport();
+            });
+        }
+
+        if (measurementCache.getHitCount() + measurementCache.getMissCount() > 0) {
+            System.out.println(measurementCache);
+        }
+        if (classCache.getHitCount() + classCache.getMissCount() > 0) {
+            System.out.println(classCache);
+        }
+    }
+
+    /**
+     * Checks that the StAX loader builds the same design as the digester, without falling back to the digester.
+     */
+    static void checkLoaders(JasperReportsContext context, String name, byte[] jrxml) throws JRException {
+        XmlLoaderParityCheck.check(context, name, jrxml);
+        System.out.println("load/parity " + name + " ok");
+    }
+
+    static void compareJasper(BenchmarkRunner runner, JasperReportsContext context, String name, JasperReport jasperReport)
+            throws Exception {
+        ByteArrayOutputStream serializedOut = new ByteArrayOutputStream();
+        JRSaver.saveObject(jasperReport, serializedOut);
+        byte[] serialized = serializedOut.toByteArray();
+        ByteArrayOutputStream binaryOut = new ByteArrayOutputStream();
+        JasperReportBinaryFormat.write(context, jasperReport, binaryOut);
+        byte[] binary = binaryOut.toByteArray();
+
+        // the report read back must write the same JRXML as the original
+        JasperReport loaded = (JasperReport) JRLoader.loadObject(context, new ByteArrayInputStream(binary));
+        if (!JRXmlWriter.writeReport(jasperReport, "UTF-8").equals(JRXmlWriter.writeReport(loaded, "UTF-8"))) {
+            throw new IllegalStateException("Binary format report differs from " + name);
+        }
+        System.out.printf("jasper/size/%s serialized %d bytes, binary %d bytes (%.1f%%)%n", name,
+                serialized.length, binary.length, 100.0 * binary.length / serialized.length);
+
+        runner.run("jasper/save-serialized/" + name, () -> JRSaver.saveObject(jasperReport, NULL_OUTPUT));
+        runner.run("jasper/save-binary/" + name, () -> JasperReportBinaryFormat.write(context, jasperReport, NULL_OUTPUT));
+        runner.run("jasper/load-serialized/" + name,
+                () -> JRLoader.loadObject(context, new ByteArrayInputStream(serialized)));
+        runner.run("jasper/load-binary/" + name,
+                () -> JRLoader.loadObject(context, new ByteArrayInputStream(binary)));
+    }
+
+    static void exportXlsx(JasperPrint print, boolean streaming) throws JRException {
+        JRXlsxExporter exporter = new JRXlsxExporter();
+        exporter.setExporterInput(new SimpleExporterInput(print));
+        exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(NULL_OUTPUT));
+        SimpleXlsxExporterConfiguration configuration = new SimpleXlsxExporterConfiguration();
+        configuration.setStreaming(streaming);
+        exporter.setConfiguration(configuration);
+        exporter.exportReport();
+    }
+
+    static void exportXlsx(JasperReportsContext context, JasperPrint print) throws JRException {
+        JRXlsxExporter exporter = new JRXlsxExporter(context);
+        exporter.setExporterInput(new SimpleExporterInput(print));
+        exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(NULL_OUTPUT));
+        exporter.exportReport();
+    }
+
+    /**
+     * Exports a report to JSON with the metadata exporter or with the streaming exporter, writing NDJSON for
+     * {@code data-ndjson}.
+     */
+    static void exportJson(JasperPrint print, String exporterName, OutputStream out) throws JRException {
+        if (exporterName.equals("metadata")) {
+            JsonMetadataExporter exporter = new JsonMetadataExporter();
+            exporter.setExporterInput(new SimpleExporterInput(print));
+            exporter.setExporterOutput(new SimpleWriterExporterOutput(out));
+            exporter.exportReport();
+        } else {
+            JsonDataExporter exporter = new JsonDataExporter();
+            exporter.setExporterInput(new SimpleExporterInput(print));
+            exporter.setExporterOutput(new SimpleWriterExporterOutput(out));
+            SimpleJsonDataExporterConfiguration configuration = new SimpleJsonDataExporterConfiguration();
+            configuration.setLineDelimited(exporterName.endsWith("ndjson"));
+            exporter.setConfiguration(configuration);
+            exporter.exportReport();
+        }
+    }
+
+    /**
+     * Compares the JSON written by the metadata exporter with the JSON and the NDJSON of the streaming exporter.
+     */
+    static void checkJson(JasperPrint print) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode expected = mapper.readTree(exportJsonString(print, "metadata"));
+        if (!expected.equals(mapper.readTree(exportJsonString(print, "data")))) {
+            throw new IllegalStateException("Streaming JSON export differs from the metadata export");
+        }
+        ArrayNode records = mapper.createArrayNode();
+        for (String line : exportJsonString(print, "data-ndjson").split("\n")) {
+            records.add(mapper.readTree(line));
+        }
+        if (!expected.equals(records)) {
+            throw new IllegalStateException("NDJSON records differ from the metadata export");
+        }
+        System.out.println("export/json parity ok");
+    }
+
+    static String exportJsonString(JasperPrint print, String exporterName) throws JRException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportJson(print, exporterName, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Runs an export once and prints its rows/s and the peak heap of the export, above the heap used before it.
+     */
+    static void printExportHeap(String name, int rows, BenchmarkRunner.Case export) throws Exception {
+        System.gc();
+        long before = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                pools.add(pool);
+            }
+        }
+        long start = System.nanoTime();
+        export.run();
+        long nanos = System.nanoTime() - start;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        System.out.printf("%s peak heap %d MB, %.0f rows/s%n", name, Math.max(0, peak - before) >> 20,
+                rows * 1e9 / nanos);
+    }
+
+    /**
+     * Compares the totals printed by the report filled with primitive and with boxed variable values.
+     */
+    static void checkTotals(JasperPrint primitive, JasperPrint boxed) {
+        List<JRPrintElement> expectedElements = boxed.getPages().get(boxed.getPages().size() - 1).getElements();
+        List<JRPrintElement> actualElements = primitive.getPages().get(primitive.getPages().size() - 1).getElements();
+        for (int i = 0; i < expectedElements.size(); i++) {
+            if (expectedElements.get(i) instanceof JRPrintText
+                    && !((JRPrintText) expectedElements.get(i)).getFullText().equals(((JRPrintText) actualElements.get(i)).getFullText())) {
+                throw new IllegalStateException("Primitive total differs: " + ((JRPrintText) actualElements.get(i)).getFullText()
+                        + " instead of " + ((JRPrintText) expectedElements.get(i)).getFullText());
+            }
+        }
+        System.out.println("fill/totals parity ok");
+    }
+
+    /**
+     * Compares the pages and elements of a document with the same document loaded from the binary format.
+     */
+    static void checkPrint(JasperPrint expected, JasperPrint actual) {
+        if (expected.getPages().size() != actual.getPages().size()
+                || expected.getStylesList().size() != actual.getStylesList().size()) {
+            throw new IllegalStateException("Binary format document differs from " + expected.getName());
+        }
+        for (int i = 0; i < expected.getPages().size(); i++) {
+            List<JRPrintElement> expectedElements = expected.getPages().get(i).getElements();
+            List<JRPrintElement> actualElements = actual.getPages().get(i).getElements();
+            if (expectedElements.size() != actualElements.size()) {
+                throw new IllegalStateException("Binary format page " + i + " differs from " + expected.getName());
+            }
+            for (int j = 0; j < expectedElements.size(); j++) {
+                JRPrintElement expectedElement = expectedElements.get(j);
+                JRPrintElement actualElement = actualElements.get(j);
+                if (expectedElement.getX() != actualElement.getX() || expectedElement.getY() != actualElement.getY()
+                        || expectedElement.getWidth() != actualElement.getWidth()
+                        || (expectedElement instanceof JRPrintText && !String.valueOf(((JRPrintText) expectedElement).getFullText())
+                                .equals(String.valueOf(((JRPrintText) actualElement).getFullText())))) {
+                    throw new IllegalStateException("Binary format element " + j + " of page " + i + " differs from "
+                            + expected.getName());
+                }
+            }
+        }
+        System.out.println("print/parity " + expected.getName() + " ok");
+    }
+
+    /**
+     * Sorts the rows by name and descending amount in runs of a 64th of the rows spilled to disk, merges
+     * the runs with a fan-in of 8 and prints the records per second and the spilled bytes.
+     */
+    static void printSpill(JasperReportsContext context, List<SyntheticReports.Row> beans) throws Exception {
+        Comparator<SortRecord> comparator = Comparator.comparing((SortRecord record) -> (String) record.fieldValue(0))
+                .thenComparing(record -> (Double) record.fieldValue(1), Comparator.reverseOrder());
+        int runSize = Math.max(1, beans.size() / 64);
+        long start = System.nanoTime();
+        SortRunFiles runFiles = new SortRunFiles(context, null, comparator, 100000);
+        try {
+            List<SortRecord> run = new ArrayList<>(runSize);
+            for (int i = 0; i < beans.size(); i++) {
+                SyntheticReports.Row row = beans.get(i);
+                run.add(new SortRecord(new Object[] {row.getName(), row.getAmount()}, i));
+                if (run.size() == runSize || i == beans.size() - 1) {
+                    runFiles.spill(run);
+                    run = new ArrayList<>(runSize);
+                }
+            }
+            int spilledRuns = runFiles.getRunCount();
+            runFiles.mergeRuns(8);
+            // k-way merge as done by MergedSortedDataSource
+            PriorityQueue<SortRunFiles.RunReader> queue = new PriorityQueue<>(runFiles.getReaderComparator());
+            for (int i = 0; i < runFiles.getRunCount(); i++) {
+                SortRunFiles.RunReader reader = runFiles.openRun(i);
+                if (reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.delete();
+                }
+            }
+            long merged = 0;
+            SortRecord previous = null;
+            for (SortRunFiles.RunReader reader; (reader = queue.poll()) != null; ++merged) {
+                SortRecord current = reader.getCurrent();
+                if (previous != null && (comparator.compare(previous, current) > 0 
+                        || comparator.compare(previous, current) == 0 && previous.getRecordIndex() > current.getRecordIndex())) {
+                    throw new IllegalStateException("Record " + current.getRecordIndex() + " merged out of order");
+                }
+                previous = current;
+                if (reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.delete();
+                }
+            }
+            if (merged != beans.size()) {
+                throw new IllegalStateException("Merged " + merged + " of " + beans.size() + " records");
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("sort/spill/%d %d runs merged to %d, %d bytes spilled, %.0f records/s%n", beans.size(),
+                    spilledRuns, runFiles.getRunCount(), runFiles.getSpilledBytes(), merged / seconds);
+        } finally {
+            runFiles.dispose();
+        }
+    }
+
+    static BenchmarkRunner.Case measureCase(JasperReportsContext context, String text, Locale locale) {
+        JRBasePrintText printText = new JRBasePrintText(null);
+        printText.setWidth(200);
+        printText.setHeight(400);
+        printText.setFontName(SyntheticReports.FONT);
+        printText.setFontSize(10f);
+        printText.setText(text);
+
+        JRStyledText styledText = JRStyledTextUtil.getInstance(context).resolveFonts(
+                JRStyledTextParser.getInstance().getStyledText(
+                        JRStyledTextAttributeSelector.getAllSelector(context).getStyledTextAttributes(printText),
+                        text, false, locale),
+                locale);
+        TextMeasurer measurer = new TextMeasurer(context, printText);
+        return () -> measurer.measure(styledText, 0, 0, true, false);
+    }
+}
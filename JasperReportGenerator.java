@@ -1,11 +1,34 @@
 import net.sf.jasperreports.engine.*;
+import net.sf.jasperreports.engine.design.CompiledClassCache;
+import net.sf.jasperreports.engine.design.JRJdtCompiler;
 import net.sf.jasperreports.engine.export.JRPdfExporter;
 import net.sf.jasperreports.export.SimpleExporterInput;
 import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
 
+import java.io.File;
 import java.util.Map;
 
 public class JasperReportGenerator {
+
+    /**
+     * Directory of the compiled expression classes cache used when none is configured, so that an unchanged jrxml
+     * is not compiled again by later runs. It lives in the user home rather than in the shared temporary directory;
+     * the cache creates it with owner only permissions and is disabled if other users can write to it.
+     */
+    public static final String DEFAULT_CLASS_CACHE_DIR =
+            new File(System.getProperty("user.home"), ".jasperreports" + File.separator + "classes").getPath();
+
+    static {
+        DefaultJasperReportsContext context = DefaultJasperReportsContext.getInstance();
+        if (context.getProperty(CompiledClassCache.PROPERTY_DIRECTORY) == null) {
+            context.setProperty(CompiledClassCache.PROPERTY_DIRECTORY, DEFAULT_CLASS_CACHE_DIR);
+        }
+        if (context.getProperty(JRJdtCompiler.PROPERTY_PARALLEL_THREADS) == null) {
+            context.setProperty(JRJdtCompiler.PROPERTY_PARALLEL_THREADS,
+                    String.valueOf(Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
     public static void generateReport(String jrxmlFile, Map<String, Object> parameters, String pdfFile) throws JRException {
         JasperReport jasperReport = JasperCompileManager.compileReport(jrxmlFile);
         JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, new JREmptyDataSource());
@@ -0,0 +1,99 @@
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the latency of launching <code>JasperToHtmlConverter</code> per report with
+ * rendering the same report through a running <code>JasperReportServer</code>.
+ * <pre>
+ * java -cp ".;lib/*" JasperReportLoadTest &lt;report.jasper&gt; [requests] [port] [name=value ...]
+ * </pre>
+ * The report path must be inside the directory served by the server.
+ */
+public class JasperReportLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java JasperReportLoadTest <report.jasper> [requests] [port] [name=value ...]");
+            System.exit(1);
+        }
+
+        File report = new File(args[0]);
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : JasperReportServer.DEFAULT_PORT;
+        String[] parameters = args.length > 3 ? Arrays.copyOfRange(args, 3, args.length) : new String[0];
+
+        File output = File.createTempFile("loadtest", ".html");
+        output.deleteOnExit();
+
+        List<Long> execLatencies = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            runExec(report, output, parameters);
+            execLatencies.add(System.nanoTime() - start);
+        }
+        LatencyStats.print("exec", execLatencies);
+
+        URL url = new URL("http://127.0.0.1:" + port + "/render?report="
+                + URLEncoder.encode(report.getName(), StandardCharsets.UTF_8.name()) + "&format=html");
+        byte[] body = String.join("&", parameters).getBytes(StandardCharsets.UTF_8);
+
+        // the first request loads the report if the server did not preload it
+        runHttp(url, body);
+
+        List<Long> serverLatencies = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            runHttp(url, body);
+            serverLatencies.add(System.nanoTime() - start);
+        }
+        LatencyStats.print("server", serverLatencies);
+    }
+
+    private static void runExec(File report, File output, String[] parameters) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("JasperToHtmlConverter");
+        command.add(report.getPath());
+        command.add(output.getPath());
+        command.addAll(Arrays.asList(parameters));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        drain(process.getInputStream());
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("JasperToHtmlConverter exited with " + process.exitValue());
+        }
+    }
+
+    private static void runHttp(URL url, byte[] body) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        if (connection.getResponseCode() != 200) {
+            throw new IllegalStateException("Server answered " + connection.getResponseCode());
+        }
+        drain(connection.getInputStream());
+    }
+
+    private static void drain(InputStream in) throws Exception {
+        try (InputStream input = in) {
+            byte[] buffer = new byte[8192];
+            while (input.read(buffer) >= 0) {
+                // discard
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.sf.jasperreports.engine.*;
+import net.sf.jasperreports.engine.fill.TextMeasurementCache;
+import net.sf.jasperreports.engine.fonts.FontFamily;
+import net.sf.jasperreports.engine.util.JasperReportCache;
+import net.sf.jasperreports.renderers.RenderedImageCache;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Resident alternative to launching <code>JasperToHtmlConverter</code> once per report.
+ * <p>
+ * The server keeps one JVM, the default JasperReports context (extensions, fonts) and the
+ * loaded .jasper files warm between requests, and caches rendered images (charts, barcodes, SVG)
+ * across requests up to 64 MB unless <code>net.sf.jasperreports.rendered.image.cache.max.size</code>
+ * is set. Text measurements are cached across requests for up to 100000 texts unless
+ * <code>net.sf.jasperreports.text.measurement.cache.size</code> is set. It only listens on the loopback interface.
+ * <pre>
+ * java -cp ".;lib/*" JasperReportServer [port] [reportsDir] [threads]
+ *
+ * POST /render?report=list.jasper&amp;format=html   (format is html or pdf)
+ *      body: Student_full_name=...&amp;Classe_name=...   (URL-encoded report parameters)
+ * GET  /status
+ * </pre>
+ */
+public class JasperReportServer {
+
+    private static final Log log = LogFactory.getLog(JasperReportServer.class);
+
+    public static final int DEFAULT_PORT = 8085;
+    public static final long DEFAULT_IMAGE_CACHE_SIZE = 64L * 1024 * 1024;
+    public static final int DEFAULT_TEXT_MEASUREMENT_CACHE_SIZE = 100000;
+
+    private final JasperReportsContext jasperReportsContext = DefaultJasperReportsContext.getInstance();
+    private final File reportsDir;
+
+    public JasperReportServer(File reportsDir) {
+        this.reportsDir = reportsDir;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        File reportsDir = new File(args.length > 1 ? args[1] : "Files");
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        JasperReportServer server = new JasperReportServer(reportsDir);
+        server.warmUp();
+        server.start(port, threads);
+        System.out.println("Report server listening on 127.0.0.1:" + port + ", reports from " + reportsDir.getAbsolutePath());
+    }
+
+    /**
+     * Enables the rendered image and text measurement caches, loads the extensions registry, the font extensions and every report
+     * in the reports directory, so that the first request does not pay for them.
+     */
+    public void warmUp() {
+        if (jasperReportsContext.getProperty(RenderedImageCache.PROPERTY_MAX_SIZE) == null) {
+            DefaultJasperReportsContext.getInstance().setProperty(RenderedImageCache.PROPERTY_MAX_SIZE,
+                    String.valueOf(DEFAULT_IMAGE_CACHE_SIZE));
+        }
+        if (jasperReportsContext.getProperty(TextMeasurementCache.PROPERTY_SIZE) == null) {
+            DefaultJasperReportsContext.getInstance().setProperty(TextMeasurementCache.PROPERTY_SIZE,
+                    String.valueOf(DEFAULT_TEXT_MEASUREMENT_CACHE_SIZE));
+        }
+        jasperReportsContext.getExtensions(FontFamily.class);
+
+        File[] files = reportsDir.listFiles((dir, name) -> name.endsWith(".jasper"));
+        if (files != null) {
+            for (File file : files) {
+                try {
+                    getReport(file.getName());
+                } catch (JRException e) {
+                    log.warn("Could not preload " + file.getName(), e);
+                }
+            }
+        }
+    }
+
+    public HttpServer start(int port, int threads) throws IOException {
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/render", this::handleRender);
+        httpServer.createContext("/status", this::handleStatus);
+        httpServer.start();
+        return httpServer;
+    }
+
+    private void handleRender(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, Object> query = JasperToHtmlConverter.parseParameters(split(exchange.getRequestURI().getRawQuery()), 0);
+            String reportName = (String) query.get("report");
+            String format = query.containsKey("format") ? (String) query.get("format") : "html";
+            if (reportName == null) {
+                sendText(exchange, 400, "Missing report.");
+                return;
+            }
+
+            Map<String, Object> parameters = JasperToHtmlConverter.parseParameters(split(readBody(exchange)), 0);
+
+            JasperPrint jasperPrint = JasperFillManager.getInstance(jasperReportsContext)
+                    .fill(getReport(reportName), parameters, new JREmptyDataSource());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            String contentType;
+            if ("pdf".equals(format)) {
+                JasperToHtmlConverter.exportPdf(jasperPrint, out);
+                contentType = "application/pdf";
+            } else if ("html".equals(format)) {
+                JasperToHtmlConverter.exportHtml(jasperPrint, out);
+                contentType = "text/html; charset=UTF-8";
+            } else {
+                sendText(exchange, 400, "Unknown format " + format + ".");
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, out.size());
+            try (OutputStream body = exchange.getResponseBody()) {
+                out.writeTo(body);
+            }
+        } catch (ReportNotFoundException e) {
+            sendText(exchange, 404, e.getMessage());
+        } catch (Exception e) {
+            log.error("Error rendering " + exchange.getRequestURI(), e);
+            sendText(exchange, 500, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        sendText(exchange, 200, JasperReportCache.getInstance(jasperReportsContext) + "\n"
+                + RenderedImageCache.getInstance(jasperReportsContext) + "\n"
+                + TextMeasurementCache.getInstance(jasperReportsContext));
+    }
+
+    /**
+     * Returns the report from the reports directory, through the cache shared with JasperFillManager.
+     *
+     * @throws ReportNotFoundException if the reports directory does not contain the report
+     */
+    public JasperReport getReport(String reportName) throws JRException {
+        File file = new File(reportsDir, reportName.endsWith(".jasper") ? reportName : reportName + ".jasper");
+        if (!file.isFile() || !isInside(reportsDir, file)) {
+            throw new ReportNotFoundException(reportName);
+        }
+
+        return JasperReportCache.getInstance(jasperReportsContext).getReport(jasperReportsContext, file);
+    }
+
+    private static boolean isInside(File dir, File file) {
+        try {
+            return file.getCanonicalPath().startsWith(dir.getCanonicalPath() + File.separator);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static String[] split(String encoded) {
+        return encoded == null || encoded.isEmpty() ? new String[0] : encoded.split("&");
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                body.write(buffer, 0, read);
+            }
+            return body.toString(StandardCharsets.UTF_8.name());
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    /**
+     * Thrown by {@link #getReport(String)} for reports that are not in the reports directory, answered with 404.
+     * Any other error of a request is answered with 500.
+     */
+    public static class ReportNotFoundException extends JRException {
+
+        private static final long serialVersionUID = 1L;
+
+        public ReportNotFoundException(String reportName) {
+            super("Report not found: " + reportName);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 import net.sf.jasperreports.engine.*;
 import net.sf.jasperreports.engine.export.HtmlExporter;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.export.ExporterInput;
 import net.sf.jasperreports.export.SimpleExporterInput;
 import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
 import net.sf.jasperreports.export.SimpleHtmlReportConfiguration;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
 
 import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
@@ -16,37 +21,69 @@ public class JasperToHtmlConverter {
         try {
             String jasperFilePath = args[0];
             String outputHtmlFilePath = args[1];
-            
-            Map<String, Object> parameters = new HashMap<>();
-            for (int i = 2; i < args.length; i++) {
-                String[] param = args[i].split("=", 2);
-                if (param.length == 2) {
-                    String key = URLDecoder.decode(param[0], StandardCharsets.UTF_8.toString());
-                    String value = URLDecoder.decode(param[1], StandardCharsets.UTF_8.toString());
-                    parameters.put(key, value);
-                }
-            }
-            
+
+            Map<String, Object> parameters = parseParameters(args, 2);
+
             JRDataSource dataSource = new JREmptyDataSource();
             JasperPrint jasperPrint = JasperFillManager.fillReport(jasperFilePath, parameters, dataSource);
-            
-            HtmlExporter exporter = new HtmlExporter();
-            exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
-            exporter.setExporterOutput(new SimpleHtmlExporterOutput(new FileOutputStream(outputHtmlFilePath)));
-            
-            SimpleHtmlReportConfiguration reportConfig = new SimpleHtmlReportConfiguration();
-            reportConfig.setEmbedImage(true);
-            reportConfig.setRemoveEmptySpaceBetweenRows(true);
-            reportConfig.setWhitePageBackground(false);
-            
-            exporter.setConfiguration(reportConfig);
-            
-            exporter.exportReport();
-            
+
+            try (OutputStream out = new FileOutputStream(outputHtmlFilePath)) {
+                exportHtml(jasperPrint, out);
+            }
+
             System.out.println("HTML file generated successfully.");
-            
+
         } catch (Exception e) {
             e.printStackTrace();
+            // callers such as JasperToHtmlConverter.php and JasperReportLoadTest check the exit status
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Decodes URL-encoded <code>name=value</code> pairs, starting at the given index, into a report parameters map.
+     */
+    public static Map<String, Object> parseParameters(String[] args, int offset) throws UnsupportedEncodingException {
+        Map<String, Object> parameters = new HashMap<>();
+        for (int i = offset; i < args.length; i++) {
+            String[] param = args[i].split("=", 2);
+            if (param.length == 2) {
+                String key = URLDecoder.decode(param[0], StandardCharsets.UTF_8.toString());
+                String value = URLDecoder.decode(param[1], StandardCharsets.UTF_8.toString());
+                parameters.put(key, value);
+            }
         }
+        return parameters;
+    }
+
+    public static void exportHtml(JasperPrint jasperPrint, OutputStream out) throws JRException {
+        exportHtml(new SimpleExporterInput(jasperPrint), out);
+    }
+
+    public static void exportHtml(ExporterInput input, OutputStream out) throws JRException {
+        HtmlExporter exporter = new HtmlExporter();
+        exporter.setExporterInput(input);
+        exporter.setExporterOutput(new SimpleHtmlExporterOutput(out));
+
+        SimpleHtmlReportConfiguration reportConfig = new SimpleHtmlReportConfiguration();
+        reportConfig.setEmbedImage(true);
+        reportConfig.setEmbeddedImageReuse(true);
+        reportConfig.setRemoveEmptySpaceBetweenRows(true);
+        reportConfig.setWhitePageBackground(false);
+
+        exporter.setConfiguration(reportConfig);
+
+        exporter.exportReport();
+    }
+
+    public static void exportPdf(JasperPrint jasperPrint, OutputStream out) throws JRException {
+        exportPdf(new SimpleExporterInput(jasperPrint), out);
+    }
+
+    public static void exportPdf(ExporterInput input, OutputStream out) throws JRException {
+        JRPdfExporter exporter = new JRPdfExporter();
+        exporter.setExporterInput(input);
+        exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+        exporter.exportReport();
     }
 }
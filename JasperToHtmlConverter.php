@@ -3,19 +3,46 @@
 $javaExecutable = 'java'; // Adjust the path if necessary
 $extractorClass = 'JasperToHtmlConverter';
 $jasperFilePath = 'list'; // Jasper file name without extension
+$outputFilePath = 'HTML/list.html';
+$parameters = []; // Report parameters, name => value
+
+// Use the resident JasperReportServer when it is running, it avoids starting a JVM per report
+$serverUrl = 'http://127.0.0.1:8085/render?report=' . urlencode($jasperFilePath) . '&format=html';
+$context = stream_context_create([
+  'http' => [
+    'method' => 'POST',
+    'header' => 'Content-Type: application/x-www-form-urlencoded',
+    'content' => http_build_query($parameters),
+    'ignore_errors' => true,
+  ],
+]);
+$html = @file_get_contents($serverUrl, false, $context);
+
+if ($html !== false && isset($http_response_header[0]) && strpos($http_response_header[0], ' 200 ') !== false) {
+  file_put_contents($outputFilePath, $html);
+  echo "HTML file generated successfully at " . $outputFilePath;
+  return;
+}
+
+$paramArgs = '';
+foreach ($parameters as $key => $value) {
+  $paramArgs .= ' ' . escapeshellarg(urlencode($key) . '=' . urlencode($value));
+}
 
 // Construct the command
 $command = sprintf(
-  '%s -cp ".;lib/*" %s %s',
+  '%s -cp ".;lib/*" %s %s %s%s',
   escapeshellcmd($javaExecutable),
   escapeshellcmd($extractorClass),
-  escapeshellarg($jasperFilePath)
+  escapeshellarg("Files/" . $jasperFilePath . ".jasper"),
+  escapeshellarg($outputFilePath),
+  $paramArgs
 );
 
 exec($command, $output, $return_var);
 
 if ($return_var === 0) {
-    echo "PDF file generated successfully at " . $outputFilePath;
+    echo "HTML file generated successfully at " . $outputFilePath;
 } else {
-    echo "Failed to generate PDF file. Command output: " . implode("\n", $output);
+    echo "Failed to generate HTML file. Command output: " . implode("\n", $output);
 }
@@ -0,0 +1,26 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Percentile summary of latencies measured in nanoseconds, printed by the load test and batch tools.
+ */
+public class LatencyStats {
+
+    public static void print(String label, List<Long> latencies) {
+        if (latencies.isEmpty()) {
+            System.out.printf("%-8s n=0%n", label);
+            return;
+        }
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("%-8s n=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n", label, sorted.size(),
+                percentile(sorted, 50) / 1e6, percentile(sorted, 90) / 1e6, percentile(sorted, 99) / 1e6,
+                sorted.get(sorted.size() - 1) / 1e6);
+    }
+
+    public static long percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
@@ -0,0 +1,363 @@
+import net.sf.jasperreports.engine.*;
+import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.data.ListOfArrayDataSource;
+import net.sf.jasperreports.engine.design.*;
+import net.sf.jasperreports.engine.export.JRCsvMetadataExporter;
+import net.sf.jasperreports.engine.export.JsonMetadataExporter;
+import net.sf.jasperreports.engine.type.CalculationEnum;
+import net.sf.jasperreports.engine.type.HorizontalTextAlignEnum;
+import net.sf.jasperreports.engine.type.ResetTypeEnum;
+import net.sf.jasperreports.engine.type.SortFieldTypeEnum;
+import net.sf.jasperreports.engine.type.SortOrderEnum;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed synthetic list report and data used by the benchmarks: a page header and a detail band
+ * with an id, a Latin name, an Arabic name and an amount per row.
+ */
+public class SyntheticReports {
+
+    public static final String FONT = "SansSerif";
+
+    public static final String[] COLUMNS = {"id", "name", "arabicName", "amount"};
+
+    private static final String[] NAMES = {"Ahmed Benali", "Fatima Zahra", "Youssef El Amrani", "Khadija Idrissi"};
+    private static final String[] ARABIC_NAMES = {"أحمد بنعلي", "فاطمة الزهراء", "يوسف العمراني", "خديجة الإدريسي"};
+
+    public static class Row {
+        private final Integer id;
+        private final String name;
+        private final String arabicName;
+        private final Double amount;
+
+        public Row(int id) {
+            this.id = id;
+            this.name = NAMES[id % NAMES.length];
+            this.arabicName = ARABIC_NAMES[id % ARABIC_NAMES.length];
+            this.amount = id * 1.25;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getArabicName() {
+            return arabicName;
+        }
+
+        public Double getAmount() {
+            return amount;
+        }
+    }
+
+    public static JasperDesign listDesign() throws JRException {
+        JasperDesign design = new JasperDesign();
+        design.setName("SyntheticList");
+        design.setPageWidth(595);
+        design.setPageHeight(842);
+        design.setColumnWidth(555);
+        design.setLeftMargin(20);
+        design.setRightMargin(20);
+        design.setTopMargin(20);
+        design.setBottomMargin(20);
+
+        addField(design, "id", Integer.class);
+        addField(design, "name", String.class);
+        addField(design, "arabicName", String.class);
+        addField(design, "amount", Double.class);
+
+        JRDesignBand pageHeader = new JRDesignBand();
+        pageHeader.setHeight(20);
+        JRDesignStaticText title = new JRDesignStaticText();
+        title.setWidth(555);
+        title.setHeight(20);
+        title.setFontName(FONT);
+        title.setText("قائمة التلاميذ - Student list");
+        pageHeader.addElement(title);
+        design.setPageHeader(pageHeader);
+
+        JRDesignBand detail = new JRDesignBand();
+        detail.setHeight(16);
+        detail.addElement(textField(0, 60, "$F{id}"));
+        detail.addElement(textField(60, 180, "$F{name}"));
+        JRDesignTextField arabic = textField(240, 200, "$F{arabicName}");
+        arabic.setHorizontalTextAlign(HorizontalTextAlignEnum.RIGHT);
+        detail.addElement(arabic);
+        detail.addElement(textField(440, 115, "$F{amount}"));
+        ((JRDesignSection) design.getDetailSection()).addBand(detail);
+
+        return design;
+    }
+
+    /**
+     * Returns the list report with the given number of additional variables, each with its own expression
+     * evaluated for every row.
+     */
+    public static JasperDesign expressionsDesign(int expressions) throws JRException {
+        JasperDesign design = listDesign();
+        design.setName("SyntheticExpressions");
+        for (int i = 0; i < expressions; i++) {
+            JRDesignVariable variable = new JRDesignVariable();
+            variable.setName("expression" + i);
+            variable.setValueClass(Double.class);
+            variable.setExpression(new JRDesignExpression("$F{amount} * " + i + " + $F{id}"));
+            design.addVariable(variable);
+        }
+        return design;
+    }
+
+    /**
+     * Returns the list report with a second detail band of the concatenation, arithmetic and null check
+     * expressions typical of real reports.
+     */
+    public static JasperDesign formattedDesign() throws JRException {
+        JasperDesign design = listDesign();
+        design.setName("SyntheticFormatted");
+
+        JRDesignBand detail = new JRDesignBand();
+        detail.setHeight(16);
+        detail.addElement(textField(0, 60, "$V{REPORT_COUNT} + \" / \" + $F{id}"));
+        detail.addElement(textField(60, 180, "$F{name}.toUpperCase() + \" - \" + $F{arabicName}"));
+        detail.addElement(textField(240, 200, "$F{amount} != null ? $F{amount} * 1.2 : 0.0"));
+        detail.addElement(textField(440, 115, "$F{id} % 2 == 0 ? \"even\" : \"odd\""));
+        ((JRDesignSection) design.getDetailSection()).addBand(detail);
+
+        return design;
+    }
+
+    /**
+     * Returns the expressions report with the given number of subdatasets, each with the same fields and
+     * expressions as the main dataset, so that every dataset is a separate compilation unit.
+     */
+    public static JasperDesign datasetsDesign(int datasets, int expressions) throws JRException {
+        JasperDesign design = expressionsDesign(expressions);
+        design.setName("SyntheticDatasets");
+        for (int d = 0; d < datasets; d++) {
+            JRDesignDataset dataset = new JRDesignDataset(false);
+            dataset.setName("dataset" + d);
+            for (JRField field : design.getFields()) {
+                addField(dataset, field.getName(), field.getValueClass());
+            }
+            for (int i = 0; i < expressions; i++) {
+                JRDesignVariable variable = new JRDesignVariable();
+                variable.setName("expression" + i);
+                variable.setValueClass(Double.class);
+                variable.setExpression(new JRDesignExpression("$F{amount} * " + i + " - $F{id} * " + d));
+                dataset.addVariable(variable);
+            }
+            design.addDataset(dataset);
+        }
+        return design;
+    }
+
+    /**
+     * Returns the list report with a summary band of the given number of styled static texts and text fields,
+     * as a large design for the JRXML loading benchmarks.
+     */
+    public static JasperDesign layoutDesign(int elements) throws JRException {
+        JasperDesign design = listDesign();
+        design.setName("SyntheticLayout");
+
+        JRDesignStyle style = new JRDesignStyle();
+        style.setName("cell");
+        style.setFontName(FONT);
+        style.setFontSize(8f);
+        style.getLineBox().getPen().setLineWidth(0.5f);
+        style.getLineBox().setLeftPadding(2);
+        design.addStyle(style);
+
+        JRDesignParameter parameter = new JRDesignParameter();
+        parameter.setName("title");
+        parameter.setValueClass(String.class);
+        parameter.setDefaultValueExpression(new JRDesignExpression("\"Summary\""));
+        design.addParameter(parameter);
+
+        int columns = 8;
+        int width = 555 / columns;
+        JRDesignBand summary = new JRDesignBand();
+        summary.setHeight((elements + columns - 1) / columns * 16);
+        for (int i = 0; i < elements; i++) {
+            JRDesignTextElement element;
+            if (i % 2 == 0) {
+                JRDesignStaticText label = new JRDesignStaticText();
+                label.setText("Label " + i);
+                element = label;
+            } else {
+                element = textField(0, width, "$P{title} + \" \" + $V{REPORT_COUNT} + \" / " + i + "\"");
+                element.setPrintWhenExpression(new JRDesignExpression("$V{REPORT_COUNT} > " + (i % 5)));
+            }
+            element.setX(i % columns * width);
+            element.setY(i / columns * 16);
+            element.setWidth(width);
+            element.setHeight(16);
+            element.setStyle(style);
+            summary.addElement(element);
+        }
+        design.setSummary(summary);
+
+        return design;
+    }
+
+    /**
+     * Returns the list report without a detail band and with the given number of Sum, Count and Average variables
+     * of Long, Integer, Double and BigDecimal values, every other one reset for each group of 1000 rows, printed
+     * in the summary band.
+     */
+    public static JasperDesign totalsDesign(int variables) throws JRException {
+        JasperDesign design = listDesign();
+        design.setName("SyntheticTotals");
+        ((JRDesignSection) design.getDetailSection()).removeBand(0);
+
+        JRDesignGroup group = new JRDesignGroup();
+        group.setName("thousands");
+        group.setExpression(new JRDesignExpression("$F{id} / 1000"));
+        design.addGroup(group);
+
+        CalculationEnum[] calculations = {CalculationEnum.SUM, CalculationEnum.COUNT, CalculationEnum.AVERAGE};
+        Class<?>[] classes = {Long.class, Integer.class, Double.class, BigDecimal.class};
+        String[] expressions = {"Long.valueOf($F{id})", "$F{id}", "$F{amount}", "java.math.BigDecimal.valueOf($F{amount})"};
+        JRDesignBand summary = new JRDesignBand();
+        summary.setHeight(variables * 16);
+        for (int i = 0; i < variables; i++) {
+            JRDesignVariable variable = new JRDesignVariable();
+            variable.setName("total" + i);
+            variable.setValueClass(classes[i % classes.length]);
+            variable.setCalculation(calculations[i % calculations.length]);
+            variable.setExpression(new JRDesignExpression(expressions[i % classes.length]));
+            if (i % 2 == 1) {
+                variable.setResetType(ResetTypeEnum.GROUP);
+                variable.setResetGroup(group);
+            }
+            design.addVariable(variable);
+
+            JRDesignTextField total = textField(0, 555, "\"" + variable.getName() + " \" + $V{" + variable.getName() + "}");
+            total.setY(i * 16);
+            summary.addElement(total);
+        }
+        design.setSummary(summary);
+
+        return design;
+    }
+
+    /**
+     * Returns the list report without a detail band and with a DistinctCount variable of the ids printed in
+     * the summary band.
+     */
+    public static JasperDesign distinctDesign() throws JRException {
+        JasperDesign design = listDesign();
+        design.setName("SyntheticDistinct");
+        ((JRDesignSection) design.getDetailSection()).removeBand(0);
+
+        JRDesignVariable variable = new JRDesignVariable();
+        variable.setName("distinctIds");
+        variable.setValueClass(Long.class);
+        variable.setCalculation(CalculationEnum.DISTINCT_COUNT);
+        variable.setExpression(new JRDesignExpression("$F{id}"));
+        design.addVariable(variable);
+
+        JRDesignBand summary = new JRDesignBand();
+        summary.setHeight(16);
+        summary.addElement(textField(0, 555, "$V{distinctIds}"));
+        design.setSummary(summary);
+
+        return design;
+    }
+
+    /**
+     * Returns the list report with its rows sorted by name and by descending amount.
+     */
+    public static JasperDesign sortedListDesign() throws JRException {
+        JasperDesign design = listDesign();
+        design.setName("SyntheticSortedList");
+        design.addSortField(new JRDesignSortField("name", SortFieldTypeEnum.FIELD, SortOrderEnum.ASCENDING));
+        design.addSortField(new JRDesignSortField("amount", SortFieldTypeEnum.FIELD, SortOrderEnum.DESCENDING));
+        return design;
+    }
+
+    /**
+     * Returns the list report with the CSV metadata column names set on the detail fields.
+     */
+    public static JasperDesign csvListDesign() throws JRException {
+        JasperDesign design = listDesign();
+        design.setName("SyntheticCsvList");
+        JRElement[] fields = design.getDetailSection().getBands()[0].getElements();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            fields[i].getPropertiesMap().setProperty(JRCsvMetadataExporter.PROPERTY_COLUMN_NAME, COLUMNS[i]);
+        }
+        return design;
+    }
+
+    public static JasperDesign jsonListDesign() throws JRException {
+        JasperDesign design = listDesign();
+        design.setName("SyntheticJsonList");
+        JRElement[] fields = design.getDetailSection().getBands()[0].getElements();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            fields[i].getPropertiesMap().setProperty(JsonMetadataExporter.JSON_EXPORTER_PATH_PROPERTY, COLUMNS[i]);
+        }
+        return design;
+    }
+
+    public static JasperReport compileList() throws JRException {
+        return JasperCompileManager.compileReport(listDesign());
+    }
+
+    public static List<Row> beans(int rows) {
+        List<Row> beans = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            beans.add(new Row(i));
+        }
+        return beans;
+    }
+
+    public static List<Object[]> arrays(int rows) {
+        List<Object[]> records = new ArrayList<>(rows);
+        for (Row row : beans(rows)) {
+            records.add(new Object[] {row.getId(), row.getName(), row.getArabicName(), row.getAmount()});
+        }
+        return records;
+    }
+
+    public static JasperPrint fill(JasperReport report, List<Row> beans) throws JRException {
+        return JasperFillManager.fillReport(report, new HashMap<>(), new JRBeanCollectionDataSource(beans));
+    }
+
+    public static JasperPrint fill(JasperReport report, List<Row> beans, JRVirtualizer virtualizer) throws JRException {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+        return JasperFillManager.fillReport(report, parameters, new JRBeanCollectionDataSource(beans));
+    }
+
+    public static JasperPrint fillArrays(JasperReport report, List<Object[]> records) throws JRException {
+        return JasperFillManager.fillReport(report, new HashMap<>(), new ListOfArrayDataSource(records, COLUMNS));
+    }
+
+    private static void addField(JasperDesign design, String name, Class<?> type) throws JRException {
+        addField((JRDesignDataset) design.getMainDataset(), name, type);
+    }
+
+    private static void addField(JRDesignDataset dataset, String name, Class<?> type) throws JRException {
+        JRDesignField field = new JRDesignField();
+        field.setName(name);
+        field.setValueClass(type);
+        dataset.addField(field);
+    }
+
+    private static JRDesignTextField textField(int x, int width, String expression) {
+        JRDesignTextField textField = new JRDesignTextField();
+        textField.setX(x);
+        textField.setWidth(width);
+        textField.setHeight(16);
+        textField.setFontName(FONT);
+        textField.setExpression(new JRDesignExpression(expression));
+        return textField;
+    }
+}
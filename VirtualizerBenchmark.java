@@ -0,0 +1,287 @@
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.fill.JRMappedSwapFileVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.fill.StoreVirtualizer;
+import net.sf.jasperreports.engine.fill.VirtualizerStore;
+import net.sf.jasperreports.engine.util.CompactVirtualizationSerializer;
+import net.sf.jasperreports.engine.util.DeflateStreamCompression;
+import net.sf.jasperreports.engine.util.JRConcurrentSwapFile;
+import net.sf.jasperreports.engine.util.JRMappedSwapFile;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.engine.util.LZ4StreamCompression;
+import net.sf.jasperreports.engine.util.LocalVirtualizationSerializer;
+import net.sf.jasperreports.engine.util.StreamCompression;
+import net.sf.jasperreports.engine.util.VirtualizationSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Compares the memory-mapped swap file with JRSwapFile and JRConcurrentSwapFile, and the compact
+ * virtualization serializer with the default one.
+ * <p>
+ * The fill cases fill the synthetic list report through a virtualizer on one thread. The swap cases
+ * write, read back and free serialized page sized records from several threads sharing one swap file.
+ * The serializer cases fill the report through an in-memory store that records the serialized bytes
+ * per page and the time spent in every page-out and page-in.
+ * <pre>
+ * java -cp ".;lib/*" VirtualizerBenchmark [-rows 500000] [-serializerRows 100000] [-pages 10000] [-pageSize 20000] [-threads 1,4,8] [-f regex]
+ * </pre>
+ */
+public class VirtualizerBenchmark {
+
+    static final String TMP = System.getProperty("java.io.tmpdir");
+
+    interface Swap {
+        Object write(byte[] data) throws IOException;
+
+        byte[] read(Object handle) throws IOException;
+
+        void dispose();
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(args);
+
+        JasperReport report = SyntheticReports.compileList();
+        for (int rows : runner.intsOption("rows", "500000")) {
+            if (!runner.isSelected("virtualizer/fill/swap/" + rows) && !runner.isSelected("virtualizer/fill/mapped/" + rows)) {
+                continue;
+            }
+            List<SyntheticReports.Row> beans = SyntheticReports.beans(rows);
+            runner.run("virtualizer/fill/swap/" + rows, () ->
+                    fill(report, beans, new JRSwapFileVirtualizer(10, new JRSwapFile(TMP, 4096, 1024))));
+            runner.run("virtualizer/fill/mapped/" + rows, () ->
+                    fill(report, beans, new JRMappedSwapFileVirtualizer(10, new JRMappedSwapFile(TMP, 4096, 2048))));
+        }
+
+        System.out.println();
+        System.out.printf("%-48s %14s %12s %12s %12s%n", "Serializer", "pages out", "B/page", "ms/page-out", "ms/page-in");
+        for (int rows : runner.intsOption("serializerRows", "100000")) {
+            serializer(runner, report, "serializer/local/" + rows, rows, LocalVirtualizationSerializer::new, null);
+            serializer(runner, report, "serializer/local-deflate/" + rows, rows, LocalVirtualizationSerializer::new,
+                    new DeflateStreamCompression(1));
+            serializer(runner, report, "serializer/compact/" + rows, rows, CompactVirtualizationSerializer::new, null);
+            serializer(runner, report, "serializer/compact-lz4/" + rows, rows, CompactVirtualizationSerializer::new,
+                    new LZ4StreamCompression());
+        }
+
+        int pages = Integer.parseInt(runner.option("pages", "10000"));
+        int pageSize = Integer.parseInt(runner.option("pageSize", "20000"));
+        System.out.println();
+        System.out.printf("%-48s %14s %12s%n", "Swap (" + pages + " pages x " + pageSize + " bytes)", "pages/s", "MB/s");
+        for (int threads : runner.intsOption("threads", "1,4,8")) {
+            swap(runner, "swap/file/" + threads, threads, pages, pageSize, () -> {
+                JRSwapFile swap = new JRSwapFile(TMP, 4096, 1024);
+                return swapOf(swap);
+            });
+            swap(runner, "swap/concurrent/" + threads, threads, pages, pageSize, () -> {
+                JRSwapFile swap = new JRConcurrentSwapFile(TMP, 4096, 1024);
+                return swapOf(swap);
+            });
+            swap(runner, "swap/mapped/" + threads, threads, pages, pageSize, () -> {
+                JRMappedSwapFile swap = new JRMappedSwapFile(TMP, 4096, 2048);
+                return new Swap() {
+                    @Override
+                    public Object write(byte[] data) throws IOException {
+                        return swap.write(data);
+                    }
+
+                    @Override
+                    public byte[] read(Object handle) throws IOException {
+                        return swap.read((JRMappedSwapFile.MappedSwapHandle) handle, true);
+                    }
+
+                    @Override
+                    public void dispose() {
+                        swap.dispose();
+                    }
+                };
+            });
+        }
+    }
+
+    static void fill(JasperReport report, List<SyntheticReports.Row> beans, JRVirtualizer virtualizer) throws Exception {
+        try {
+            SyntheticReports.fill(report, beans, virtualizer);
+        } finally {
+            virtualizer.cleanup();
+        }
+    }
+
+    /**
+     * Fills the report once to warm up and once measured, then reads back every page of the measured fill.
+     */
+    static void serializer(BenchmarkRunner runner, JasperReport report, String name, int rows,
+            Supplier<VirtualizationSerializer> serializer, StreamCompression compression) throws Exception {
+        if (!runner.isSelected(name)) {
+            return;
+        }
+
+        List<SyntheticReports.Row> beans = SyntheticReports.beans(rows);
+        MeasuringStore store = null;
+        for (int i = 0; i < 2; i++) {
+            store = new MeasuringStore(compression);
+            StoreVirtualizer virtualizer = new StoreVirtualizer(serializer.get(), 10, store);
+            try {
+                JasperPrint jasperPrint = SyntheticReports.fill(report, beans, virtualizer);
+                for (int page = 0; page < jasperPrint.getPages().size(); page++) {
+                    jasperPrint.getPages().get(page).getElements().size();
+                }
+            } finally {
+                virtualizer.cleanup();
+            }
+        }
+
+        System.out.printf("%-48s %14d %12d %12.3f %12.3f%n", name, store.pagesOut,
+                store.bytesOut / Math.max(1, store.pagesOut),
+                store.nanosOut / 1e6 / Math.max(1, store.pagesOut),
+                store.nanosIn / 1e6 / Math.max(1, store.pagesIn));
+    }
+
+    /**
+     * Keeps the serialized data in memory, so only serialization and compression are measured.
+     */
+    static class MeasuringStore implements VirtualizerStore {
+        private final StreamCompression compression;
+        private final Map<String, byte[]> data = new ConcurrentHashMap<>();
+        long pagesOut;
+        long bytesOut;
+        long nanosOut;
+        long pagesIn;
+        long nanosIn;
+
+        MeasuringStore(StreamCompression compression) {
+            this.compression = compression;
+        }
+
+        @Override
+        public boolean store(JRVirtualizable<?> o, VirtualizationSerializer serializer) {
+            if (data.containsKey(o.getUID())) {
+                return false;
+            }
+
+            long start = System.nanoTime();
+            try {
+                ByteArrayOutputStream bout = new ByteArrayOutputStream(3000);
+                OutputStream out = compression == null ? bout : compression.compressedOutput(bout);
+                serializer.writeData(o, out);
+                out.close();
+                byte[] bytes = bout.toByteArray();
+                data.put(o.getUID(), bytes);
+
+                nanosOut += System.nanoTime() - start;
+                bytesOut += bytes.length;
+                pagesOut++;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void retrieve(JRVirtualizable<?> o, boolean remove, VirtualizationSerializer serializer) {
+            long start = System.nanoTime();
+            try {
+                byte[] bytes = remove ? data.remove(o.getUID()) : data.get(o.getUID());
+                InputStream rawInput = new ByteArrayInputStream(bytes);
+                InputStream input = compression == null ? rawInput : compression.uncompressedInput(rawInput);
+                serializer.readData(o, input);
+                input.close();
+
+                nanosIn += System.nanoTime() - start;
+                pagesIn++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void remove(String objectId) {
+            data.remove(objectId);
+        }
+
+        @Override
+        public void dispose() {
+            data.clear();
+        }
+    }
+
+    static Swap swapOf(JRSwapFile swap) {
+        return new Swap() {
+            @Override
+            public Object write(byte[] data) throws IOException {
+                return swap.write(data);
+            }
+
+            @Override
+            public byte[] read(Object handle) throws IOException {
+                return swap.read((JRSwapFile.SwapHandle) handle, true);
+            }
+
+            @Override
+            public void dispose() {
+                swap.dispose();
+            }
+        };
+    }
+
+    /**
+     * Every thread writes its share of the pages, then reads back and frees them, against a single shared swap file.
+     */
+    static void swap(BenchmarkRunner runner, String name, int threads, int pages, int pageSize,
+            Supplier<Swap> swapFactory) throws Exception {
+        if (!runner.isSelected(name)) {
+            return;
+        }
+
+        byte[] page = new byte[pageSize];
+        new Random(1).nextBytes(page);
+
+        Swap swap = swapFactory.get();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int threadPages = pages / threads + (t < pages % threads ? 1 : 0);
+                results.add(executor.submit(() -> {
+                    List<Object> handles = new ArrayList<>(threadPages);
+                    for (int i = 0; i < threadPages; i++) {
+                        handles.add(swap.write(page));
+                    }
+                    for (Object handle : handles) {
+                        if (swap.read(handle).length != pageSize) {
+                            throw new IllegalStateException("Wrong page size read back");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-48s %14.1f %12.1f%n", name, pages / seconds, 2.0 * pages * pageSize / seconds / (1024 * 1024));
+        } finally {
+            executor.shutdown();
+            swap.dispose();
+        }
+    }
+}
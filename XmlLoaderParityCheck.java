@@ -0,0 +1,240 @@
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.base.JRBaseExpression;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.xml.JRXmlDigesterFactory;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import net.sf.jasperreports.engine.xml.JRXmlStaxLoader;
+import net.sf.jasperreports.engine.xml.JRXmlWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks that the StAX JRXML loader builds the same design as the digester for the synthetic reports and for
+ * the JRXML files of a directory.
+ * <pre>
+ * java -cp ".;lib/*" XmlLoaderParityCheck [dir]
+ * </pre>
+ * The designs are compared field by field, except for the expression ids, which are taken from a counter.
+ * The StAX loader is used without its digester fallback, so a report it does not handle fails the check.
+ * The tool exits with status 1 if any report differs.
+ */
+public class XmlLoaderParityCheck {
+
+    public static void main(String[] args) throws Exception {
+        File dir = new File(args.length > 0 ? args[0] : "Files");
+        JasperReportsContext context = DefaultJasperReportsContext.getInstance();
+
+        Map<String, byte[]> reports = new LinkedHashMap<>();
+        reports.put("SyntheticList", jrxml(SyntheticReports.listDesign()));
+        reports.put("SyntheticExpressions", jrxml(SyntheticReports.expressionsDesign(100)));
+        reports.put("SyntheticFormatted", jrxml(SyntheticReports.formattedDesign()));
+        reports.put("SyntheticDatasets", jrxml(SyntheticReports.datasetsDesign(4, 20)));
+        reports.put("SyntheticLayout", jrxml(SyntheticReports.layoutDesign(400)));
+        reports.put("SyntheticTotals", jrxml(SyntheticReports.totalsDesign(20)));
+        reports.put("SyntheticDistinct", jrxml(SyntheticReports.distinctDesign()));
+        reports.put("SyntheticSortedList", jrxml(SyntheticReports.sortedListDesign()));
+        reports.put("SyntheticCsvList", jrxml(SyntheticReports.csvListDesign()));
+        reports.put("SyntheticJsonList", jrxml(SyntheticReports.jsonListDesign()));
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".jrxml"));
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                reports.put(file.getName(), Files.readAllBytes(file.toPath()));
+            }
+        }
+
+        int failed = 0;
+        for (Map.Entry<String, byte[]> report : reports.entrySet()) {
+            try {
+                check(context, report.getKey(), report.getValue());
+                System.out.println(report.getKey() + " ok");
+            } catch (JRException | IllegalStateException e) {
+                failed++;
+                System.out.println(report.getKey() + " FAILED: " + e.getMessage());
+            }
+        }
+        System.out.printf("%d reports checked, %d failed%n", reports.size(), failed);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static byte[] jrxml(JasperDesign design) throws JRException {
+        return JRXmlWriter.writeReport(design, "UTF-8").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Loads a report with the digester and with the StAX loader, failing if the StAX loader does not handle
+     * the report itself or if the designs differ.
+     */
+    static void check(JasperReportsContext context, String name, byte[] jrxml) throws JRException {
+        JRXmlLoader digesterLoader;
+        try {
+            digesterLoader = new JRXmlLoader(context, JRXmlDigesterFactory.createDigester(context));
+        } catch (Exception e) {
+            throw new JRException(e);
+        }
+        JasperDesign expected = digesterLoader.loadXML(new ByteArrayInputStream(jrxml));
+
+        JRXmlStaxLoader staxLoader = new JRXmlStaxLoader(context);
+        staxLoader.setDigesterFallback(false);
+        JasperDesign actual = staxLoader.loadXML(jrxml);
+
+        String difference = new GraphComparison().compare("design", expected, actual);
+        if (difference != null) {
+            throw new IllegalStateException("StAX loader design differs from the digester design for " + name
+                    + " at " + difference);
+        }
+    }
+
+    /**
+     * Compares two object graphs field by field and returns the path of the first difference.
+     * Objects shared in the expected graph must be shared in the same way in the actual graph.
+     */
+    static class GraphComparison {
+
+        private final Map<Object, Object> visited = new IdentityHashMap<>();
+
+        String compare(String path, Object expected, Object actual) {
+            if (expected == null || actual == null) {
+                return expected == actual ? null : path + ": " + expected + " != " + actual;
+            }
+            if (expected.getClass() != actual.getClass()) {
+                return path + ": " + expected.getClass().getName() + " != " + actual.getClass().getName();
+            }
+            if (isValue(expected)) {
+                return expected.equals(actual) ? null : path + ": " + expected + " != " + actual;
+            }
+            if (visited.containsKey(expected)) {
+                return visited.get(expected) == actual ? null : path + ": not the same shared object";
+            }
+            visited.put(expected, actual);
+
+            if (expected.getClass().isArray()) {
+                int length = Array.getLength(expected);
+                if (length != Array.getLength(actual)) {
+                    return path + ": length " + length + " != " + Array.getLength(actual);
+                }
+                for (int i = 0; i < length; i++) {
+                    String difference = compare(path + "[" + i + "]", Array.get(expected, i), Array.get(actual, i));
+                    if (difference != null) {
+                        return difference;
+                    }
+                }
+                return null;
+            }
+            if (expected instanceof Map) {
+                return compareMaps(path, (Map<?, ?>) expected, (Map<?, ?>) actual);
+            }
+            if (expected instanceof Set && allValues((Set<?>) expected)) {
+                return expected.equals(actual) ? null : path + ": " + expected + " != " + actual;
+            }
+            if (expected instanceof Collection) {
+                return compareElements(path, ((Collection<?>) expected).iterator(), ((Collection<?>) actual).iterator());
+            }
+            if (expected.getClass().getName().startsWith("java")) {
+                return expected.equals(actual) ? null : path + ": " + expected + " != " + actual;
+            }
+            return compareFields(path, expected, actual);
+        }
+
+        private String compareMaps(String path, Map<?, ?> expected, Map<?, ?> actual) {
+            if (expected.size() != actual.size()) {
+                return path + ": size " + expected.size() + " != " + actual.size();
+            }
+            if (!allValues(expected.keySet())) {
+                return compareElements(path, expected.entrySet().iterator(), actual.entrySet().iterator());
+            }
+            for (Map.Entry<?, ?> entry : expected.entrySet()) {
+                if (!actual.containsKey(entry.getKey())) {
+                    return path + ": missing key " + entry.getKey();
+                }
+                String difference = compare(path + "[" + entry.getKey() + "]", entry.getValue(), actual.get(entry.getKey()));
+                if (difference != null) {
+                    return difference;
+                }
+            }
+            return null;
+        }
+
+        private String compareElements(String path, Iterator<?> expected, Iterator<?> actual) {
+            for (int i = 0; expected.hasNext() || actual.hasNext(); i++) {
+                if (!expected.hasNext() || !actual.hasNext()) {
+                    return path + ": size differs at " + i;
+                }
+                Object expectedElement = expected.next();
+                Object actualElement = actual.next();
+                String difference;
+                if (expectedElement instanceof Map.Entry && actualElement instanceof Map.Entry) {
+                    Map.Entry<?, ?> expectedEntry = (Map.Entry<?, ?>) expectedElement;
+                    Map.Entry<?, ?> actualEntry = (Map.Entry<?, ?>) actualElement;
+                    difference = compare(path + "[" + i + "].key", expectedEntry.getKey(), actualEntry.getKey());
+                    if (difference == null) {
+                        difference = compare(path + "[" + i + "].value", expectedEntry.getValue(), actualEntry.getValue());
+                    }
+                } else {
+                    difference = compare(path + "[" + i + "]", expectedElement, actualElement);
+                }
+                if (difference != null) {
+                    return difference;
+                }
+            }
+            return null;
+        }
+
+        private String compareFields(String path, Object expected, Object actual) {
+            for (Class<?> type = expected.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()
+                            // expression ids are taken from a counter when the expressions are created
+                            || (type == JRBaseExpression.class && field.getName().equals("id"))) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    try {
+                        String difference = compare(path + "." + field.getName(), field.get(expected), field.get(actual));
+                        if (difference != null) {
+                            return difference;
+                        }
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+            return null;
+        }
+
+        private static boolean allValues(Collection<?> values) {
+            for (Object value : values) {
+                if (value != null && !isValue(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isValue(Object value) {
+            return value instanceof String || value instanceof Number || value instanceof Boolean
+                    || value instanceof Character || value instanceof Enum || value instanceof Class
+                    || value instanceof java.util.UUID || value instanceof java.util.Locale
+                    || value instanceof java.util.TimeZone || value instanceof java.util.Date
+                    || value instanceof java.awt.Color;
+        }
+    }
+}
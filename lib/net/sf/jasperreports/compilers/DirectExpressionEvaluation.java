@@ -36,7 +36,8 @@ public interface DirectExpressionEvaluation
 		FIELD,
 		VARIABLE,
 		RESOURCE,
-		SIMPLE_TEXT
+		SIMPLE_TEXT,
+		JAVA_EXPRESSION
 	}
 	
 	EvaluationType getType();
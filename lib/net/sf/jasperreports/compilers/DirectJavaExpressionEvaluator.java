@@ -0,0 +1,69 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.compilers;
+
+/**
+ * Evaluates a {@link JavaExpressionNode} tree, reading the referenced values through direct evaluators.
+ * 
+ * @see JavaExpressionEvaluation
+ */
+public class DirectJavaExpressionEvaluator implements DirectExpressionEvaluator
+{
+
+	private final JavaExpressionNode expression;
+	private final DirectExpressionEvaluator[] references;
+	
+	private final JavaExpressionNode.Scope defaultScope;
+	private final JavaExpressionNode.Scope oldScope;
+	private final JavaExpressionNode.Scope estimatedScope;
+	
+	public DirectJavaExpressionEvaluator(JavaExpressionNode expression, DirectExpressionEvaluator[] references)
+	{
+		this.expression = expression;
+		this.references = references;
+		
+		this.defaultScope = index -> this.references[index].evaluate();
+		this.oldScope = index -> this.references[index].evaluateOld();
+		this.estimatedScope = index -> this.references[index].evaluateEstimated();
+	}
+
+	@Override
+	public Object evaluate()
+	{
+		return expression.evaluate(defaultScope);
+	}
+
+	@Override
+	public Object evaluateOld()
+	{
+		return expression.evaluate(oldScope);
+	}
+
+	@Override
+	public Object evaluateEstimated()
+	{
+		return expression.evaluate(estimatedScope);
+	}
+
+}
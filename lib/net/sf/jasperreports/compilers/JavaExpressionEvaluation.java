@@ -0,0 +1,70 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.compilers;
+
+import java.io.Serializable;
+import java.util.List;
+
+import net.sf.jasperreports.engine.JRConstants;
+
+/**
+ * Direct evaluation of a Java expression parsed into a {@link JavaExpressionNode} tree.
+ * 
+ * @see JavaExpressionParser
+ */
+public class JavaExpressionEvaluation implements DirectExpressionEvaluation, Serializable
+{
+	
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+	
+	private final JavaExpressionNode expression;
+	private final List<JavaExpressionNode.Reference> references;
+	
+	public JavaExpressionEvaluation(JavaExpressionNode expression, List<JavaExpressionNode.Reference> references)
+	{
+		this.expression = expression;
+		this.references = references;
+	}
+	
+	@Override
+	public EvaluationType getType()
+	{
+		return EvaluationType.JAVA_EXPRESSION;
+	}
+
+	public JavaExpressionNode getExpression()
+	{
+		return expression;
+	}
+
+	/**
+	 * Returns the parameter, field, variable and resource message references of the expression, 
+	 * in the order of their indexes.
+	 */
+	public List<JavaExpressionNode.Reference> getReferences()
+	{
+		return references;
+	}
+	
+}
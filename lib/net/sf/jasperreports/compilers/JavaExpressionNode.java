@@ -0,0 +1,649 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.compilers;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+/**
+ * Node of a typed Java expression tree that is evaluated without generating and compiling 
+ * an evaluator class.
+ * <p>
+ * The nodes are created by {@link JavaExpressionParser}, which resolves the static types of the
+ * operands so that the nodes implement the Java semantics of the operations: string concatenation,
+ * binary numeric promotion, unboxing (including the <code>NullPointerException</code> thrown when
+ * unboxing <code>null</code>) and short-circuit evaluation.
+ * 
+ * @see JavaExpressionEvaluation
+ */
+public abstract class JavaExpressionNode implements Serializable
+{
+
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+	/**
+	 * Provides the values of the parameters, fields, variables and resource messages referenced by an expression.
+	 */
+	public interface Scope
+	{
+		Object getReferenceValue(int index);
+	}
+	
+	/**
+	 * Numeric types resulting from binary numeric promotion.
+	 */
+	public enum NumericType
+	{
+		INT,
+		LONG,
+		FLOAT,
+		DOUBLE;
+		
+		public static NumericType of(Class<?> type)
+		{
+			if (type == Integer.class || type == int.class
+					|| type == Short.class || type == short.class
+					|| type == Byte.class || type == byte.class)
+			{
+				return INT;
+			}
+			if (type == Long.class || type == long.class)
+			{
+				return LONG;
+			}
+			if (type == Float.class || type == float.class)
+			{
+				return FLOAT;
+			}
+			if (type == Double.class || type == double.class)
+			{
+				return DOUBLE;
+			}
+			return null;
+		}
+		
+		public static NumericType promote(NumericType type1, NumericType type2)
+		{
+			return type1.ordinal() >= type2.ordinal() ? type1 : type2;
+		}
+		
+		public Class<?> primitiveClass()
+		{
+			switch (this)
+			{
+			case LONG:
+				return long.class;
+			case FLOAT:
+				return float.class;
+			case DOUBLE:
+				return double.class;
+			case INT:
+			default:
+				return int.class;
+			}
+		}
+	}
+
+	public abstract Object evaluate(Scope scope);
+	
+	protected static Number unboxNumber(Object value)
+	{
+		if (value == null)
+		{
+			throw new NullPointerException();
+		}
+		return (Number) value;
+	}
+	
+	protected static boolean unboxBoolean(Object value)
+	{
+		if (value == null)
+		{
+			throw new NullPointerException();
+		}
+		return (Boolean) value;
+	}
+
+	
+	/**
+	 * Literal value.
+	 */
+	public static class Literal extends JavaExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final Object value;
+		
+		public Literal(Object value)
+		{
+			this.value = value;
+		}
+		
+		public Object getValue()
+		{
+			return value;
+		}
+
+		@Override
+		public Object evaluate(Scope scope)
+		{
+			return value;
+		}
+	}
+
+	
+	/**
+	 * Reference to a parameter, field, variable or resource message.
+	 */
+	public static class Reference extends JavaExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final byte chunkType;
+		private final String name;
+		private final int index;
+		
+		public Reference(byte chunkType, String name, int index)
+		{
+			this.chunkType = chunkType;
+			this.name = name;
+			this.index = index;
+		}
+
+		/**
+		 * Returns the type of the reference as one of the {@link net.sf.jasperreports.engine.JRExpressionChunk} types.
+		 */
+		public byte getChunkType()
+		{
+			return chunkType;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		public int getIndex()
+		{
+			return index;
+		}
+
+		@Override
+		public Object evaluate(Scope scope)
+		{
+			return scope.getReferenceValue(index);
+		}
+	}
+
+	
+	/**
+	 * String concatenation of two or more operands.
+	 */
+	public static class Concatenation extends JavaExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final JavaExpressionNode[] operands;
+		
+		public Concatenation(JavaExpressionNode[] operands)
+		{
+			this.operands = operands;
+		}
+		
+		/**
+		 * Returns a concatenation with an additional operand at the end.
+		 */
+		public Concatenation append(JavaExpressionNode operand)
+		{
+			JavaExpressionNode[] newOperands = new JavaExpressionNode[operands.length + 1];
+			System.arraycopy(operands, 0, newOperands, 0, operands.length);
+			newOperands[operands.length] = operand;
+			return new Concatenation(newOperands);
+		}
+
+		@Override
+		public Object evaluate(Scope scope)
+		{
+			StringBuilder sb = new StringBuilder();
+			for (JavaExpressionNode operand : operands)
+			{
+				sb.append(operand.evaluate(scope));
+			}
+			return sb.toString();
+		}
+	}
+
+	
+	/**
+	 * Arithmetic operation on numeric operands.
+	 */
+	public static class Arithmetic extends JavaExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final char operator;
+		private final NumericType type;
+		private final JavaExpressionNode left;
+		private final JavaExpressionNode right;
+		
+		public Arithmetic(char operator, NumericType type, JavaExpressionNode left, JavaExpressionNode right)
+		{
+			this.operator = operator;
+			this.type = type;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Object evaluate(Scope scope)
+		{
+			Number leftValue = unboxNumber(left.evaluate(scope));
+			Number rightValue = unboxNumber(right.evaluate(scope));
+			switch (type)
+			{
+			case INT:
+				return intOperation(leftValue.intValue(), rightValue.intValue());
+			case LONG:
+				return longOperation(leftValue.longValue(), rightValue.longValue());
+			case FLOAT:
+				return floatOperation(leftValue.floatValue(), rightValue.floatValue());
+			case DOUBLE:
+			default:
+				return doubleOperation(leftValue.doubleValue(), rightValue.doubleValue());
+			}
+		}
+		
+		protected int intOperation(int a, int b)
+		{
+			switch (operator)
+			{
+			case '+':
+				return a + b;
+			case '-':
+				return a - b;
+			case '*':
+				return a * b;
+			case '/':
+				return a / b;
+			default:
+				return a % b;
+			}
+		}
+		
+		protected long longOperation(long a, long b)
+		{
+			switch (operator)
+			{
+			case '+':
+				return a + b;
+			case '-':
+				return a - b;
+			case '*':
+				return a * b;
+			case '/':
+				return a / b;
+			default:
+				return a % b;
+			}
+		}
+		
+		protected float floatOperation(float a, float b)
+		{
+			switch (operator)
+			{
+			case '+':
+				return a + b;
+			case '-':
+				return a - b;
+			case '*':
+				return a * b;
+			case '/':
+				return a / b;
+			default:
+				return a % b;
+			}
+		}
+		
+		protected double doubleOperation(double a, double b)
+		{
+			switch (operator)
+			{
+			case '+':
+				return a + b;
+			case '-':
+				return a - b;
+			case '*':
+				return a * b;
+			case '/':
+				return a / b;
+			default:
+				return a % b;
+			}
+		}
+	}
+
+	
+	/**
+	 * Numeric negation.
+	 */
+	public static class Negation extends JavaExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final NumericType type;
+		private final JavaExpressionNode operand;
+		
+		public Negation(NumericType type, JavaExpressionNode operand)
+		{
+			this.type = type;
+			this.operand = operand;
+		}
+
+		@Override
+		public Object evaluate(Scope scope)
+		{
+			Number value = unboxNumber(operand.evaluate(scope));
+			switch (type)
+			{
+			case INT:
+				return -value.intValue();
+			case LONG:
+				return -value.longValue();
+			case FLOAT:
+				return -value.floatValue();
+			case DOUBLE:
+			default:
+				return -value.doubleValue();
+			}
+		}
+	}
+
+	
+	/**
+	 * Numeric comparison, including the <code>==</code> and <code>!=</code> operators when 
+	 * at least one of the operands has a primitive numeric type.
+	 */
+	public static class NumericComparison extends JavaExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final String operator;
+		private final NumericType type;
+		private final JavaExpressionNode left;
+		private final JavaExpressionNode right;
+		
+		public NumericComparison(String operator, NumericType type, JavaExpressionNode left, JavaExpressionNode right)
+		{
+			this.operator = operator;
+			this.type = type;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Object evaluate(Scope scope)
+		{
+			Number leftValue = unboxNumber(left.evaluate(scope));
+			Number rightValue = unboxNumber(right.evaluate(scope));
+			switch (type)
+			{
+			case INT:
+			case LONG:
+				return compare(leftValue.longValue(), rightValue.longValue());
+			case FLOAT:
+				return compare(leftValue.floatValue(), rightValue.floatValue());
+			case DOUBLE:
+			default:
+				return compare(leftValue.doubleValue(), rightValue.doubleValue());
+			}
+		}
+		
+		protected boolean compare(long a, long b)
+		{
+			switch (operator)
+			{
+			case "<":
+				return a < b;
+			case "<=":
+				return a <= b;
+			case ">":
+				return a > b;
+			case ">=":
+				return a >= b;
+			case "==":
+				return a == b;
+			default:
+				return a != b;
+			}
+		}
+		
+		protected boolean compare(double a, double b)
+		{
+			switch (operator)
+			{
+			case "<":
+				return a < b;
+			case "<=":
+				return a <= b;
+			case ">":
+				return a > b;
+			case ">=":
+				return a >= b;
+			case "==":
+				return a == b;
+			default:
+				return a != b;
+			}
+		}
+	}
+
+	
+	/**
+	 * The <code>==</code> and <code>!=</code> operators on references, or on booleans when 
+	 * at least one of the operands has the primitive boolean type.
+	 */
+	public static class Equality extends JavaExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final boolean negated;
+		private final boolean booleanValues;
+		private final JavaExpressionNode left;
+		private final JavaExpressionNode right;
+		
+		public Equality(boolean negated, boolean booleanValues, JavaExpressionNode left, JavaExpressionNode right)
+		{
+			this.negated = negated;
+			this.booleanValues = booleanValues;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Object evaluate(Scope scope)
+		{
+			Object leftValue = left.evaluate(scope);
+			Object rightValue = right.evaluate(scope);
+			boolean equal = booleanValues 
+					? unboxBoolean(leftValue) == unboxBoolean(rightValue)
+					: leftValue == rightValue;
+			return equal != negated;
+		}
+	}
+
+	
+	/**
+	 * The <code>&amp;&amp;</code>, <code>||</code> and <code>!</code> operators.
+	 */
+	public static class Logical extends JavaExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final char operator;
+		private final JavaExpressionNode left;
+		private final JavaExpressionNode right;
+		
+		public Logical(char operator, JavaExpressionNode left, JavaExpressionNode right)
+		{
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Object evaluate(Scope scope)
+		{
+			boolean leftValue = unboxBoolean(left.evaluate(scope));
+			switch (operator)
+			{
+			case '&':
+				return leftValue && unboxBoolean(right.evaluate(scope));
+			case '|':
+				return leftValue || unboxBoolean(right.evaluate(scope));
+			case '!':
+			default:
+				return !leftValue;
+			}
+		}
+	}
+
+	
+	/**
+	 * The conditional <code>? :</code> operator.
+	 */
+	public static class Conditional extends JavaExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final JavaExpressionNode condition;
+		private final JavaExpressionNode whenTrue;
+		private final JavaExpressionNode whenFalse;
+		
+		public Conditional(JavaExpressionNode condition, JavaExpressionNode whenTrue, JavaExpressionNode whenFalse)
+		{
+			this.condition = condition;
+			this.whenTrue = whenTrue;
+			this.whenFalse = whenFalse;
+		}
+
+		@Override
+		public Object evaluate(Scope scope)
+		{
+			return unboxBoolean(condition.evaluate(scope)) ? whenTrue.evaluate(scope) : whenFalse.evaluate(scope);
+		}
+	}
+
+	
+	/**
+	 * Public instance method call.
+	 */
+	public static class MethodCall extends JavaExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final JavaExpressionNode target;
+		private final Class<?> declaringClass;
+		private final String methodName;
+		private final Class<?>[] parameterTypes;
+		private final JavaExpressionNode[] arguments;
+		
+		private transient volatile Method method;
+		
+		public MethodCall(JavaExpressionNode target, Method method, JavaExpressionNode[] arguments)
+		{
+			this.target = target;
+			this.declaringClass = method.getDeclaringClass();
+			this.methodName = method.getName();
+			this.parameterTypes = method.getParameterTypes();
+			this.arguments = arguments;
+			this.method = method;
+		}
+		
+		protected Method method()
+		{
+			Method resolvedMethod = method;
+			if (resolvedMethod == null)
+			{
+				try
+				{
+					resolvedMethod = declaringClass.getMethod(methodName, parameterTypes);
+				}
+				catch (NoSuchMethodException e)
+				{
+					throw new JRRuntimeException(e);
+				}
+				method = resolvedMethod;
+			}
+			return resolvedMethod;
+		}
+
+		@Override
+		public Object evaluate(Scope scope)
+		{
+			Object targetValue = target.evaluate(scope);
+			if (targetValue == null)
+			{
+				throw new NullPointerException();
+			}
+			
+			Object[] argumentValues = new Object[arguments.length];
+			for (int i = 0; i < arguments.length; i++)
+			{
+				argumentValues[i] = arguments[i].evaluate(scope);
+				if (argumentValues[i] == null && parameterTypes[i].isPrimitive())
+				{
+					//unboxing null
+					throw new NullPointerException();
+				}
+			}
+			
+			try
+			{
+				return method().invoke(targetValue, argumentValues);
+			}
+			catch (InvocationTargetException e)
+			{
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException)
+				{
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error)
+				{
+					throw (Error) cause;
+				}
+				throw new JRRuntimeException(cause);
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new JRRuntimeException(e);
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,1046 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.compilers;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.compilers.JavaExpressionNode.NumericType;
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JRExpressionChunk;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRVariable;
+
+/**
+ * Parses common Java report expressions into typed {@link JavaExpressionNode} trees that are 
+ * evaluated directly, so that reports using only such expressions do not need to have an 
+ * expression evaluator class generated and compiled.
+ * <p>
+ * The supported expressions consist of parameter, field, variable and resource message references,
+ * string, numeric, boolean and <code>null</code> literals, string concatenation, arithmetic on 
+ * primitive and boxed numeric values, comparisons, the logical and conditional operators, and calls 
+ * of public instance methods of <code>String</code>, <code>BigDecimal</code>, <code>BigInteger</code> 
+ * and of the primitive wrapper classes, e.g. <code>$F{a} + " " + $F{b}</code>, 
+ * <code>$V{x}.add($F{y})</code> or <code>$P{p} != null ? $P{p} : ""</code>.
+ * <p>
+ * Operand types are resolved from the declared value classes of the references, and expressions 
+ * whose Java semantics are not implemented exactly, or that would not compile, are not parsed 
+ * and are left to the compiled evaluator.
+ * 
+ * @see net.sf.jasperreports.engine.design.JRAbstractJavaCompiler#PROPERTY_DIRECT_EXPRESSIONS
+ */
+public class JavaExpressionParser
+{
+
+	private static final Log log = LogFactory.getLog(JavaExpressionParser.class);
+	
+	/**
+	 * Static type of the <code>null</code> literal.
+	 */
+	private static final Class<?> NULL_TYPE = Void.class;
+	
+	private static final Set<Class<?>> METHOD_TARGET_CLASSES = new HashSet<>(Arrays.<Class<?>>asList(
+			String.class, BigDecimal.class, BigInteger.class, 
+			Integer.class, Long.class, Short.class, Byte.class, Double.class, Float.class, Boolean.class
+			));
+	
+	private static final Map<Class<?>, Class<?>> BOXED_CLASSES = new HashMap<>();
+	static
+	{
+		BOXED_CLASSES.put(boolean.class, Boolean.class);
+		BOXED_CLASSES.put(byte.class, Byte.class);
+		BOXED_CLASSES.put(short.class, Short.class);
+		BOXED_CLASSES.put(char.class, Character.class);
+		BOXED_CLASSES.put(int.class, Integer.class);
+		BOXED_CLASSES.put(long.class, Long.class);
+		BOXED_CLASSES.put(float.class, Float.class);
+		BOXED_CLASSES.put(double.class, Double.class);
+	}
+	
+	private static final List<Class<?>> PRIMITIVE_WIDENING_ORDER = Arrays.<Class<?>>asList(
+			byte.class, short.class, int.class, long.class, float.class, double.class);
+	
+	private final Map<String, ? extends JRParameter> parametersMap;
+	private final Map<String, JRField> fieldsMap;
+	private final Map<String, JRVariable> variablesMap;
+	
+	public JavaExpressionParser(
+			Map<String, ? extends JRParameter> parametersMap, 
+			Map<String, JRField> fieldsMap, 
+			Map<String, JRVariable> variablesMap)
+	{
+		this.parametersMap = parametersMap;
+		this.fieldsMap = fieldsMap;
+		this.variablesMap = variablesMap;
+	}
+	
+	/**
+	 * Parses an expression.
+	 * 
+	 * @param expression the expression
+	 * @return the direct evaluation of the expression, or <code>null</code> if the expression is not supported
+	 */
+	public JavaExpressionEvaluation parse(JRExpression expression)
+	{
+		JRExpressionChunk[] chunks = expression.getChunks();
+		if (chunks == null || chunks.length == 0)
+		{
+			return null;
+		}
+		
+		try
+		{
+			Parser parser = new Parser(tokenize(chunks));
+			Typed typed = parser.parseExpression();
+			if (typed.type == NULL_TYPE && typed.node instanceof JavaExpressionNode.Literal)
+			{
+				// null constants are already handled as constant evaluations
+				return null;
+			}
+			return new JavaExpressionEvaluation(typed.node, parser.references);
+		}
+		catch (UnsupportedExpressionException e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Expression " + expression.getText() + " is not directly evaluated: " + e.getMessage());
+			}
+			return null;
+		}
+	}
+	
+	protected static class UnsupportedExpressionException extends RuntimeException
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+		public UnsupportedExpressionException(String message)
+		{
+			super(message, null, false, false);
+		}
+	}
+	
+	protected static UnsupportedExpressionException unsupported(String message)
+	{
+		return new UnsupportedExpressionException(message);
+	}
+	
+	
+	protected enum TokenKind
+	{
+		REFERENCE,
+		LITERAL,
+		IDENTIFIER,
+		OPERATOR,
+		END
+	}
+	
+	protected static class Token
+	{
+		final TokenKind kind;
+		final String text;
+		final byte chunkType;
+		final Object value;
+		final Class<?> type;
+		
+		Token(TokenKind kind, String text, byte chunkType, Object value, Class<?> type)
+		{
+			this.kind = kind;
+			this.text = text;
+			this.chunkType = chunkType;
+			this.value = value;
+			this.type = type;
+		}
+		
+		boolean isOperator(String operator)
+		{
+			return kind == TokenKind.OPERATOR && text.equals(operator);
+		}
+		
+		@Override
+		public String toString()
+		{
+			return kind == TokenKind.END ? "end of expression" : text;
+		}
+	}
+	
+	private static final String[] OPERATORS = {
+			"&&", "||", "==", "!=", "<=", ">=", 
+			"+", "-", "*", "/", "%", "<", ">", "!", "?", ":", "(", ")", ".", ","
+			};
+	
+	protected List<Token> tokenize(JRExpressionChunk[] chunks)
+	{
+		List<Token> tokens = new ArrayList<>();
+		for (JRExpressionChunk chunk : chunks)
+		{
+			String text = chunk.getText() == null ? "" : chunk.getText();
+			switch (chunk.getType())
+			{
+			case JRExpressionChunk.TYPE_PARAMETER:
+			case JRExpressionChunk.TYPE_FIELD:
+			case JRExpressionChunk.TYPE_VARIABLE:
+			case JRExpressionChunk.TYPE_RESOURCE:
+				tokens.add(new Token(TokenKind.REFERENCE, text, chunk.getType(), null, null));
+				break;
+			case JRExpressionChunk.TYPE_TEXT:
+				tokenize(text, tokens);
+				break;
+			default:
+				throw unsupported("chunk type " + chunk.getType());
+			}
+		}
+		tokens.add(new Token(TokenKind.END, "", (byte) 0, null, null));
+		return tokens;
+	}
+	
+	protected void tokenize(String text, List<Token> tokens)
+	{
+		int idx = 0;
+		while (idx < text.length())
+		{
+			char c = text.charAt(idx);
+			if (Character.isWhitespace(c))
+			{
+				++idx;
+			}
+			else if (c == '"')
+			{
+				idx = tokenizeString(text, idx, tokens);
+			}
+			else if (c >= '0' && c <= '9')
+			{
+				idx = tokenizeNumber(text, idx, tokens);
+			}
+			else if (Character.isJavaIdentifierStart(c))
+			{
+				int end = idx + 1;
+				while (end < text.length() && Character.isJavaIdentifierPart(text.charAt(end)))
+				{
+					++end;
+				}
+				String identifier = text.substring(idx, end);
+				switch (identifier)
+				{
+				case "null":
+					tokens.add(new Token(TokenKind.LITERAL, identifier, (byte) 0, null, NULL_TYPE));
+					break;
+				case "true":
+					tokens.add(new Token(TokenKind.LITERAL, identifier, (byte) 0, Boolean.TRUE, boolean.class));
+					break;
+				case "false":
+					tokens.add(new Token(TokenKind.LITERAL, identifier, (byte) 0, Boolean.FALSE, boolean.class));
+					break;
+				default:
+					tokens.add(new Token(TokenKind.IDENTIFIER, identifier, (byte) 0, null, null));
+					break;
+				}
+				idx = end;
+			}
+			else
+			{
+				String operator = null;
+				for (String op : OPERATORS)
+				{
+					if (text.startsWith(op, idx))
+					{
+						operator = op;
+						break;
+					}
+				}
+				if (operator == null 
+						|| (operator.equals("/") && idx + 1 < text.length() 
+							&& (text.charAt(idx + 1) == '/' || text.charAt(idx + 1) == '*')))
+				{
+					throw unsupported("character " + c);
+				}
+				tokens.add(new Token(TokenKind.OPERATOR, operator, (byte) 0, null, null));
+				idx += operator.length();
+			}
+		}
+	}
+
+	protected int tokenizeString(String text, int start, List<Token> tokens)
+	{
+		StringBuilder value = new StringBuilder();
+		int idx = start + 1;
+		while (true)
+		{
+			if (idx >= text.length())
+			{
+				throw unsupported("unterminated string literal");
+			}
+			char c = text.charAt(idx++);
+			if (c == '"')
+			{
+				break;
+			}
+			if (c == '\n' || c == '\r')
+			{
+				throw unsupported("line break in string literal");
+			}
+			if (c != '\\')
+			{
+				value.append(c);
+				continue;
+			}
+			
+			if (idx >= text.length())
+			{
+				throw unsupported("unterminated string literal");
+			}
+			char escaped = text.charAt(idx++);
+			switch (escaped)
+			{
+			case 'b':
+				value.append('\b');
+				break;
+			case 't':
+				value.append('\t');
+				break;
+			case 'n':
+				value.append('\n');
+				break;
+			case 'f':
+				value.append('\f');
+				break;
+			case 'r':
+				value.append('\r');
+				break;
+			case '"':
+			case '\'':
+			case '\\':
+				value.append(escaped);
+				break;
+			case 'u':
+				while (idx < text.length() && text.charAt(idx) == 'u')
+				{
+					++idx;
+				}
+				if (idx + 4 > text.length())
+				{
+					throw unsupported("invalid unicode escape");
+				}
+				try
+				{
+					value.append((char) Integer.parseInt(text.substring(idx, idx + 4), 16));
+				}
+				catch (NumberFormatException e)
+				{
+					throw unsupported("invalid unicode escape");
+				}
+				idx += 4;
+				break;
+			default:
+				throw unsupported("escape sequence \\" + escaped);
+			}
+		}
+		tokens.add(new Token(TokenKind.LITERAL, text.substring(start, idx), (byte) 0, value.toString(), String.class));
+		return idx;
+	}
+
+	protected int tokenizeNumber(String text, int start, List<Token> tokens)
+	{
+		int idx = start;
+		boolean decimal = false;
+		while (idx < text.length() && Character.isDigit(text.charAt(idx)))
+		{
+			++idx;
+		}
+		if (idx + 1 < text.length() && text.charAt(idx) == '.' && Character.isDigit(text.charAt(idx + 1)))
+		{
+			decimal = true;
+			++idx;
+			while (idx < text.length() && Character.isDigit(text.charAt(idx)))
+			{
+				++idx;
+			}
+		}
+		if (idx < text.length() && (text.charAt(idx) == 'e' || text.charAt(idx) == 'E'))
+		{
+			decimal = true;
+			++idx;
+			if (idx < text.length() && (text.charAt(idx) == '+' || text.charAt(idx) == '-'))
+			{
+				++idx;
+			}
+			int exponentStart = idx;
+			while (idx < text.length() && Character.isDigit(text.charAt(idx)))
+			{
+				++idx;
+			}
+			if (idx == exponentStart)
+			{
+				throw unsupported("invalid number");
+			}
+		}
+		String digits = text.substring(start, idx);
+		char suffix = idx < text.length() ? Character.toLowerCase(text.charAt(idx)) : 0;
+		if (suffix == 'l' || suffix == 'f' || suffix == 'd')
+		{
+			++idx;
+		}
+		else
+		{
+			suffix = 0;
+		}
+		if (idx < text.length() && (Character.isJavaIdentifierPart(text.charAt(idx)) || text.charAt(idx) == '.'))
+		{
+			// hexadecimal, binary, underscores or trailing dot
+			throw unsupported("number format");
+		}
+		if (!decimal && suffix != 'f' && suffix != 'd' && digits.length() > 1 && digits.charAt(0) == '0')
+		{
+			throw unsupported("octal number");
+		}
+		
+		Object value;
+		Class<?> type;
+		try
+		{
+			if (suffix == 'l')
+			{
+				if (decimal)
+				{
+					throw unsupported("invalid long literal");
+				}
+				value = Long.parseLong(digits);
+				type = long.class;
+			}
+			else if (suffix == 'f')
+			{
+				value = Float.parseFloat(digits);
+				type = float.class;
+			}
+			else if (decimal || suffix == 'd')
+			{
+				value = Double.parseDouble(digits);
+				type = double.class;
+			}
+			else
+			{
+				value = Integer.parseInt(digits);
+				type = int.class;
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			throw unsupported("number " + digits);
+		}
+		tokens.add(new Token(TokenKind.LITERAL, text.substring(start, idx), (byte) 0, value, type));
+		return idx;
+	}
+	
+	
+	protected static class Typed
+	{
+		final JavaExpressionNode node;
+		final Class<?> type;
+		
+		Typed(JavaExpressionNode node, Class<?> type)
+		{
+			this.node = node;
+			this.type = type;
+		}
+	}
+	
+	protected class Parser
+	{
+		private final List<Token> tokens;
+		private int position;
+		
+		private final List<JavaExpressionNode.Reference> references = new ArrayList<>();
+		private final Map<String, JavaExpressionNode.Reference> referencesByKey = new HashMap<>();
+		
+		Parser(List<Token> tokens)
+		{
+			this.tokens = tokens;
+		}
+		
+		Token peek()
+		{
+			return tokens.get(position);
+		}
+		
+		Token next()
+		{
+			return tokens.get(position++);
+		}
+		
+		boolean accept(String operator)
+		{
+			if (peek().isOperator(operator))
+			{
+				++position;
+				return true;
+			}
+			return false;
+		}
+		
+		void expect(String operator)
+		{
+			if (!accept(operator))
+			{
+				throw unsupported("expected " + operator + " instead of " + peek());
+			}
+		}
+		
+		Typed parseExpression()
+		{
+			Typed expression = parseConditional();
+			if (peek().kind != TokenKind.END)
+			{
+				throw unsupported("unexpected " + peek());
+			}
+			return expression;
+		}
+		
+		Typed parseConditional()
+		{
+			Typed condition = parseOr();
+			if (!accept("?"))
+			{
+				return condition;
+			}
+			
+			checkBoolean(condition);
+			Typed whenTrue = parseConditional();
+			expect(":");
+			Typed whenFalse = parseConditional();
+			
+			return new Typed(new JavaExpressionNode.Conditional(condition.node, whenTrue.node, whenFalse.node), 
+					conditionalType(whenTrue.type, whenFalse.type));
+		}
+		
+		Typed parseOr()
+		{
+			Typed left = parseAnd();
+			while (accept("||"))
+			{
+				Typed right = parseAnd();
+				checkBoolean(left);
+				checkBoolean(right);
+				left = new Typed(new JavaExpressionNode.Logical('|', left.node, right.node), boolean.class);
+			}
+			return left;
+		}
+		
+		Typed parseAnd()
+		{
+			Typed left = parseEquality();
+			while (accept("&&"))
+			{
+				Typed right = parseEquality();
+				checkBoolean(left);
+				checkBoolean(right);
+				left = new Typed(new JavaExpressionNode.Logical('&', left.node, right.node), boolean.class);
+			}
+			return left;
+		}
+		
+		Typed parseEquality()
+		{
+			Typed left = parseRelational();
+			while (true)
+			{
+				String operator;
+				if (accept("=="))
+				{
+					operator = "==";
+				}
+				else if (accept("!="))
+				{
+					operator = "!=";
+				}
+				else
+				{
+					return left;
+				}
+				
+				Typed right = parseRelational();
+				left = new Typed(equality(operator, left, right), boolean.class);
+			}
+		}
+		
+		JavaExpressionNode equality(String operator, Typed left, Typed right)
+		{
+			boolean negated = operator.equals("!=");
+			boolean primitiveOperand = left.type.isPrimitive() || right.type.isPrimitive();
+			if (primitiveOperand)
+			{
+				NumericType leftNumeric = NumericType.of(left.type);
+				NumericType rightNumeric = NumericType.of(right.type);
+				if (leftNumeric != null && rightNumeric != null)
+				{
+					return new JavaExpressionNode.NumericComparison(operator, 
+							NumericType.promote(leftNumeric, rightNumeric), left.node, right.node);
+				}
+				if (isBoolean(left.type) && isBoolean(right.type))
+				{
+					return new JavaExpressionNode.Equality(negated, true, left.node, right.node);
+				}
+				throw unsupported("operands of " + operator);
+			}
+			
+			if (left.type == NULL_TYPE || right.type == NULL_TYPE
+					|| left.type.isAssignableFrom(right.type) || right.type.isAssignableFrom(left.type))
+			{
+				return new JavaExpressionNode.Equality(negated, false, left.node, right.node);
+			}
+			throw unsupported("incomparable types " + left.type.getName() + " and " + right.type.getName());
+		}
+		
+		Typed parseRelational()
+		{
+			Typed left = parseAdditive();
+			while (true)
+			{
+				String operator = null;
+				for (String op : new String[] {"<=", ">=", "<", ">"})
+				{
+					if (accept(op))
+					{
+						operator = op;
+						break;
+					}
+				}
+				if (operator == null)
+				{
+					return left;
+				}
+				
+				Typed right = parseAdditive();
+				NumericType type = NumericType.promote(numeric(left), numeric(right));
+				left = new Typed(new JavaExpressionNode.NumericComparison(operator, type, left.node, right.node), 
+						boolean.class);
+			}
+		}
+		
+		Typed parseAdditive()
+		{
+			Typed left = parseMultiplicative();
+			while (true)
+			{
+				char operator;
+				if (accept("+"))
+				{
+					operator = '+';
+				}
+				else if (accept("-"))
+				{
+					operator = '-';
+				}
+				else
+				{
+					return left;
+				}
+				
+				Typed right = parseMultiplicative();
+				if (operator == '+' && (left.type == String.class || right.type == String.class))
+				{
+					JavaExpressionNode concatenation = left.node instanceof JavaExpressionNode.Concatenation 
+							? ((JavaExpressionNode.Concatenation) left.node).append(right.node)
+							: new JavaExpressionNode.Concatenation(new JavaExpressionNode[] {left.node, right.node});
+					left = new Typed(concatenation, String.class);
+				}
+				else
+				{
+					left = arithmetic(operator, left, right);
+				}
+			}
+		}
+		
+		Typed parseMultiplicative()
+		{
+			Typed left = parseUnary();
+			while (true)
+			{
+				char operator;
+				if (accept("*"))
+				{
+					operator = '*';
+				}
+				else if (accept("/"))
+				{
+					operator = '/';
+				}
+				else if (accept("%"))
+				{
+					operator = '%';
+				}
+				else
+				{
+					return left;
+				}
+				
+				Typed right = parseUnary();
+				left = arithmetic(operator, left, right);
+			}
+		}
+		
+		Typed arithmetic(char operator, Typed left, Typed right)
+		{
+			NumericType type = NumericType.promote(numeric(left), numeric(right));
+			return new Typed(new JavaExpressionNode.Arithmetic(operator, type, left.node, right.node), 
+					type.primitiveClass());
+		}
+		
+		Typed parseUnary()
+		{
+			if (accept("!"))
+			{
+				Typed operand = parseUnary();
+				checkBoolean(operand);
+				return new Typed(new JavaExpressionNode.Logical('!', operand.node, null), boolean.class);
+			}
+			if (accept("-"))
+			{
+				Typed operand = parseUnary();
+				NumericType type = NumericType.promote(NumericType.INT, numeric(operand));
+				return new Typed(new JavaExpressionNode.Negation(type, operand.node), type.primitiveClass());
+			}
+			return parsePostfix();
+		}
+		
+		Typed parsePostfix()
+		{
+			Typed target = parsePrimary();
+			while (accept("."))
+			{
+				Token name = next();
+				if (name.kind != TokenKind.IDENTIFIER)
+				{
+					throw unsupported("expected method name instead of " + name);
+				}
+				expect("(");
+				List<Typed> arguments = new ArrayList<>();
+				if (!accept(")"))
+				{
+					do
+					{
+						arguments.add(parseConditional());
+					}
+					while (accept(","));
+					expect(")");
+				}
+				target = methodCall(target, name.text, arguments);
+			}
+			return target;
+		}
+		
+		Typed parsePrimary()
+		{
+			Token token = next();
+			switch (token.kind)
+			{
+			case REFERENCE:
+				return reference(token);
+			case LITERAL:
+				return new Typed(new JavaExpressionNode.Literal(token.value), token.type);
+			case OPERATOR:
+				if (token.text.equals("("))
+				{
+					Typed expression = parseConditional();
+					expect(")");
+					return expression;
+				}
+				break;
+			default:
+				break;
+			}
+			throw unsupported("unexpected " + token);
+		}
+		
+		Typed reference(Token token)
+		{
+			Class<?> type;
+			try
+			{
+				switch (token.chunkType)
+				{
+				case JRExpressionChunk.TYPE_PARAMETER:
+					JRParameter parameter = parametersMap == null ? null : parametersMap.get(token.text);
+					type = parameter == null ? null : parameter.getValueClass();
+					break;
+				case JRExpressionChunk.TYPE_FIELD:
+					JRField field = fieldsMap == null ? null : fieldsMap.get(token.text);
+					type = field == null ? null : field.getValueClass();
+					break;
+				case JRExpressionChunk.TYPE_VARIABLE:
+					JRVariable variable = variablesMap == null ? null : variablesMap.get(token.text);
+					type = variable == null ? null : variable.getValueClass();
+					break;
+				case JRExpressionChunk.TYPE_RESOURCE:
+				default:
+					type = String.class;
+					break;
+				}
+			}
+			catch (RuntimeException e)
+			{
+				// value class not found
+				throw unsupported("value class of " + token.text + ": " + e.getMessage());
+			}
+			if (type == null)
+			{
+				throw unsupported("unknown reference " + token.text);
+			}
+			
+			String key = token.chunkType + ":" + token.text;
+			JavaExpressionNode.Reference reference = referencesByKey.get(key);
+			if (reference == null)
+			{
+				reference = new JavaExpressionNode.Reference(token.chunkType, token.text, references.size());
+				references.add(reference);
+				referencesByKey.put(key, reference);
+			}
+			return new Typed(reference, type);
+		}
+		
+		Typed methodCall(Typed target, String methodName, List<Typed> arguments)
+		{
+			if (!METHOD_TARGET_CLASSES.contains(target.type))
+			{
+				throw unsupported("method call on " + target.type.getName());
+			}
+			
+			Method method = resolveMethod(target.type, methodName, arguments);
+			JavaExpressionNode[] argumentNodes = new JavaExpressionNode[arguments.size()];
+			for (int i = 0; i < argumentNodes.length; i++)
+			{
+				argumentNodes[i] = arguments.get(i).node;
+			}
+			return new Typed(new JavaExpressionNode.MethodCall(target.node, method, argumentNodes), 
+					method.getReturnType());
+		}
+		
+		NumericType numeric(Typed operand)
+		{
+			NumericType type = NumericType.of(operand.type);
+			if (type == null)
+			{
+				throw unsupported("non numeric operand of type " + operand.type.getName());
+			}
+			return type;
+		}
+		
+		void checkBoolean(Typed operand)
+		{
+			if (!isBoolean(operand.type))
+			{
+				throw unsupported("non boolean operand of type " + operand.type.getName());
+			}
+		}
+	}
+	
+	protected static boolean isBoolean(Class<?> type)
+	{
+		return type == boolean.class || type == Boolean.class;
+	}
+	
+	/**
+	 * Returns the type of a conditional expression, limited to the cases that do not involve
+	 * unboxing or numeric promotion of the operands.
+	 */
+	protected static Class<?> conditionalType(Class<?> type1, Class<?> type2)
+	{
+		if (type1 == type2)
+		{
+			return type1;
+		}
+		if (type1 == NULL_TYPE)
+		{
+			return boxed(type2);
+		}
+		if (type2 == NULL_TYPE)
+		{
+			return boxed(type1);
+		}
+		if (type1.isPrimitive() || type2.isPrimitive() 
+				|| NumericType.of(type1) != null || NumericType.of(type2) != null
+				|| type1 == Boolean.class || type2 == Boolean.class)
+		{
+			throw unsupported("conditional operands of types " + type1.getName() + " and " + type2.getName());
+		}
+		if (type1.isAssignableFrom(type2))
+		{
+			return type1;
+		}
+		if (type2.isAssignableFrom(type1))
+		{
+			return type2;
+		}
+		return Object.class;
+	}
+	
+	protected static Class<?> boxed(Class<?> type)
+	{
+		return type.isPrimitive() ? BOXED_CLASSES.get(type) : type;
+	}
+	
+	/**
+	 * Resolves a public instance method following the Java overload resolution phases, 
+	 * first without and then with boxing conversions.
+	 */
+	protected static Method resolveMethod(Class<?> targetType, String methodName, List<Typed> arguments)
+	{
+		for (boolean boxing : new boolean[] {false, true})
+		{
+			List<Method> candidates = new ArrayList<>();
+			for (Method method : targetType.getMethods())
+			{
+				if (method.getName().equals(methodName)
+						&& !Modifier.isStatic(method.getModifiers())
+						&& !method.isBridge()
+						&& !method.isVarArgs()
+						&& method.getReturnType() != void.class
+						&& method.getParameterCount() == arguments.size()
+						&& isApplicable(method.getParameterTypes(), arguments, boxing))
+				{
+					candidates.add(method);
+				}
+			}
+			
+			if (!candidates.isEmpty())
+			{
+				Method mostSpecific = null;
+				for (Method candidate : candidates)
+				{
+					boolean moreSpecific = true;
+					for (Method other : candidates)
+					{
+						if (other != candidate && !isMoreSpecific(candidate, other))
+						{
+							moreSpecific = false;
+							break;
+						}
+					}
+					if (moreSpecific)
+					{
+						if (mostSpecific != null)
+						{
+							throw unsupported("ambiguous method " + methodName);
+						}
+						mostSpecific = candidate;
+					}
+				}
+				if (mostSpecific == null)
+				{
+					throw unsupported("ambiguous method " + methodName);
+				}
+				return mostSpecific;
+			}
+		}
+		throw unsupported("method " + targetType.getName() + "." + methodName);
+	}
+	
+	protected static boolean isApplicable(Class<?>[] parameterTypes, List<Typed> arguments, boolean boxing)
+	{
+		for (int i = 0; i < parameterTypes.length; i++)
+		{
+			if (!isConvertible(arguments.get(i).type, parameterTypes[i], boxing))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	protected static boolean isConvertible(Class<?> argumentType, Class<?> parameterType, boolean boxing)
+	{
+		if (parameterType.isPrimitive())
+		{
+			if (argumentType.isPrimitive())
+			{
+				return isPrimitiveWidening(argumentType, parameterType);
+			}
+			if (!boxing || argumentType == NULL_TYPE)
+			{
+				return false;
+			}
+			Class<?> unboxed = null;
+			for (Map.Entry<Class<?>, Class<?>> entry : BOXED_CLASSES.entrySet())
+			{
+				if (entry.getValue() == argumentType)
+				{
+					unboxed = entry.getKey();
+				}
+			}
+			return unboxed != null && isPrimitiveWidening(unboxed, parameterType);
+		}
+		
+		if (argumentType == NULL_TYPE)
+		{
+			return true;
+		}
+		if (argumentType.isPrimitive())
+		{
+			return boxing && parameterType.isAssignableFrom(boxed(argumentType));
+		}
+		return parameterType.isAssignableFrom(argumentType);
+	}
+	
+	protected static boolean isPrimitiveWidening(Class<?> from, Class<?> to)
+	{
+		if (from == to)
+		{
+			return true;
+		}
+		int fromIndex = PRIMITIVE_WIDENING_ORDER.indexOf(from);
+		int toIndex = PRIMITIVE_WIDENING_ORDER.indexOf(to);
+		if (from == char.class)
+		{
+			return toIndex >= PRIMITIVE_WIDENING_ORDER.indexOf(int.class);
+		}
+		return fromIndex >= 0 && toIndex > fromIndex && !(from == byte.class && to == char.class);
+	}
+	
+	protected static boolean isMoreSpecific(Method method, Method other)
+	{
+		Class<?>[] types = method.getParameterTypes();
+		Class<?>[] otherTypes = other.getParameterTypes();
+		for (int i = 0; i < types.length; i++)
+		{
+			if (!isConvertible(types[i], otherTypes[i], false))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+}
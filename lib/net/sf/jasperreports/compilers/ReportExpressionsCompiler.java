@@ -70,6 +70,20 @@ public class ReportExpressionsCompiler
 	}
 	
 	public ReportExpressionsCompilation getExpressionsCompilation(JRExpressionCollector expressionCollector)
+	{
+		return getExpressionsCompilation(expressionCollector, null);
+	}
+	
+	/**
+	 * Separates the expressions that are evaluated directly from the ones that require generated source code.
+	 * 
+	 * @param expressionCollector the expressions
+	 * @param javaExpressionParser parser for the Java expressions that can be evaluated directly, 
+	 * or <code>null</code> if only the trivial expressions are to be evaluated directly
+	 * @return the expressions compilation
+	 */
+	public ReportExpressionsCompilation getExpressionsCompilation(JRExpressionCollector expressionCollector,
+			JavaExpressionParser javaExpressionParser)
 	{
 		List<JRExpression> sourceExpressions = new ArrayList<>();
 		
@@ -79,6 +93,10 @@ public class ReportExpressionsCompiler
 		{
 			JRExpression expression = it.next();
 			DirectExpressionEvaluation directEvaluation = directEvaluation(expression);
+			if (directEvaluation == null && javaExpressionParser != null && !expression.isInterpreted())
+			{
+				directEvaluation = javaExpressionParser.parse(expression);
+			}
 			if (directEvaluation == null)
 			{
 				sourceExpressions.add(expression);
@@ -24,6 +24,7 @@
 package net.sf.jasperreports.compilers;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import net.sf.jasperreports.engine.JRExpression;
@@ -169,6 +170,9 @@ public class StandardExpressionEvaluators implements DirectExpressionEvaluators
 			Object message = valueFilter.filterValue(this.evaluator.str(messageKey), null);
 			evaluator = new DirectConstantEvaluator(message);
 			break;
+		case JAVA_EXPRESSION:
+			evaluator = createJavaExpressionEvaluator((JavaExpressionEvaluation) evaluation);
+			break;
 		default:
 			//should not happen
 			throw new JRRuntimeException("Unknown direct expression evaluation type " + evaluation.getType());
@@ -176,6 +180,36 @@ public class StandardExpressionEvaluators implements DirectExpressionEvaluators
 		return evaluator;
 	}
 	
+	protected DirectExpressionEvaluator createJavaExpressionEvaluator(JavaExpressionEvaluation evaluation)
+	{
+		List<JavaExpressionNode.Reference> references = evaluation.getReferences();
+		DirectExpressionEvaluator[] referenceEvaluators = new DirectExpressionEvaluator[references.size()];
+		for (JavaExpressionNode.Reference reference : references)
+		{
+			DirectExpressionEvaluation referenceEvaluation;
+			switch (reference.getChunkType())
+			{
+			case JRExpressionChunk.TYPE_PARAMETER:
+				referenceEvaluation = new ParameterEvaluation(reference.getName());
+				break;
+			case JRExpressionChunk.TYPE_FIELD:
+				referenceEvaluation = new FieldEvaluation(reference.getName());
+				break;
+			case JRExpressionChunk.TYPE_VARIABLE:
+				referenceEvaluation = new VariableEvaluation(reference.getName());
+				break;
+			case JRExpressionChunk.TYPE_RESOURCE:
+				referenceEvaluation = new ResourceEvaluation(reference.getName());
+				break;
+			default:
+				//should not happen
+				throw new JRRuntimeException("Unknown expression reference type " + reference.getChunkType());
+			}
+			referenceEvaluators[reference.getIndex()] = createDirectEvaluator(referenceEvaluation);
+		}
+		return new DirectJavaExpressionEvaluator(evaluation.getExpression(), referenceEvaluators);
+	}
+	
 	protected class SimpleTextEvaluator implements DirectExpressionEvaluator
 	{
 		private JRExpressionChunk[] chunks;
@@ -93,7 +93,7 @@ public class BarbecueDesignConverter implements ComponentDesignConverter
 			barcodeInfo.setBarHeight(component.getBarHeight());
 			
 			Barcode barcode = BarcodeProviders.createBarcode(barcodeInfo);
-			BarbecueRendererImpl renderer = new BarbecueRendererImpl(barcode);
+			BarbecueRendererImpl renderer = new BarbecueRendererImpl(barcode, barcodeInfo);
 			renderer.setRotation(BarbecueStyleResolver.getRotationValue(element));
 			image.setRenderer(renderer);
 			return image;
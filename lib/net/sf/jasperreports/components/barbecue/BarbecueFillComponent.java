@@ -140,7 +140,7 @@ public class BarbecueFillComponent extends BaseFillComponent
 		barcodeInfo.setBarHeight(barcodeComponent.getBarHeight());
 		
 		Barcode barcode = BarcodeProviders.createBarcode(barcodeInfo);
-		BarbecueRendererImpl renderer = new BarbecueRendererImpl(barcode);
+		BarbecueRendererImpl renderer = new BarbecueRendererImpl(barcode, barcodeInfo);
 		renderer.setRotation(BarbecueStyleResolver.getRotationValue(fillContext.getComponentElement()));
 		
 		image.setRenderer(renderer);
@@ -33,6 +33,7 @@ import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.type.RotationEnum;
 import net.sf.jasperreports.renderers.AbstractRenderer;
+import net.sf.jasperreports.renderers.ContentKeyRenderable;
 import net.sf.jasperreports.renderers.DimensionRenderable;
 import net.sf.jasperreports.renderers.Graphics2DRenderable;
 import net.sourceforge.barbecue.Barcode;
@@ -43,7 +44,7 @@ import net.sourceforge.barbecue.output.OutputException;
  * 
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
  */
-public class BarbecueRendererImpl extends AbstractRenderer implements Graphics2DRenderable, DimensionRenderable
+public class BarbecueRendererImpl extends AbstractRenderer implements Graphics2DRenderable, DimensionRenderable, ContentKeyRenderable
 {
 
 	private static final long serialVersionUID = 1L;
@@ -51,12 +52,30 @@ public class BarbecueRendererImpl extends AbstractRenderer implements Graphics2D
 	private Barcode barcode;
 	
 	private RotationEnum rotation;
+	
+	private String barcodeKey;
 
 	public BarbecueRendererImpl(Barcode barcode) 
 	{
 		this.barcode = barcode;
 	}
 	
+	/**
+	 * Creates a renderer that can be identified in the rendered image cache by the barcode attributes.
+	 */
+	public BarbecueRendererImpl(Barcode barcode, BarcodeInfo barcodeInfo) 
+	{
+		this(barcode);
+		
+		this.barcodeKey = "barbecue:" + barcodeInfo.getType() 
+				+ '|' + barcodeInfo.getCode() 
+				+ '|' + barcodeInfo.getApplicationIdentifier() 
+				+ '|' + barcodeInfo.isDrawText() 
+				+ '|' + barcodeInfo.getRequiresChecksum() 
+				+ '|' + barcodeInfo.getBarWidth() 
+				+ '|' + barcodeInfo.getBarHeight();
+	}
+	
 	@Override
 	public Dimension2D getDimension(JasperReportsContext jasperReportsContext)
 	{
@@ -156,5 +175,11 @@ public class BarbecueRendererImpl extends AbstractRenderer implements Graphics2D
 	public void setRotation(RotationEnum rotation){
 		this.rotation = rotation;
 	}
+
+	@Override
+	public String getContentKey()
+	{
+		return barcodeKey == null ? null : barcodeKey + '|' + rotation;
+	}
 	
 }
@@ -261,7 +261,9 @@ public final class JasperCompileManager
 	 * Compiles the report design object received as the first parameter, placing the result 
 	 * in the file specified by the second parameter.
 	 * The resulting file will contain a serialized instance of a 
-	 * {@link net.sf.jasperreports.engine.JasperReport} object representing the compiled report design.
+	 * {@link net.sf.jasperreports.engine.JasperReport} object representing the compiled report design,
+	 * or the report in the {@link net.sf.jasperreports.engine.util.JasperReportBinaryFormat binary format} if
+	 * {@link net.sf.jasperreports.engine.util.JasperReportBinaryFormat#PROPERTY_BINARY_FORMAT} is set.
 	 * 
 	 * @param jasperDesign source report design object
 	 * @param destFileName file name to place the compiled report design into
@@ -273,7 +275,7 @@ public final class JasperCompileManager
 	{
 		JasperReport jasperReport = compile(jasperDesign);
 
-		JRSaver.saveObject(jasperReport, destFileName);
+		JRSaver.saveJasperReport(jasperReportsContext, jasperReport, destFileName);
 	}
 
 
@@ -326,7 +328,7 @@ public final class JasperCompileManager
 	{
 		JasperReport jasperReport = compile(jasperDesign);
 
-		JRSaver.saveObject(jasperReport, outputStream);
+		JRSaver.saveJasperReport(jasperReportsContext, jasperReport, outputStream);
 	}
 
 
@@ -39,6 +39,7 @@ import net.sf.jasperreports.engine.fill.JRFiller;
 import net.sf.jasperreports.engine.fill.JasperReportSource;
 import net.sf.jasperreports.engine.fill.SimpleJasperReportSource;
 import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JasperReportCache;
 import net.sf.jasperreports.engine.util.JRSaver;
 import net.sf.jasperreports.properties.PropertyConstants;
 import net.sf.jasperreports.repo.RepositoryResourceContext;
@@ -157,7 +158,7 @@ public final class JasperFillManager
 	{
 		File sourceFile = new File(sourceFileName);
 
-		JasperReport jasperReport = (JasperReport)JRLoader.loadObject(sourceFile);
+		JasperReport jasperReport = loadReport(sourceFile);
 
 		File destFile = new File(sourceFile.getParent(), jasperReport.getName() + ".jrprint");
 		String destFileName = destFile.toString();
@@ -166,7 +167,7 @@ public final class JasperFillManager
 				getReportSource(sourceFile, jasperReport), 
 				params, connection);
 		
-		JRSaver.saveObject(jasperPrint, destFileName);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, destFileName);
 		
 		return destFileName;
 	}
@@ -190,7 +191,7 @@ public final class JasperFillManager
 	{
 		File sourceFile = new File(sourceFileName);
 
-		JasperReport jasperReport = (JasperReport)JRLoader.loadObject(sourceFile);
+		JasperReport jasperReport = loadReport(sourceFile);
 
 		File destFile = new File(sourceFile.getParent(), jasperReport.getName() + ".jrprint");
 		String destFileName = destFile.toString();
@@ -199,7 +200,7 @@ public final class JasperFillManager
 				getReportSource(sourceFile, jasperReport), 
 				params);
 
-		JRSaver.saveObject(jasperPrint, destFileName);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, destFileName);
 
 		return destFileName;
 	}
@@ -227,7 +228,7 @@ public final class JasperFillManager
 				getReportSource(sourceFile), 
 				params, connection);
 		
-		JRSaver.saveObject(jasperPrint, destFileName);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, destFileName);
 	}
 
 	
@@ -252,7 +253,7 @@ public final class JasperFillManager
 				getReportSource(sourceFile), 
 				params);
 
-		JRSaver.saveObject(jasperPrint, destFileName);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, destFileName);
 	}
 
 	
@@ -274,7 +275,7 @@ public final class JasperFillManager
 	{
 		JasperPrint jasperPrint = fill(jasperReport, parameters, connection);
 
-		JRSaver.saveObject(jasperPrint, destFileName);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, destFileName);
 	}
 
 	
@@ -295,7 +296,7 @@ public final class JasperFillManager
 	{
 		JasperPrint jasperPrint = fill(jasperReport, parameters);
 
-		JRSaver.saveObject(jasperPrint, destFileName);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, destFileName);
 	}
 
 	
@@ -446,7 +447,7 @@ public final class JasperFillManager
 	{
 		JasperPrint jasperPrint = fill(jasperReport, parameters, connection);
 
-		JRSaver.saveObject(jasperPrint, outputStream);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, outputStream);
 	}
 
 	
@@ -467,7 +468,7 @@ public final class JasperFillManager
 	{
 		JasperPrint jasperPrint = fill(jasperReport, parameters);
 
-		JRSaver.saveObject(jasperPrint, outputStream);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, outputStream);
 	}
 
 	
@@ -568,7 +569,7 @@ public final class JasperFillManager
 	{
 		File sourceFile = new File(sourceFileName);
 
-		JasperReport jasperReport = (JasperReport)JRLoader.loadObject(sourceFile);
+		JasperReport jasperReport = loadReport(sourceFile);
 
 		File destFile = new File(sourceFile.getParent(), jasperReport.getName() + ".jrprint");
 		String destFileName = destFile.toString();
@@ -577,7 +578,7 @@ public final class JasperFillManager
 				getReportSource(sourceFile, jasperReport), 
 				params, dataSource);
 
-		JRSaver.saveObject(jasperPrint, destFileName);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, destFileName);
 		
 		return destFileName;
 	}
@@ -605,7 +606,7 @@ public final class JasperFillManager
 				getReportSource(sourceFile), 
 				params, dataSource);
 
-		JRSaver.saveObject(jasperPrint, destFileName);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, destFileName);
 	}
 
 	
@@ -627,7 +628,7 @@ public final class JasperFillManager
 	{
 		JasperPrint jasperPrint = fill(jasperReport, parameters, dataSource);
 
-		JRSaver.saveObject(jasperPrint, destFileName);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, destFileName);
 	}
 
 	
@@ -715,7 +716,7 @@ public final class JasperFillManager
 	{
 		JasperPrint jasperPrint = fill(jasperReport, parameters, dataSource);
 
-		JRSaver.saveObject(jasperPrint, outputStream);
+		JRSaver.saveJasperPrint(jasperReportsContext, jasperPrint, outputStream);
 	}
 
 	
@@ -1102,10 +1103,19 @@ public final class JasperFillManager
 	
 	protected JasperReportSource getReportSource(File reportFile) throws JRException
 	{
-		JasperReport jasperReport = (JasperReport) JRLoader.loadObject(reportFile);
+		JasperReport jasperReport = loadReport(reportFile);
 		return getReportSource(reportFile, jasperReport);
 	}
 
+	/**
+	 * Loads the compiled report from the specified file through the {@link JasperReportCache} of the context,
+	 * so that unchanged files are not deserialized again.
+	 */
+	protected JasperReport loadReport(File reportFile) throws JRException
+	{
+		return JasperReportCache.getInstance(jasperReportsContext).getReport(jasperReportsContext, reportFile);
+	}
+
 	protected JasperReportSource getReportSource(File reportFile, JasperReport jasperReport)
 	{
 		//attempting resolve absolute paths as relative, that's what SimpleFileResolver(".") did
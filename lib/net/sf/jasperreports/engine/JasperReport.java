@@ -113,6 +113,26 @@ public class JasperReport extends JRBaseReport
 		this.compileNameSuffix = compileNameSuffix;
 	}
 	
+	/**
+	 * Creates an empty report having the compile information, used when reading reports written by
+	 * {@link net.sf.jasperreports.engine.base.ReportObjectSerializer}.
+	 *
+	 * @param compilerClass the name of the class used to compile the report
+	 * @param compileData the report/main dataset compile data
+	 * @param compileNameSuffix unique string used to distinguish between distinct compilations of reports having the same name
+	 */
+	@SuppressWarnings("deprecation")
+	public JasperReport(
+			String compilerClass,
+			Serializable compileData,
+			String compileNameSuffix
+			)
+	{
+		this.compilerClass = compilerClass;
+		this.compileData = compileData;
+		this.compileNameSuffix = compileNameSuffix;
+	}
+	
 	/**
 	 * Returns the name of the compiler class used to compile this report.
 	 * <p>
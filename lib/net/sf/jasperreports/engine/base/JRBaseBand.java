@@ -72,10 +72,18 @@ public class JRBaseBand extends JRBaseElementGroup implements JRBand, JRChangeEv
 	 */
 	protected JRExpression printWhenExpression;
 	
-	private JRPropertiesMap propertiesMap;
+	JRPropertiesMap propertiesMap;
 	protected List<ExpressionReturnValue> returnValues;
 	
 
+	/**
+	 * Creates an empty band, used when reading reports written by {@link ReportObjectSerializer}.
+	 */
+	JRBaseBand()
+	{
+	}
+
+
 	/**
 	 *
 	 */
@@ -74,7 +74,7 @@ public class JRBaseDataset implements JRDataset, Serializable, JRChangeEventsSup
 	protected JRPropertiesMap propertiesMap;
 	protected JRExpression filterExpression;
 
-	private DatasetPropertyExpression[] propertyExpressions;
+	DatasetPropertyExpression[] propertyExpressions;
 	
 	protected JRBaseDataset(boolean isMain)
 	{
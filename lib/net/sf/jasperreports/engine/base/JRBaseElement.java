@@ -111,9 +111,9 @@ public abstract class JRBaseElement implements JRElement, Serializable, JRChange
 	protected String parentStyleNameReference;
 	protected JRExpression styleExpression;
 
-	private JRPropertiesMap propertiesMap;
+	JRPropertiesMap propertiesMap;
 
-	private JRPropertyExpression[] propertyExpressions;
+	JRPropertyExpression[] propertyExpressions;
 	
 	/**
 	 *
@@ -24,6 +24,7 @@
 package net.sf.jasperreports.engine.base;
 
 import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
 import net.sf.jasperreports.engine.JREllipse;
 import net.sf.jasperreports.engine.JRExpressionCollector;
 import net.sf.jasperreports.engine.JRVisitor;
@@ -44,6 +45,15 @@ public class JRBaseEllipse extends JRBaseGraphicElement implements JREllipse
 	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
 
 
+	/**
+	 * Creates an empty ellipse, used when reading reports written by {@link ReportObjectSerializer}.
+	 */
+	JRBaseEllipse(JRDefaultStyleProvider defaultStyleProvider)
+	{
+		super(defaultStyleProvider);
+	}
+
+
 	/**
 	 * Initializes properties that are specific to ellipses. Common properties are initialized by its
 	 * parent constructors.
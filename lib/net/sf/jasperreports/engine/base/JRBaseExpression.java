@@ -65,7 +65,7 @@ public class JRBaseExpression implements JRExpression, Serializable
 	/**
 	 *
 	 */
-	private JRExpressionChunk[] chunks;
+	JRExpressionChunk[] chunks;
 
 	/**
 	 *
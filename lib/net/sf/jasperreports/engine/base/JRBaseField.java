@@ -63,7 +63,7 @@ public class JRBaseField implements JRField, Serializable, JRChangeEventsSupport
 	
 	protected JRPropertiesMap propertiesMap;
 
-	private JRPropertyExpression[] propertyExpressions;
+	JRPropertyExpression[] propertyExpressions;
 
 
 	/**
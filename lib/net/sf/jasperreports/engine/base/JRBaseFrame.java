@@ -30,6 +30,7 @@ import java.util.List;
 
 import net.sf.jasperreports.engine.JRChild;
 import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
 import net.sf.jasperreports.engine.JRElement;
 import net.sf.jasperreports.engine.JRExpressionCollector;
 import net.sf.jasperreports.engine.JRFrame;
@@ -52,7 +53,16 @@ public class JRBaseFrame extends JRBaseElement implements JRFrame
 
 	protected JRLineBox lineBox;
 	
-	private BorderSplitType borderSplitType;
+	BorderSplitType borderSplitType;
+
+
+	/**
+	 * Creates an empty frame, used when reading reports written by {@link ReportObjectSerializer}.
+	 */
+	JRBaseFrame(JRDefaultStyleProvider defaultStyleProvider)
+	{
+		super(defaultStyleProvider);
+	}
 
 
 	public JRBaseFrame(JRFrame frame, JRBaseObjectFactory factory)
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 
 import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
 import net.sf.jasperreports.engine.JRGraphicElement;
 import net.sf.jasperreports.engine.JRPen;
 import net.sf.jasperreports.engine.type.FillEnum;
@@ -55,6 +56,15 @@ public abstract class JRBaseGraphicElement extends JRBaseElement implements JRGr
 	protected FillEnum fillValue;
 
 
+	/**
+	 * Creates an empty graphic element, used when reading reports written by {@link ReportObjectSerializer}.
+	 */
+	JRBaseGraphicElement(JRDefaultStyleProvider defaultStyleProvider)
+	{
+		super(defaultStyleProvider);
+	}
+
+
 	/**
 	 * Constructs an empty graphic element. By default graphic elements are opaque.
 	 *
@@ -28,6 +28,7 @@ import java.io.ObjectInputStream;
 
 import net.sf.jasperreports.engine.JRAnchor;
 import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
 import net.sf.jasperreports.engine.JRExpression;
 import net.sf.jasperreports.engine.JRExpressionCollector;
 import net.sf.jasperreports.engine.JRGroup;
@@ -86,7 +87,7 @@ public class JRBaseImage extends JRBaseGraphicElement implements JRImage
 	protected EvaluationTimeEnum evaluationTimeValue = EvaluationTimeEnum.NOW;
 	protected String linkType;
 	protected String linkTarget;
-	private JRHyperlinkParameter[] hyperlinkParameters;
+	JRHyperlinkParameter[] hyperlinkParameters;
 
 	/**
 	 *
@@ -104,7 +105,7 @@ public class JRBaseImage extends JRBaseGraphicElement implements JRImage
 	protected JRExpression hyperlinkWhenExpression;
 	protected JRExpression hyperlinkAnchorExpression;
 	protected JRExpression hyperlinkPageExpression;
-	private JRExpression hyperlinkTooltipExpression;
+	JRExpression hyperlinkTooltipExpression;
 
 	/**
 	 * The bookmark level for the anchor associated with this image.
@@ -112,6 +113,15 @@ public class JRBaseImage extends JRBaseGraphicElement implements JRImage
 	 */
 	protected int bookmarkLevel = JRAnchor.NO_BOOKMARK;
 
+	/**
+	 * Creates an empty image, used when reading reports written by {@link ReportObjectSerializer}.
+	 */
+	JRBaseImage(JRDefaultStyleProvider defaultStyleProvider)
+	{
+		super(defaultStyleProvider);
+	}
+
+
 	/**
 	 *
 	 *
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 
 import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
 import net.sf.jasperreports.engine.JRExpressionCollector;
 import net.sf.jasperreports.engine.JRLine;
 import net.sf.jasperreports.engine.JRVisitor;
@@ -53,6 +54,15 @@ public class JRBaseLine extends JRBaseGraphicElement implements JRLine
 	 */
 	protected LineDirectionEnum directionValue = LineDirectionEnum.TOP_DOWN;
 
+	/**
+	 * Creates an empty line, used when reading reports written by {@link ReportObjectSerializer}.
+	 */
+	JRBaseLine(JRDefaultStyleProvider defaultStyleProvider)
+	{
+		super(defaultStyleProvider);
+	}
+
+
 	/**
 	 * Initializes properties that are specific to lines. Common properties are initialized by its
 	 * parent constructors.
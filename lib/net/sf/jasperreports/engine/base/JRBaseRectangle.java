@@ -24,6 +24,7 @@
 package net.sf.jasperreports.engine.base;
 
 import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
 import net.sf.jasperreports.engine.JRExpressionCollector;
 import net.sf.jasperreports.engine.JRRectangle;
 import net.sf.jasperreports.engine.JRVisitor;
@@ -49,6 +50,15 @@ public class JRBaseRectangle extends JRBaseGraphicElement implements JRRectangle
 	protected Integer radius;
 
 
+	/**
+	 * Creates an empty rectangle, used when reading reports written by {@link ReportObjectSerializer}.
+	 */
+	JRBaseRectangle(JRDefaultStyleProvider defaultStyleProvider)
+	{
+		super(defaultStyleProvider);
+	}
+
+
 	/**
 	 * Initializes properties that are specific to rectangles. Common properties are initialized by its
 	 * parent constructors.
@@ -66,7 +66,7 @@ public class JRBaseScriptlet implements JRScriptlet, Serializable, JRChangeEvent
 	 */
 	protected JRPropertiesMap propertiesMap;
 
-	private JRPropertyExpression[] propertyExpressions;
+	JRPropertyExpression[] propertyExpressions;
 
 
 	/**
@@ -24,6 +24,7 @@
 package net.sf.jasperreports.engine.base;
 
 import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
 import net.sf.jasperreports.engine.JRExpressionCollector;
 import net.sf.jasperreports.engine.JRStaticText;
 import net.sf.jasperreports.engine.JRVisitor;
@@ -49,6 +50,15 @@ public class JRBaseStaticText extends JRBaseTextElement implements JRStaticText
 	 */
 	protected String text;
 
+	/**
+	 * Creates an empty static text, used when reading reports written by {@link ReportObjectSerializer}.
+	 */
+	JRBaseStaticText(JRDefaultStyleProvider defaultStyleProvider)
+	{
+		super(defaultStyleProvider);
+	}
+
+
 	/**
 	 * Initializes the element properties. 
 	 */
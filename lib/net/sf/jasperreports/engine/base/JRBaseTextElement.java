@@ -29,6 +29,7 @@ import java.io.ObjectInputStream;
 
 import net.sf.jasperreports.engine.JRCommonText;
 import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
 import net.sf.jasperreports.engine.JRFont;
 import net.sf.jasperreports.engine.JRLineBox;
 import net.sf.jasperreports.engine.JRParagraph;
@@ -81,6 +82,15 @@ public abstract class JRBaseTextElement extends JRBaseElement implements JRTextE
 	protected Boolean isPdfEmbedded;
 
 	
+	/**
+	 * Creates an empty text element, used when reading reports written by {@link ReportObjectSerializer}.
+	 */
+	JRBaseTextElement(JRDefaultStyleProvider defaultStyleProvider)
+	{
+		super(defaultStyleProvider);
+	}
+
+
 	/**
 	 * Initializes properties that are specific to text elements. Common properties are initialized by its
 	 * parent constructor.
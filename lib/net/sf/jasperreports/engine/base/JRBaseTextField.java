@@ -28,6 +28,7 @@ import java.io.ObjectInputStream;
 
 import net.sf.jasperreports.engine.JRAnchor;
 import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
 import net.sf.jasperreports.engine.JRExpression;
 import net.sf.jasperreports.engine.JRExpressionCollector;
 import net.sf.jasperreports.engine.JRGroup;
@@ -68,7 +69,7 @@ public class JRBaseTextField extends JRBaseTextElement implements JRTextField
 	protected Boolean isBlankWhenNull;
 	protected String linkType;
 	protected String linkTarget;
-	private JRHyperlinkParameter[] hyperlinkParameters;
+	JRHyperlinkParameter[] hyperlinkParameters;
 
 	/**
 	 *
@@ -82,7 +83,7 @@ public class JRBaseTextField extends JRBaseTextElement implements JRTextField
 	protected JRExpression hyperlinkWhenExpression;
 	protected JRExpression hyperlinkAnchorExpression;
 	protected JRExpression hyperlinkPageExpression;
-	private JRExpression hyperlinkTooltipExpression;
+	JRExpression hyperlinkTooltipExpression;
 
 	/**
 	 * The bookmark level for the anchor associated with this field.
@@ -90,6 +91,15 @@ public class JRBaseTextField extends JRBaseTextElement implements JRTextField
 	 */
 	protected int bookmarkLevel = JRAnchor.NO_BOOKMARK;
 
+	/**
+	 * Creates an empty text field, used when reading reports written by {@link ReportObjectSerializer}.
+	 */
+	JRBaseTextField(JRDefaultStyleProvider defaultStyleProvider)
+	{
+		super(defaultStyleProvider);
+	}
+
+
 	/**
 	 * Initializes the text field properties.
 	 */
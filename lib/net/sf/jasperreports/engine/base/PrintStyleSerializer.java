@@ -0,0 +1,637 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.base;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jasperreports.engine.JRBoxContainer;
+import net.sf.jasperreports.engine.JRConditionalStyle;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JRLineBox;
+import net.sf.jasperreports.engine.JRParagraph;
+import net.sf.jasperreports.engine.JRParagraphContainer;
+import net.sf.jasperreports.engine.JRPen;
+import net.sf.jasperreports.engine.JRPenContainer;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.TabStop;
+import net.sf.jasperreports.engine.design.JRDesignConditionalStyle;
+import net.sf.jasperreports.engine.design.JRDesignStyle;
+import net.sf.jasperreports.engine.type.FillEnum;
+import net.sf.jasperreports.engine.type.HorizontalImageAlignEnum;
+import net.sf.jasperreports.engine.type.HorizontalTextAlignEnum;
+import net.sf.jasperreports.engine.type.LineSpacingEnum;
+import net.sf.jasperreports.engine.type.LineStyleEnum;
+import net.sf.jasperreports.engine.type.ModeEnum;
+import net.sf.jasperreports.engine.type.RotationEnum;
+import net.sf.jasperreports.engine.type.ScaleImageEnum;
+import net.sf.jasperreports.engine.type.TabStopAlignEnum;
+import net.sf.jasperreports.engine.type.VerticalImageAlignEnum;
+import net.sf.jasperreports.engine.type.VerticalTextAlignEnum;
+import net.sf.jasperreports.engine.virtualization.VirtualizationInput;
+import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
+
+
+/**
+ * Writes the styles of a document, and the pens, boxes and paragraphs of styles and element templates,
+ * field by field for {@link net.sf.jasperreports.engine.util.JasperPrintBinaryFormat}. The styles of compiled reports
+ * are written the same way by {@link ReportObjectSerializer}.
+ * <p>
+ * Styles and default style providers are written in full where they are first referenced and by id
+ * afterwards, so that parent styles, conditional styles and the styles of element templates keep their identity.
+ * Styles of classes other than {@link JRBaseStyle}, {@link JRBaseConditionalStyle} and their design
+ * counterparts are written with Java serialization.
+ * <p>
+ * The default style providers of the document and of its subreports are created empty when read and
+ * get their default style from {@link #readStyleProviders(VirtualizationInput)}, as default styles
+ * usually refer to their own provider.
+ * <p>
+ * An instance keeps the ids of one document and is used either for writing or for reading.
+ */
+public class PrintStyleSerializer
+{
+	private static final int REFERENCE_NULL = 0;
+	private static final int REFERENCE_NEW = 1;
+	private static final int REFERENCE_OFFSET = 2;
+	
+	private static final int STYLE_SERIALIZED = 0;
+	private static final int STYLE_BASE = 1;
+	private static final int STYLE_BASE_CONDITIONAL = 2;
+	private static final int STYLE_DESIGN = 3;
+	private static final int STYLE_DESIGN_CONDITIONAL = 4;
+	
+	private static final int PROVIDER_SERIALIZED = 0;
+	private static final int PROVIDER_DOCUMENT = 1;
+	
+	private final Map<JRStyle, Integer> styleIds = new IdentityHashMap<>();
+	private final List<JRStyle> styles = new ArrayList<>();
+	
+	private final Map<JRDefaultStyleProvider, Integer> styleProviderIds = new IdentityHashMap<>();
+	private final List<JRDefaultStyleProvider> styleProviders = new ArrayList<>();
+	// the documents that own the providers created when reading
+	private final List<JasperPrint> styleProviderDocuments = new ArrayList<>();
+	
+	/**
+	 * @param jasperPrint the document being written, or the document without pages being read
+	 */
+	public PrintStyleSerializer(JasperPrint jasperPrint)
+	{
+		JRDefaultStyleProvider styleProvider = jasperPrint.getDefaultStyleProvider();
+		styleProviderIds.put(styleProvider, 0);
+		styleProviders.add(styleProvider);
+		styleProviderDocuments.add(jasperPrint);
+	}
+	
+	/**
+	 * @param report the report being written, or the empty report being read, which is the default style provider
+	 * of the report styles
+	 */
+	public PrintStyleSerializer(JRBaseReport report)
+	{
+		styleProviderIds.put(report, 0);
+		styleProviders.add(report);
+		styleProviderDocuments.add(null);
+	}
+	
+	/**
+	 * Returns the id of a style written so far, or <code>null</code> if the style has not been written.
+	 */
+	public Integer getStyleId(JRStyle style)
+	{
+		return styleIds.get(style);
+	}
+	
+	/**
+	 * Returns a style read so far by id.
+	 */
+	public JRStyle getStyle(int id)
+	{
+		return styles.get(id);
+	}
+	
+	public void writeStyle(JRStyle style, VirtualizationOutput out) throws IOException
+	{
+		if (style == null)
+		{
+			out.writeIntCompressed(REFERENCE_NULL);
+			return;
+		}
+		
+		Integer id = styleIds.get(style);
+		if (id != null)
+		{
+			out.writeIntCompressed(REFERENCE_OFFSET + id);
+			return;
+		}
+		
+		// registering the style first as its conditional styles refer to it
+		styleIds.put(style, styleIds.size());
+		out.writeIntCompressed(REFERENCE_NEW);
+		
+		int kind = getStyleKind(style);
+		out.writeByte(kind);
+		if (kind == STYLE_SERIALIZED)
+		{
+			writeSerialized(style, out);
+			return;
+		}
+		
+		JRBaseStyle baseStyle = (JRBaseStyle) style;
+		if (kind == STYLE_BASE || kind == STYLE_DESIGN)
+		{
+			writeStyleProvider(baseStyle.defaultStyleProvider, out);
+		}
+		out.writeJRObject(baseStyle.name);
+		writeStyle(baseStyle.parentStyle, out);
+		out.writeJRObject(baseStyle.parentStyleNameReference);
+		out.writeBoolean(baseStyle.isDefault);
+		out.writeJRObject(baseStyle.positionType);
+		out.writeJRObject(baseStyle.stretchType);
+		
+		writeEnum(baseStyle.modeValue, out);
+		writeColor(baseStyle.forecolor, out);
+		writeColor(baseStyle.backcolor, out);
+		writePenContents(baseStyle.linePen, out);
+		writeEnum(baseStyle.fillValue, out);
+		out.writeJRObject(baseStyle.radius);
+		writeEnum(baseStyle.scaleImageValue, out);
+		writeEnum(baseStyle.horizontalTextAlign, out);
+		writeEnum(baseStyle.verticalTextAlign, out);
+		writeEnum(baseStyle.horizontalImageAlign, out);
+		writeEnum(baseStyle.verticalImageAlign, out);
+		writeLineBoxContents(baseStyle.lineBox, out);
+		writeParagraphContents((JRBaseParagraph) baseStyle.paragraph, out);
+		
+		out.writeJRObject(baseStyle.fontName);
+		out.writeJRObject(baseStyle.isBold);
+		out.writeJRObject(baseStyle.isItalic);
+		out.writeJRObject(baseStyle.isUnderline);
+		out.writeJRObject(baseStyle.isStrikeThrough);
+		out.writeJRObject(baseStyle.fontsize);
+		out.writeJRObject(baseStyle.pdfFontName);
+		out.writeJRObject(baseStyle.pdfEncoding);
+		out.writeJRObject(baseStyle.isPdfEmbedded);
+		writeEnum(baseStyle.rotationValue, out);
+		out.writeJRObject(baseStyle.markup);
+		out.writeJRObject(baseStyle.pattern);
+		out.writeJRObject(baseStyle.isBlankWhenNull);
+		
+		JRConditionalStyle[] conditionalStyles = baseStyle.conditionalStyles;
+		out.writeIntCompressed(conditionalStyles == null ? 0 : conditionalStyles.length + 1);
+		if (conditionalStyles != null)
+		{
+			for (JRConditionalStyle conditionalStyle : conditionalStyles)
+			{
+				writeStyle(conditionalStyle, out);
+			}
+		}
+		
+		if (kind == STYLE_BASE_CONDITIONAL || kind == STYLE_DESIGN_CONDITIONAL)
+		{
+			// expressions are not used by the exporters, they are kept as they are
+			writeSerialized(((JRBaseConditionalStyle) style).conditionExpression, out);
+		}
+	}
+	
+	protected int getStyleKind(JRStyle style)
+	{
+		int kind;
+		Class<?> styleClass = style.getClass();
+		if (styleClass == JRBaseStyle.class)
+		{
+			kind = STYLE_BASE;
+		}
+		else if (styleClass == JRBaseConditionalStyle.class)
+		{
+			kind = STYLE_BASE_CONDITIONAL;
+		}
+		else if (styleClass == JRDesignStyle.class)
+		{
+			kind = STYLE_DESIGN;
+		}
+		else if (styleClass == JRDesignConditionalStyle.class)
+		{
+			kind = STYLE_DESIGN_CONDITIONAL;
+		}
+		else
+		{
+			return STYLE_SERIALIZED;
+		}
+		
+		JRBaseStyle baseStyle = (JRBaseStyle) style;
+		boolean supported = isBasePen(baseStyle.linePen) && isBaseLineBox(baseStyle.lineBox) 
+				&& isBaseParagraph(baseStyle.paragraph);
+		return supported ? kind : STYLE_SERIALIZED;
+	}
+	
+	public JRStyle readStyle(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		int reference = in.readIntCompressed();
+		if (reference == REFERENCE_NULL)
+		{
+			return null;
+		}
+		if (reference != REFERENCE_NEW)
+		{
+			return styles.get(reference - REFERENCE_OFFSET);
+		}
+		
+		int kind = in.readUnsignedByte();
+		if (kind == STYLE_SERIALIZED)
+		{
+			JRStyle style = (JRStyle) in.readObject();
+			styles.add(style);
+			return style;
+		}
+		
+		JRBaseStyle style;
+		switch (kind)
+		{
+		case STYLE_BASE:
+			style = new JRBaseStyle(readStyleProvider(in));
+			break;
+		case STYLE_DESIGN:
+			style = new JRDesignStyle(readStyleProvider(in));
+			break;
+		case STYLE_BASE_CONDITIONAL:
+			style = new JRBaseConditionalStyle();
+			break;
+		case STYLE_DESIGN_CONDITIONAL:
+			style = new JRDesignConditionalStyle();
+			break;
+		default:
+			throw new IOException("Unknown style kind " + kind);
+		}
+		styles.add(style);
+		
+		style.name = (String) in.readJRObject();
+		style.parentStyle = readStyle(in);
+		style.parentStyleNameReference = (String) in.readJRObject();
+		style.isDefault = in.readBoolean();
+		style.positionType = (Byte) in.readJRObject();
+		style.stretchType = (Byte) in.readJRObject();
+		
+		style.modeValue = readEnum(ModeEnum.class, in);
+		style.forecolor = readColor(in);
+		style.backcolor = readColor(in);
+		readPenContents((JRBasePen) style.linePen, in);
+		style.fillValue = readEnum(FillEnum.class, in);
+		style.radius = (Integer) in.readJRObject();
+		style.scaleImageValue = readEnum(ScaleImageEnum.class, in);
+		style.horizontalTextAlign = readEnum(HorizontalTextAlignEnum.class, in);
+		style.verticalTextAlign = readEnum(VerticalTextAlignEnum.class, in);
+		style.horizontalImageAlign = readEnum(HorizontalImageAlignEnum.class, in);
+		style.verticalImageAlign = readEnum(VerticalImageAlignEnum.class, in);
+		readLineBoxContents((JRBaseLineBox) style.lineBox, in);
+		readParagraphContents((JRBaseParagraph) style.paragraph, in);
+		
+		style.fontName = (String) in.readJRObject();
+		style.isBold = (Boolean) in.readJRObject();
+		style.isItalic = (Boolean) in.readJRObject();
+		style.isUnderline = (Boolean) in.readJRObject();
+		style.isStrikeThrough = (Boolean) in.readJRObject();
+		style.fontsize = (Float) in.readJRObject();
+		style.pdfFontName = (String) in.readJRObject();
+		style.pdfEncoding = (String) in.readJRObject();
+		style.isPdfEmbedded = (Boolean) in.readJRObject();
+		style.rotationValue = readEnum(RotationEnum.class, in);
+		style.markup = (String) in.readJRObject();
+		style.pattern = (String) in.readJRObject();
+		style.isBlankWhenNull = (Boolean) in.readJRObject();
+		
+		int conditionalStyleCount = in.readIntCompressed();
+		if (conditionalStyleCount > 0)
+		{
+			style.conditionalStyles = new JRConditionalStyle[conditionalStyleCount - 1];
+			for (int i = 0; i < style.conditionalStyles.length; i++)
+			{
+				style.conditionalStyles[i] = (JRConditionalStyle) readStyle(in);
+			}
+		}
+		
+		if (kind == STYLE_BASE_CONDITIONAL || kind == STYLE_DESIGN_CONDITIONAL)
+		{
+			((JRBaseConditionalStyle) style).conditionExpression = (JRExpression) in.readObject();
+		}
+		
+		return style;
+	}
+	
+	public void writeStyleProvider(JRDefaultStyleProvider styleProvider, VirtualizationOutput out) throws IOException
+	{
+		if (styleProvider == null)
+		{
+			out.writeIntCompressed(REFERENCE_NULL);
+			return;
+		}
+		
+		Integer id = styleProviderIds.get(styleProvider);
+		if (id != null)
+		{
+			out.writeIntCompressed(REFERENCE_OFFSET + id);
+			return;
+		}
+		
+		styleProviderIds.put(styleProvider, styleProviders.size());
+		styleProviders.add(styleProvider);
+		out.writeIntCompressed(REFERENCE_NEW);
+		
+		if (isDocumentStyleProvider(styleProvider))
+		{
+			// the default style is written by writeStyleProviders
+			out.writeByte(PROVIDER_DOCUMENT);
+		}
+		else
+		{
+			out.writeByte(PROVIDER_SERIALIZED);
+			writeSerialized(styleProvider, out);
+		}
+	}
+	
+	protected boolean isDocumentStyleProvider(JRDefaultStyleProvider styleProvider)
+	{
+		// reports have no nested providers
+		return styleProviderDocuments.get(0) != null 
+				&& styleProvider.getClass() == styleProviders.get(0).getClass();
+	}
+	
+	/**
+	 * Writes a value with Java serialization.
+	 */
+	protected void writeSerialized(Object value, VirtualizationOutput out) throws IOException
+	{
+		out.writeObject(value);
+	}
+	
+	public JRDefaultStyleProvider readStyleProvider(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		int reference = in.readIntCompressed();
+		if (reference == REFERENCE_NULL)
+		{
+			return null;
+		}
+		if (reference != REFERENCE_NEW)
+		{
+			return styleProviders.get(reference - REFERENCE_OFFSET);
+		}
+		
+		JRDefaultStyleProvider styleProvider;
+		JasperPrint document;
+		if (in.readUnsignedByte() == PROVIDER_DOCUMENT)
+		{
+			// providers are owned by the documents of the subreports, which are not kept
+			document = new JasperPrint();
+			styleProvider = document.getDefaultStyleProvider();
+		}
+		else
+		{
+			document = null;
+			styleProvider = (JRDefaultStyleProvider) in.readObject();
+		}
+		
+		styleProviders.add(styleProvider);
+		styleProviderDocuments.add(document);
+		return styleProvider;
+	}
+	
+	/**
+	 * Writes the default styles of the providers written so far, including the provider of the document. 
+	 */
+	public void writeStyleProviders(VirtualizationOutput out) throws IOException
+	{
+		// the list grows if the default styles refer to new providers
+		for (int i = 0; i < styleProviders.size(); i++)
+		{
+			JRDefaultStyleProvider styleProvider = styleProviders.get(i);
+			if (isDocumentStyleProvider(styleProvider))
+			{
+				writeStyle(styleProvider.getDefaultStyle(), out);
+			}
+		}
+	}
+	
+	public void readStyleProviders(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		for (int i = 0; i < styleProviderDocuments.size(); i++)
+		{
+			JasperPrint document = styleProviderDocuments.get(i);
+			if (document != null)
+			{
+				document.setDefaultStyle(readStyle(in));
+			}
+		}
+	}
+	
+	public static boolean isBasePen(JRPen pen)
+	{
+		return pen == null || pen.getClass() == JRBasePen.class;
+	}
+	
+	public static boolean isBaseLineBox(JRLineBox lineBox)
+	{
+		return lineBox == null || lineBox.getClass() == JRBaseLineBox.class;
+	}
+	
+	public static boolean isBaseParagraph(JRParagraph paragraph)
+	{
+		return paragraph == null || paragraph.getClass() == JRBaseParagraph.class;
+	}
+	
+	public void writePen(JRPen pen, VirtualizationOutput out) throws IOException
+	{
+		out.writeBoolean(pen != null);
+		if (pen != null)
+		{
+			writePenContents(pen, out);
+		}
+	}
+	
+	public JRBasePen readPen(JRPenContainer penContainer, VirtualizationInput in) throws IOException
+	{
+		JRBasePen pen = null;
+		if (in.readBoolean())
+		{
+			pen = new JRBasePen(penContainer);
+			readPenContents(pen, in);
+		}
+		return pen;
+	}
+	
+	protected void writePenContents(JRPen pen, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(pen.getOwnLineWidth());
+		writeEnum(pen.getOwnLineStyleValue(), out);
+		writeColor(pen.getOwnLineColor(), out);
+	}
+	
+	protected void readPenContents(JRBasePen pen, VirtualizationInput in) throws IOException
+	{
+		pen.lineWidth = (Float) in.readJRObject();
+		pen.lineStyleValue = readEnum(LineStyleEnum.class, in);
+		pen.lineColor = readColor(in);
+	}
+	
+	public void writeLineBox(JRLineBox lineBox, VirtualizationOutput out) throws IOException
+	{
+		out.writeBoolean(lineBox != null);
+		if (lineBox != null)
+		{
+			writeLineBoxContents(lineBox, out);
+		}
+	}
+	
+	public JRBaseLineBox readLineBox(JRBoxContainer boxContainer, VirtualizationInput in) throws IOException
+	{
+		JRBaseLineBox lineBox = null;
+		if (in.readBoolean())
+		{
+			lineBox = new JRBaseLineBox(boxContainer);
+			readLineBoxContents(lineBox, in);
+		}
+		return lineBox;
+	}
+	
+	protected void writeLineBoxContents(JRLineBox lineBox, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(lineBox.getOwnPadding());
+		out.writeJRObject(lineBox.getOwnTopPadding());
+		out.writeJRObject(lineBox.getOwnLeftPadding());
+		out.writeJRObject(lineBox.getOwnBottomPadding());
+		out.writeJRObject(lineBox.getOwnRightPadding());
+		writePenContents(lineBox.getPen(), out);
+		writePenContents(lineBox.getTopPen(), out);
+		writePenContents(lineBox.getLeftPen(), out);
+		writePenContents(lineBox.getBottomPen(), out);
+		writePenContents(lineBox.getRightPen(), out);
+	}
+	
+	protected void readLineBoxContents(JRBaseLineBox lineBox, VirtualizationInput in) throws IOException
+	{
+		lineBox.padding = (Integer) in.readJRObject();
+		lineBox.topPadding = (Integer) in.readJRObject();
+		lineBox.leftPadding = (Integer) in.readJRObject();
+		lineBox.bottomPadding = (Integer) in.readJRObject();
+		lineBox.rightPadding = (Integer) in.readJRObject();
+		readPenContents((JRBasePen) lineBox.pen, in);
+		readPenContents((JRBasePen) lineBox.topPen, in);
+		readPenContents((JRBasePen) lineBox.leftPen, in);
+		readPenContents((JRBasePen) lineBox.bottomPen, in);
+		readPenContents((JRBasePen) lineBox.rightPen, in);
+	}
+	
+	public void writeParagraph(JRParagraph paragraph, VirtualizationOutput out) throws IOException
+	{
+		out.writeBoolean(paragraph != null);
+		if (paragraph != null)
+		{
+			writeParagraphContents((JRBaseParagraph) paragraph, out);
+		}
+	}
+	
+	public JRBaseParagraph readParagraph(JRParagraphContainer paragraphContainer, VirtualizationInput in) throws IOException
+	{
+		JRBaseParagraph paragraph = null;
+		if (in.readBoolean())
+		{
+			paragraph = new JRBaseParagraph(paragraphContainer);
+			readParagraphContents(paragraph, in);
+		}
+		return paragraph;
+	}
+	
+	protected void writeParagraphContents(JRBaseParagraph paragraph, VirtualizationOutput out) throws IOException
+	{
+		writeEnum(paragraph.lineSpacing, out);
+		out.writeJRObject(paragraph.lineSpacingSize);
+		out.writeJRObject(paragraph.firstLineIndent);
+		out.writeJRObject(paragraph.leftIndent);
+		out.writeJRObject(paragraph.rightIndent);
+		out.writeJRObject(paragraph.spacingBefore);
+		out.writeJRObject(paragraph.spacingAfter);
+		out.writeJRObject(paragraph.tabStopWidth);
+		
+		List<TabStop> tabStops = paragraph.tabStops;
+		out.writeIntCompressed(tabStops == null ? 0 : tabStops.size() + 1);
+		if (tabStops != null)
+		{
+			for (TabStop tabStop : tabStops)
+			{
+				out.writeInt(tabStop.getPosition());
+				writeEnum(tabStop.getAlignment(), out);
+			}
+		}
+	}
+	
+	protected void readParagraphContents(JRBaseParagraph paragraph, VirtualizationInput in) throws IOException
+	{
+		paragraph.lineSpacing = readEnum(LineSpacingEnum.class, in);
+		paragraph.lineSpacingSize = (Float) in.readJRObject();
+		paragraph.firstLineIndent = (Integer) in.readJRObject();
+		paragraph.leftIndent = (Integer) in.readJRObject();
+		paragraph.rightIndent = (Integer) in.readJRObject();
+		paragraph.spacingBefore = (Integer) in.readJRObject();
+		paragraph.spacingAfter = (Integer) in.readJRObject();
+		paragraph.tabStopWidth = (Integer) in.readJRObject();
+		
+		int tabStopCount = in.readIntCompressed();
+		if (tabStopCount > 0)
+		{
+			paragraph.tabStops = new ArrayList<>(tabStopCount - 1);
+			for (int i = 1; i < tabStopCount; i++)
+			{
+				int position = in.readInt();
+				paragraph.tabStops.add(new TabStop(position, readEnum(TabStopAlignEnum.class, in)));
+			}
+		}
+	}
+	
+	public void writeEnum(Enum<?> value, VirtualizationOutput out) throws IOException
+	{
+		// the format version changes when the constants of the enums change
+		out.writeIntCompressed(value == null ? 0 : value.ordinal() + 1);
+	}
+	
+	public <T extends Enum<T>> T readEnum(Class<T> type, VirtualizationInput in) throws IOException
+	{
+		int value = in.readIntCompressed();
+		return value == 0 ? null : type.getEnumConstants()[value - 1];
+	}
+	
+	public void writeColor(Color color, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(color == null ? null : color.getRGB());
+	}
+	
+	public Color readColor(VirtualizationInput in) throws IOException
+	{
+		Integer rgb = (Integer) in.readJRObject();
+		return rgb == null ? null : new Color(rgb, true);
+	}
+}
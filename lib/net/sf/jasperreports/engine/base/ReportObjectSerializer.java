@@ -0,0 +1,1451 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.base;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+import net.sf.jasperreports.engine.DatasetPropertyExpression;
+import net.sf.jasperreports.engine.ExpressionReturnValue;
+import net.sf.jasperreports.engine.JRBand;
+import net.sf.jasperreports.engine.JRChild;
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDataset;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
+import net.sf.jasperreports.engine.JRElementGroup;
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JRExpressionChunk;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRGroup;
+import net.sf.jasperreports.engine.JRHyperlinkParameter;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPart;
+import net.sf.jasperreports.engine.JRPropertiesMap;
+import net.sf.jasperreports.engine.JRPropertyExpression;
+import net.sf.jasperreports.engine.JRQuery;
+import net.sf.jasperreports.engine.JRQueryChunk;
+import net.sf.jasperreports.engine.JRReportTemplate;
+import net.sf.jasperreports.engine.JRScriptlet;
+import net.sf.jasperreports.engine.JRSection;
+import net.sf.jasperreports.engine.JRSortField;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JRVariable;
+import net.sf.jasperreports.engine.type.BorderSplitType;
+import net.sf.jasperreports.engine.type.CalculationEnum;
+import net.sf.jasperreports.engine.type.EvaluationTimeEnum;
+import net.sf.jasperreports.engine.type.ExpressionTypeEnum;
+import net.sf.jasperreports.engine.type.FillEnum;
+import net.sf.jasperreports.engine.type.FooterPositionEnum;
+import net.sf.jasperreports.engine.type.HorizontalImageAlignEnum;
+import net.sf.jasperreports.engine.type.HorizontalTextAlignEnum;
+import net.sf.jasperreports.engine.type.IncrementTypeEnum;
+import net.sf.jasperreports.engine.type.LineDirectionEnum;
+import net.sf.jasperreports.engine.type.ModeEnum;
+import net.sf.jasperreports.engine.type.OnErrorTypeEnum;
+import net.sf.jasperreports.engine.type.OrientationEnum;
+import net.sf.jasperreports.engine.type.ParameterEvaluationTimeEnum;
+import net.sf.jasperreports.engine.type.PositionTypeEnum;
+import net.sf.jasperreports.engine.type.PrintOrderEnum;
+import net.sf.jasperreports.engine.type.ResetTypeEnum;
+import net.sf.jasperreports.engine.type.RotationEnum;
+import net.sf.jasperreports.engine.type.RunDirectionEnum;
+import net.sf.jasperreports.engine.type.ScaleImageEnum;
+import net.sf.jasperreports.engine.type.SectionTypeEnum;
+import net.sf.jasperreports.engine.type.SortFieldTypeEnum;
+import net.sf.jasperreports.engine.type.SortOrderEnum;
+import net.sf.jasperreports.engine.type.SplitTypeEnum;
+import net.sf.jasperreports.engine.type.StretchTypeEnum;
+import net.sf.jasperreports.engine.type.TextAdjustEnum;
+import net.sf.jasperreports.engine.type.VerticalImageAlignEnum;
+import net.sf.jasperreports.engine.type.VerticalTextAlignEnum;
+import net.sf.jasperreports.engine.type.WhenNoDataTypeEnum;
+import net.sf.jasperreports.engine.type.WhenResourceMissingTypeEnum;
+import net.sf.jasperreports.engine.virtualization.VirtualizationInput;
+import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
+
+
+/**
+ * Writes compiled reports field by field for {@link net.sf.jasperreports.engine.util.JasperReportBinaryFormat}.
+ * <p>
+ * The datasets, parameters, fields, variables, groups, queries, sections, bands, expressions and the
+ * static texts, text fields, images, lines, rectangles, ellipses and frames created by {@link JRBaseObjectFactory}
+ * are written where they are first referenced and by id afterwards, so that the objects shared by the report
+ * keep their identity. The styles are written by {@link PrintStyleSerializer}.
+ * <p>
+ * Other objects, such as charts, crosstabs, subreports and component elements, and objects of subclasses
+ * are written with Java serialization. The report, the styles and the objects written field by field that
+ * they refer to are replaced in the serialized data by references, see {@link #replaceObject(Object)} and
+ * {@link #resolveObject(Object)}, so that they are not written twice.
+ * <p>
+ * An instance keeps the ids of one report and is used either for writing or for reading.
+ */
+public class ReportObjectSerializer
+{
+	private static final int REFERENCE_NULL = 0;
+	private static final int REFERENCE_NEW = 1;
+	private static final int REFERENCE_OFFSET = 2;
+
+	private static final int OBJECT_SERIALIZED = 0;
+	private static final int OBJECT_DATASET = 1;
+	private static final int OBJECT_PARAMETER = 2;
+	private static final int OBJECT_FIELD = 3;
+	private static final int OBJECT_VARIABLE = 4;
+	private static final int OBJECT_GROUP = 5;
+	private static final int OBJECT_SORT_FIELD = 6;
+	private static final int OBJECT_QUERY = 7;
+	private static final int OBJECT_SCRIPTLET = 8;
+	private static final int OBJECT_EXPRESSION = 9;
+	private static final int OBJECT_SECTION = 10;
+	private static final int OBJECT_BAND = 11;
+	private static final int OBJECT_ELEMENT_GROUP = 12;
+	private static final int OBJECT_FRAME = 13;
+	private static final int OBJECT_STATIC_TEXT = 14;
+	private static final int OBJECT_TEXT_FIELD = 15;
+	private static final int OBJECT_IMAGE = 16;
+	private static final int OBJECT_LINE = 17;
+	private static final int OBJECT_RECTANGLE = 18;
+	private static final int OBJECT_ELLIPSE = 19;
+
+	private final PrintStyleSerializer styleSerializer;
+
+	private final Map<Object, Integer> objectIds = new IdentityHashMap<>();
+	private final List<Object> objects = new ArrayList<>();
+
+	// the value being written with Java serialization, which is not replaced by a reference to itself
+	private Object serializedValue;
+
+	/**
+	 * @param report the report being written, or the empty report being read
+	 */
+	public ReportObjectSerializer(JRBaseReport report)
+	{
+		styleSerializer = new PrintStyleSerializer(report)
+		{
+			@Override
+			protected void writeSerialized(Object value, VirtualizationOutput out) throws IOException
+			{
+				ReportObjectSerializer.this.writeSerialized(value, out);
+			}
+		};
+
+		putObject(report);
+	}
+
+	private void putObject(Object object)
+	{
+		objectIds.put(object, objects.size());
+		objects.add(object);
+	}
+
+	/**
+	 * Replaces the report, the styles and the objects written so far by references when they are
+	 * found in the data written with Java serialization.
+	 * <p>
+	 * To be called from {@link java.io.ObjectOutputStream#replaceObject(Object)}.
+	 */
+	public Object replaceObject(Object object)
+	{
+		if (object == serializedValue)
+		{
+			return object;
+		}
+
+		Integer id = objectIds.get(object);
+		if (id != null)
+		{
+			return new ObjectReference(id, false);
+		}
+
+		if (object instanceof JRStyle)
+		{
+			Integer styleId = styleSerializer.getStyleId((JRStyle) object);
+			if (styleId != null)
+			{
+				return new ObjectReference(styleId, true);
+			}
+		}
+
+		return object;
+	}
+
+	/**
+	 * Resolves the references created by {@link #replaceObject(Object)}.
+	 * <p>
+	 * To be called from {@link java.io.ObjectInputStream#resolveObject(Object)}.
+	 */
+	public Object resolveObject(Object object)
+	{
+		if (object instanceof ObjectReference)
+		{
+			ObjectReference reference = (ObjectReference) object;
+			return reference.style ? styleSerializer.getStyle(reference.id) : objects.get(reference.id);
+		}
+
+		return object;
+	}
+
+	protected void writeSerialized(Object value, VirtualizationOutput out) throws IOException
+	{
+		Object parentValue = serializedValue;
+		serializedValue = value;
+		try
+		{
+			out.writeObject(value);
+		}
+		finally
+		{
+			serializedValue = parentValue;
+		}
+	}
+
+	public void writeReport(JRBaseReport report, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(report.name);
+		out.writeJRObject(report.language);
+		out.writeInt(report.columnCount);
+		styleSerializer.writeEnum(report.printOrderValue, out);
+		styleSerializer.writeEnum(report.columnDirection, out);
+		out.writeInt(report.pageWidth);
+		out.writeInt(report.pageHeight);
+		styleSerializer.writeEnum(report.orientationValue, out);
+		styleSerializer.writeEnum(report.whenNoDataTypeValue, out);
+		styleSerializer.writeEnum(report.sectionType, out);
+		out.writeInt(report.columnWidth);
+		out.writeInt(report.columnSpacing);
+		out.writeInt(report.leftMargin);
+		out.writeInt(report.rightMargin);
+		out.writeInt(report.topMargin);
+		out.writeInt(report.bottomMargin);
+		out.writeBoolean(report.isTitleNewPage);
+		out.writeBoolean(report.isSummaryNewPage);
+		out.writeBoolean(report.isSummaryWithPageHeaderAndFooter);
+		out.writeBoolean(report.isFloatColumnFooter);
+		out.writeBoolean(report.ignorePagination);
+		out.writeJRObject(report.formatFactoryClass);
+
+		Set<String> imports = report.importsSet;
+		out.writeIntCompressed(imports == null ? 0 : imports.size() + 1);
+		if (imports != null)
+		{
+			for (String importName : imports)
+			{
+				out.writeJRObject(importName);
+			}
+		}
+
+		writeArray(report.templates, out);
+
+		JRStyle[] styles = report.styles;
+		out.writeIntCompressed(styles == null ? 0 : styles.length + 1);
+		if (styles != null)
+		{
+			for (JRStyle style : styles)
+			{
+				styleSerializer.writeStyle(style, out);
+			}
+		}
+		styleSerializer.writeStyle(report.defaultStyle, out);
+
+		writeValue(report.mainDataset, out);
+		writeArray(report.datasets, out);
+
+		writeValue(report.background, out);
+		writeValue(report.title, out);
+		writeValue(report.pageHeader, out);
+		writeValue(report.columnHeader, out);
+		writeValue(report.detailSection, out);
+		writeValue(report.columnFooter, out);
+		writeValue(report.pageFooter, out);
+		writeValue(report.lastPageFooter, out);
+		writeValue(report.summary, out);
+		writeValue(report.noData, out);
+	}
+
+	public void readReport(JRBaseReport report, VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		report.name = (String) in.readJRObject();
+		report.language = (String) in.readJRObject();
+		report.columnCount = in.readInt();
+		report.printOrderValue = styleSerializer.readEnum(PrintOrderEnum.class, in);
+		report.columnDirection = styleSerializer.readEnum(RunDirectionEnum.class, in);
+		report.pageWidth = in.readInt();
+		report.pageHeight = in.readInt();
+		report.orientationValue = styleSerializer.readEnum(OrientationEnum.class, in);
+		report.whenNoDataTypeValue = styleSerializer.readEnum(WhenNoDataTypeEnum.class, in);
+		report.sectionType = styleSerializer.readEnum(SectionTypeEnum.class, in);
+		report.columnWidth = in.readInt();
+		report.columnSpacing = in.readInt();
+		report.leftMargin = in.readInt();
+		report.rightMargin = in.readInt();
+		report.topMargin = in.readInt();
+		report.bottomMargin = in.readInt();
+		report.isTitleNewPage = in.readBoolean();
+		report.isSummaryNewPage = in.readBoolean();
+		report.isSummaryWithPageHeaderAndFooter = in.readBoolean();
+		report.isFloatColumnFooter = in.readBoolean();
+		report.ignorePagination = in.readBoolean();
+		report.formatFactoryClass = (String) in.readJRObject();
+
+		int importCount = in.readIntCompressed();
+		if (importCount > 0)
+		{
+			report.importsSet = new HashSet<>(importCount - 1);
+			for (int i = 1; i < importCount; i++)
+			{
+				report.importsSet.add((String) in.readJRObject());
+			}
+		}
+
+		report.templates = readArray(JRReportTemplate[]::new, in);
+
+		int styleCount = in.readIntCompressed();
+		if (styleCount > 0)
+		{
+			report.styles = new JRStyle[styleCount - 1];
+			for (int i = 0; i < report.styles.length; i++)
+			{
+				report.styles[i] = styleSerializer.readStyle(in);
+			}
+		}
+		report.defaultStyle = styleSerializer.readStyle(in);
+
+		report.mainDataset = (JRDataset) readValue(in);
+		report.datasets = readArray(JRDataset[]::new, in);
+
+		report.background = (JRBand) readValue(in);
+		report.title = (JRBand) readValue(in);
+		report.pageHeader = (JRBand) readValue(in);
+		report.columnHeader = (JRBand) readValue(in);
+		report.detailSection = (JRSection) readValue(in);
+		report.columnFooter = (JRBand) readValue(in);
+		report.pageFooter = (JRBand) readValue(in);
+		report.lastPageFooter = (JRBand) readValue(in);
+		report.summary = (JRBand) readValue(in);
+		report.noData = (JRBand) readValue(in);
+	}
+
+	/**
+	 * Writes an object of the report, in full where it is first referenced and by id afterwards.
+	 */
+	public void writeValue(Object value, VirtualizationOutput out) throws IOException
+	{
+		if (value == null)
+		{
+			out.writeIntCompressed(REFERENCE_NULL);
+			return;
+		}
+
+		Integer id = objectIds.get(value);
+		if (id != null)
+		{
+			out.writeIntCompressed(REFERENCE_OFFSET + id);
+			return;
+		}
+
+		// registering the object first as its children refer to it
+		putObject(value);
+		out.writeIntCompressed(REFERENCE_NEW);
+
+		int kind = getObjectKind(value);
+		out.writeByte(kind);
+		switch (kind)
+		{
+		case OBJECT_DATASET:
+			writeDataset((JRBaseDataset) value, out);
+			break;
+		case OBJECT_PARAMETER:
+			writeParameter((JRBaseParameter) value, out);
+			break;
+		case OBJECT_FIELD:
+			writeField((JRBaseField) value, out);
+			break;
+		case OBJECT_VARIABLE:
+			writeVariable((JRBaseVariable) value, out);
+			break;
+		case OBJECT_GROUP:
+			writeGroup((JRBaseGroup) value, out);
+			break;
+		case OBJECT_SORT_FIELD:
+			writeSortField((JRBaseSortField) value, out);
+			break;
+		case OBJECT_QUERY:
+			writeQuery((JRBaseQuery) value, out);
+			break;
+		case OBJECT_SCRIPTLET:
+			writeScriptlet((JRBaseScriptlet) value, out);
+			break;
+		case OBJECT_EXPRESSION:
+			writeExpression((JRBaseExpression) value, out);
+			break;
+		case OBJECT_SECTION:
+			writeSection((JRBaseSection) value, out);
+			break;
+		case OBJECT_BAND:
+			writeBand((JRBaseBand) value, out);
+			break;
+		case OBJECT_ELEMENT_GROUP:
+			writeElementGroup((JRBaseElementGroup) value, out);
+			break;
+		case OBJECT_FRAME:
+			writeFrame((JRBaseFrame) value, out);
+			break;
+		case OBJECT_STATIC_TEXT:
+			writeStaticText((JRBaseStaticText) value, out);
+			break;
+		case OBJECT_TEXT_FIELD:
+			writeTextField((JRBaseTextField) value, out);
+			break;
+		case OBJECT_IMAGE:
+			writeImage((JRBaseImage) value, out);
+			break;
+		case OBJECT_LINE:
+			writeGraphicElement((JRBaseLine) value, out);
+			styleSerializer.writeEnum(((JRBaseLine) value).directionValue, out);
+			break;
+		case OBJECT_RECTANGLE:
+			writeGraphicElement((JRBaseRectangle) value, out);
+			out.writeJRObject(((JRBaseRectangle) value).radius);
+			break;
+		case OBJECT_ELLIPSE:
+			writeGraphicElement((JRBaseEllipse) value, out);
+			break;
+		default:
+			writeSerialized(value, out);
+			break;
+		}
+	}
+
+	protected int getObjectKind(Object value)
+	{
+		Class<?> valueClass = value.getClass();
+		if (valueClass == JRBaseExpression.class)
+		{
+			return isBaseChunks(((JRBaseExpression) value).chunks, JRBaseExpressionChunk.class)
+					? OBJECT_EXPRESSION : OBJECT_SERIALIZED;
+		}
+		if (valueClass == JRBaseStaticText.class
+				|| valueClass == JRBaseTextField.class)
+		{
+			JRBaseTextElement textElement = (JRBaseTextElement) value;
+			return isBaseElement(textElement)
+					&& PrintStyleSerializer.isBaseLineBox(textElement.lineBox)
+					&& PrintStyleSerializer.isBaseParagraph(textElement.paragraph)
+					? (valueClass == JRBaseStaticText.class ? OBJECT_STATIC_TEXT : OBJECT_TEXT_FIELD)
+					: OBJECT_SERIALIZED;
+		}
+		if (valueClass == JRBaseImage.class)
+		{
+			JRBaseImage image = (JRBaseImage) value;
+			return isBaseElement(image)
+					&& PrintStyleSerializer.isBasePen(image.linePen)
+					&& PrintStyleSerializer.isBaseLineBox(image.lineBox)
+					? OBJECT_IMAGE : OBJECT_SERIALIZED;
+		}
+		if (valueClass == JRBaseLine.class
+				|| valueClass == JRBaseRectangle.class
+				|| valueClass == JRBaseEllipse.class)
+		{
+			JRBaseGraphicElement graphicElement = (JRBaseGraphicElement) value;
+			if (!isBaseElement(graphicElement) || !PrintStyleSerializer.isBasePen(graphicElement.linePen))
+			{
+				return OBJECT_SERIALIZED;
+			}
+			return valueClass == JRBaseLine.class ? OBJECT_LINE
+					: (valueClass == JRBaseRectangle.class ? OBJECT_RECTANGLE : OBJECT_ELLIPSE);
+		}
+		if (valueClass == JRBaseFrame.class)
+		{
+			JRBaseFrame frame = (JRBaseFrame) value;
+			return isBaseElement(frame) && PrintStyleSerializer.isBaseLineBox(frame.lineBox)
+					? OBJECT_FRAME : OBJECT_SERIALIZED;
+		}
+		if (valueClass == JRBaseBand.class)
+		{
+			return isBaseProperties(((JRBaseBand) value).propertiesMap) ? OBJECT_BAND : OBJECT_SERIALIZED;
+		}
+		if (valueClass == JRBaseElementGroup.class)
+		{
+			return OBJECT_ELEMENT_GROUP;
+		}
+		if (valueClass == JRBaseSection.class)
+		{
+			return OBJECT_SECTION;
+		}
+		if (valueClass == JRBaseParameter.class)
+		{
+			return isBaseProperties(((JRBaseParameter) value).propertiesMap) ? OBJECT_PARAMETER : OBJECT_SERIALIZED;
+		}
+		if (valueClass == JRBaseField.class)
+		{
+			return isBaseProperties(((JRBaseField) value).propertiesMap) ? OBJECT_FIELD : OBJECT_SERIALIZED;
+		}
+		if (valueClass == JRBaseVariable.class)
+		{
+			return OBJECT_VARIABLE;
+		}
+		if (valueClass == JRBaseGroup.class)
+		{
+			return OBJECT_GROUP;
+		}
+		if (valueClass == JRBaseSortField.class)
+		{
+			return OBJECT_SORT_FIELD;
+		}
+		if (valueClass == JRBaseQuery.class)
+		{
+			return isBaseChunks(((JRBaseQuery) value).chunks, JRBaseQueryChunk.class)
+					? OBJECT_QUERY : OBJECT_SERIALIZED;
+		}
+		if (valueClass == JRBaseScriptlet.class)
+		{
+			return isBaseProperties(((JRBaseScriptlet) value).propertiesMap) ? OBJECT_SCRIPTLET : OBJECT_SERIALIZED;
+		}
+		if (valueClass == JRBaseDataset.class)
+		{
+			return isBaseProperties(((JRBaseDataset) value).propertiesMap) ? OBJECT_DATASET : OBJECT_SERIALIZED;
+		}
+		return OBJECT_SERIALIZED;
+	}
+
+	protected boolean isBaseElement(JRBaseElement element)
+	{
+		return isBaseProperties(element.propertiesMap);
+	}
+
+	protected static boolean isBaseProperties(JRPropertiesMap properties)
+	{
+		return properties == null
+				|| (properties.getClass() == JRPropertiesMap.class && properties.getBaseProperties() == null);
+	}
+
+	protected static boolean isBaseChunks(Object[] chunks, Class<?> chunkClass)
+	{
+		if (chunks != null)
+		{
+			for (Object chunk : chunks)
+			{
+				if (chunk == null || chunk.getClass() != chunkClass)
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	public Object readValue(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		int reference = in.readIntCompressed();
+		if (reference == REFERENCE_NULL)
+		{
+			return null;
+		}
+		if (reference != REFERENCE_NEW)
+		{
+			return objects.get(reference - REFERENCE_OFFSET);
+		}
+
+		int kind = in.readUnsignedByte();
+		switch (kind)
+		{
+		case OBJECT_SERIALIZED:
+		{
+			int id = objects.size();
+			objects.add(null);
+			Object value = in.readObject();
+			objects.set(id, value);
+			return value;
+		}
+		case OBJECT_DATASET:
+			return readDataset(in);
+		case OBJECT_PARAMETER:
+			return readParameter(in);
+		case OBJECT_FIELD:
+			return readField(in);
+		case OBJECT_VARIABLE:
+			return readVariable(in);
+		case OBJECT_GROUP:
+			return readGroup(in);
+		case OBJECT_SORT_FIELD:
+			return readSortField(in);
+		case OBJECT_QUERY:
+			return readQuery(in);
+		case OBJECT_SCRIPTLET:
+			return readScriptlet(in);
+		case OBJECT_EXPRESSION:
+			return readExpression(in);
+		case OBJECT_SECTION:
+			return readSection(in);
+		case OBJECT_BAND:
+			return readBand(in);
+		case OBJECT_ELEMENT_GROUP:
+		{
+			JRBaseElementGroup elementGroup = new JRBaseElementGroup();
+			objects.add(elementGroup);
+			readElementGroupContents(elementGroup, in);
+			return elementGroup;
+		}
+		case OBJECT_FRAME:
+			return readFrame(in);
+		case OBJECT_STATIC_TEXT:
+			return readStaticText(in);
+		case OBJECT_TEXT_FIELD:
+			return readTextField(in);
+		case OBJECT_IMAGE:
+			return readImage(in);
+		case OBJECT_LINE:
+		{
+			JRBaseLine line = new JRBaseLine(styleSerializer.readStyleProvider(in));
+			objects.add(line);
+			readGraphicElement(line, in);
+			line.directionValue = styleSerializer.readEnum(LineDirectionEnum.class, in);
+			return line;
+		}
+		case OBJECT_RECTANGLE:
+		{
+			JRBaseRectangle rectangle = new JRBaseRectangle(styleSerializer.readStyleProvider(in));
+			objects.add(rectangle);
+			readGraphicElement(rectangle, in);
+			rectangle.radius = (Integer) in.readJRObject();
+			return rectangle;
+		}
+		case OBJECT_ELLIPSE:
+		{
+			JRBaseEllipse ellipse = new JRBaseEllipse(styleSerializer.readStyleProvider(in));
+			objects.add(ellipse);
+			readGraphicElement(ellipse, in);
+			return ellipse;
+		}
+		default:
+			throw new IOException("Unknown report object kind " + kind);
+		}
+	}
+
+	protected void writeArray(Object[] values, VirtualizationOutput out) throws IOException
+	{
+		out.writeIntCompressed(values == null ? 0 : values.length + 1);
+		if (values != null)
+		{
+			for (Object value : values)
+			{
+				writeValue(value, out);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	protected <T> T[] readArray(IntFunction<T[]> arrayFactory, VirtualizationInput in)
+			throws IOException, ClassNotFoundException
+	{
+		int count = in.readIntCompressed();
+		if (count == 0)
+		{
+			return null;
+		}
+
+		T[] values = arrayFactory.apply(count - 1);
+		for (int i = 0; i < values.length; i++)
+		{
+			values[i] = (T) readValue(in);
+		}
+		return values;
+	}
+
+	protected void writeList(List<?> values, VirtualizationOutput out) throws IOException
+	{
+		out.writeIntCompressed(values == null ? 0 : values.size() + 1);
+		if (values != null)
+		{
+			for (Object value : values)
+			{
+				writeValue(value, out);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	protected <T> List<T> readList(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		int count = in.readIntCompressed();
+		if (count == 0)
+		{
+			return null;
+		}
+
+		List<T> values = new ArrayList<>(count - 1);
+		for (int i = 1; i < count; i++)
+		{
+			values.add((T) readValue(in));
+		}
+		return values;
+	}
+
+	protected void writeProperties(JRPropertiesMap properties, VirtualizationOutput out) throws IOException
+	{
+		if (properties == null)
+		{
+			out.writeIntCompressed(0);
+			return;
+		}
+
+		String[] names = properties.getOwnPropertyNames();
+		out.writeIntCompressed(names.length + 1);
+		for (String name : names)
+		{
+			out.writeJRObject(name);
+			out.writeJRObject(properties.getProperty(name));
+		}
+	}
+
+	protected JRPropertiesMap readProperties(VirtualizationInput in) throws IOException
+	{
+		int count = in.readIntCompressed();
+		if (count == 0)
+		{
+			return null;
+		}
+
+		JRPropertiesMap properties = new JRPropertiesMap();
+		for (int i = 1; i < count; i++)
+		{
+			String name = (String) in.readJRObject();
+			properties.setProperty(name, (String) in.readJRObject());
+		}
+		return properties;
+	}
+
+	protected void writeDataset(JRBaseDataset dataset, VirtualizationOutput out) throws IOException
+	{
+		out.writeBoolean(dataset.isMain);
+		out.writeJRObject(dataset.uuid);
+		out.writeJRObject(dataset.name);
+		out.writeJRObject(dataset.scriptletClass);
+		out.writeJRObject(dataset.resourceBundle);
+		styleSerializer.writeEnum(dataset.whenResourceMissingTypeValue, out);
+		writeProperties(dataset.propertiesMap, out);
+
+		writeArray(dataset.parameters, out);
+		writeValue(dataset.query, out);
+		writeArray(dataset.fields, out);
+		writeArray(dataset.sortFields, out);
+		writeArray(dataset.scriptlets, out);
+		writeArray(dataset.groups, out);
+		writeArray(dataset.variables, out);
+
+		// the sections are written after all the groups,
+		// elements of a group header might refer to the following groups
+		if (dataset.groups != null)
+		{
+			for (JRGroup group : dataset.groups)
+			{
+				if (isGroupWritten(group))
+				{
+					writeValue(((JRBaseGroup) group).groupHeaderSection, out);
+					writeValue(((JRBaseGroup) group).groupFooterSection, out);
+				}
+			}
+		}
+
+		writeValue(dataset.filterExpression, out);
+		writeArray(dataset.propertyExpressions, out);
+	}
+
+	protected JRBaseDataset readDataset(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseDataset dataset = new JRBaseDataset(in.readBoolean());
+		objects.add(dataset);
+
+		dataset.uuid = (UUID) in.readJRObject();
+		dataset.name = (String) in.readJRObject();
+		dataset.scriptletClass = (String) in.readJRObject();
+		dataset.resourceBundle = (String) in.readJRObject();
+		dataset.whenResourceMissingTypeValue = styleSerializer.readEnum(WhenResourceMissingTypeEnum.class, in);
+		dataset.propertiesMap = readProperties(in);
+
+		dataset.parameters = readArray(JRParameter[]::new, in);
+		dataset.query = (JRQuery) readValue(in);
+		dataset.fields = readArray(JRField[]::new, in);
+		dataset.sortFields = readArray(JRSortField[]::new, in);
+		dataset.scriptlets = readArray(JRScriptlet[]::new, in);
+		dataset.groups = readArray(JRGroup[]::new, in);
+		dataset.variables = readArray(JRVariable[]::new, in);
+
+		if (dataset.groups != null)
+		{
+			for (JRGroup group : dataset.groups)
+			{
+				if (isGroupWritten(group))
+				{
+					((JRBaseGroup) group).groupHeaderSection = (JRSection) readValue(in);
+					((JRBaseGroup) group).groupFooterSection = (JRSection) readValue(in);
+				}
+			}
+		}
+
+		dataset.filterExpression = (JRExpression) readValue(in);
+		dataset.propertyExpressions = readArray(DatasetPropertyExpression[]::new, in);
+		return dataset;
+	}
+
+	/**
+	 * Determines whether a group has been written field by field, without its sections.
+	 */
+	protected boolean isGroupWritten(JRGroup group)
+	{
+		return group != null && group.getClass() == JRBaseGroup.class;
+	}
+
+	protected void writeParameter(JRBaseParameter parameter, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(parameter.name);
+		out.writeJRObject(parameter.description);
+		out.writeJRObject(parameter.valueClassName);
+		out.writeJRObject(parameter.valueClassRealName);
+		out.writeJRObject(parameter.nestedTypeName);
+		out.writeBoolean(parameter.isSystemDefined);
+		out.writeBoolean(parameter.isForPrompting);
+		styleSerializer.writeEnum(parameter.evaluationTime, out);
+		writeValue(parameter.defaultValueExpression, out);
+		writeProperties(parameter.propertiesMap, out);
+	}
+
+	protected JRBaseParameter readParameter(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseParameter parameter = new JRBaseParameter();
+		objects.add(parameter);
+
+		parameter.name = (String) in.readJRObject();
+		parameter.description = (String) in.readJRObject();
+		parameter.valueClassName = (String) in.readJRObject();
+		parameter.valueClassRealName = (String) in.readJRObject();
+		parameter.nestedTypeName = (String) in.readJRObject();
+		parameter.isSystemDefined = in.readBoolean();
+		parameter.isForPrompting = in.readBoolean();
+		parameter.evaluationTime = styleSerializer.readEnum(ParameterEvaluationTimeEnum.class, in);
+		parameter.defaultValueExpression = (JRExpression) readValue(in);
+		parameter.propertiesMap = readProperties(in);
+		return parameter;
+	}
+
+	protected void writeField(JRBaseField field, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(field.name);
+		out.writeJRObject(field.description);
+		out.writeJRObject(field.valueClassName);
+		out.writeJRObject(field.valueClassRealName);
+		writeProperties(field.propertiesMap, out);
+		writeArray(field.propertyExpressions, out);
+	}
+
+	protected JRBaseField readField(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseField field = new JRBaseField();
+		objects.add(field);
+
+		field.name = (String) in.readJRObject();
+		field.description = (String) in.readJRObject();
+		field.valueClassName = (String) in.readJRObject();
+		field.valueClassRealName = (String) in.readJRObject();
+		field.propertiesMap = readProperties(in);
+		field.propertyExpressions = readArray(JRPropertyExpression[]::new, in);
+		return field;
+	}
+
+	protected void writeVariable(JRBaseVariable variable, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(variable.name);
+		out.writeJRObject(variable.description);
+		out.writeJRObject(variable.valueClassName);
+		out.writeJRObject(variable.valueClassRealName);
+		out.writeJRObject(variable.incrementerFactoryClassName);
+		out.writeJRObject(variable.incrementerFactoryClassRealName);
+		styleSerializer.writeEnum(variable.resetTypeValue, out);
+		styleSerializer.writeEnum(variable.incrementTypeValue, out);
+		styleSerializer.writeEnum(variable.calculationValue, out);
+		out.writeBoolean(variable.isSystemDefined);
+		writeValue(variable.expression, out);
+		writeValue(variable.initialValueExpression, out);
+		writeValue(variable.resetGroup, out);
+		writeValue(variable.incrementGroup, out);
+	}
+
+	protected JRBaseVariable readVariable(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseVariable variable = new JRBaseVariable();
+		objects.add(variable);
+
+		variable.name = (String) in.readJRObject();
+		variable.description = (String) in.readJRObject();
+		variable.valueClassName = (String) in.readJRObject();
+		variable.valueClassRealName = (String) in.readJRObject();
+		variable.incrementerFactoryClassName = (String) in.readJRObject();
+		variable.incrementerFactoryClassRealName = (String) in.readJRObject();
+		variable.resetTypeValue = styleSerializer.readEnum(ResetTypeEnum.class, in);
+		variable.incrementTypeValue = styleSerializer.readEnum(IncrementTypeEnum.class, in);
+		variable.calculationValue = styleSerializer.readEnum(CalculationEnum.class, in);
+		variable.isSystemDefined = in.readBoolean();
+		variable.expression = (JRExpression) readValue(in);
+		variable.initialValueExpression = (JRExpression) readValue(in);
+		variable.resetGroup = (JRGroup) readValue(in);
+		variable.incrementGroup = (JRGroup) readValue(in);
+		return variable;
+	}
+
+	/**
+	 * Writes a group without its sections, which are written by {@link #writeDataset(JRBaseDataset, VirtualizationOutput)}.
+	 */
+	protected void writeGroup(JRBaseGroup group, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(group.name);
+		out.writeBoolean(group.isStartNewColumn);
+		out.writeBoolean(group.isStartNewPage);
+		out.writeBoolean(group.isResetPageNumber);
+		out.writeBoolean(group.isReprintHeaderOnEachPage);
+		out.writeBoolean(group.isReprintHeaderOnEachColumn);
+		out.writeInt(group.minHeightToStartNewPage);
+		out.writeInt(group.minDetailsToStartFromTop);
+		styleSerializer.writeEnum(group.footerPositionValue, out);
+		out.writeBoolean(group.keepTogether);
+		out.writeBoolean(group.preventOrphanFooter);
+		writeValue(group.expression, out);
+		writeValue(group.countVariable, out);
+	}
+
+	protected JRBaseGroup readGroup(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseGroup group = new JRBaseGroup();
+		objects.add(group);
+
+		group.name = (String) in.readJRObject();
+		group.isStartNewColumn = in.readBoolean();
+		group.isStartNewPage = in.readBoolean();
+		group.isResetPageNumber = in.readBoolean();
+		group.isReprintHeaderOnEachPage = in.readBoolean();
+		group.isReprintHeaderOnEachColumn = in.readBoolean();
+		group.minHeightToStartNewPage = in.readInt();
+		group.minDetailsToStartFromTop = in.readInt();
+		group.footerPositionValue = styleSerializer.readEnum(FooterPositionEnum.class, in);
+		group.keepTogether = in.readBoolean();
+		group.preventOrphanFooter = in.readBoolean();
+		group.expression = (JRExpression) readValue(in);
+		group.countVariable = (JRVariable) readValue(in);
+		return group;
+	}
+
+	protected void writeSortField(JRBaseSortField sortField, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(sortField.name);
+		styleSerializer.writeEnum(sortField.orderValue, out);
+		styleSerializer.writeEnum(sortField.type, out);
+	}
+
+	protected JRBaseSortField readSortField(VirtualizationInput in) throws IOException
+	{
+		JRBaseSortField sortField = new JRBaseSortField();
+		objects.add(sortField);
+
+		sortField.name = (String) in.readJRObject();
+		sortField.orderValue = styleSerializer.readEnum(SortOrderEnum.class, in);
+		sortField.type = styleSerializer.readEnum(SortFieldTypeEnum.class, in);
+		return sortField;
+	}
+
+	protected void writeQuery(JRBaseQuery query, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(query.language);
+
+		JRQueryChunk[] chunks = query.chunks;
+		out.writeIntCompressed(chunks == null ? 0 : chunks.length + 1);
+		if (chunks != null)
+		{
+			for (JRQueryChunk queryChunk : chunks)
+			{
+				JRBaseQueryChunk chunk = (JRBaseQueryChunk) queryChunk;
+				out.writeByte(chunk.type);
+				out.writeJRObject(chunk.text);
+
+				String[] tokens = chunk.tokens;
+				out.writeIntCompressed(tokens == null ? 0 : tokens.length + 1);
+				if (tokens != null)
+				{
+					for (String token : tokens)
+					{
+						out.writeJRObject(token);
+					}
+				}
+
+				out.writeIntCompressed(chunk.tokenSeparator == null ? 0 : chunk.tokenSeparator + 1);
+			}
+		}
+	}
+
+	protected JRBaseQuery readQuery(VirtualizationInput in) throws IOException
+	{
+		JRBaseQuery query = new JRBaseQuery();
+		objects.add(query);
+
+		query.language = (String) in.readJRObject();
+
+		int chunkCount = in.readIntCompressed();
+		if (chunkCount > 0)
+		{
+			query.chunks = new JRQueryChunk[chunkCount - 1];
+			for (int i = 0; i < query.chunks.length; i++)
+			{
+				JRBaseQueryChunk chunk = new JRBaseQueryChunk();
+				chunk.type = in.readByte();
+				chunk.text = (String) in.readJRObject();
+
+				int tokenCount = in.readIntCompressed();
+				if (tokenCount > 0)
+				{
+					chunk.tokens = new String[tokenCount - 1];
+					for (int j = 0; j < chunk.tokens.length; j++)
+					{
+						chunk.tokens[j] = (String) in.readJRObject();
+					}
+				}
+
+				int tokenSeparator = in.readIntCompressed();
+				chunk.tokenSeparator = tokenSeparator == 0 ? null : (char) (tokenSeparator - 1);
+				query.chunks[i] = chunk;
+			}
+		}
+		return query;
+	}
+
+	protected void writeScriptlet(JRBaseScriptlet scriptlet, VirtualizationOutput out) throws IOException
+	{
+		out.writeJRObject(scriptlet.name);
+		out.writeJRObject(scriptlet.description);
+		out.writeJRObject(scriptlet.valueClassName);
+		out.writeJRObject(scriptlet.valueClassRealName);
+		writeProperties(scriptlet.propertiesMap, out);
+		writeArray(scriptlet.propertyExpressions, out);
+	}
+
+	protected JRBaseScriptlet readScriptlet(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseScriptlet scriptlet = new JRBaseScriptlet();
+		objects.add(scriptlet);
+
+		scriptlet.name = (String) in.readJRObject();
+		scriptlet.description = (String) in.readJRObject();
+		scriptlet.valueClassName = (String) in.readJRObject();
+		scriptlet.valueClassRealName = (String) in.readJRObject();
+		scriptlet.propertiesMap = readProperties(in);
+		scriptlet.propertyExpressions = readArray(JRPropertyExpression[]::new, in);
+		return scriptlet;
+	}
+
+	@SuppressWarnings("deprecation")
+	protected void writeExpression(JRBaseExpression expression, VirtualizationOutput out) throws IOException
+	{
+		out.writeInt(expression.id);
+		styleSerializer.writeEnum(expression.type, out);
+		out.writeJRObject(expression.valueClassName);
+		out.writeJRObject(expression.valueClassRealName);
+
+		JRExpressionChunk[] chunks = expression.chunks;
+		out.writeIntCompressed(chunks == null ? 0 : chunks.length + 1);
+		if (chunks != null)
+		{
+			for (JRExpressionChunk chunk : chunks)
+			{
+				out.writeByte(((JRBaseExpressionChunk) chunk).type);
+				out.writeJRObject(((JRBaseExpressionChunk) chunk).text);
+			}
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	protected JRBaseExpression readExpression(VirtualizationInput in) throws IOException
+	{
+		JRBaseExpression expression = new JRBaseExpression();
+		objects.add(expression);
+
+		expression.id = in.readInt();
+		expression.type = styleSerializer.readEnum(ExpressionTypeEnum.class, in);
+		expression.valueClassName = (String) in.readJRObject();
+		expression.valueClassRealName = (String) in.readJRObject();
+
+		int chunkCount = in.readIntCompressed();
+		if (chunkCount > 0)
+		{
+			expression.chunks = new JRExpressionChunk[chunkCount - 1];
+			for (int i = 0; i < expression.chunks.length; i++)
+			{
+				JRBaseExpressionChunk chunk = new JRBaseExpressionChunk();
+				chunk.type = in.readByte();
+				chunk.text = (String) in.readJRObject();
+				expression.chunks[i] = chunk;
+			}
+		}
+		return expression;
+	}
+
+	protected void writeSection(JRBaseSection section, VirtualizationOutput out) throws IOException
+	{
+		writeArray(section.bands, out);
+		writeArray(section.parts, out);
+	}
+
+	protected JRBaseSection readSection(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseSection section = new JRBaseSection();
+		objects.add(section);
+
+		section.bands = readArray(JRBand[]::new, in);
+		section.parts = readArray(JRPart[]::new, in);
+		return section;
+	}
+
+	protected void writeBand(JRBaseBand band, VirtualizationOutput out) throws IOException
+	{
+		out.writeInt(band.height);
+		styleSerializer.writeEnum(band.splitTypeValue, out);
+		writeValue(band.printWhenExpression, out);
+		writeProperties(band.propertiesMap, out);
+		writeList(band.returnValues, out);
+		writeElementGroupContents(band, out);
+	}
+
+	protected JRBaseBand readBand(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseBand band = new JRBaseBand();
+		objects.add(band);
+
+		band.height = in.readInt();
+		band.splitTypeValue = styleSerializer.readEnum(SplitTypeEnum.class, in);
+		band.printWhenExpression = (JRExpression) readValue(in);
+		band.propertiesMap = readProperties(in);
+		band.returnValues = this.<ExpressionReturnValue>readList(in);
+		readElementGroupContents(band, in);
+		return band;
+	}
+
+	protected void writeElementGroup(JRBaseElementGroup elementGroup, VirtualizationOutput out) throws IOException
+	{
+		writeElementGroupContents(elementGroup, out);
+	}
+
+	protected void writeElementGroupContents(JRBaseElementGroup elementGroup, VirtualizationOutput out) throws IOException
+	{
+		writeValue(elementGroup.elementGroup, out);
+		writeList(elementGroup.children, out);
+	}
+
+	protected void readElementGroupContents(JRBaseElementGroup elementGroup, VirtualizationInput in)
+			throws IOException, ClassNotFoundException
+	{
+		elementGroup.elementGroup = (JRElementGroup) readValue(in);
+		elementGroup.children = this.<JRChild>readList(in);
+	}
+
+	/**
+	 * Writes the default style provider of an element, which is read before the element is created.
+	 */
+	protected void writeElement(JRBaseElement element, VirtualizationOutput out) throws IOException
+	{
+		styleSerializer.writeStyleProvider(element.defaultStyleProvider, out);
+		out.writeJRObject(element.uuid);
+		out.writeJRObject(element.key);
+		styleSerializer.writeEnum(element.positionTypeValue, out);
+		styleSerializer.writeEnum(element.stretchTypeValue, out);
+		out.writeBoolean(element.isPrintRepeatedValues);
+		styleSerializer.writeEnum(element.modeValue, out);
+		out.writeInt(element.x);
+		out.writeInt(element.y);
+		out.writeInt(element.width);
+		out.writeInt(element.height);
+		out.writeBoolean(element.isRemoveLineWhenBlank);
+		out.writeBoolean(element.isPrintInFirstWholeBand);
+		out.writeBoolean(element.isPrintWhenDetailOverflows);
+		styleSerializer.writeColor(element.forecolor, out);
+		styleSerializer.writeColor(element.backcolor, out);
+		writeValue(element.printWhenExpression, out);
+		writeValue(element.printWhenGroupChanges, out);
+		writeValue(element.elementGroup, out);
+		styleSerializer.writeStyle(element.parentStyle, out);
+		out.writeJRObject(element.parentStyleNameReference);
+		writeValue(element.styleExpression, out);
+		writeProperties(element.propertiesMap, out);
+		writeArray(element.propertyExpressions, out);
+	}
+
+	/**
+	 * Reads the fields of an element created with the default style provider read by the caller.
+	 */
+	protected void readElement(JRBaseElement element, VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		element.uuid = (UUID) in.readJRObject();
+		element.key = (String) in.readJRObject();
+		element.positionTypeValue = styleSerializer.readEnum(PositionTypeEnum.class, in);
+		element.stretchTypeValue = styleSerializer.readEnum(StretchTypeEnum.class, in);
+		element.isPrintRepeatedValues = in.readBoolean();
+		element.modeValue = styleSerializer.readEnum(ModeEnum.class, in);
+		element.x = in.readInt();
+		element.y = in.readInt();
+		element.width = in.readInt();
+		element.height = in.readInt();
+		element.isRemoveLineWhenBlank = in.readBoolean();
+		element.isPrintInFirstWholeBand = in.readBoolean();
+		element.isPrintWhenDetailOverflows = in.readBoolean();
+		element.forecolor = styleSerializer.readColor(in);
+		element.backcolor = styleSerializer.readColor(in);
+		element.printWhenExpression = (JRExpression) readValue(in);
+		element.printWhenGroupChanges = (JRGroup) readValue(in);
+		element.elementGroup = (JRElementGroup) readValue(in);
+		element.parentStyle = styleSerializer.readStyle(in);
+		element.parentStyleNameReference = (String) in.readJRObject();
+		element.styleExpression = (JRExpression) readValue(in);
+		element.propertiesMap = readProperties(in);
+		element.propertyExpressions = readArray(JRPropertyExpression[]::new, in);
+	}
+
+	protected void writeFrame(JRBaseFrame frame, VirtualizationOutput out) throws IOException
+	{
+		writeElement(frame, out);
+		styleSerializer.writeLineBox(frame.lineBox, out);
+		styleSerializer.writeEnum(frame.borderSplitType, out);
+		writeList(frame.children, out);
+	}
+
+	protected JRBaseFrame readFrame(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseFrame frame = new JRBaseFrame(styleSerializer.readStyleProvider(in));
+		objects.add(frame);
+
+		readElement(frame, in);
+		frame.lineBox = styleSerializer.readLineBox(frame, in);
+		frame.borderSplitType = styleSerializer.readEnum(BorderSplitType.class, in);
+		frame.children = this.<JRChild>readList(in);
+		return frame;
+	}
+
+	protected void writeGraphicElement(JRBaseGraphicElement graphicElement, VirtualizationOutput out) throws IOException
+	{
+		writeElement(graphicElement, out);
+		styleSerializer.writePen(graphicElement.linePen, out);
+		styleSerializer.writeEnum(graphicElement.fillValue, out);
+	}
+
+	protected void readGraphicElement(JRBaseGraphicElement graphicElement, VirtualizationInput in)
+			throws IOException, ClassNotFoundException
+	{
+		readElement(graphicElement, in);
+		graphicElement.linePen = styleSerializer.readPen(graphicElement, in);
+		graphicElement.fillValue = styleSerializer.readEnum(FillEnum.class, in);
+	}
+
+	protected void writeTextElement(JRBaseTextElement textElement, VirtualizationOutput out) throws IOException
+	{
+		writeElement(textElement, out);
+		styleSerializer.writeEnum(textElement.horizontalTextAlign, out);
+		styleSerializer.writeEnum(textElement.verticalTextAlign, out);
+		styleSerializer.writeEnum(textElement.rotationValue, out);
+		out.writeJRObject(textElement.markup);
+		styleSerializer.writeLineBox(textElement.lineBox, out);
+		styleSerializer.writeParagraph(textElement.paragraph, out);
+		out.writeJRObject(textElement.fontName);
+		out.writeJRObject(textElement.isBold);
+		out.writeJRObject(textElement.isItalic);
+		out.writeJRObject(textElement.isUnderline);
+		out.writeJRObject(textElement.isStrikeThrough);
+		out.writeJRObject(textElement.fontsize);
+		out.writeJRObject(textElement.pdfFontName);
+		out.writeJRObject(textElement.pdfEncoding);
+		out.writeJRObject(textElement.isPdfEmbedded);
+	}
+
+	protected void readTextElement(JRBaseTextElement textElement, VirtualizationInput in)
+			throws IOException, ClassNotFoundException
+	{
+		readElement(textElement, in);
+		textElement.horizontalTextAlign = styleSerializer.readEnum(HorizontalTextAlignEnum.class, in);
+		textElement.verticalTextAlign = styleSerializer.readEnum(VerticalTextAlignEnum.class, in);
+		textElement.rotationValue = styleSerializer.readEnum(RotationEnum.class, in);
+		textElement.markup = (String) in.readJRObject();
+		textElement.lineBox = styleSerializer.readLineBox(textElement, in);
+		textElement.paragraph = styleSerializer.readParagraph(textElement, in);
+		textElement.fontName = (String) in.readJRObject();
+		textElement.isBold = (Boolean) in.readJRObject();
+		textElement.isItalic = (Boolean) in.readJRObject();
+		textElement.isUnderline = (Boolean) in.readJRObject();
+		textElement.isStrikeThrough = (Boolean) in.readJRObject();
+		textElement.fontsize = (Float) in.readJRObject();
+		textElement.pdfFontName = (String) in.readJRObject();
+		textElement.pdfEncoding = (String) in.readJRObject();
+		textElement.isPdfEmbedded = (Boolean) in.readJRObject();
+	}
+
+	protected void writeStaticText(JRBaseStaticText staticText, VirtualizationOutput out) throws IOException
+	{
+		writeTextElement(staticText, out);
+		out.writeJRObject(staticText.text);
+	}
+
+	protected JRBaseStaticText readStaticText(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseStaticText staticText = new JRBaseStaticText(styleSerializer.readStyleProvider(in));
+		objects.add(staticText);
+
+		readTextElement(staticText, in);
+		staticText.text = (String) in.readJRObject();
+		return staticText;
+	}
+
+	protected void writeTextField(JRBaseTextField textField, VirtualizationOutput out) throws IOException
+	{
+		writeTextElement(textField, out);
+		styleSerializer.writeEnum(textField.textAdjust, out);
+		styleSerializer.writeEnum(textField.evaluationTimeValue, out);
+		out.writeJRObject(textField.pattern);
+		out.writeJRObject(textField.isBlankWhenNull);
+		out.writeJRObject(textField.linkType);
+		out.writeJRObject(textField.linkTarget);
+		writeArray(textField.hyperlinkParameters, out);
+		writeValue(textField.evaluationGroup, out);
+		writeValue(textField.expression, out);
+		writeValue(textField.patternExpression, out);
+		writeValue(textField.anchorNameExpression, out);
+		writeValue(textField.bookmarkLevelExpression, out);
+		writeValue(textField.hyperlinkReferenceExpression, out);
+		writeValue(textField.hyperlinkWhenExpression, out);
+		writeValue(textField.hyperlinkAnchorExpression, out);
+		writeValue(textField.hyperlinkPageExpression, out);
+		writeValue(textField.hyperlinkTooltipExpression, out);
+		out.writeInt(textField.bookmarkLevel);
+	}
+
+	protected JRBaseTextField readTextField(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseTextField textField = new JRBaseTextField(styleSerializer.readStyleProvider(in));
+		objects.add(textField);
+
+		readTextElement(textField, in);
+		textField.textAdjust = styleSerializer.readEnum(TextAdjustEnum.class, in);
+		textField.evaluationTimeValue = styleSerializer.readEnum(EvaluationTimeEnum.class, in);
+		textField.pattern = (String) in.readJRObject();
+		textField.isBlankWhenNull = (Boolean) in.readJRObject();
+		textField.linkType = (String) in.readJRObject();
+		textField.linkTarget = (String) in.readJRObject();
+		textField.hyperlinkParameters = readArray(JRHyperlinkParameter[]::new, in);
+		textField.evaluationGroup = (JRGroup) readValue(in);
+		textField.expression = (JRExpression) readValue(in);
+		textField.patternExpression = (JRExpression) readValue(in);
+		textField.anchorNameExpression = (JRExpression) readValue(in);
+		textField.bookmarkLevelExpression = (JRExpression) readValue(in);
+		textField.hyperlinkReferenceExpression = (JRExpression) readValue(in);
+		textField.hyperlinkWhenExpression = (JRExpression) readValue(in);
+		textField.hyperlinkAnchorExpression = (JRExpression) readValue(in);
+		textField.hyperlinkPageExpression = (JRExpression) readValue(in);
+		textField.hyperlinkTooltipExpression = (JRExpression) readValue(in);
+		textField.bookmarkLevel = in.readInt();
+		return textField;
+	}
+
+	protected void writeImage(JRBaseImage image, VirtualizationOutput out) throws IOException
+	{
+		writeGraphicElement(image, out);
+		styleSerializer.writeEnum(image.scaleImageValue, out);
+		styleSerializer.writeEnum(image.rotation, out);
+		styleSerializer.writeEnum(image.horizontalImageAlign, out);
+		styleSerializer.writeEnum(image.verticalImageAlign, out);
+		out.writeJRObject(image.isUsingCache);
+		out.writeBoolean(image.isLazy);
+		styleSerializer.writeEnum(image.onErrorTypeValue, out);
+		styleSerializer.writeEnum(image.evaluationTimeValue, out);
+		out.writeJRObject(image.linkType);
+		out.writeJRObject(image.linkTarget);
+		writeArray(image.hyperlinkParameters, out);
+		styleSerializer.writeLineBox(image.lineBox, out);
+		writeValue(image.evaluationGroup, out);
+		writeValue(image.expression, out);
+		writeValue(image.anchorNameExpression, out);
+		writeValue(image.bookmarkLevelExpression, out);
+		writeValue(image.hyperlinkReferenceExpression, out);
+		writeValue(image.hyperlinkWhenExpression, out);
+		writeValue(image.hyperlinkAnchorExpression, out);
+		writeValue(image.hyperlinkPageExpression, out);
+		writeValue(image.hyperlinkTooltipExpression, out);
+		out.writeInt(image.bookmarkLevel);
+	}
+
+	protected JRBaseImage readImage(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRBaseImage image = new JRBaseImage(styleSerializer.readStyleProvider(in));
+		objects.add(image);
+
+		readGraphicElement(image, in);
+		image.scaleImageValue = styleSerializer.readEnum(ScaleImageEnum.class, in);
+		image.rotation = styleSerializer.readEnum(RotationEnum.class, in);
+		image.horizontalImageAlign = styleSerializer.readEnum(HorizontalImageAlignEnum.class, in);
+		image.verticalImageAlign = styleSerializer.readEnum(VerticalImageAlignEnum.class, in);
+		image.isUsingCache = (Boolean) in.readJRObject();
+		image.isLazy = in.readBoolean();
+		image.onErrorTypeValue = styleSerializer.readEnum(OnErrorTypeEnum.class, in);
+		image.evaluationTimeValue = styleSerializer.readEnum(EvaluationTimeEnum.class, in);
+		image.linkType = (String) in.readJRObject();
+		image.linkTarget = (String) in.readJRObject();
+		image.hyperlinkParameters = readArray(JRHyperlinkParameter[]::new, in);
+		image.lineBox = styleSerializer.readLineBox(image, in);
+		image.evaluationGroup = (JRGroup) readValue(in);
+		image.expression = (JRExpression) readValue(in);
+		image.anchorNameExpression = (JRExpression) readValue(in);
+		image.bookmarkLevelExpression = (JRExpression) readValue(in);
+		image.hyperlinkReferenceExpression = (JRExpression) readValue(in);
+		image.hyperlinkWhenExpression = (JRExpression) readValue(in);
+		image.hyperlinkAnchorExpression = (JRExpression) readValue(in);
+		image.hyperlinkPageExpression = (JRExpression) readValue(in);
+		image.hyperlinkTooltipExpression = (JRExpression) readValue(in);
+		image.bookmarkLevel = in.readInt();
+		return image;
+	}
+
+	/**
+	 * Stands for an object of the report in the data written with Java serialization.
+	 */
+	private static final class ObjectReference implements Serializable
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+		private final int id;
+		private final boolean style;
+
+		public ObjectReference(int id, boolean style)
+		{
+			this.id = id;
+			this.style = style;
+		}
+	}
+}
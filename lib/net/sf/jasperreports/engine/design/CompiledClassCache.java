@@ -0,0 +1,612 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.design;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.DigestUtils;
+import net.sf.jasperreports.engine.util.SharedContextValues;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * On-disk cache of the bytecode of compiled expression evaluator classes, shared by the 
+ * report compilers of a {@link JasperReportsContext} and by successive JVMs using the same directory.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the generated source code together with the
+ * compiler and its settings and with the classes the code is compiled against: the entries of the compile 
+ * classpath and of the class loader, with their size and modification time, and the report function classes.
+ * An unchanged report design is not compiled again as long as these do not change.
+ * Entries are written to a temporary file first and then moved in place, which allows
+ * several processes of the same user to share the directory.
+ * <p>
+ * The cache is disabled by default. Since the cached bytecode is loaded as is, the directory must be private:
+ * it is created with owner only permissions, and the cache is disabled if the directory is not owned by 
+ * the current user or can be written by other users. Cached files are loaded only if they pass the same check.
+ */
+public final class CompiledClassCache
+{
+
+	private static final Log log = LogFactory.getLog(CompiledClassCache.class);
+
+	/**
+	 * Property that specifies the directory where compiled classes are cached.
+	 * If the property is not set, the cache is disabled.
+	 * The directory should not be shared with other users, see {@link CompiledClassCache}.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4
+			)
+	public static final String PROPERTY_DIRECTORY = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.class.cache.dir";
+
+	private static final String CONTEXT_KEY = "net.sf.jasperreports.compiler.class.cache";
+	
+	private static final String FILE_SUFFIX = ".class";
+
+	private final File directory;
+	
+	private boolean checked;
+	private boolean usable;
+	private UserPrincipal owner;
+	
+	private final Map<ClassLoader, Map<String, String>> environments = new WeakHashMap<>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong writeCount = new AtomicLong();
+
+
+	/**
+	 *
+	 */
+	public static CompiledClassCache getInstance(JasperReportsContext jasperReportsContext)
+	{
+		return SharedContextValues.getValue(jasperReportsContext, CONTEXT_KEY, 
+				sharedContext -> 
+				{
+					String directory = JRPropertiesUtil.getInstance(sharedContext).getProperty(PROPERTY_DIRECTORY);
+					return new CompiledClassCache(directory == null || directory.trim().isEmpty() ? null : new File(directory.trim()));
+				});
+	}
+
+
+	/**
+	 * @param directory the cache directory, or <code>null</code> for a disabled cache
+	 */
+	public CompiledClassCache(File directory)
+	{
+		this.directory = directory;
+	}
+
+
+	public boolean isEnabled()
+	{
+		return directory != null;
+	}
+
+
+	public File getDirectory()
+	{
+		return directory;
+	}
+
+
+	/**
+	 * Returns the cache key of a class, as the digest of everything that determines its bytecode.
+	 * 
+	 * @param compiler the name of the compiler
+	 * @param settings the compiler settings
+	 * @param environment the classes the source code is compiled against, see {@link #getEnvironment(String, ClassLoader, Collection)}
+	 * @param sourceCode the source code of the class
+	 */
+	public static String getKey(String compiler, String settings, String environment, String sourceCode)
+	{
+		StringBuilder key = new StringBuilder(sourceCode.length() + settings.length() + environment.length() + 64);
+		key.append(compiler);
+		key.append('\n');
+		key.append(System.getProperty("java.specification.version"));
+		key.append('\n');
+		key.append(settings);
+		key.append('\n');
+		key.append(environment);
+		key.append('\n');
+		key.append(sourceCode);
+		return DigestUtils.instance().sha256(key.toString());
+	}
+
+
+	/**
+	 * Describes the classes that report expressions are compiled against, to be part of the cache keys.
+	 * <p>
+	 * The description lists the entries of the compile classpath, of the JVM classpath and of the URL class loaders 
+	 * from the class loader to its root, each with its size and modification time, followed by the report function classes.
+	 * For a directory, the number and the latest modification time of the class files in its package directories 
+	 * are listed. 
+	 * <p>
+	 * The working directory is often the root of a project tree rather than a class directory, so only its top level 
+	 * class files, which are in the default package, are listed. If it has package directories holding class files,
+	 * which could change without changing the description, there is no description and the cache is not used.
+	 * Directories that do not hold classes, such as <code>lib</code> and <code>src</code>, are not searched.
+	 * <p>
+	 * Since classes are not loaded again by a class loader, the description is computed once per class loader, 
+	 * classpath and functions.
+	 * 
+	 * @param classpath the compile classpath, or <code>null</code>
+	 * @param classLoader the class loader used to resolve the classes, or <code>null</code>
+	 * @param functionClasses the names of the report function classes
+	 * @return the description, or <code>null</code> if classes cannot be cached for the classpath
+	 */
+	public String getEnvironment(String classpath, ClassLoader classLoader, Collection<String> functionClasses)
+	{
+		String key = classpath + '\n' + functionClasses;
+		synchronized (environments)
+		{
+			Map<String, String> loaderEnvironments = environments.computeIfAbsent(classLoader, loader -> new HashMap<>());
+			if (!loaderEnvironments.containsKey(key))
+			{
+				String environment = describeEnvironment(classpath, classLoader, functionClasses);
+				if (environment == null && log.isDebugEnabled())
+				{
+					log.debug("Not caching compiled classes, the working directory on the classpath has package class files");
+				}
+				loaderEnvironments.put(key, environment);
+			}
+			return loaderEnvironments.get(key);
+		}
+	}
+	
+	
+	private static String describeEnvironment(String classpath, ClassLoader classLoader, Collection<String> functionClasses)
+	{
+		StringBuilder environment = new StringBuilder();
+		boolean cacheable = true;
+		if (classpath != null)
+		{
+			cacheable &= describeClasspath(environment, classpath);
+		}
+		cacheable &= describeClasspath(environment, System.getProperty("java.class.path", ""));
+		for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent())
+		{
+			if (loader instanceof URLClassLoader)
+			{
+				for (URL url : ((URLClassLoader) loader).getURLs())
+				{
+					if ("file".equals(url.getProtocol()))
+					{
+						try
+						{
+							cacheable &= describeEntry(environment, Paths.get(url.toURI()));
+						}
+						catch (URISyntaxException | IllegalArgumentException e)
+						{
+							environment.append(url).append('\n');
+						}
+					}
+					else
+					{
+						environment.append(url).append('\n');
+					}
+				}
+			}
+		}
+		environment.append(functionClasses);
+		return cacheable ? environment.toString() : null;
+	}
+	
+	
+	private static boolean describeClasspath(StringBuilder environment, String classpath)
+	{
+		boolean cacheable = true;
+		for (String entry : classpath.split(File.pathSeparator))
+		{
+			if (entry.equals("*") || entry.endsWith(File.separator + "*") || entry.endsWith("/*"))
+			{
+				describeJars(environment, entry.substring(0, entry.length() - 1));
+			}
+			else if (!entry.isEmpty())
+			{
+				try
+				{
+					cacheable &= describeEntry(environment, Paths.get(entry));
+				}
+				catch (RuntimeException e)
+				{
+					environment.append(entry).append('\n');
+				}
+			}
+		}
+		return cacheable;
+	}
+	
+	
+	/**
+	 * Describes the jar files of a wildcard classpath entry.
+	 */
+	private static void describeJars(StringBuilder environment, String directory)
+	{
+		List<Path> jars = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(directory.isEmpty() ? "." : directory), "*.{jar,JAR}"))
+		{
+			for (Path jar : stream)
+			{
+				jars.add(jar);
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			environment.append(directory).append("* ?\n");
+			return;
+		}
+		
+		Collections.sort(jars);
+		for (Path jar : jars)
+		{
+			describeEntry(environment, jar);
+		}
+	}
+	
+	
+	/**
+	 * Describes a classpath entry, returning <code>false</code> if it is the working directory and has package 
+	 * directories holding class files.
+	 */
+	private static boolean describeEntry(StringBuilder environment, Path entry)
+	{
+		environment.append(entry.toAbsolutePath());
+		try
+		{
+			if (Files.isDirectory(entry))
+			{
+				boolean workingDirectory = entry.toAbsolutePath().normalize().equals(Paths.get("").toAbsolutePath());
+				ClassFilesVisitor visitor = new ClassFilesVisitor(entry, workingDirectory);
+				Files.walkFileTree(entry, visitor);
+				if (visitor.packageClasses)
+				{
+					return false;
+				}
+				environment.append(' ').append(visitor.count).append(' ').append(visitor.lastModified);
+			}
+			else if (Files.exists(entry))
+			{
+				environment.append(' ').append(Files.size(entry)).append(' ').append(Files.getLastModifiedTime(entry).toMillis());
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			environment.append(" ?");
+		}
+		environment.append('\n');
+		return true;
+	}
+	
+	
+	/**
+	 * Collects the number and the latest modification time of the class files in a classpath directory,
+	 * descending only into directories named like package components, which skips hidden directories such as
+	 * version control metadata and most directories that do not contain classes.
+	 * <p>
+	 * In the working directory, the top level directories of {@link #NON_CLASS_DIRECTORIES} are skipped as well,
+	 * and the walk stops at the first class file found in a package directory.
+	 */
+	private static class ClassFilesVisitor extends SimpleFileVisitor<Path>
+	{
+		/**
+		 * Directories of a project tree that hold libraries, sources or build output rather than package directories.
+		 */
+		private static final Set<String> NON_CLASS_DIRECTORIES = 
+				new HashSet<>(Arrays.asList("lib", "libs", "src", "target", "build", "node_modules"));
+		
+		private final Path root;
+		private final boolean workingDirectory;
+		private long count;
+		private long lastModified;
+		private boolean packageClasses;
+		
+		ClassFilesVisitor(Path root, boolean workingDirectory)
+		{
+			this.root = root;
+			this.workingDirectory = workingDirectory;
+		}
+		
+		@Override
+		public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+		{
+			if (dir.equals(root))
+			{
+				return FileVisitResult.CONTINUE;
+			}
+			String name = dir.getFileName().toString();
+			boolean skipped = !isPackageComponent(name) 
+					|| (workingDirectory && dir.getParent().equals(root) && NON_CLASS_DIRECTORIES.contains(name));
+			return skipped ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+		}
+		
+		private static boolean isPackageComponent(String name)
+		{
+			if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0)))
+			{
+				return false;
+			}
+			for (int i = 1; i < name.length(); i++)
+			{
+				if (!Character.isJavaIdentifierPart(name.charAt(i)))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		@Override
+		public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+		{
+			String name = file.getFileName().toString();
+			if (name.endsWith(".class"))
+			{
+				if (workingDirectory && !file.getParent().equals(root))
+				{
+					packageClasses = true;
+					return FileVisitResult.TERMINATE;
+				}
+				++count;
+				lastModified = Math.max(lastModified, attrs.lastModifiedTime().toMillis());
+			}
+			return FileVisitResult.CONTINUE;
+		}
+		
+		@Override
+		public FileVisitResult visitFileFailed(Path file, IOException exc)
+		{
+			return FileVisitResult.CONTINUE;
+		}
+	}
+
+
+	/**
+	 * Returns the cached bytecode for a key, or <code>null</code> if the class is not cached.
+	 */
+	public byte[] get(String key)
+	{
+		if (!isUsable())
+		{
+			return null;
+		}
+		
+		Path file = getFile(key);
+		try
+		{
+			if (!isPrivate(file.getParent()) || !isPrivate(file))
+			{
+				log.warn("Ignoring cached class " + file + " not owned by the current user or writable by other users");
+				missCount.incrementAndGet();
+				return null;
+			}
+			
+			byte[] data = Files.readAllBytes(file);
+			hitCount.incrementAndGet();
+			return data;
+		}
+		catch (NoSuchFileException e)
+		{
+			missCount.incrementAndGet();
+			return null;
+		}
+		catch (IOException e)
+		{
+			log.warn("Could not read cached class " + file, e);
+			missCount.incrementAndGet();
+			return null;
+		}
+	}
+
+
+	/**
+	 * Stores the bytecode of a compiled class.
+	 * Failures are logged and do not affect the compilation.
+	 */
+	public void put(String key, byte[] data)
+	{
+		if (!isUsable())
+		{
+			return;
+		}
+		
+		Path file = getFile(key);
+		Path tempFile = null;
+		try
+		{
+			createPrivateDirectory(file.getParent());
+			tempFile = Files.createTempFile(file.getParent(), key, ".tmp");
+			Files.write(tempFile, data);
+			try
+			{
+				Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			tempFile = null;
+			writeCount.incrementAndGet();
+		}
+		catch (IOException e)
+		{
+			log.warn("Could not cache compiled class " + file, e);
+		}
+		finally
+		{
+			if (tempFile != null)
+			{
+				try
+				{
+					Files.deleteIfExists(tempFile);
+				}
+				catch (IOException e)
+				{
+					// ignore
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Checks the cache directory once, creating it if it does not exist.
+	 */
+	private synchronized boolean isUsable()
+	{
+		if (!checked)
+		{
+			checked = true;
+			if (directory != null)
+			{
+				Path path = directory.toPath();
+				try
+				{
+					owner = FileSystems.getDefault().getUserPrincipalLookupService()
+							.lookupPrincipalByName(System.getProperty("user.name"));
+					createPrivateDirectory(path);
+					usable = isPrivate(path);
+					if (!usable)
+					{
+						log.warn("Compiled class cache disabled, the directory " + path 
+								+ " is not owned by the current user or is writable by other users");
+					}
+				}
+				catch (IOException | RuntimeException e)
+				{
+					log.warn("Compiled class cache disabled, could not check the directory " + path, e);
+					usable = false;
+				}
+			}
+		}
+		return usable;
+	}
+	
+	
+	private static void createPrivateDirectory(Path path) throws IOException
+	{
+		if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS))
+		{
+			if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix"))
+			{
+				Files.createDirectories(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+			}
+			else
+			{
+				Files.createDirectories(path);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Checks that a file is not a link, is owned by the current user and cannot be written by other users.
+	 */
+	private boolean isPrivate(Path path) throws IOException
+	{
+		if (Files.isSymbolicLink(path) || !owner.equals(Files.getOwner(path, LinkOption.NOFOLLOW_LINKS)))
+		{
+			return false;
+		}
+		
+		PosixFileAttributeView posixView = Files.getFileAttributeView(path, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+		if (posixView != null)
+		{
+			Set<PosixFilePermission> permissions = posixView.readAttributes().permissions();
+			return !permissions.contains(PosixFilePermission.GROUP_WRITE) && !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+		}
+		return true;
+	}
+
+
+	private Path getFile(String key)
+	{
+		// spread the entries over 256 subdirectories
+		return directory.toPath().resolve(key.substring(0, 2)).resolve(key + FILE_SUFFIX);
+	}
+
+
+	public long getHitCount()
+	{
+		return hitCount.get();
+	}
+
+	public long getMissCount()
+	{
+		return missCount.get();
+	}
+
+	public long getWriteCount()
+	{
+		return writeCount.get();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CompiledClassCache[directory=" + directory + ", hits=" + getHitCount() 
+				+ ", misses=" + getMissCount() + ", writes=" + getWriteCount() + "]";
+	}
+}
@@ -41,6 +41,7 @@ import net.sf.jasperreports.compilers.DirectExpressionValueFilter;
 import net.sf.jasperreports.compilers.DirectValueClassFilterDecorator;
 import net.sf.jasperreports.compilers.IdentityExpressionValueFilter;
 import net.sf.jasperreports.compilers.InterpretedExpressionEvaluators;
+import net.sf.jasperreports.compilers.JavaExpressionParser;
 import net.sf.jasperreports.compilers.ReportClassFilter;
 import net.sf.jasperreports.compilers.ReportExpressionEvaluationData;
 import net.sf.jasperreports.compilers.ReportExpressionsCompilation;
@@ -59,6 +60,7 @@ import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRReport;
 import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVariable;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.fill.JREvaluator;
@@ -324,16 +326,19 @@ public abstract class JRAbstractCompiler implements JRCompiler
 	{		
 		String unitName = JRAbstractCompiler.getUnitName(jasperDesign, dataset, nameSuffix);
 		
+		Map<String, JRParameter> parametersMap = listToMap(dataset.getParametersList(), JRParameter::getName);
+		Map<String, JRField> fieldsMap = listToMap(dataset.getFieldsList(), JRField::getName);
+		
 		JRExpressionCollector datasetCollector = expressionCollector.getCollector(dataset);
-		ReportExpressionsCompilation expressions = expressionsCompiler.getExpressionsCompilation(datasetCollector);
+		ReportExpressionsCompilation expressions = expressionsCompiler.getExpressionsCompilation(datasetCollector,
+				javaExpressionParser(jasperDesign, parametersMap, fieldsMap, dataset.getVariablesMap()));
 		
 		JRCompilationUnit compilationUnit = new JRCompilationUnit(unitName);
 		compilationUnit.setDirectEvaluations(expressions.getDirectEvaluations());
 		
 		ReportSourceCompilation<JRParameter> sourceCompilation = new ReportSourceCompilation<>(
 				jasperReportsContext, jasperDesign, expressions, 
-				listToMap(dataset.getParametersList(), JRParameter::getName), 
-				listToMap(dataset.getFieldsList(), JRField::getName), 
+				parametersMap, fieldsMap, 
 				dataset.getVariablesMap(), dataset.getVariables());
 		if (sourceCompilation.hasSource())
 		{
@@ -351,15 +356,18 @@ public abstract class JRAbstractCompiler implements JRCompiler
 	{		
 		String unitName = JRAbstractCompiler.getUnitName(jasperDesign, crosstab, expressionCollector, nameSuffix);
 		
+		Map<String, JRCrosstabParameter> parametersMap = listToMap(crosstab.getParametersList(), JRCrosstabParameter::getName);
+		
 		JRExpressionCollector crosstabCollector = expressionCollector.getCollector(crosstab);
-		ReportExpressionsCompilation expressions = expressionsCompiler.getExpressionsCompilation(crosstabCollector);
+		ReportExpressionsCompilation expressions = expressionsCompiler.getExpressionsCompilation(crosstabCollector,
+				javaExpressionParser(jasperDesign, parametersMap, null, crosstab.getVariablesMap()));
 		
 		JRCompilationUnit compilationUnit = new JRCompilationUnit(unitName);
 		compilationUnit.setDirectEvaluations(expressions.getDirectEvaluations());
 		
 		ReportSourceCompilation<JRCrosstabParameter> sourceCompilation = new ReportSourceCompilation<>(
 				jasperReportsContext, jasperDesign, expressions, 
-				listToMap(crosstab.getParametersList(), JRCrosstabParameter::getName), 
+				parametersMap, 
 				null, crosstab.getVariablesMap(), crosstab.getVariables());
 		if (sourceCompilation.hasSource())
 		{
@@ -497,6 +505,17 @@ public abstract class JRAbstractCompiler implements JRCompiler
 		return IdentityExpressionValueFilter.instance();
 	}
 	
+	/**
+	 * Returns the parser of the Java expressions that are to be evaluated directly instead of 
+	 * being compiled, or <code>null</code> if the compiler does not evaluate such expressions.
+	 */
+	protected JavaExpressionParser javaExpressionParser(JasperDesign jasperDesign, 
+			Map<String, ? extends JRParameter> parametersMap, Map<String, JRField> fieldsMap, 
+			Map<String, JRVariable> variablesMap)
+	{
+		return null;
+	}
+	
 	/**
 	 * Creates an expression evaluator instance from data saved when the report was compiled.
 	 * 
@@ -38,9 +38,13 @@ import net.sf.jasperreports.annotations.properties.Property;
 import net.sf.jasperreports.annotations.properties.PropertyScope;
 import net.sf.jasperreports.compilers.DirectExpressionValueFilter;
 import net.sf.jasperreports.compilers.JavaDirectExpressionValueFilter;
+import net.sf.jasperreports.compilers.JavaExpressionParser;
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVariable;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.fill.JREvaluator;
 import net.sf.jasperreports.engine.util.JRClassLoader;
@@ -75,6 +79,26 @@ public abstract class JRAbstractJavaCompiler extends JRAbstractCompiler
 	public static final String PROPERTY_EVALUATOR_CLASS_REFERENCE_FIX_ENABLED = JRPropertiesUtil.PROPERTY_PREFIX + 
 			"evaluator.class.reference.fix.enabled";
 	
+	/**
+	 * Property that determines whether common Java expressions, such as string concatenations, arithmetic,
+	 * null checks and method calls on strings and numbers, are evaluated directly instead of being included 
+	 * in the generated evaluator class.
+	 * <p>
+	 * When all the expressions of a report or dataset can be evaluated directly, no evaluator class is
+	 * generated and compiled for it.
+	 * 
+	 * @see net.sf.jasperreports.compilers.JavaExpressionParser
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_DIRECT_EXPRESSIONS = JRPropertiesUtil.PROPERTY_PREFIX + 
+			"compiler.java.direct.expressions";
+	
 	public static final String EXCEPTION_MESSAGE_KEY_EXPECTED_JAVA_LANGUAGE = "compilers.language.expected.java";
 	public static final String EXCEPTION_MESSAGE_KEY_EXPRESSION_CLASS_NOT_LOADED = "compilers.expression.class.not.loaded";
 
@@ -103,6 +127,16 @@ public abstract class JRAbstractJavaCompiler extends JRAbstractCompiler
 		return JavaDirectExpressionValueFilter.instance();
 	}
 
+	@Override
+	protected JavaExpressionParser javaExpressionParser(JasperDesign jasperDesign, 
+			Map<String, ? extends JRParameter> parametersMap, Map<String, JRField> fieldsMap, 
+			Map<String, JRVariable> variablesMap)
+	{
+		boolean directExpressions = JRPropertiesUtil.getInstance(jasperReportsContext).getBooleanProperty(
+				jasperDesign, PROPERTY_DIRECT_EXPRESSIONS, false);
+		return directExpressions ? new JavaExpressionParser(parametersMap, fieldsMap, variablesMap) : null;
+	}
+
 	@Override
 	protected JREvaluator loadEvaluator(Serializable compileData, String className) throws JRException
 	{
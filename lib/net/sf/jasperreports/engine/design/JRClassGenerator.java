@@ -42,6 +42,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
 import java.util.stream.Stream;
 
 import net.sf.jasperreports.annotations.properties.Property;
@@ -74,6 +75,29 @@ public class JRClassGenerator
 			)
 	public static final String PROPERTY_MAX_METHOD_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.max.java.method.size";
 	
+	/**
+	 * Property that determines whether each expression is generated as a separate small method.
+	 * <p>
+	 * By default the expressions are generated as the cases of <code>switch</code> statements that are
+	 * chained over several large methods, which for reports with many expressions exceed the JIT 
+	 * compiler inlining and huge method limits. When this property is set, the <code>evaluate</code> 
+	 * methods dispatch the expression id, through two levels of table switches for large reports,
+	 * to one method per expression.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_METHOD_PER_EXPRESSION = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.java.method.per.expression";
+	
+	/**
+	 * The number of expression ids dispatched by a second level <code>switch</code> method, as a power of 2.
+	 */
+	private static final int EXPR_DISPATCH_BLOCK_SHIFT = 7;
+	
 	
 	/**
 	 *
@@ -109,6 +133,7 @@ public class JRClassGenerator
 	protected final JRSourceCompileTask sourceTask;
 
 	private final int maxMethodSize;
+	private final boolean methodPerExpression;
 	
 	protected Map<String, ? extends JRParameter> parametersMap;
 	protected Map<String,JRField> fieldsMap;
@@ -126,6 +151,7 @@ public class JRClassGenerator
 		
 		JRPropertiesUtil properties = JRPropertiesUtil.getInstance(sourceTask.getJasperReportsContext());
 		maxMethodSize = properties.getIntegerProperty(PROPERTY_MAX_METHOD_SIZE, Integer.MAX_VALUE);
+		methodPerExpression = sourceTask.isMethodPerExpression();
 	}
 
 	
@@ -474,7 +500,14 @@ public class JRClassGenerator
 
 		if (expressionsList.size() > 0)
 		{
-			sb.append(generateMethod(expressionsList.listIterator(), evaluationType));
+			if (methodPerExpression)
+			{
+				sb.append(generateExpressionMethods(evaluationType, expressionsList));
+			}
+			else
+			{
+				sb.append(generateMethod(expressionsList.listIterator(), evaluationType));
+			}
 		}
 		else
 		{
@@ -538,6 +571,102 @@ public class JRClassGenerator
 		return sb.toString();
 	}
 
+	/**
+	 * Generates one method per expression and the <code>evaluate</code> method that dispatches 
+	 * the expression id to them.
+	 */
+	protected String generateExpressionMethods(byte evaluationType, List<JRExpression> expressionsList)
+	{
+		String methodSuffix = methodSuffixMap.get(evaluationType);
+		
+		Map<Integer, List<Integer>> blockIds = new TreeMap<>();
+		for (JRExpression expression : expressionsList)
+		{
+			Integer id = sourceTask.getExpressionId(expression);
+			blockIds.computeIfAbsent(id >>> EXPR_DISPATCH_BLOCK_SHIFT, k -> new ArrayList<>()).add(id);
+		}
+
+		StringBuilder sb = new StringBuilder();
+		if (blockIds.size() == 1)
+		{
+			writeDispatchMethod(sb, "public", "evaluate" + methodSuffix, blockIds.values().iterator().next(), 
+					"evaluate" + methodSuffix + "_", "()");
+		}
+		else
+		{
+			writeDispatchMethod(sb, "public", "evaluate" + methodSuffix + "(int id) throws Throwable", 
+					"id >>> " + EXPR_DISPATCH_BLOCK_SHIFT, blockIds.keySet(), 
+					"evaluate" + methodSuffix + "Block", "(id)");
+			for (Map.Entry<Integer, List<Integer>> block : blockIds.entrySet())
+			{
+				writeDispatchMethod(sb, "private", "evaluate" + methodSuffix + "Block" + block.getKey(), block.getValue(), 
+						"evaluate" + methodSuffix + "_", "()");
+			}
+		}
+		
+		for (JRExpression expression : expressionsList)
+		{
+			sb.append("    /**\n");
+			sb.append("     *\n");
+			sb.append("     */\n");
+			sb.append("    private Object evaluate");
+			sb.append(methodSuffix);
+			sb.append("_");
+			sb.append(sourceTask.getExpressionId(expression));
+			sb.append("() throws Throwable\n");
+			sb.append("    {\n");
+			sb.append("        return ");
+			sb.append(this.generateExpression(expression, evaluationType));
+			sb.append(";");
+			appendExpressionComment(sb, expression);
+			sb.append("\n");
+			sb.append("    }\n");
+			sb.append("\n");
+			sb.append("\n");
+		}
+		
+		return sb.toString();
+	}
+
+	private void writeDispatchMethod(StringBuilder sb, String modifier, String methodName, Collection<Integer> ids, 
+			String targetPrefix, String targetArguments)
+	{
+		writeDispatchMethod(sb, modifier, methodName + "(int id) throws Throwable", "id", ids, targetPrefix, targetArguments);
+	}
+
+	private void writeDispatchMethod(StringBuilder sb, String modifier, String methodSignature, String switchValue, 
+			Collection<Integer> cases, String targetPrefix, String targetArguments)
+	{
+		sb.append("    /**\n");
+		sb.append("     *\n");
+		sb.append("     */\n");
+		sb.append("    ");
+		sb.append(modifier);
+		sb.append(" Object ");
+		sb.append(methodSignature);
+		sb.append("\n");
+		sb.append("    {\n");
+		sb.append("        switch (");
+		sb.append(switchValue);
+		sb.append(")\n");
+		sb.append("        {\n");
+		for (Integer value : cases)
+		{
+			sb.append("            case ");
+			sb.append(value);
+			sb.append(" : return ");
+			sb.append(targetPrefix);
+			sb.append(value);
+			sb.append(targetArguments);
+			sb.append(";\n");
+		}
+		sb.append("            default : return null;\n");
+		sb.append("        }\n");
+		sb.append("    }\n");
+		sb.append("\n");
+		sb.append("\n");
+	}
+
 	protected void writeMethodStart(StringBuilder sb, byte evaluationType, int methodIndex)
 	{
 		sb.append("    /**\n");
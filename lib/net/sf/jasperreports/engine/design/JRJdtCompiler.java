@@ -26,9 +26,11 @@ package net.sf.jasperreports.engine.design;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -38,6 +40,12 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -57,6 +65,8 @@ import org.eclipse.jdt.internal.compiler.env.NameEnvironmentAnswer;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRReport;
@@ -64,7 +74,9 @@ import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.util.JRClassLoader;
 import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.functions.FunctionsBundle;
 import net.sf.jasperreports.functions.FunctionsUtil;
+import net.sf.jasperreports.properties.PropertyConstants;
 
 /**
  * @author Teodor Danciu (teodord@users.sourceforge.net)
@@ -81,6 +93,21 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler
 	 */
 	static final Log log = LogFactory.getLog(JRJdtCompiler.class);
 	
+	/**
+	 * Property that specifies the number of threads used to compile the expression classes of a report,
+	 * i.e. the classes of the main dataset, of the subdatasets and of the crosstabs, in parallel.
+	 * <p>
+	 * With the default value of <code>1</code>, all the classes are compiled together on the calling thread.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = "1",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_PARALLEL_THREADS = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.jdt.parallel.threads";
+	
 	private final ClassLoader classLoader;
 
 	Constructor<?> constrNameEnvAnsBin;
@@ -135,13 +162,194 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler
 
 	@Override
 	protected String compileUnits(final JRCompilationUnit[] units, String classpath, File tempDirFile)
+	{
+		Map<String,String> settings = getJdtSettings();
+		
+		CompiledClassCache classCache = CompiledClassCache.getInstance(jasperReportsContext);
+		String[] cacheKeys = null;
+		List<Integer> unitIndexes = new ArrayList<>(units.length);
+		String environment = null;
+		if (classCache.isEnabled())
+		{
+			List<String> functionClasses = new ArrayList<>();
+			for (FunctionsBundle bundle : FunctionsUtil.getInstance(jasperReportsContext).getAllFunctionBundles())
+			{
+				for (Class<?> functionClass : bundle.getFunctionClasses())
+				{
+					functionClasses.add(functionClass.getName());
+				}
+			}
+			// null when the classes on the classpath cannot be described reliably
+			environment = classCache.getEnvironment(classpath, getClassLoader(), functionClasses);
+		}
+		if (environment != null)
+		{
+			String settingsKey = new TreeMap<>(settings).toString();
+			cacheKeys = new String[units.length];
+			for (int i = 0; i < units.length; i++)
+			{
+				cacheKeys[i] = CompiledClassCache.getKey(getClass().getName(), settingsKey, environment, units[i].getSourceCode());
+				byte[] classBytes = classCache.get(cacheKeys[i]);
+				if (classBytes == null)
+				{
+					unitIndexes.add(i);
+				}
+				else
+				{
+					if (log.isDebugEnabled())
+					{
+						log.debug("using cached class for " + units[i].getCompileName());
+					}
+					units[i].setCompileData(classBytes);
+				}
+			}
+		}
+		else
+		{
+			for (int i = 0; i < units.length; i++)
+			{
+				unitIndexes.add(i);
+			}
+		}
+		
+		if (unitIndexes.isEmpty())
+		{
+			return null;
+		}
+		
+		int threads = Math.min(unitIndexes.size(), 
+				JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(PROPERTY_PARALLEL_THREADS, 1));
+		String problems;
+		if (threads > 1)
+		{
+			problems = compileUnitsInParallel(units, unitIndexes, settings, threads);
+		}
+		else
+		{
+			JRCompilationUnit[] compiledUnits = new JRCompilationUnit[unitIndexes.size()];
+			for (int i = 0; i < compiledUnits.length; i++)
+			{
+				compiledUnits[i] = units[unitIndexes.get(i)];
+			}
+			
+			problems = compileUnits(compiledUnits, settings);
+			
+			//units are recreated when builtin functions are used
+			for (int i = 0; i < compiledUnits.length; i++)
+			{
+				units[unitIndexes.get(i)] = compiledUnits[i];
+			}
+		}
+		
+		if (problems == null && cacheKeys != null)
+		{
+			for (Integer unitIndex : unitIndexes)
+			{
+				Serializable compileData = units[unitIndex].getCompileData();
+				if (compileData instanceof byte[])
+				{
+					classCache.put(cacheKeys[unitIndex], (byte[]) compileData);
+				}
+			}
+		}
+		
+		return problems;
+	}
+
+	/**
+	 * Compiles each unit separately, on a pool of threads.
+	 * 
+	 * @param units the report units
+	 * @param unitIndexes the indexes of the units to compile
+	 * @param settings the JDT settings
+	 * @param threads the number of threads
+	 * @return the formatted compilation problems, or <code>null</code> if there were none
+	 */
+	protected String compileUnitsInParallel(final JRCompilationUnit[] units, List<Integer> unitIndexes,
+			final Map<String,String> settings, int threads)
+	{
+		ExecutorService executor = createCompileExecutor(threads);
+		try
+		{
+			List<Future<String>> results = new ArrayList<>(unitIndexes.size());
+			for (final Integer unitIndex : unitIndexes)
+			{
+				results.add(executor.submit(() -> 
+				{
+					JRCompilationUnit[] unitArray = new JRCompilationUnit[]{units[unitIndex]};
+					String unitProblems = compileUnits(unitArray, settings);
+					units[unitIndex] = unitArray[0];
+					return unitProblems;
+				}));
+			}
+			
+			StringBuilder problems = new StringBuilder();
+			for (Future<String> result : results)
+			{
+				String unitProblems = result.get();
+				if (unitProblems != null)
+				{
+					problems.append(unitProblems);
+				}
+			}
+			return problems.length() > 0 ? problems.toString() : null;
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new JRRuntimeException(e);
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw new JRRuntimeException(cause);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Creates the pool of threads used to compile the units of a report in parallel.
+	 * 
+	 * @param threads the number of threads
+	 * @see #PROPERTY_PARALLEL_THREADS
+	 */
+	protected ExecutorService createCompileExecutor(int threads)
+	{
+		AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, runnable -> 
+		{
+			Thread thread = new Thread(runnable, "jdt compile #" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Compiles a set of units in a single JDT compiler run.
+	 * 
+	 * @param units the units, replaced with the recreated units when builtin functions are used
+	 * @param settings the JDT settings
+	 * @return the formatted compilation problems, or <code>null</code> if there were none
+	 */
+	protected String compileUnits(final JRCompilationUnit[] units, Map<String,String> settings)
 	{
 		final INameEnvironment env = getNameEnvironment(units);
 
 		final IErrorHandlingPolicy policy = 
 			DefaultErrorHandlingPolicies.proceedWithAllProblems();
 
-		final CompilerOptions options = new CompilerOptions(getJdtSettings());
+		final CompilerOptions options = new CompilerOptions(settings);
 
 		final IProblemFactory problemFactory = 
 			new DefaultProblemFactory(Locale.getDefault());
@@ -31,6 +31,7 @@ import net.sf.jasperreports.engine.JRExpression;
 import net.sf.jasperreports.engine.JRExpressionCollector;
 import net.sf.jasperreports.engine.JRField;
 import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRVariable;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.util.DigestUtils;
@@ -51,6 +52,7 @@ public class JRSourceCompileTask
 	private JRVariable[] variables;
 	private List<JRExpression> expressions;
 	private boolean onlyDefaultEvaluation;
+	private boolean methodPerExpression;
 	
 	private String compileName;
 	
@@ -75,6 +77,8 @@ public class JRSourceCompileTask
 		this.variables = variables;
 		this.expressions = expressions;
 		this.onlyDefaultEvaluation = onlyDefaultEvaluation;
+		this.methodPerExpression = JRPropertiesUtil.getInstance(getJasperReportsContext()).getBooleanProperty(
+				jasperDesign, JRClassGenerator.PROPERTY_METHOD_PER_EXPRESSION, false);
 		
 		this.compileName = computeCompileName();
 	}
@@ -145,6 +149,11 @@ public class JRSourceCompileTask
 		}
 		sourceText.append("onlyDefaultEvaluation;");
 		sourceText.append(onlyDefaultEvaluation);
+		if (methodPerExpression)
+		{
+			// the generated class differs, it must not be mistaken for the class cached for the default layout
+			sourceText.append(";methodPerExpression");
+		}
 		
 		String hash = DigestUtils.instance().sha256(sourceText.toString());
 		return unitName + "_" + hash;
@@ -180,6 +189,16 @@ public class JRSourceCompileTask
 	}
 
 
+	/**
+	 * Returns whether the expressions are to be generated as one method per expression.
+	 * 
+	 * @see JRClassGenerator#PROPERTY_METHOD_PER_EXPRESSION
+	 */
+	public boolean isMethodPerExpression()
+	{
+		return methodPerExpression;
+	}
+
 	public Map<String, ? extends JRParameter> getParametersMap()
 	{
 		return parametersMap;
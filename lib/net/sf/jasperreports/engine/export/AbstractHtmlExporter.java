@@ -446,6 +446,25 @@ public abstract class AbstractHtmlExporter<RC extends HtmlReportConfiguration, C
 		return getCurrentItemConfiguration().isUseBackgroundImageToAlign();
 	}
 
+
+	/**
+	 * 
+	 */
+	protected boolean isEmbeddedImageReuse(JRPrintElement element)
+	{
+		if (
+			element.hasProperties()
+			&& element.getPropertiesMap().containsProperty(HtmlReportConfiguration.PROPERTY_EMBEDDED_IMAGE_REUSE)
+			&& !isOverrideHints()
+			)
+		{
+			// we make this test to avoid reaching the global default value of the property directly
+			// and thus skipping the report level one, if present
+			return getPropertiesUtil().getBooleanProperty(element, HtmlReportConfiguration.PROPERTY_EMBEDDED_IMAGE_REUSE, getCurrentItemConfiguration().isEmbeddedImageReuse());
+		}
+		return getCurrentItemConfiguration().isEmbeddedImageReuse();
+	}
+
 	@Override
 	protected JRStyledText getStyledText(JRPrintText textElement, boolean setBackcolor)
 	{
@@ -0,0 +1,188 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.util.JRDataUtils;
+
+
+/**
+ * Value encoder that writes the values of text fields instead of their formatted text.
+ * <p>
+ * Integral numbers are written as decimal digits, other numbers by their <code>toString()</code> representation
+ * and dates in the ISO 8601 format (<code>yyyy-MM-dd'T'HH:mm:ss[.SSS]</code>, <code>yyyy-MM-dd</code> for 
+ * <code>java.sql.Date</code> and <code>HH:mm:ss</code> for <code>java.sql.Time</code>), in the time zone of the 
+ * element or of the report. Numbers and dates are formatted directly into the record buffer.
+ * Static texts, null values and values of other types are written as text.
+ */
+public class CsvRawValueEncoder implements CsvValueEncoder
+{
+	
+	private final TimeZone defaultTimeZone;
+	private final Calendar calendar;
+	private String calendarTimeZoneId;
+
+	public CsvRawValueEncoder()
+	{
+		this(TimeZone.getDefault());
+	}
+
+	/**
+	 * @param defaultTimeZone the time zone of the dates of the elements that do not specify a time zone
+	 */
+	public CsvRawValueEncoder(TimeZone defaultTimeZone)
+	{
+		this.defaultTimeZone = defaultTimeZone;
+		this.calendar = new GregorianCalendar(defaultTimeZone);
+	}
+
+	@Override
+	public void encode(JRPrintText element, String text, CsvRecordWriter writer) throws IOException
+	{
+		Object value = element.getValue();
+		if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+		{
+			writer.writeField(((Number) value).longValue());
+		}
+		else if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64)
+		{
+			writer.writeField(((BigInteger) value).longValue());
+		}
+		else if (value instanceof BigDecimal)
+		{
+			writer.writeField(((BigDecimal) value).toPlainString());
+		}
+		else if (value instanceof Number || value instanceof Boolean)
+		{
+			writer.writeField(value.toString());
+		}
+		else if (value instanceof Date)
+		{
+			writeDate(element, (Date) value, writer);
+		}
+		else if (value instanceof LocalDateTime)
+		{
+			LocalDateTime dateTime = (LocalDateTime) value;
+			writeDateTime(writer, true, true, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), 
+					dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano() / 1000000);
+		}
+		else if (value instanceof LocalDate)
+		{
+			LocalDate date = (LocalDate) value;
+			writeDateTime(writer, true, false, date.getYear(), date.getMonthValue(), date.getDayOfMonth(), 0, 0, 0, 0);
+		}
+		else if (value instanceof LocalTime)
+		{
+			LocalTime time = (LocalTime) value;
+			writeDateTime(writer, false, true, 0, 0, 0, time.getHour(), time.getMinute(), time.getSecond(), time.getNano() / 1000000);
+		}
+		else
+		{
+			writer.writeField(text);
+		}
+	}
+
+	protected void writeDate(JRPrintText element, Date value, CsvRecordWriter writer) throws IOException
+	{
+		String timeZoneId = element.getTimeZoneId();
+		if (timeZoneId == null ? calendarTimeZoneId != null : !timeZoneId.equals(calendarTimeZoneId))
+		{
+			calendar.setTimeZone(timeZoneId == null ? defaultTimeZone : JRDataUtils.getTimeZone(timeZoneId));
+			calendarTimeZoneId = timeZoneId;
+		}
+		calendar.setTime(value);
+		
+		boolean hasDate = !(value instanceof java.sql.Time);
+		boolean hasTime = !(value instanceof java.sql.Date);
+		int year = calendar.get(Calendar.ERA) == GregorianCalendar.BC ? 1 - calendar.get(Calendar.YEAR) : calendar.get(Calendar.YEAR);
+		writeDateTime(writer, hasDate, hasTime, 
+				year, calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH), 
+				calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE), calendar.get(Calendar.SECOND), 
+				calendar.get(Calendar.MILLISECOND));
+	}
+	
+	protected void writeDateTime(CsvRecordWriter writer, boolean hasDate, boolean hasTime, 
+			int year, int month, int day, int hour, int minute, int second, int millis) throws IOException
+	{
+		if (hasDate && (year < 0 || year > 9999))
+		{
+			// not representable in four digits, left to java.time
+			writer.writeField(hasTime 
+					? LocalDateTime.of(year, month, day, hour, minute, second, millis * 1000000).toString()
+					: LocalDate.of(year, month, day).toString());
+			return;
+		}
+		
+		char[] chars = writer.fieldChars(23);
+		int length = 0;
+		if (hasDate)
+		{
+			length = digits(chars, length, year, 4);
+			chars[length++] = '-';
+			length = digits(chars, length, month, 2);
+			chars[length++] = '-';
+			length = digits(chars, length, day, 2);
+		}
+		if (hasDate && hasTime)
+		{
+			chars[length++] = 'T';
+		}
+		if (hasTime)
+		{
+			length = digits(chars, length, hour, 2);
+			chars[length++] = ':';
+			length = digits(chars, length, minute, 2);
+			chars[length++] = ':';
+			length = digits(chars, length, second, 2);
+			if (millis != 0)
+			{
+				chars[length++] = '.';
+				length = digits(chars, length, millis, 3);
+			}
+		}
+		writer.writeField(chars, 0, length);
+	}
+	
+	private static int digits(char[] chars, int offset, int value, int count)
+	{
+		for (int i = offset + count - 1; i >= offset; i--)
+		{
+			chars[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		return offset + count;
+	}
+
+}
@@ -0,0 +1,329 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+
+/**
+ * Writes delimiter-separated records into a reusable character buffer.
+ * <p>
+ * Field values are enclosed and escaped the same way as {@link JRAbstractCsvExporter#prepareText(String)} does,
+ * without creating intermediate strings.
+ * 
+ * @see JRCsvDataExporter
+ */
+public class CsvRecordWriter
+{
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	
+	private static final char[] FORMULA_CHARACTERS = JRAbstractCsvExporter.ESCAPE_FORMULA_CHARACTERS.toCharArray();
+
+	private Writer writer;
+	private final char[] buffer;
+	private int position;
+	
+	private final char[] fieldDelimiter;
+	private final char[] recordDelimiter;
+	private final char quote;
+	private final boolean forceFieldEnclosure;
+	private final boolean escapeFormula;
+	
+	private char[] field = new char[64];
+	private boolean recordStarted;
+	private long recordCount;
+
+	public CsvRecordWriter(
+		Writer writer,
+		String fieldDelimiter, 
+		String recordDelimiter, 
+		char quote,
+		boolean forceFieldEnclosure,
+		boolean escapeFormula
+		)
+	{
+		this.writer = writer;
+		this.buffer = new char[DEFAULT_BUFFER_SIZE];
+		this.fieldDelimiter = fieldDelimiter.toCharArray();
+		this.recordDelimiter = recordDelimiter.toCharArray();
+		this.quote = quote;
+		this.forceFieldEnclosure = forceFieldEnclosure;
+		this.escapeFormula = escapeFormula;
+	}
+
+	/**
+	 * Writes the buffered characters and continues with a different writer.
+	 */
+	public void setWriter(Writer writer) throws IOException
+	{
+		flushBuffer();
+		this.writer = writer;
+	}
+
+	/**
+	 * Writes a field of the current record.
+	 * 
+	 * @param value the field value, <code>null</code> for an empty field
+	 */
+	public void writeField(String value) throws IOException
+	{
+		if (value == null)
+		{
+			writeEmptyField();
+			return;
+		}
+		
+		int length = value.length();
+		char[] chars = fieldChars(length);
+		value.getChars(0, length, chars, 0);
+		writeField(chars, 0, length);
+	}
+
+	/**
+	 * Writes a field containing the decimal representation of a number.
+	 */
+	public void writeField(long value) throws IOException
+	{
+		if (value == Long.MIN_VALUE)
+		{
+			writeField(Long.toString(value));
+			return;
+		}
+		
+		char[] chars = fieldChars(20);
+		int start = chars.length;
+		long number = Math.abs(value);
+		do
+		{
+			chars[--start] = (char) ('0' + number % 10);
+			number /= 10;
+		}
+		while (number > 0);
+		
+		if (value < 0)
+		{
+			chars[--start] = '-';
+		}
+		
+		writeField(chars, start, chars.length - start);
+	}
+	
+	/**
+	 * Returns a scratch array of at least the given length, which can be used to format a value
+	 * passed to {@link #writeField(char[], int, int)}.
+	 */
+	public char[] fieldChars(int length)
+	{
+		if (field.length < length)
+		{
+			field = new char[Math.max(length, field.length << 1)];
+		}
+		return field;
+	}
+
+	/**
+	 * Writes a field of the current record.
+	 */
+	public void writeField(char[] chars, int offset, int length) throws IOException
+	{
+		startField();
+		
+		int end = offset + length;
+		boolean hasQuotes = false;
+		boolean enclose = forceFieldEnclosure;
+		for (int i = offset; i < end; i++)
+		{
+			char c = chars[i];
+			if (c == quote)
+			{
+				hasQuotes = true;
+				enclose = true;
+			}
+			else if (c == '\n')
+			{
+				enclose = true;
+			}
+		}
+		
+		if (!enclose)
+		{
+			enclose = contains(chars, offset, end, fieldDelimiter) || contains(chars, offset, end, recordDelimiter);
+		}
+		
+		if (enclose)
+		{
+			append(quote);
+		}
+		
+		if (escapeFormula && length > 0 && isFormulaCharacter(chars[offset]))
+		{
+			append(' ');
+		}
+		
+		if (hasQuotes)
+		{
+			for (int i = offset; i < end; i++)
+			{
+				char c = chars[i];
+				append(c);
+				if (c == quote)
+				{
+					append(c);
+				}
+			}
+		}
+		else
+		{
+			append(chars, offset, length);
+		}
+		
+		if (enclose)
+		{
+			append(quote);
+		}
+	}
+
+	/**
+	 * Writes an empty field of the current record, which is not enclosed even when the field enclosure is forced.
+	 */
+	public void writeEmptyField() throws IOException
+	{
+		startField();
+	}
+	
+	/**
+	 * Writes a string as it is, without delimiters or enclosure.
+	 */
+	public void writeRaw(String value) throws IOException
+	{
+		int length = value.length();
+		char[] chars = fieldChars(length);
+		value.getChars(0, length, chars, 0);
+		append(chars, 0, length);
+	}
+
+	/**
+	 * Ends the current record by writing the record delimiter.
+	 */
+	public void endRecord() throws IOException
+	{
+		append(recordDelimiter, 0, recordDelimiter.length);
+		recordStarted = false;
+		++recordCount;
+	}
+
+	/**
+	 * Returns the number of records ended so far.
+	 */
+	public long getRecordCount()
+	{
+		return recordCount;
+	}
+
+	/**
+	 * Writes the buffered characters and flushes the writer.
+	 */
+	public void flush() throws IOException
+	{
+		flushBuffer();
+		writer.flush();
+	}
+
+	protected void startField() throws IOException
+	{
+		if (recordStarted)
+		{
+			append(fieldDelimiter, 0, fieldDelimiter.length);
+		}
+		recordStarted = true;
+	}
+	
+	protected void flushBuffer() throws IOException
+	{
+		if (position > 0)
+		{
+			writer.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	protected void append(char c) throws IOException
+	{
+		if (position == buffer.length)
+		{
+			flushBuffer();
+		}
+		buffer[position++] = c;
+	}
+
+	protected void append(char[] chars, int offset, int length) throws IOException
+	{
+		if (length > buffer.length - position)
+		{
+			flushBuffer();
+			if (length > buffer.length)
+			{
+				writer.write(chars, offset, length);
+				return;
+			}
+		}
+		System.arraycopy(chars, offset, buffer, position, length);
+		position += length;
+	}
+	
+	protected static boolean isFormulaCharacter(char c)
+	{
+		for (char formulaChar : FORMULA_CHARACTERS)
+		{
+			if (c == formulaChar)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether a sequence of characters occurs in an array segment, in the same way as
+	 * {@link String#indexOf(String)} would, an empty sequence being always found.
+	 */
+	protected static boolean contains(char[] chars, int offset, int end, char[] sequence)
+	{
+		int last = end - sequence.length;
+		search:
+		for (int i = offset; i <= last; i++)
+		{
+			for (int j = 0; j < sequence.length; j++)
+			{
+				if (chars[i + j] != sequence[j])
+				{
+					continue search;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+}
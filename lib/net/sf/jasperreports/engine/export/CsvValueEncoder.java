@@ -0,0 +1,51 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.io.IOException;
+
+import net.sf.jasperreports.engine.JRPrintText;
+
+
+/**
+ * Writes the value of a text element as a field of a CSV record.
+ * <p>
+ * Implementations should have a public no-argument constructor so that they can be specified by class name in 
+ * {@link net.sf.jasperreports.export.CsvDataExporterConfiguration#PROPERTY_VALUE_ENCODER}.
+ * 
+ * @see JRCsvDataExporter
+ */
+public interface CsvValueEncoder
+{
+	
+	/**
+	 * Writes the value of a text element.
+	 * 
+	 * @param element the text element
+	 * @param text the text of the element, as exported by the CSV exporters; never empty
+	 * @param writer the record writer
+	 */
+	void encode(JRPrintText element, String text, CsvRecordWriter writer) throws IOException;
+
+}
@@ -41,13 +41,14 @@ import net.sf.jasperreports.engine.util.SortedIntList;
  */
 public class CutsInfo
 {
-	private final SortedIntList cutOffsets = new SortedIntList();
+	private final SortedIntList cutOffsets;
 	private Cut[] cuts;
 	
 	private Map<String, Object> propertiesMap;
 	
 	public CutsInfo()
 	{
+		cutOffsets = new SortedIntList();
 		propertiesMap = new HashMap<>();
 		addCutOffset(0);
 	}
@@ -58,6 +59,15 @@ public class CutsInfo
 		addCutOffset(lastCutOffset);
 	}
 	
+	/**
+	 * Creates the cuts at the offsets returned by {@link #getCutOffsets()}.
+	 */
+	public CutsInfo(int[] cutOffsets)
+	{
+		this.cutOffsets = new SortedIntList(cutOffsets);
+		propertiesMap = new HashMap<>();
+	}
+	
 	public int size()
 	{
 		return cutOffsets.size();
@@ -105,6 +115,14 @@ public class CutsInfo
 		return cutOffsets.remove(cutOffset);
 	}
 	
+	/**
+	 * Returns the sorted cut offsets.
+	 */
+	public int[] getCutOffsets()
+	{
+		return cutOffsets.toArray();
+	}
+	
 	public int indexOfCutOffset(Integer cutOffset)
 	{
 		return cutOffsets.indexOf(cutOffset);
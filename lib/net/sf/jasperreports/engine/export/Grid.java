@@ -40,6 +40,16 @@ public class Grid
 		this.cells = new JRExporterGridCell[rowCount * columnCount];
 	}
 
+	/**
+	 * Creates a copy of a grid, sharing its cells.
+	 */
+	public Grid(Grid grid)
+	{
+		this.rowCount = grid.rowCount;
+		this.columnCount = grid.columnCount;
+		this.cells = grid.cells.clone();
+	}
+
 	public int getRowCount()
 	{
 		return rowCount;
@@ -0,0 +1,315 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRLineBox;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPropertiesHolder;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Keeps the cuts and the empty cell grid of the recently laid out pages of a report, so that a page whose elements 
+ * have the same positions and sizes as an earlier page does not need to compute them again.
+ * <p>
+ * The layouts are looked up by a signature made of the page size and offsets and of the position, size and export
+ * status of each element, including the elements and paddings of the frames exported as nested grids.
+ * Only the element cells are placed in a copy of the cached grid.
+ * 
+ * @see JRGridLayout
+ */
+public class GridLayoutCache
+{
+	/**
+	 * Property that specifies how many page layouts are cached by the grid exporters while exporting a report.
+	 * A value of 0 disables the cache.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "16",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "export.grid.layout.cache.size";
+
+	public static final int DEFAULT_SIZE = 16;
+
+	/**
+	 * Creates a layout cache of the size specified by {@link #PROPERTY_SIZE}.
+	 * 
+	 * @return the layout cache, or <code>null</code> if the cache is disabled
+	 */
+	public static GridLayoutCache getInstance(JRPropertiesUtil propertiesUtil, JRPropertiesHolder propertiesHolder)
+	{
+		int size = propertiesUtil.getIntegerProperty(propertiesHolder, PROPERTY_SIZE, DEFAULT_SIZE);
+		return size > 0 ? new GridLayoutCache(size) : null;
+	}
+	
+	private final Map<Key, Skeleton> skeletons;
+	
+	private long hitCount;
+	private long missCount;
+
+	public GridLayoutCache(final int size)
+	{
+		this.skeletons = new LinkedHashMap<Key, Skeleton>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Skeleton> eldest)
+			{
+				return size() > size;
+			}
+		};
+	}
+
+	/**
+	 * Creates the signature of a page layout.
+	 * 
+	 * @param xCuts the pre-calculated X cuts of the layout, if any
+	 */
+	public Key createKey(
+		ExporterNature nature,
+		List<JRPrintElement> elements,
+		int width,
+		int height,
+		int offsetX,
+		int offsetY,
+		CutsInfo xCuts
+		)
+	{
+		SignatureBuilder signature = new SignatureBuilder(8 + 6 * elements.size());
+		signature.add(width);
+		signature.add(height);
+		signature.add(offsetX);
+		signature.add(offsetY);
+		addElements(signature, nature, elements);
+		return new Key(nature, xCuts, signature.toArray());
+	}
+
+	protected void addElements(SignatureBuilder signature, ExporterNature nature, List<JRPrintElement> elements)
+	{
+		signature.add(elements.size());
+		for (JRPrintElement element : elements)
+		{
+			if (nature.isToExport(element))
+			{
+				signature.add(element.getX());
+				signature.add(element.getY());
+				signature.add(element.getWidth());
+				signature.add(element.getHeight());
+				
+				JRPrintFrame frame = element instanceof JRPrintFrame ? (JRPrintFrame) element : null;
+				if (frame != null && nature.isDeep(frame))
+				{
+					JRLineBox box = frame.getLineBox();
+					signature.add(1);
+					signature.add(box.getLeftPadding());
+					signature.add(box.getTopPadding());
+					addElements(signature, nature, frame.getElements());
+				}
+				else
+				{
+					signature.add(0);
+				}
+			}
+			else
+			{
+				signature.add(-1);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the cached layout for a signature.
+	 * 
+	 * @return the cached layout, or <code>null</code> if not found
+	 */
+	public Skeleton get(Key key)
+	{
+		Skeleton skeleton = skeletons.get(key);
+		if (skeleton == null)
+		{
+			++missCount;
+		}
+		else
+		{
+			++hitCount;
+		}
+		return skeleton;
+	}
+	
+	/**
+	 * Caches the layout of a page.
+	 * 
+	 * @param key the page signature
+	 * @param xCuts the X cuts created for the page, or <code>null</code> if the cuts were pre-calculated
+	 * @param yCuts the Y cuts created for the page
+	 * @param grid the grid of empty cells, before placing the elements
+	 */
+	public void put(Key key, CutsInfo xCuts, CutsInfo yCuts, Grid grid)
+	{
+		skeletons.put(key, 
+				new Skeleton(
+					xCuts == null ? null : xCuts.getCutOffsets(), 
+					yCuts.getCutOffsets(), 
+					new Grid(grid)
+					));
+	}
+
+	public long getHitCount()
+	{
+		return hitCount;
+	}
+
+	public long getMissCount()
+	{
+		return missCount;
+	}
+	
+	
+	/**
+	 * 
+	 */
+	public static final class Key
+	{
+		private final ExporterNature nature;
+		private final CutsInfo xCuts;
+		private final int[] signature;
+		private final int hash;
+		
+		private Key(ExporterNature nature, CutsInfo xCuts, int[] signature)
+		{
+			this.nature = nature;
+			this.xCuts = xCuts;
+			this.signature = signature;
+			this.hash = Arrays.hashCode(signature);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this)
+			{
+				return true;
+			}
+			
+			if (!(obj instanceof Key))
+			{
+				return false;
+			}
+			
+			Key key = (Key) obj;
+			return hash == key.hash
+					&& nature == key.nature
+					&& xCuts == key.xCuts
+					&& Arrays.equals(signature, key.signature);
+		}
+	}
+	
+
+	/**
+	 * 
+	 */
+	public static final class Skeleton
+	{
+		private final int[] xCutOffsets;
+		private final int[] yCutOffsets;
+		private final Grid grid;
+
+		private Skeleton(int[] xCutOffsets, int[] yCutOffsets, Grid grid)
+		{
+			this.xCutOffsets = xCutOffsets;
+			this.yCutOffsets = yCutOffsets;
+			this.grid = grid;
+		}
+
+		/**
+		 * Returns the offsets of the X cuts, or <code>null</code> if the X cuts were pre-calculated.
+		 */
+		public int[] getXCutOffsets()
+		{
+			return xCutOffsets;
+		}
+
+		public int[] getYCutOffsets()
+		{
+			return yCutOffsets;
+		}
+
+		/**
+		 * Returns the grid of empty cells, which should be copied before placing elements in it.
+		 */
+		public Grid getGrid()
+		{
+			return grid;
+		}
+	}
+	
+
+	/**
+	 * 
+	 */
+	protected static class SignatureBuilder
+	{
+		private int[] values;
+		private int size;
+		
+		public SignatureBuilder(int capacity)
+		{
+			this.values = new int[capacity];
+		}
+		
+		public void add(int value)
+		{
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+			}
+			values[size++] = value;
+		}
+		
+		public int[] toArray()
+		{
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -28,8 +28,6 @@ import java.awt.Dimension;
 import java.awt.Rectangle;
 import java.awt.font.TextAttribute;
 import java.awt.geom.Dimension2D;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Writer;
 import java.text.AttributedCharacterIterator;
@@ -106,6 +104,7 @@ import net.sf.jasperreports.engine.type.RotationEnum;
 import net.sf.jasperreports.engine.type.RunDirectionEnum;
 import net.sf.jasperreports.engine.type.ScaleImageEnum;
 import net.sf.jasperreports.engine.type.VerticalImageAlignEnum;
+import net.sf.jasperreports.engine.util.DigestUtils;
 import net.sf.jasperreports.engine.util.ExifOrientationEnum;
 import net.sf.jasperreports.engine.util.HyperlinkData;
 import net.sf.jasperreports.engine.util.ImageUtil;
@@ -186,6 +185,7 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 	protected JRHyperlinkTargetProducerFactory targetProducerFactory;		
 	
 	protected Map<String,String> rendererToImagePathMap;
+	protected Map<String,String> embeddedImageClassMap;
 	protected Map<Pair<String, Rectangle>,String> imageMaps;
 	protected RenderersCache renderersCache;
 
@@ -236,6 +236,7 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 		ensureInput();
 
 		rendererToImagePathMap = new HashMap<>();
+		embeddedImageClassMap = new HashMap<>();
 		imageMaps = new HashMap<>();
 		renderersCache = new RenderersCache(getJasperReportsContext());
 
@@ -366,47 +367,7 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 			writer.write(htmlHeader);
 		}
 
-		List<ExporterInputItem> items = exporterInput.getItems();
-		
-		for(reportIndex = 0; reportIndex < items.size(); reportIndex++)
-		{
-			ExporterInputItem item = items.get(reportIndex);
-
-			setCurrentExporterInputItem(item);
-			
-			List<JRPrintPage> pages = jasperPrint.getPages();
-			if (pages != null && pages.size() > 0)
-			{
-				PageRange pageRange = getPageRange();
-				int startPageIndex = (pageRange == null || pageRange.getStartPageIndex() == null) ? 0 : pageRange.getStartPageIndex();
-				int endPageIndex = (pageRange == null || pageRange.getEndPageIndex() == null) ? (pages.size() - 1) : pageRange.getEndPageIndex();
-
-				JRPrintPage page = null;
-				for(pageIndex = startPageIndex; pageIndex <= endPageIndex; pageIndex++)
-				{
-					checkInterrupted();
-
-					page = pages.get(pageIndex);
-
-					/*   */
-					exportPage(page);
-
-					if (reportIndex < items.size() - 1 || pageIndex < endPageIndex)
-					{
-						if (betweenPagesHtml == null)
-						{
-							writer.write("<br/>\n<br/>\n");
-						}
-						else
-						{
-							writer.write(betweenPagesHtml);
-						}
-					}
-
-					writer.write("\n");
-				}
-			}
-		}
+		exportItems(betweenPagesHtml);
 
 		ReportContext reportContext = getReportContext();
 		if (fontsToProcess != null && fontsToProcess.size() > 0)// when no resourceHandler, fonts are not processed 
@@ -480,6 +441,51 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 		}
 	}
 	
+	protected void exportItems(String betweenPagesHtml) throws JRException, IOException
+	{
+		List<ExporterInputItem> items = exporterInput.getItems();
+		
+		for(reportIndex = 0; reportIndex < items.size(); reportIndex++)
+		{
+			ExporterInputItem item = items.get(reportIndex);
+
+			setCurrentExporterInputItem(item);
+			
+			List<JRPrintPage> pages = jasperPrint.getPages();
+			if (pages != null && pages.size() > 0)
+			{
+				PageRange pageRange = getPageRange();
+				int startPageIndex = (pageRange == null || pageRange.getStartPageIndex() == null) ? 0 : pageRange.getStartPageIndex();
+				int endPageIndex = (pageRange == null || pageRange.getEndPageIndex() == null) ? (pages.size() - 1) : pageRange.getEndPageIndex();
+
+				JRPrintPage page = null;
+				for(pageIndex = startPageIndex; pageIndex <= endPageIndex; pageIndex++)
+				{
+					checkInterrupted();
+
+					page = pages.get(pageIndex);
+
+					/*   */
+					exportPage(page);
+
+					if (reportIndex < items.size() - 1 || pageIndex < endPageIndex)
+					{
+						if (betweenPagesHtml == null)
+						{
+							writer.write("<br/>\n<br/>\n");
+						}
+						else
+						{
+							writer.write(betweenPagesHtml);
+						}
+					}
+
+					writer.write("\n");
+				}
+			}
+		}
+	}
+	
 	protected void exportPage(JRPrintPage page) throws IOException
 	{
 		HtmlReportConfiguration configuration = getCurrentItemConfiguration();
@@ -989,22 +995,32 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 		
 		if (renderer != null)
 		{
+			boolean hasAreaHyperlinks = 
+				renderer instanceof AreaHyperlinksRenderable
+				&& ((AreaHyperlinksRenderable)renderer).hasImageAreaHyperlinks();
+
+			// reused embedded images are referenced through a CSS class, so they can only be rendered as background images,
+			// which matches the image tag only for the scale types that fit the image into the cell
+			boolean reuseEmbeddedImage = 
+				!isLazy
+				&& !hasAreaHyperlinks
+				&& (scaleImage == ScaleImageEnum.RETAIN_SHAPE || scaleImage == ScaleImageEnum.FILL_FRAME)
+				&& isEmbedImage(image)
+				&& isEmbeddedImageReuse(image);
+
 			boolean useBackgroundImage = 
-				((isLazy 
+				(((isLazy 
 					&& ((scaleImage == ScaleImageEnum.RETAIN_SHAPE || scaleImage == ScaleImageEnum.REAL_HEIGHT || scaleImage == ScaleImageEnum.REAL_SIZE) 
 							|| !(image.getHorizontalImageAlign() == HorizontalImageAlignEnum.LEFT && image.getVerticalImageAlign() == VerticalImageAlignEnum.TOP)))
 				|| rotation != RotationEnum.NONE)
-				&& isUseBackgroundImageToAlign(image);
+				&& isUseBackgroundImageToAlign(image))
+				|| reuseEmbeddedImage;
 					
 			boolean useDiv = (scaleImage == ScaleImageEnum.CLIP || useBackgroundImage);
 			if (useDiv)
 			{
 				writer.write("<div style=\"width: 100%; height: 100%; position: relative; overflow: hidden;\">\n");
 			}
-			
-			boolean hasAreaHyperlinks = 
-				renderer instanceof AreaHyperlinksRenderable
-				&& ((AreaHyperlinksRenderable)renderer).hasImageAreaHyperlinks();
 
 			boolean hasHyperlinks = false;
 
@@ -1049,6 +1065,7 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 				new InternalImageProcessor(
 					image,
 					isLazy,
+					reuseEmbeddedImage,
 					!useBackgroundImage && scaleImage != ScaleImageEnum.FILL_FRAME && !isLazy,
 					cell,
 					availableImageWidth,
@@ -1072,7 +1089,11 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 			
 			if (imageProcessorResult != null)
 			{
-				if (useBackgroundImage)
+				if (
+					useBackgroundImage
+					// embedded SVG data is written inline even when reuse is requested
+					&& !(reuseEmbeddedImage && imageProcessorResult.isEmbededSvgData)
+					)
 				{
 					int width = availableImageWidth;
 					int height = availableImageHeight;
@@ -1124,16 +1145,35 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 						}
 					}
 					
+					String embeddedImageClass = imageProcessorResult.embeddedImageClass;
+					if (embeddedImageClass != null && imageProcessorResult.embeddedImageData != null)
+					{
+						// first occurrence of the image data
+						writer.write("<style>.");
+						writer.write(embeddedImageClass);
+						writer.write(" {background-image: url('");
+						writeEmbeddedImageData(imageProcessorResult.embeddedImageMimeType, imageProcessorResult.embeddedImageData);
+						writer.write("');}</style>\n");
+					}
+
 					writer.write("<div style=\"width: " + width + "px; height: " + height + "px; position: absolute; overflow: hidden; "
 						+ "left: " + translateX + "px;top: " + translateY + "px; transform: rotate(" + angle + "deg);\">");
-					writer.write("<div style=\"width: 100%; height: 100%; background-image: url('");
-					String imagePath = imageProcessorResult.imageSource;
-					if (imagePath != null)
+					writer.write("<div ");
+					if (embeddedImageClass != null)
+					{
+						writer.write("class=\"");
+						writer.write(embeddedImageClass);
+						writer.write("\" ");
+					}
+					writer.write("style=\"width: 100%; height: 100%; ");
+					if (embeddedImageClass == null)
 					{
-						writer.write(JRStringUtil.encodeXmlAttribute(imagePath));
+						writer.write("background-image: url('");
+						writeImageSource(imageProcessorResult);
+						writer.write("'); ");
 					}
 					writer.write(
-						"'); background-repeat: no-repeat; background-position: " 
+						"background-repeat: no-repeat; background-position: " 
 						+ horizontalAlignment + " " 
 						+ (image.getVerticalImageAlign() == VerticalImageAlignEnum.MIDDLE ? "center" : verticalAlignment) 
 						+ ";background-size: " + backgroundSize + ";\"></div>");
@@ -1246,11 +1286,7 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 				{
 					writer.write("<img");
 					writer.write(" src=\"");
-					String imagePath = imageProcessorResult.imageSource;
-					if (imagePath != null)
-					{
-						writer.write(JRStringUtil.encodeXmlAttribute(imagePath));
-					}
+					writeImageSource(imageProcessorResult);
 					writer.write("\"");
 				
 					switch (scaleImage)
@@ -1427,12 +1463,38 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 		endCell(cell.getCellType());
 	}
 
+
+	private void writeImageSource(InternalImageProcessorResult imageProcessorResult) throws IOException
+	{
+		if (imageProcessorResult.embeddedImageData != null)
+		{
+			writeEmbeddedImageData(imageProcessorResult.embeddedImageMimeType, imageProcessorResult.embeddedImageData);
+		}
+		else if (imageProcessorResult.imageSource != null)
+		{
+			writer.write(JRStringUtil.encodeXmlAttribute(imageProcessorResult.imageSource));
+		}
+	}
+
+	/**
+	 * Writes the image data as a Base64 <code>data:</code> URI, encoding it in chunks directly to the output writer.
+	 * The URI does not need XML attribute escaping.
+	 */
+	protected void writeEmbeddedImageData(String mimeType, byte[] imageData) throws IOException
+	{
+		writer.write("data:");
+		writer.write(String.valueOf(mimeType));
+		writer.write(";base64,");
+		Base64Util.encode(imageData, writer);
+	}
+
 	
 	private class InternalImageProcessor
 	{
 		private final JRPrintImage imageElement;
 		private final RenderersCache imageRenderersCache;
 		private final boolean isLazy; 
+		private final boolean reuseEmbeddedImage; 
 		private final boolean embedImage; 
 		private final boolean needDimension; 
 		private final TableCell cell;
@@ -1442,6 +1504,7 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 		protected InternalImageProcessor(
 			JRPrintImage imageElement,
 			boolean isLazy,
+			boolean reuseEmbeddedImage,
 			boolean needDimension, 
 			TableCell cell,
 			int availableImageWidth,
@@ -1451,6 +1514,7 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 			this.imageElement = imageElement;
 			this.imageRenderersCache = imageElement.isUsingCache() ? renderersCache : new RenderersCache(getJasperReportsContext());
 			this.isLazy = isLazy;
+			this.reuseEmbeddedImage = reuseEmbeddedImage;
 			this.embedImage = isEmbedImage(imageElement);
 			this.needDimension = needDimension;
 			this.cell = cell;
@@ -1463,6 +1527,9 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 			String imageSource = null;
 			Dimension2D dimension = null;
 			boolean isEmbededSvgData = false;
+			String embeddedImageClass = null;
+			String embeddedImageMimeType = null;
+			byte[] embeddedImageData = null;
 			
 			if (isLazy)
 			{
@@ -1493,7 +1560,17 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 				}
 				else
 				{
-					if (embedImage)
+					if (
+						embedImage
+						&& reuseEmbeddedImage
+						&& renderer instanceof DataRenderable
+						&& embeddedImageClassMap.containsKey(renderer.getId())
+						)
+					{
+						// the image data has already been written by a previous occurrence of the same renderer
+						embeddedImageClass = embeddedImageClassMap.get(renderer.getId());
+					}
+					else if (embedImage)
 					{
 						Dimension dim =	null;
 						
@@ -1569,14 +1646,31 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 						}
 						else
 						{
-							String imageMimeType = JRTypeSniffer.getImageTypeValue(imageData).getMimeType();
+							embeddedImageMimeType = JRTypeSniffer.getImageTypeValue(imageData).getMimeType();
 
-							ByteArrayInputStream bais = new ByteArrayInputStream(imageData);
-							ByteArrayOutputStream baos = new ByteArrayOutputStream();
-							
-							Base64Util.encode(bais, baos);
-							
-							imageSource = "data:" + imageMimeType + ";base64," + new String(baos.toByteArray(), "UTF-8"); // UTF-8 is fine as we just need an ASCII compatible encoding for the Base64 array
+							if (reuseEmbeddedImage)
+							{
+								// identical data coming from different renderers is also written only once
+								String digest = DigestUtils.instance().sha256(imageData);
+								embeddedImageClass = embeddedImageClassMap.get(digest);
+								if (embeddedImageClass == null)
+								{
+									embeddedImageClass = "jrimg_" + digest.substring(0, 16);
+									embeddedImageClassMap.put(digest, embeddedImageClass);
+									embeddedImageData = imageData;
+								}
+								
+								if (dataRenderer == renderer)
+								{
+									//map the renderer only for true ImageRenderable instances because the wrapping ones render with different width/height each time
+									embeddedImageClassMap.put(renderer.getId(), embeddedImageClass);
+								}
+							}
+							else
+							{
+								// the data URI is Base64 encoded directly to the output when written 
+								embeddedImageData = imageData;
+							}
 						}
 						
 						//don't cache embedded imageSource as they are not image paths
@@ -1654,7 +1748,10 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 				new InternalImageProcessorResult(
 					imageSource, 
 					dimension,
-					isEmbededSvgData
+					isEmbededSvgData,
+					embeddedImageClass,
+					embeddedImageMimeType,
+					embeddedImageData
 					);
 		}
 	}
@@ -1665,16 +1762,25 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 		protected final String imageSource;
 		protected final Dimension2D dimension;
 		protected final boolean isEmbededSvgData;
+		protected final String embeddedImageClass;
+		protected final String embeddedImageMimeType;
+		protected final byte[] embeddedImageData;
 		
 		protected InternalImageProcessorResult(
 			String imagePath, 
 			Dimension2D dimension,
-			boolean isEmbededSvgData
+			boolean isEmbededSvgData,
+			String embeddedImageClass,
+			String embeddedImageMimeType,
+			byte[] embeddedImageData
 			)
 		{
 			this.imageSource = imagePath;
 			this.dimension = dimension;
 			this.isEmbededSvgData = isEmbededSvgData;
+			this.embeddedImageClass = embeddedImageClass;
+			this.embeddedImageMimeType = embeddedImageMimeType;
+			this.embeddedImageData = embeddedImageData;
 		}
 	}
 
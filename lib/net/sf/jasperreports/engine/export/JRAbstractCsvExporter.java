@@ -141,17 +141,7 @@ public abstract class JRAbstractCsvExporter<RC extends CsvReportConfiguration, C
 	 */
 	protected void exportReportToWriter() throws JRException, IOException
 	{
-		CsvExporterConfiguration configuration = getCurrentConfiguration();
-		if (configuration.isWriteBOM())
-		{
-			WriterExporterOutput output = getExporterOutput();
-			Charset charset = Charset.forName(output.getEncoding());
-			CharsetEncoder charsetEncoder = charset.newEncoder();
-			if (charsetEncoder.canEncode(BOM_CHARACTER))
-			{
-				writer.write(BOM_CHARACTER);
-			}
-		}
+		writeBOM();
 
 		List<ExporterInputItem> items = exporterInput.getItems();
 		
@@ -184,6 +174,25 @@ public abstract class JRAbstractCsvExporter<RC extends CsvReportConfiguration, C
 	}
 
 
+	/**
+	 * Writes the BOM character if the configuration requires it and the output encoding supports it.
+	 */
+	protected void writeBOM() throws IOException
+	{
+		CsvExporterConfiguration configuration = getCurrentConfiguration();
+		if (configuration.isWriteBOM())
+		{
+			WriterExporterOutput output = getExporterOutput();
+			Charset charset = Charset.forName(output.getEncoding());
+			CharsetEncoder charsetEncoder = charset.newEncoder();
+			if (charsetEncoder.canEncode(BOM_CHARACTER))
+			{
+				writer.write(BOM_CHARACTER);
+			}
+		}
+	}
+
+
 	/**
 	 *
 	 */
@@ -0,0 +1,497 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRCommonText;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JRPropertiesMap;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.ClassUtils;
+import net.sf.jasperreports.engine.util.JRDataUtils;
+import net.sf.jasperreports.engine.util.JRStringUtil;
+import net.sf.jasperreports.engine.util.JRStyledText;
+import net.sf.jasperreports.export.CsvDataExporterConfiguration;
+import net.sf.jasperreports.export.CsvMetadataReportConfiguration;
+import net.sf.jasperreports.export.MultiFileWriterExporterOutput;
+
+
+/**
+ * Exports the text elements of a JasperReports document to CSV based on the metadata provided, like 
+ * {@link JRCsvMetadataExporter}, writing the records directly into a reusable buffer.
+ * <p/>
+ * The columns are specified by the same {@link JRCsvMetadataExporter#PROPERTY_COLUMN_NAME column name}, 
+ * {@link JRCsvMetadataExporter#PROPERTY_DATA data} and {@link JRCsvMetadataExporter#PROPERTY_REPEAT_VALUE repeat value}
+ * element properties and by the {@link CsvMetadataReportConfiguration} settings, and the records are the same as the ones
+ * written by {@link JRCsvMetadataExporter}. The current record is kept in arrays indexed by column, the text of 
+ * elements without markup is not parsed as styled text, and the fields are written by a {@link CsvRecordWriter}
+ * through a {@link CsvValueEncoder}, which can write the values of text fields instead of their text.
+ * <p/>
+ * When the output is a {@link MultiFileWriterExporterOutput}, such as a gzip compressed 
+ * {@link net.sf.jasperreports.export.SimpleMultiFileWriterExporterOutput}, the records can be split in several files
+ * by {@link CsvDataExporterConfiguration#getRecordsPerFile()}.
+ * 
+ * @see CsvDataExporterConfiguration
+ */
+public class JRCsvDataExporter extends JRAbstractCsvExporter<CsvMetadataReportConfiguration, CsvDataExporterConfiguration, JRCsvExporterContext>
+{
+
+	protected CsvRecordWriter recordWriter;
+	protected CsvValueEncoder valueEncoder;
+	protected int recordsPerFile;
+	protected long fileRecordCount;
+	
+	/**
+	 * 
+	 */
+	protected List<String> columnNames;
+	protected Map<String, Integer> columnIndexes;
+	
+	protected boolean isFirstRow = true;
+	
+	/**
+	 * The texts of the current record and the elements they come from, 
+	 * <code>null</code> for texts specified by {@link JRCsvMetadataExporter#PROPERTY_DATA}.
+	 */
+	protected String[] rowTexts;
+	protected JRPrintText[] rowElements;
+	protected int lastFilledColumn;
+	
+	protected String[] repeatedTexts;
+	protected JRPrintText[] repeatedElements;
+	
+
+	protected class ExporterContext extends BaseExporterContext implements JRCsvExporterContext
+	{
+	}
+
+	/**
+	 * @see #JRCsvDataExporter(JasperReportsContext)
+	 */
+	public JRCsvDataExporter()
+	{
+		this(DefaultJasperReportsContext.getInstance());
+	}
+
+	
+	/**
+	 *
+	 */
+	public JRCsvDataExporter(JasperReportsContext jasperReportsContext)
+	{
+		super(jasperReportsContext);
+
+		exporterContext = new ExporterContext();
+	}
+
+
+	@Override
+	protected Class<CsvDataExporterConfiguration> getConfigurationInterface()
+	{
+		return CsvDataExporterConfiguration.class;
+	}
+	
+
+	@Override
+	protected Class<CsvMetadataReportConfiguration> getItemConfigurationInterface()
+	{
+		return CsvMetadataReportConfiguration.class;
+	}
+	
+
+	@Override
+	@SuppressWarnings("deprecation")
+	protected void ensureOutput()
+	{
+		if (exporterOutput == null)
+		{
+			exporterOutput = 
+				new net.sf.jasperreports.export.parameters.ParametersWriterExporterOutput(
+					getJasperReportsContext(),
+					getParameters(),
+					getCurrentJasperPrint()
+					);
+		}
+	}
+	
+
+	@Override
+	protected void initExport() 
+	{
+		super.initExport();
+		
+		Integer records = getCurrentConfiguration().getRecordsPerFile();
+		recordsPerFile = records == null ? 0 : records;
+	}
+	
+	
+	@Override
+	protected void initReport() 
+	{
+		super.initReport();
+
+		CsvMetadataReportConfiguration configuration = getCurrentItemConfiguration();
+		
+		columnNames = JRStringUtil.split(configuration.getColumnNames(), ",");
+		columnIndexes = null;
+		if (columnNames != null)
+		{
+			columnIndexes = new HashMap<>();
+			for (int i = 0; i < columnNames.size(); i++)
+			{
+				columnIndexes.putIfAbsent(columnNames.get(i), i);
+			}
+		}
+		rowTexts = null;
+		ensureColumns();
+
+		isFirstRow = true;
+		
+		valueEncoder = createValueEncoder(getCurrentConfiguration().getValueEncoder());
+	}
+
+	
+	/**
+	 * Creates the encoder specified by {@link CsvDataExporterConfiguration#getValueEncoder()}.
+	 */
+	protected CsvValueEncoder createValueEncoder(String encoder)
+	{
+		if (encoder == null || encoder.isEmpty() || CsvDataExporterConfiguration.VALUE_ENCODER_TEXT.equals(encoder))
+		{
+			return new CsvTextEncoder();
+		}
+		
+		if (CsvDataExporterConfiguration.VALUE_ENCODER_VALUE.equals(encoder))
+		{
+			TimeZone timeZone = jasperPrint.getTimeZoneId() == null 
+					? TimeZone.getDefault() : JRDataUtils.getTimeZone(jasperPrint.getTimeZoneId());
+			return new CsvRawValueEncoder(timeZone);
+		}
+		
+		return (CsvValueEncoder) ClassUtils.instantiateClass(encoder, CsvValueEncoder.class);
+	}
+	
+
+	@Override
+	protected void exportReportToWriter() throws JRException, IOException
+	{
+		recordWriter = 
+			new CsvRecordWriter(
+				writer, 
+				fieldDelimiter, 
+				recordDelimiter, 
+				quotes.charAt(0), 
+				forceFieldEnclosure, 
+				escapeFormula
+				);
+		fileRecordCount = 0;
+		
+		super.exportReportToWriter();
+		
+		recordWriter.flush();
+	}
+	
+
+	@Override
+	protected void exportPage(JRPrintPage page) throws IOException
+	{
+		CsvMetadataReportConfiguration configuration = getCurrentItemConfiguration(); 
+		boolean hasDefinedColumns = columnNames != null; // if columns where passed in as property
+		
+		clearRow();
+		if (repeatedTexts != null)
+		{
+			Arrays.fill(repeatedTexts, null);
+			Arrays.fill(repeatedElements, null);
+		}
+		
+		exportElements(page.getElements(), configuration, hasDefinedColumns);
+
+		// write last row
+		if (columnNames != null && columnNames.size() > 0)
+		{
+			writeCurrentRow(configuration);
+		}
+
+		JRExportProgressMonitor progressMonitor = configuration.getProgressMonitor();
+		if (progressMonitor != null)
+		{
+			progressMonitor.afterPageExport();
+		}
+	}
+	
+	
+	protected void exportElements(
+			List<JRPrintElement> elements, 
+			CsvMetadataReportConfiguration configuration,
+			boolean hasDefinedColumns) throws IOException
+	{
+		for (int i = 0; i < elements.size(); ++i) 
+		{
+			Object element = elements.get(i);
+			if (element instanceof JRPrintText) 
+			{
+				exportText((JRPrintText) element, configuration, hasDefinedColumns);
+			}
+			else if (element instanceof JRPrintFrame)
+			{
+				exportElements(((JRPrintFrame) element).getElements(), configuration, hasDefinedColumns);
+			}
+		}		
+	}
+	
+	
+	protected void exportText(
+			JRPrintText textElement,
+			CsvMetadataReportConfiguration configuration,
+			boolean hasDefinedColumns) throws IOException
+	{
+		if (!textElement.hasProperties())
+		{
+			return;
+		}
+		
+		JRPropertiesMap properties = textElement.getPropertiesMap();
+		String columnName = properties.getProperty(JRCsvMetadataExporter.PROPERTY_COLUMN_NAME);
+		
+		// when no columns are provided, build the column names list as they are retrieved from the report element property
+		if (!hasDefinedColumns)
+		{
+			if (columnNames == null)
+			{
+				columnNames = new ArrayList<>();
+				columnIndexes = new HashMap<>();
+			}
+			
+			if (columnName != null && columnName.length() > 0 && !columnIndexes.containsKey(columnName))
+			{
+				columnIndexes.put(columnName, columnNames.size());
+				columnNames.add(columnName);
+				ensureColumns();
+			}
+		}
+		
+		Integer columnIndex = columnName == null ? null : columnIndexes.get(columnName);
+		if (columnIndex == null)
+		{
+			return;
+		}
+
+		String text;
+		JRPrintText element;
+		if (properties.containsProperty(JRCsvMetadataExporter.PROPERTY_DATA))
+		{
+			text = properties.getProperty(JRCsvMetadataExporter.PROPERTY_DATA);
+			text = text == null ? "" : text;
+			element = null;
+		}
+		else
+		{
+			text = getText(textElement);
+			element = textElement;
+		}
+		
+		int index = columnIndex;
+		if (index <= lastFilledColumn) // the column was already read or is read after it should be
+		{
+			writeCurrentRow(configuration);
+			clearRow();
+		}
+		
+		rowTexts[index] = text;
+		rowElements[index] = element;
+		lastFilledColumn = index;
+		
+		// set auto fill columns
+		if (text.length() > 0 && getPropertiesUtil().getBooleanProperty(textElement, JRCsvMetadataExporter.PROPERTY_REPEAT_VALUE, false))
+		{
+			repeatedTexts[index] = text;
+			repeatedElements[index] = element;
+		}
+	}
+	
+	
+	/**
+	 * Returns the text of an element, without parsing it as styled text if the element has no markup.
+	 */
+	protected String getText(JRPrintText textElement)
+	{
+		if (JRCommonText.MARKUP_NONE.equals(textElement.getMarkup()))
+		{
+			String text = textElement.getFullText();
+			return text == null ? "" : text;
+		}
+		
+		JRStyledText styledText = getStyledText(textElement);
+		return styledText == null ? "" : styledText.getText();
+	}
+	
+	
+	protected void ensureColumns()
+	{
+		int columnCount = columnNames == null ? 0 : columnNames.size();
+		if (rowTexts == null)
+		{
+			rowTexts = new String[columnCount];
+			rowElements = new JRPrintText[columnCount];
+			repeatedTexts = new String[columnCount];
+			repeatedElements = new JRPrintText[columnCount];
+			lastFilledColumn = -1;
+		}
+		else if (rowTexts.length < columnCount)
+		{
+			int length = Math.max(columnCount, rowTexts.length << 1);
+			rowTexts = Arrays.copyOf(rowTexts, length);
+			rowElements = Arrays.copyOf(rowElements, length);
+			repeatedTexts = Arrays.copyOf(repeatedTexts, length);
+			repeatedElements = Arrays.copyOf(repeatedElements, length);
+		}
+	}
+	
+	
+	protected void clearRow()
+	{
+		if (rowTexts != null)
+		{
+			Arrays.fill(rowTexts, null);
+			Arrays.fill(rowElements, null);
+		}
+		lastFilledColumn = -1;
+	}
+
+	
+	/**
+	 * Writes the delimiter-separated column names
+	 */
+	protected void writeReportHeader() throws IOException 
+	{
+		for (int i = 0; i < columnNames.size(); i++)
+		{
+			if (i > 0)
+			{
+				recordWriter.writeRaw(fieldDelimiter);
+			}
+			recordWriter.writeRaw(columnNames.get(i));
+		}
+		recordWriter.writeRaw(recordDelimiter);
+	}
+	
+
+	/**
+	 * Writes the current row, preceded by the header if it is the first one.
+	 * <p/>
+	 * If the row is empty, nothing is written. If the are columns for auto fill (with valid data), they will be set on the current 
+	 * row and the row will be written only if it was not originally empty. 
+	 */
+	protected void writeCurrentRow(CsvMetadataReportConfiguration configuration) throws IOException
+	{
+		if (isFirstRow)
+		{
+			if (configuration.isWriteHeader())
+			{
+				writeReportHeader();
+			}
+			isFirstRow = false;
+		}
+		
+		int columnCount = columnNames.size();
+		boolean isEmptyRow = true;
+		for (int i = 0; i < columnCount && isEmptyRow; i++)
+		{
+			isEmptyRow = rowTexts[i] == null || rowTexts[i].length() == 0;
+		}
+		
+		if (isEmptyRow)
+		{
+			return;
+		}
+		
+		if (recordsPerFile > 0 && fileRecordCount >= recordsPerFile && getExporterOutput() instanceof MultiFileWriterExporterOutput)
+		{
+			startNextFile(configuration);
+		}
+		
+		for (int i = 0; i < columnCount; i++)
+		{
+			String text = rowTexts[i];
+			if (text != null && text.length() > 0)
+			{
+				writeField(rowElements[i], text);
+			}
+			else if (repeatedTexts[i] != null)
+			{
+				writeField(repeatedElements[i], repeatedTexts[i]);
+			}
+			else
+			{
+				recordWriter.writeEmptyField();
+			}
+		}
+		recordWriter.endRecord();
+		++fileRecordCount;
+	}
+	
+	
+	protected void writeField(JRPrintText element, String text) throws IOException
+	{
+		if (element == null)
+		{
+			recordWriter.writeField(text);
+		}
+		else
+		{
+			valueEncoder.encode(element, text, recordWriter);
+		}
+	}
+	
+	
+	/**
+	 * Continues the output in a new file, starting with the BOM and the header if they are written.
+	 */
+	protected void startNextFile(CsvMetadataReportConfiguration configuration) throws IOException
+	{
+		recordWriter.flush();
+		writer = ((MultiFileWriterExporterOutput) getExporterOutput()).nextFile();
+		recordWriter.setWriter(writer);
+		
+		writeBOM();
+		if (configuration.isWriteHeader())
+		{
+			writeReportHeader();
+		}
+		fileRecordCount = 0;
+	}
+}
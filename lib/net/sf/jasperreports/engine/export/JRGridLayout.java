@@ -82,6 +82,10 @@ public class JRGridLayout
 	
 	private boolean isNested;
 	
+	private int elementIndexOffset;
+	
+	private GridLayoutCache layoutCache;
+	
 	/**
 	 * Constructor.
 	 *
@@ -130,9 +134,131 @@ public class JRGridLayout
 		int offsetY,
 		CutsInfo xCuts
 		)
+	{
+		this(
+			nature,
+			elements,
+			width,
+			height,
+			offsetX,
+			offsetY,
+			xCuts,
+			null //layoutCache
+			);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param elements the elements that should arranged in a grid
+	 * @param width the width available for the grid
+	 * @param height the height available for the grid
+	 * @param offsetX horizontal element position offset
+	 * @param offsetY vertical element position offset
+	 * @param xCuts An optional list of pre-calculated X cuts.
+	 * @param layoutCache An optional cache of the layouts of previous pages.
+	 */
+	public JRGridLayout(
+		ExporterNature nature,
+		List<JRPrintElement> elements,
+		int width,
+		int height,
+		int offsetX,
+		int offsetY,
+		CutsInfo xCuts,
+		GridLayoutCache layoutCache
+		)
+	{
+		this(
+			nature,
+			elements,
+			0,
+			elements.size(),
+			width,
+			height,
+			offsetX,
+			offsetY,
+			xCuts,
+			null, //yCuts
+			layoutCache
+			);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param elements the page elements
+	 * @param fromIndex the index of the first element that should be arranged in the grid
+	 * @param toIndex the index after the last element that should be arranged in the grid
+	 * @param width the width available for the grid
+	 * @param height the height available for the grid
+	 * @param offsetX horizontal element position offset
+	 * @param offsetY vertical element position offset
+	 * @param xCuts An optional list of pre-calculated X cuts.
+	 * @param yCuts An optional list of initial Y cuts, to which the element cuts are added. 
+	 * The page margins are not removed from these cuts.
+	 */
+	public JRGridLayout(
+		ExporterNature nature,
+		List<JRPrintElement> elements,
+		int fromIndex,
+		int toIndex,
+		int width,
+		int height,
+		int offsetX,
+		int offsetY,
+		CutsInfo xCuts,
+		CutsInfo yCuts
+		)
+	{
+		this(
+			nature,
+			elements,
+			fromIndex,
+			toIndex,
+			width,
+			height,
+			offsetX,
+			offsetY,
+			xCuts,
+			yCuts,
+			null //layoutCache
+			);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param elements the page elements
+	 * @param fromIndex the index of the first element that should be arranged in the grid
+	 * @param toIndex the index after the last element that should be arranged in the grid
+	 * @param width the width available for the grid
+	 * @param height the height available for the grid
+	 * @param offsetX horizontal element position offset
+	 * @param offsetY vertical element position offset
+	 * @param xCuts An optional list of pre-calculated X cuts.
+	 * @param yCuts An optional list of initial Y cuts, to which the element cuts are added. 
+	 * The page margins are not removed from these cuts.
+	 * @param layoutCache An optional cache of the layouts of previous pages. 
+	 * The cache is not used when initial Y cuts are provided.
+	 */
+	public JRGridLayout(
+		ExporterNature nature,
+		List<JRPrintElement> elements,
+		int fromIndex,
+		int toIndex,
+		int width,
+		int height,
+		int offsetX,
+		int offsetY,
+		CutsInfo xCuts,
+		CutsInfo yCuts,
+		GridLayoutCache layoutCache
+		)
 	{
 		this.nature = nature;
 		this.elementList = elements;
+		this.elementIndexOffset = fromIndex;
 		
 		// TODO lucianc cache these across report pages?
 		this.cellSizes = new HashMap<>();
@@ -144,10 +270,12 @@ public class JRGridLayout
 		this.offsetX = offsetX;
 		this.offsetY = offsetY;
 		this.xCuts = xCuts;
+		this.yCuts = yCuts;
+		this.layoutCache = layoutCache;
 
 		boxesCache = new HashMap<>();
 
-		layoutGrid(null, elements);
+		layoutGrid(null, fromIndex == 0 && toIndex == elements.size() ? elements : elements.subList(fromIndex, toIndex));
 	}
 
 	/**
@@ -212,11 +340,43 @@ public class JRGridLayout
 	{
 
 		boolean createXCuts = (xCuts == null);
+		boolean createYCuts = (yCuts == null);
+
+		GridLayoutCache.Key layoutKey = null;
+		if (layoutCache != null && !isNested && createYCuts)
+		{
+			layoutKey = layoutCache.createKey(nature, elements, width, height, offsetX, offsetY, xCuts);
+			GridLayoutCache.Skeleton skeleton = layoutCache.get(layoutKey);
+			if (skeleton != null)
+			{
+				if (createXCuts)
+				{
+					xCuts = new CutsInfo(skeleton.getXCutOffsets());
+				}
+				yCuts = new CutsInfo(skeleton.getYCutOffsets());
+
+				xCuts.use();
+				yCuts.use();
+				
+				grid = new Grid(skeleton.getGrid());
+				
+				setGridElements(parentElementIndex, elements, 
+						offsetX, offsetY,
+						0, 0, grid.getRowCount(), grid.getColumnCount());
+
+				width = xCuts.getTotalLength();
+				height = yCuts.getTotalLength();
+				return;
+			}
+		}
 
 		xCuts = createXCuts ? new CutsInfo() : xCuts;
-		yCuts = nature.isIgnoreLastRow() ? new CutsInfo(0) : new CutsInfo(height);
+		if (createYCuts)
+		{
+			yCuts = nature.isIgnoreLastRow() ? new CutsInfo(0) : new CutsInfo(height);
+		}
 
-		if(!isNested && nature.isIgnorePageMargins()) //FIXMEXLS left and right margins are not ignored when all pages on a single sheet
+		if(!isNested && nature.isIgnorePageMargins() && (createXCuts || createYCuts)) //FIXMEXLS left and right margins are not ignored when all pages on a single sheet
 		{
 			// TODO lucianc this is an extra virtualization iteration
 			setMargins(elements);
@@ -229,13 +389,16 @@ public class JRGridLayout
 				}
 			}
 
-			if(hasTopMargin)
+			if(createYCuts)
 			{
-				yCuts.removeCutOffset(0);
-			}
-			if(hasBottomMargin)
-			{
-				yCuts.removeCutOffset(height);
+				if(hasTopMargin)
+				{
+					yCuts.removeCutOffset(0);
+				}
+				if(hasBottomMargin)
+				{
+					yCuts.removeCutOffset(height);
+				}
 			}
 		}
 
@@ -271,6 +434,11 @@ public class JRGridLayout
 				grid.set(row, col, emptyCell(size, null));
 			}
 		}
+		
+		if (layoutKey != null)
+		{
+			layoutCache.put(layoutKey, createXCuts ? xCuts : null, yCuts, grid);
+		}
 
 		setGridElements(parentElementIndex, elements, 
 				offsetX, offsetY,
@@ -365,7 +533,7 @@ public class JRGridLayout
 		for (ListIterator<JRPrintElement> it = elements.listIterator(elements.size()); it.hasPrevious();)
 		{
 			JRPrintElement element = it.previous();
-			int elementIndex = it.nextIndex();
+			int elementIndex = parentIndex == null ? it.nextIndex() + elementIndexOffset : it.nextIndex();
 			
 			if (nature.isToExport(element))
 			{
@@ -144,10 +144,12 @@ import net.sf.jasperreports.export.type.PdfPrintScalingEnum;
 import net.sf.jasperreports.export.type.PdfVersionEnum;
 import net.sf.jasperreports.export.type.PdfaConformanceEnum;
 import net.sf.jasperreports.properties.PropertyConstants;
+import net.sf.jasperreports.renderers.CachedRenderToImageDataRenderer;
 import net.sf.jasperreports.renderers.DataRenderable;
 import net.sf.jasperreports.renderers.DimensionRenderable;
 import net.sf.jasperreports.renderers.Graphics2DRenderable;
 import net.sf.jasperreports.renderers.Renderable;
+import net.sf.jasperreports.renderers.RenderedImageCache;
 import net.sf.jasperreports.renderers.RenderersCache;
 import net.sf.jasperreports.renderers.ResourceRenderer;
 import net.sf.jasperreports.renderers.WrappingImageDataToGraphics2DRenderer;
@@ -1775,7 +1777,15 @@ public class JRPdfExporter extends JRAbstractExporter<PdfReportConfiguration, Pd
 				if (ImageTypeEnum.WEBP == JRTypeSniffer.getImageTypeValue(data))
 				{
 					WrappingImageDataToGraphics2DRenderer graphics2DRenderer = new WrappingImageDataToGraphics2DRenderer(renderer);
-					data = new WrappingRenderToImageDataRenderer(graphics2DRenderer, graphics2DRenderer, null).getData(jasperReportsContext);
+					if (RenderedImageCache.getInstance(jasperReportsContext).isEnabled())
+					{
+						// the PNG conversion of the same WEBP data is shared by all exports
+						data = new CachedRenderToImageDataRenderer(RenderedImageCache.getDataKey(data), graphics2DRenderer, graphics2DRenderer, null).getData(jasperReportsContext);
+					}
+					else
+					{
+						data = new WrappingRenderToImageDataRenderer(graphics2DRenderer, graphics2DRenderer, null).getData(jasperReportsContext);
+					}
 				}
 				
 				try
@@ -32,6 +32,7 @@ package net.sf.jasperreports.engine.export;
 import java.awt.Color;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.SortedMap;
@@ -433,6 +434,11 @@ public abstract class JRXlsAbstractExporter<RC extends XlsReportConfiguration, C
 		}
 	}
 	
+	/**
+	 * The layouts of the recently exported pages of the current report.
+	 */
+	protected GridLayoutCache layoutCache;
+	
 	/**
 	 * @see #JRXlsAbstractExporter(JasperReportsContext)
 	 */
@@ -467,6 +473,7 @@ public abstract class JRXlsAbstractExporter<RC extends XlsReportConfiguration, C
 			setCurrentExporterInputItem(item);
 			
 			defaultFont = new JRBasePrintText(jasperPrint.getDefaultStyleProvider());
+			layoutCache = GridLayoutCache.getInstance(getPropertiesUtil(), jasperPrint);
 			
 			if (!hasGlobalSheetNames())
 			{
@@ -547,39 +554,311 @@ public abstract class JRXlsAbstractExporter<RC extends XlsReportConfiguration, C
 	{
 		XlsReportConfiguration configuration = getCurrentItemConfiguration();
 		
-		int maxRowsPerSheet = getMaxRowsPerSheet();
-		boolean isRemoveEmptySpaceBetweenRows = configuration.isRemoveEmptySpaceBetweenRows();
-		boolean isRemoveEmptySpaceBetweenColumns = configuration.isRemoveEmptySpaceBetweenColumns();
+		List<JRPrintElement> elements = page.getElements();
+		int offsetX = configuration.getOffsetX() == null ? 0 : configuration.getOffsetX();
+		int offsetY = configuration.getOffsetY() == null ? 0 : configuration.getOffsetY();
+
+		XlsRowLevelInfo levelInfo = new XlsRowLevelInfo(); 
+
+		int rowIndex;
+		// the page can be laid out in row bands only when the X cuts are calculated for the whole sheet
+		List<int[]> rowBands = xCuts == null || offsetY != 0 ? null : getRowBands(elements, getRowBandElements());
+		if (rowBands == null)
+		{
+			JRGridLayout layout =
+				new JRGridLayout(
+					getNature(),
+					elements,
+					pageFormat.getPageWidth(),
+					pageFormat.getPageHeight(),
+					offsetX, 
+					offsetY,
+					xCuts,
+					layoutCache
+					);
+			
+			rowIndex = exportGrid(layout, startRow, xCuts == null || startRow == 0, defaultSheetName, levelInfo);
+		}
+		else
+		{
+			rowIndex = exportRowBands(elements, rowBands, xCuts, offsetX, startRow, defaultSheetName, levelInfo);
+		}
+
+		if (configuration.isForcePageBreaks())
+		{
+			addRowBreak(rowIndex - 1);
+		}
 		
-		JRGridLayout layout =
-			new JRGridLayout(
-				getNature(),
-				page.getElements(),
-				pageFormat.getPageWidth(),
-				pageFormat.getPageHeight(),
-				configuration.getOffsetX() == null ? 0 : configuration.getOffsetX(), 
-				configuration.getOffsetY() == null ? 0 : configuration.getOffsetY(),
-				xCuts
-				);
+		if (autoFilterStart != null)
+		{
+			setAutoFilter(autoFilterStart + ":" + (autoFilterEnd != null ? autoFilterEnd : autoFilterStart));
+		}
+		else if (autoFilterEnd != null)
+		{
+			setAutoFilter(autoFilterEnd + ":" + autoFilterEnd);
+		}
+		
+//		if (createXCuts)
+//		{
+//			updateColumns(xCuts);
+//		}
+		
+		setRowLevels(levelInfo, null);
+		
+		JRExportProgressMonitor progressMonitor = configuration.getProgressMonitor();
+		if (progressMonitor != null)
+		{
+			progressMonitor.afterPageExport();
+		}
+		
+		// Return the number of rows added
+		return rowIndex;
+	}
 
-		Grid grid = layout.getGrid();
+	/**
+	 * Returns the number of page elements above which the pages exported on a common sheet are laid out in row bands.
+	 * Zero means that each page is laid out in a single grid.
+	 */
+	protected int getRowBandElements()
+	{
+		return 0;
+	}
 
-		boolean createXCuts = (xCuts == null); 
+	/**
+	 * Splits the page elements in row bands of at least the given number of elements.
+	 * A band ends at a vertical position that is not crossed by any element, so that the rows of the band grids
+	 * are the rows of the page grid.
+	 * <p>
+	 * Pages having elements that set sheet properties or break the sheet are not split, since the properties 
+	 * of a sheet are collected from the grid in which the sheet starts.
+	 * 
+	 * @return the index of the first element and the top of each band, or <code>null</code> if the page is not split
+	 */
+	protected List<int[]> getRowBands(List<JRPrintElement> elements, int rowBandElements)
+	{
+		int size = elements.size();
+		if (rowBandElements <= 0 || size <= rowBandElements)
+		{
+			return null;
+		}
+		
+		ExporterNature nature = getNature();
+		if (
+			!(nature instanceof JRXlsAbstractExporterNature)
+			|| hasSheetProperties((JRXlsAbstractExporterNature)nature, elements)
+			)
+		{
+			return null;
+		}
+		int pageHeight = pageFormat.getPageHeight();
+		
+		// the minimum top of the elements starting at each index
+		int[] minTops = new int[size + 1];
+		minTops[size] = Integer.MAX_VALUE;
+		for (int i = size - 1; i >= 0; i--)
+		{
+			JRPrintElement element = elements.get(i);
+			minTops[i] = 
+				nature.isToExport(element) 
+				? Math.min(minTops[i + 1], getElementsTop(nature, element, 0)) 
+				: minTops[i + 1];
+		}
+		
+		List<int[]> rowBands = new ArrayList<>();
+		rowBands.add(new int[]{0, 0});
+		int bandStart = 0;
+		int bandTop = 0;
+		int maxBottom = Integer.MIN_VALUE;
+		for (int i = 0; i < size; i++)
+		{
+			int top = minTops[i];
+			if (i - bandStart >= rowBandElements && maxBottom <= top && top > bandTop && top < pageHeight)
+			{
+				rowBands.add(new int[]{i, top});
+				bandStart = i;
+				bandTop = top;
+			}
+			
+			JRPrintElement element = elements.get(i);
+			if (nature.isToExport(element))
+			{
+				maxBottom = Math.max(maxBottom, getElementsBottom(nature, element, 0));
+			}
+		}
 		
-		if (createXCuts) 
+		return rowBands.size() > 1 ? rowBands : null;
+	}
+
+	/**
+	 * Determines whether any of the elements, or of the elements of deep frames, sets sheet properties.
+	 */
+	protected static boolean hasSheetProperties(JRXlsAbstractExporterNature nature, List<JRPrintElement> elements)
+	{
+		for (JRPrintElement element : elements)
 		{
-			xCuts = layout.getXCuts();
+			if (nature.isToExport(element))
+			{
+				if (nature.hasSheetProperties(element))
+				{
+					return true;
+				}
+				
+				if (
+					element instanceof JRPrintFrame 
+					&& nature.isDeep((JRPrintFrame)element)
+					&& hasSheetProperties(nature, ((JRPrintFrame)element).getElements())
+					)
+				{
+					return true;
+				}
+			}
 		}
+		return false;
+	}
 
+	/**
+	 * Returns the top of an element, or of the elements of a deep frame placed above it.
+	 */
+	protected static int getElementsTop(ExporterNature nature, JRPrintElement element, int offsetY)
+	{
+		int top = element.getY() + offsetY;
+		JRPrintFrame frame = element instanceof JRPrintFrame ? (JRPrintFrame)element : null;
+		if (frame != null && nature.isDeep(frame))
+		{
+			int frameOffsetY = top + frame.getLineBox().getTopPadding();
+			for (JRPrintElement child : frame.getElements())
+			{
+				if (nature.isToExport(child))
+				{
+					top = Math.min(top, getElementsTop(nature, child, frameOffsetY));
+				}
+			}
+		}
+		return top;
+	}
+
+	/**
+	 * Returns the bottom of an element, or of the elements of a deep frame placed below it.
+	 */
+	protected static int getElementsBottom(ExporterNature nature, JRPrintElement element, int offsetY)
+	{
+		int bottom = element.getY() + element.getHeight() + offsetY;
+		JRPrintFrame frame = element instanceof JRPrintFrame ? (JRPrintFrame)element : null;
+		if (frame != null && nature.isDeep(frame))
+		{
+			int frameOffsetY = element.getY() + offsetY + frame.getLineBox().getTopPadding();
+			for (JRPrintElement child : frame.getElements())
+			{
+				if (nature.isToExport(child))
+				{
+					bottom = Math.max(bottom, getElementsBottom(nature, child, frameOffsetY));
+				}
+			}
+		}
+		return bottom;
+	}
+
+	/**
+	 * Exports the row bands of a page, laying out each band in a separate grid.
+	 *
+	 * @return the index of the row following the page
+	 */
+	protected int exportRowBands(
+		List<JRPrintElement> elements, 
+		List<int[]> rowBands, 
+		CutsInfo xCuts, 
+		int offsetX, 
+		int startRow, 
+		String defaultSheetName, 
+		XlsRowLevelInfo levelInfo
+		) throws JRException
+	{
+		ExporterNature nature = getNature();
+		int pageHeight = pageFormat.getPageHeight();
+		
+		// the page margins are removed from the first and last band as in JRGridLayout
+		boolean hasTopMargin = false;
+		boolean hasBottomMargin = false;
+		if (nature.isIgnorePageMargins())
+		{
+			hasTopMargin = true;
+			hasBottomMargin = true;
+			for (JRPrintElement element : elements)
+			{
+				if (nature.isToExport(element))
+				{
+					hasTopMargin = hasTopMargin && element.getY() > 0;
+					hasBottomMargin = hasBottomMargin && element.getY() < pageHeight - element.getHeight();
+				}
+			}
+		}
+		
+		int rowIndex = startRow;
+		for (int band = 0; band < rowBands.size(); band++)
+		{
+			boolean isLastBand = band == rowBands.size() - 1;
+			int[] rowBand = rowBands.get(band);
+			int bandTop = rowBand[1];
+			int bandEnd = isLastBand ? elements.size() : rowBands.get(band + 1)[0];
+			int bandHeight = (isLastBand ? pageHeight : rowBands.get(band + 1)[1]) - bandTop;
+			
+			CutsInfo yCuts = new CutsInfo(bandHeight);
+			if (band == 0 && hasTopMargin)
+			{
+				yCuts.removeCutOffset(0);
+			}
+			if (isLastBand && (hasBottomMargin || nature.isIgnoreLastRow()))
+			{
+				yCuts.removeCutOffset(bandHeight);
+			}
+			
+			JRGridLayout layout =
+				new JRGridLayout(
+					nature,
+					elements,
+					rowBand[0],
+					bandEnd,
+					pageFormat.getPageWidth(),
+					bandHeight,
+					offsetX, 
+					-bandTop,
+					xCuts,
+					yCuts
+					);
+			
+			rowIndex = exportGrid(layout, rowIndex, band == 0 && startRow == 0, defaultSheetName, levelInfo);
+		}
+		return rowIndex;
+	}
+
+	/**
+	 * Exports the rows of a grid.
+	 *
+	 * @return the index of the row following the grid
+	 */
+	protected int exportGrid(
+		JRGridLayout layout, 
+		int startRow, 
+		boolean createSheet, 
+		String defaultSheetName, 
+		XlsRowLevelInfo levelInfo
+		) throws JRException
+	{
+		XlsReportConfiguration configuration = getCurrentItemConfiguration();
+		
+		int maxRowsPerSheet = getMaxRowsPerSheet();
+		boolean isRemoveEmptySpaceBetweenRows = configuration.isRemoveEmptySpaceBetweenRows();
+		boolean isRemoveEmptySpaceBetweenColumns = configuration.isRemoveEmptySpaceBetweenColumns();
+
+		Grid grid = layout.getGrid();
+		CutsInfo xCuts = layout.getXCuts();
 		CutsInfo yCuts = layout.getYCuts();
 		
-		if (createXCuts || startRow == 0)
+		if (createSheet)
 		{
 			exportSheet(xCuts, yCuts, 0, defaultSheetName);
 		}
 
-		XlsRowLevelInfo levelInfo = new XlsRowLevelInfo(); 
-
 		int skippedRows = 0;
 		int rowIndex = startRow;
 		int rowCount = grid.getRowCount();
@@ -799,34 +1078,6 @@ public abstract class JRXlsAbstractExporter<RC extends XlsReportConfiguration, C
 			}
 		}
 
-		if (configuration.isForcePageBreaks())
-		{
-			addRowBreak(rowCount - skippedRows + startRow - 1);
-		}
-		
-		if (autoFilterStart != null)
-		{
-			setAutoFilter(autoFilterStart + ":" + (autoFilterEnd != null ? autoFilterEnd : autoFilterStart));
-		}
-		else if (autoFilterEnd != null)
-		{
-			setAutoFilter(autoFilterEnd + ":" + autoFilterEnd);
-		}
-		
-//		if (createXCuts)
-//		{
-//			updateColumns(xCuts);
-//		}
-		
-		setRowLevels(levelInfo, null);
-		
-		JRExportProgressMonitor progressMonitor = configuration.getProgressMonitor();
-		if (progressMonitor != null)
-		{
-			progressMonitor.afterPageExport();
-		}
-		
-		// Return the number of rows added
 		return rowIndex;
 	}
 	
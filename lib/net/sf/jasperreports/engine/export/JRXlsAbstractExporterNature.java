@@ -63,6 +63,7 @@ import net.sf.jasperreports.engine.JRGenericPrintElement;
 import net.sf.jasperreports.engine.JRPrintElement;
 import net.sf.jasperreports.engine.JRPrintFrame;
 import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JRPropertiesMap;
 import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRPropertiesUtil.PropertySuffix;
 import net.sf.jasperreports.engine.JasperReportsContext;
@@ -74,6 +75,37 @@ import net.sf.jasperreports.engine.export.type.CellEdgeEnum;
  */
 public class JRXlsAbstractExporterNature extends AbstractExporterNature
 {
+	/**
+	 * Element properties read by {@link JRXlsAbstractExporter#getSheetProps(CutsInfo, CutsInfo, int)} for the whole sheet.
+	 */
+	private static final String[] SHEET_PROPERTIES = new String[]{
+		ExcelAbstractExporter.PROPERTY_SHEET_NAME,
+		ExcelAbstractExporter.PROPERTY_FREEZE_ROW_EDGE,
+		ExcelAbstractExporter.PROPERTY_FREEZE_COLUMN_EDGE,
+		PROPERTY_SHEET_TAB_COLOR,
+		PROPERTY_COLUMN_WIDTH_RATIO,
+		PROPERTY_PAGE_SCALE,
+		PROPERTY_FIRST_PAGE_NUMBER,
+		PROPERTY_SHOW_GRIDLINES,
+		PROPERTY_IGNORE_CELL_BACKGROUND,
+		PROPERTY_IGNORE_CELL_BORDER,
+		PROPERTY_WHITE_PAGE_BACKGROUND,
+		PROPERTY_PRINT_PAGE_HEIGHT,
+		PROPERTY_PRINT_PAGE_WIDTH,
+		PROPERTY_PRINT_PAGE_TOP_MARGIN,
+		PROPERTY_PRINT_PAGE_LEFT_MARGIN,
+		PROPERTY_PRINT_PAGE_BOTTOM_MARGIN,
+		PROPERTY_PRINT_PAGE_RIGHT_MARGIN,
+		PROPERTY_PRINT_HEADER_MARGIN,
+		PROPERTY_PRINT_FOOTER_MARGIN,
+		PROPERTY_SHEET_HEADER_LEFT,
+		PROPERTY_SHEET_HEADER_CENTER,
+		PROPERTY_SHEET_HEADER_RIGHT,
+		PROPERTY_SHEET_FOOTER_LEFT,
+		PROPERTY_SHEET_FOOTER_CENTER,
+		PROPERTY_SHEET_FOOTER_RIGHT
+		};
+	
 	protected boolean isIgnoreGraphics;
 	protected boolean isIgnorePageMargins;
 
@@ -153,6 +185,33 @@ public class JRXlsAbstractExporterNature extends AbstractExporterNature
 				&& JRPropertiesUtil.asBoolean(element.getPropertiesMap().getProperty(ExcelAbstractExporter.PROPERTY_BREAK_AFTER_ROW));
 	}
 	
+	/**
+	 * Determines whether an element sets properties of the sheet it is placed on, such as the sheet name, 
+	 * the freeze panes or the print settings, or starts a new sheet.
+	 */
+	public boolean hasSheetProperties(JRPrintElement element)
+	{
+		if (!element.hasProperties())
+		{
+			return false;
+		}
+		
+		if (isBreakBeforeRow(element) || isBreakAfterRow(element))
+		{
+			return true;
+		}
+		
+		JRPropertiesMap propertiesMap = element.getPropertiesMap();
+		for (String propertyName : SHEET_PROPERTIES)
+		{
+			if (propertiesMap.containsProperty(propertyName))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	/**
 	 *
 	 */
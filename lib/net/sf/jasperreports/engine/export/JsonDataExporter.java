@@ -0,0 +1,1013 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRAbstractExporter;
+import net.sf.jasperreports.engine.JRCommonText;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRGenericPrintElement;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintHyperlink;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JRPropertiesMap;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRPropertiesUtil.PropertySuffix;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.export.data.BooleanTextValue;
+import net.sf.jasperreports.engine.export.data.DateTextValue;
+import net.sf.jasperreports.engine.export.data.NumberTextValue;
+import net.sf.jasperreports.engine.export.data.StringTextValue;
+import net.sf.jasperreports.engine.export.data.TextValue;
+import net.sf.jasperreports.engine.export.data.TextValueHandler;
+import net.sf.jasperreports.engine.util.JRDataUtils;
+import net.sf.jasperreports.engine.util.JRStyledText;
+import net.sf.jasperreports.engine.util.JRStyledTextUtil;
+import net.sf.jasperreports.export.ExportInterruptedException;
+import net.sf.jasperreports.export.ExporterInputItem;
+import net.sf.jasperreports.export.JsonDataExporterConfiguration;
+import net.sf.jasperreports.export.JsonMetadataReportConfiguration;
+import net.sf.jasperreports.export.WriterExporterOutput;
+
+
+/**
+ * Streaming version of {@link JsonMetadataExporter}.
+ * <p/>
+ * The exporter produces the same JSON structure from the same element properties 
+ * ({@link JsonMetadataExporter#JSON_EXPORTER_PATH_PROPERTY}, the typed path properties and the repeat flags)
+ * and the same optional JSON schema, but writes it through a Jackson {@link JsonGenerator} directly into the output 
+ * writer. The path of each element property is split and resolved to the schema nodes only once per report,
+ * the objects of arrays are written as soon as their values are exported, and nothing is kept from one page to the next 
+ * other than the values marked as repeated.
+ * <p/>
+ * When {@link JsonDataExporterConfiguration#isLineDelimited()} is set, the objects of a root array are written as
+ * newline delimited JSON (NDJSON) records, one per line.
+ * 
+ * @see JsonDataExporterConfiguration
+ */
+public class JsonDataExporter extends JRAbstractExporter<JsonMetadataReportConfiguration, JsonDataExporterConfiguration, WriterExporterOutput, JsonExporterContext>
+{
+
+	private static final Log log = LogFactory.getLog(JsonDataExporter.class);
+
+	private static final String JSON_SCHEMA_ROOT_NAME = "___root";
+	
+	private static final JsonPath UNMAPPED_PATH = new JsonPath(null, null);
+
+	private static final JsonFactory QUOTED_MEMBERS_FACTORY = createJsonFactory(true);
+	private static final JsonFactory UNQUOTED_MEMBERS_FACTORY = createJsonFactory(false);
+
+	protected final DateFormat isoDateFormat = JRDataUtils.getIsoDateFormat();
+
+	protected Writer writer;
+	protected JsonGenerator generator;
+	protected int reportIndex;
+	protected int pageIndex;
+	protected boolean lineDelimited;
+
+	private Map<String, SchemaNode> pathToObjectNode;
+	private Map<String, SchemaNode> pathToValueNode;
+	private Map<String, JsonPath> resolvedPaths;
+	private boolean gotSchema;
+
+	/**
+	 * The path of the last written value, whose object nodes are the currently open ones.
+	 */
+	private JsonPath previousPath;
+
+	public JsonDataExporter()
+	{
+		this(DefaultJasperReportsContext.getInstance());
+	}
+
+	public JsonDataExporter(JasperReportsContext jasperReportsContext)
+	{
+		super(jasperReportsContext);
+
+		exporterContext = new ExporterContext();
+	}
+
+
+	private static JsonFactory createJsonFactory(boolean quoteMembers)
+	{
+		return 
+			new JsonFactoryBuilder()
+				.configure(JsonWriteFeature.QUOTE_FIELD_NAMES, quoteMembers)
+				.disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+				.disable(StreamWriteFeature.FLUSH_PASSED_TO_STREAM)
+				.build();
+	}
+
+
+	@Override
+	protected Class<JsonDataExporterConfiguration> getConfigurationInterface()
+	{
+		return JsonDataExporterConfiguration.class;
+	}
+
+
+	@Override
+	protected Class<JsonMetadataReportConfiguration> getItemConfigurationInterface()
+	{
+		return JsonMetadataReportConfiguration.class;
+	}
+
+
+	@Override
+	@SuppressWarnings("deprecation")
+	protected void ensureOutput()
+	{
+		if (exporterOutput == null)
+		{
+			exporterOutput =
+					new net.sf.jasperreports.export.parameters.ParametersWriterExporterOutput(
+							getJasperReportsContext(),
+							getParameters(),
+							getCurrentJasperPrint()
+					);
+		}
+	}
+
+
+	@Override
+	public String getExporterKey()
+	{
+		return JsonMetadataExporter.JSON_EXPORTER_KEY;
+	}
+
+	@Override
+	public String getExporterPropertiesPrefix()
+	{
+		return JsonMetadataExporter.JSON_EXPORTER_PROPERTIES_PREFIX;
+	}
+
+	@Override
+	public void exportReport() throws JRException
+	{
+		/*   */
+		ensureJasperReportsContext();
+		ensureInput();
+
+		initExport();
+
+		ensureOutput();
+
+		writer = getExporterOutput().getWriter();
+
+		try
+		{
+			exportReportToWriter();
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_OUTPUT_WRITER_ERROR,
+					new Object[]{jasperPrint.getName()}, 
+					e);
+		}
+		finally
+		{
+			getExporterOutput().close();
+			resetExportContext();
+		}
+	}
+
+	@Override
+	protected void initExport()
+	{
+		super.initExport();
+
+		lineDelimited = getCurrentConfiguration().isLineDelimited();
+	}
+
+	protected void exportReportToWriter() throws JRException, IOException
+	{
+		List<ExporterInputItem> items = exporterInput.getItems();
+
+		for(reportIndex = 0; reportIndex < items.size(); reportIndex++)
+		{
+			ExporterInputItem item = items.get(reportIndex);
+
+			setCurrentExporterInputItem(item);
+
+			JsonMetadataReportConfiguration currentItemConfiguration = getCurrentItemConfiguration();
+
+			pathToObjectNode = new HashMap<>();
+			pathToValueNode = new HashMap<>();
+			resolvedPaths = new HashMap<>();
+			previousPath = null;
+			gotSchema = false;
+
+			String jsonSchemaResource = currentItemConfiguration.getJsonSchemaResource();
+			if (jsonSchemaResource != null) 
+			{
+				try (InputStream is = getRepository().getInputStreamFromLocation(jsonSchemaResource))
+				{
+					readSchema(is);
+				}
+				gotSchema = true;
+			} 
+			else if (log.isWarnEnabled()) 
+			{
+				log.warn("No JSON Schema provided!");
+			}
+
+			boolean escapeMembers = currentItemConfiguration.isEscapeMembers();
+			generator = (escapeMembers ? QUOTED_MEMBERS_FACTORY : UNQUOTED_MEMBERS_FACTORY).createGenerator(writer);
+			generator.setRootValueSeparator(null);
+
+			List<JRPrintPage> pages = jasperPrint.getPages();
+			if (pages != null && pages.size() > 0)
+			{
+				PageRange pageRange = getPageRange();
+				int startPageIndex = (pageRange == null || pageRange.getStartPageIndex() == null) ? 0 : pageRange.getStartPageIndex();
+				int endPageIndex = (pageRange == null || pageRange.getEndPageIndex() == null) ? (pages.size() - 1) : pageRange.getEndPageIndex();
+
+				for(pageIndex = startPageIndex; pageIndex <= endPageIndex; pageIndex++)
+				{
+					checkInterrupted();
+
+					exportPage(pages.get(pageIndex));
+				}
+
+				closeOpenNodes();
+			}
+
+			generator.close();
+		}
+
+		boolean flushOutput = getCurrentConfiguration().isFlushOutput();
+		if (flushOutput)
+		{
+			writer.flush();
+		}
+	}
+
+	/**
+	 * Reads the JSON schema and creates its nodes, 
+	 * with the same rules as {@link JsonMetadataExporter#validateSchema(String)}.
+	 */
+	protected void readSchema(InputStream is) throws JRException
+	{
+		ObjectMapper mapper = new ObjectMapper();
+
+		// relax the JSON rules
+		mapper.configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true);
+		mapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
+		mapper.configure(JsonParser.Feature.ALLOW_COMMENTS, true);
+
+		JsonNode root;
+		try
+		{
+			root = mapper.readTree(is);
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					JsonMetadataExporter.EXCEPTION_MESSAGE_KEY_INVALID_JSON_OBJECT,  
+					(Object[])null 
+					);
+		}
+
+		if (root == null || !root.isObject())
+		{
+			throw 
+				new JRException(
+					JsonMetadataExporter.EXCEPTION_MESSAGE_KEY_INVALID_JSON_OBJECT_ARRAY_FOUND,  
+					(Object[])null 
+					);
+		}
+
+		if (!isValid((ObjectNode) root, JSON_SCHEMA_ROOT_NAME, "", null))
+		{
+			throw 
+				new JRException(
+					JsonMetadataExporter.EXCEPTION_MESSAGE_KEY_INVALID_JSON_OBJECT_SEMANTIC,  
+					(Object[])null 
+					);
+		}
+	}
+
+	private boolean isValid(ObjectNode objectNode, String objectName, String currentPath, SchemaNode parent)
+	{
+		JsonNode typeNode = objectNode.path("_type");
+		boolean array;
+		if (typeNode.isMissingNode())
+		{
+			array = false;
+		}
+		else if (typeNode.isTextual() && ("object".equals(typeNode.asText()) || "array".equals(typeNode.asText())))
+		{
+			array = "array".equals(typeNode.asText());
+		}
+		else
+		{
+			return false;
+		}
+
+		// enforce "_children" of type object for arrays
+		if (array && !objectNode.path("_children").isObject())
+		{
+			return false;
+		}
+
+		String availablePath = currentPath.length() > 0 ? (currentPath.endsWith(".") ? currentPath : currentPath + ".") + objectName : objectName;
+
+		// _children properties are passed to the parent array
+		SchemaNode schemaNode = parent;
+		if (schemaNode == null)
+		{
+			schemaNode = new SchemaNode(objectName, array);
+			pathToObjectNode.put(availablePath, schemaNode);
+		}
+
+		Iterator<String> it = objectNode.fieldNames();
+		while (it.hasNext())
+		{
+			String field = it.next();
+			JsonNode node = objectNode.path(field);
+
+			if (!field.startsWith("_"))
+			{
+				schemaNode.addMember(field);
+				if (node.isTextual() && node.asText().equals("value"))
+				{
+					String localPath = availablePath.length() > 0 ? (availablePath.endsWith(".") ? availablePath : availablePath + ".") + field : field;
+					pathToValueNode.put(localPath, schemaNode);
+				}
+				else if (!node.isObject() || !isValid((ObjectNode) node, field, availablePath, null))
+				{
+					return false;
+				}
+			}
+			else if (field.equals("_children") && !isValid((ObjectNode) node, "", availablePath, schemaNode))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	protected void exportPage(JRPrintPage page) throws IOException, ExportInterruptedException
+	{
+		exportElements(page.getElements());
+
+		JRExportProgressMonitor progressMonitor = getCurrentItemConfiguration().getProgressMonitor();
+		if (progressMonitor != null)
+		{
+			progressMonitor.afterPageExport();
+		}
+	}
+
+	protected void exportElements(Collection<JRPrintElement> elements) throws IOException, ExportInterruptedException
+	{
+		if (elements != null && elements.size() > 0)
+		{
+			for(Iterator<JRPrintElement> it = elements.iterator(); it.hasNext();)
+			{
+				checkInterrupted();
+				JRPrintElement element = it.next();
+
+				if (filter == null || filter.isToExport(element))
+				{
+					exportElement(element);
+
+					if (element instanceof JRPrintFrame && !(element instanceof JRGenericPrintElement))
+					{
+						exportElements(((JRPrintFrame) element).getElements());
+					}
+				}
+			}
+		}
+	}
+
+	protected void exportElement(JRPrintElement element) throws IOException 
+	{
+		if (!element.hasProperties())
+		{
+			return;
+		}
+
+		JRPropertiesMap propMap = element.getPropertiesMap();
+
+		List<PropertySuffix> properties = JRPropertiesUtil.getProperties(propMap, JsonMetadataExporter.JSON_EXPORTER_PROPERTIES_PREFIX);
+
+		for (PropertySuffix property : properties)
+		{
+			String propertyPath = null;
+			boolean repeatValue = false;
+			Object value = null;
+			boolean legacyPathProperty = false;
+
+			String propertyName = property.getKey();
+
+			if (propertyName.equals(JsonMetadataExporter.JSON_EXPORTER_PATH_PROPERTY))
+			{
+				legacyPathProperty = true;
+				propertyPath = property.getValue();
+				repeatValue = getPropertiesUtil().getBooleanProperty(propMap, JsonMetadataExporter.JSON_EXPORTER_REPEAT_VALUE_PROPERTY, false);
+			}
+			else if (propertyName.startsWith(JsonMetadataExporter.JSON_EXPORTER_STRING_PROPERTIES_PREFIX))
+			{
+				propertyPath = propertyName.substring(JsonMetadataExporter.JSON_EXPORTER_STRING_PROPERTIES_PREFIX.length());
+				repeatValue = isRepeatValue(propMap, propertyPath);
+				value = property.getValue();
+			}
+			else if (propertyName.startsWith(JsonMetadataExporter.JSON_EXPORTER_NUMBER_PROPERTIES_PREFIX))
+			{
+				propertyPath = propertyName.substring(JsonMetadataExporter.JSON_EXPORTER_NUMBER_PROPERTIES_PREFIX.length());
+				repeatValue = isRepeatValue(propMap, propertyPath);
+				value = Double.parseDouble(property.getValue());
+			}
+			else if (propertyName.startsWith(JsonMetadataExporter.JSON_EXPORTER_DATE_PROPERTIES_PREFIX))
+			{
+				propertyPath = propertyName.substring(JsonMetadataExporter.JSON_EXPORTER_DATE_PROPERTIES_PREFIX.length());
+				repeatValue = isRepeatValue(propMap, propertyPath);
+				try
+				{
+					value = isoDateFormat.parse(property.getValue());
+				}
+				catch (ParseException e)
+				{
+					throw new JRRuntimeException(e);
+				}
+			}
+			else if (propertyName.startsWith(JsonMetadataExporter.JSON_EXPORTER_BOOLEAN_PROPERTIES_PREFIX))
+			{
+				propertyPath = propertyName.substring(JsonMetadataExporter.JSON_EXPORTER_BOOLEAN_PROPERTIES_PREFIX.length());
+				repeatValue = isRepeatValue(propMap, propertyPath);
+				value = Boolean.parseBoolean(property.getValue());
+			}
+
+			if (propertyPath != null && propertyPath.length() > 0) 
+			{
+				JsonPath path = resolvePath(propertyPath);
+				if (path != UNMAPPED_PATH)
+				{
+					if (legacyPathProperty)
+					{
+						value = getValue(element); 
+					}
+
+					writeValue(path, value, repeatValue);
+				}
+			}
+		}
+	}
+
+	private boolean isRepeatValue(JRPropertiesMap propMap, String propertyPath)
+	{
+		return getPropertiesUtil().getBooleanProperty(propMap, JsonMetadataExporter.JSON_EXPORTER_REPEAT_PROPERTIES_PREFIX + propertyPath, false);
+	}
+
+	/**
+	 * Returns the schema nodes of a property path, adding them to the schema if no JSON schema was provided,
+	 * or {@link #UNMAPPED_PATH} if the JSON schema does not contain the path.
+	 */
+	private JsonPath resolvePath(String propertyPath)
+	{
+		JsonPath path = resolvedPaths.get(propertyPath);
+		if (path == null)
+		{
+			String absolutePath = JSON_SCHEMA_ROOT_NAME + "." + propertyPath;
+			if (!gotSchema)
+			{
+				prepareSchema(absolutePath);
+			}
+
+			if (pathToValueNode.containsKey(absolutePath))
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("found element with path: " + propertyPath);
+				}
+
+				String[] segments = absolutePath.split("\\.");
+				SchemaNode[] nodes = new SchemaNode[segments.length - 1];
+				int[] memberIndexes = new int[segments.length - 1];
+				StringBuilder objectPath = new StringBuilder();
+				for (int i = 0; i < nodes.length; i++)
+				{
+					if (i > 0)
+					{
+						objectPath.append('.');
+					}
+					objectPath.append(segments[i]);
+					nodes[i] = pathToObjectNode.get(objectPath.toString());
+					memberIndexes[i] = nodes[i].indexOfMember(segments[i + 1]);
+				}
+				path = new JsonPath(nodes, memberIndexes);
+			}
+			else
+			{
+				path = UNMAPPED_PATH;
+			}
+
+			resolvedPaths.put(propertyPath, path);
+		}
+		return path;
+	}
+
+	private void prepareSchema(String absolutePath)
+	{
+		if (!pathToValueNode.containsKey(absolutePath))
+		{
+			String valueProperty = absolutePath.substring(absolutePath.lastIndexOf('.') + 1);
+			String[] objectPathSegments = absolutePath.substring(0, absolutePath.lastIndexOf('.')).split("\\.");
+			StringBuilder objectPath = new StringBuilder();
+			SchemaNode node = null;
+
+			for (int i = 0; i < objectPathSegments.length; i++)
+			{
+				if (i > 0)
+				{
+					objectPath.append('.');
+				}
+				objectPath.append(objectPathSegments[i]);
+
+				node = pathToObjectNode.get(objectPath.toString());
+				if (node == null)
+				{
+					node = new SchemaNode(objectPathSegments[i], true);
+					pathToObjectNode.put(objectPath.toString(), node);
+				}
+
+				if (i < objectPathSegments.length - 1 && node.indexOfMember(objectPathSegments[i + 1]) < 0)
+				{
+					node.addMember(objectPathSegments[i + 1]);
+				}
+			}
+
+			if (node.indexOfMember(valueProperty) < 0)
+			{
+				node.addMember(valueProperty);
+			}
+			pathToValueNode.put(absolutePath, node);
+		}
+	}
+
+	private Object getValue(JRPrintElement element) 
+	{
+		final String textStr;
+		final boolean hasDataProp;
+		if (element.getPropertiesMap().containsProperty(JsonMetadataExporter.JSON_EXPORTER_DATA_PROPERTY)) 
+		{
+			hasDataProp = true;
+			textStr = element.getPropertiesMap().getProperty(JsonMetadataExporter.JSON_EXPORTER_DATA_PROPERTY);
+		}
+		else
+		{
+			hasDataProp = false;
+			textStr = element instanceof JRPrintText ? getText((JRPrintText) element) : null;
+		}
+
+		if (element instanceof JRPrintText)
+		{
+			TextValue textValue = getTextValue((JRPrintText) element, textStr);
+			LocalTextValueHandler handler = new LocalTextValueHandler(hasDataProp, textStr);
+			try
+			{
+				textValue.handle(handler);
+			}
+			catch (JRException e)
+			{
+				throw new JRRuntimeException(e);
+			}
+			return handler.getValue();
+		}
+
+		return textStr;
+	}
+
+	/**
+	 * Returns the text of an element, without parsing it as styled text if the element has no markup.
+	 */
+	protected String getText(JRPrintText textElement)
+	{
+		if (JRCommonText.MARKUP_NONE.equals(textElement.getMarkup()))
+		{
+			return textElement.getFullText();
+		}
+
+		JRStyledText styledText = getStyledText(textElement);
+		return styledText == null ? null : styledText.getText();
+	}
+
+	/**
+	 * Writes a value, closing the objects of the previous path that are not on the path of the value 
+	 * and opening the objects of the value path that are not open yet.
+	 */
+	private void writeValue(JsonPath path, Object value, boolean repeatValue) throws IOException
+	{
+		int commonNodes = 0;
+		if (previousPath != null)
+		{
+			int ln = Math.min(path.nodes.length, previousPath.nodes.length);
+			while (commonNodes < ln && path.nodes[commonNodes] == previousPath.nodes[commonNodes])
+			{
+				commonNodes++;
+			}
+
+			closeNodes(previousPath, commonNodes);
+		}
+
+		openNodes(path, commonNodes);
+
+		int last = path.nodes.length - 1;
+		SchemaNode node = path.nodes[last];
+		int memberIndex = path.memberIndexes[last];
+
+		if (node.lastMemberIndex < 0 || memberIndex > node.lastMemberIndex)
+		{
+			// property of the same object, preceded by the repeated values of the skipped properties
+			writeRepeatedValues(node, node.lastMemberIndex + 1, memberIndex);
+		}
+		else if (node.array)
+		{
+			// property of a new object of the array
+			startArrayObject(node, last == 0);
+			writeRepeatedValues(node, 0, memberIndex);
+		}
+
+		SchemaNodeMember member = node.members.get(memberIndex);
+		generator.writeFieldName(member.name);
+		writeValue(value);
+		node.lastMemberIndex = memberIndex;
+
+		// mark repeated value
+		if (repeatValue && node.array)
+		{
+			member.repeatValue = true;
+			member.previousValue = value;
+		}
+
+		previousPath = path;
+	}
+
+	private void openNodes(JsonPath path, int from) throws IOException
+	{
+		for (int i = from; i < path.nodes.length; i++)
+		{
+			SchemaNode node = path.nodes[i];
+			if (i == 0)
+			{
+				// root node
+				if (node.array && !lineDelimited)
+				{
+					generator.writeStartArray();
+				}
+				generator.writeStartObject();
+			}
+			else
+			{
+				SchemaNode parent = path.nodes[i - 1];
+				int memberIndex = path.memberIndexes[i - 1];
+				if (parent.array)
+				{
+					if (parent.lastMemberIndex >= 0 && memberIndex <= parent.lastMemberIndex)
+					{
+						startArrayObject(parent, i == 1);
+						writeRepeatedValues(parent, 0, memberIndex);
+					}
+					else if (parent.lastMemberIndex >= 0)
+					{
+						writeRepeatedValues(parent, parent.lastMemberIndex + 1, memberIndex);
+					}
+					parent.lastMemberIndex = memberIndex;
+				}
+
+				generator.writeFieldName(parent.members.get(memberIndex).name);
+				if (node.array)
+				{
+					generator.writeStartArray();
+				}
+				generator.writeStartObject();
+			}
+
+			node.lastMemberIndex = -1;
+
+			if (log.isDebugEnabled())
+			{
+				log.debug("\t\topening " + (node.array ? "array" : "object") + " " + node.name);
+			}
+		}
+	}
+
+	private void closeNodes(JsonPath path, int to) throws IOException
+	{
+		for (int i = path.nodes.length - 1; i >= to; i--)
+		{
+			SchemaNode node = path.nodes[i];
+			if (node.array)
+			{
+				// write previous repeated before closing
+				writeRepeatedValues(node, node.lastMemberIndex + 1, node.members.size());
+			}
+
+			generator.writeEndObject();
+			if (i == 0 && lineDelimited)
+			{
+				generator.writeRaw('\n');
+			}
+			else if (node.array)
+			{
+				generator.writeEndArray();
+			}
+
+			node.lastMemberIndex = -1;
+
+			if (log.isDebugEnabled())
+			{
+				log.debug("\t\tclosing " + (node.array ? "array" : "object") + " " + node.name);
+			}
+		}
+	}
+
+	private void closeOpenNodes() throws IOException
+	{
+		if (previousPath != null)
+		{
+			closeNodes(previousPath, 0);
+			previousPath = null;
+		}
+	}
+
+	/**
+	 * Ends the current object of an array, after writing the remaining repeated values, and starts a new one.
+	 */
+	private void startArrayObject(SchemaNode node, boolean root) throws IOException
+	{
+		writeRepeatedValues(node, node.lastMemberIndex + 1, node.members.size());
+
+		generator.writeEndObject();
+		if (root && lineDelimited)
+		{
+			generator.writeRaw('\n');
+		}
+		generator.writeStartObject();
+
+		node.lastMemberIndex = -1;
+	}
+
+	private void writeRepeatedValues(SchemaNode node, int from, int to) throws IOException
+	{
+		for (int i = from; i < to; i++)
+		{
+			SchemaNodeMember member = node.members.get(i);
+			if (member.repeatValue && member.previousValue != null)
+			{
+				generator.writeFieldName(member.name);
+				writeValue(member.previousValue);
+			}
+		}
+	}
+
+	private void writeValue(Object value) throws IOException
+	{
+		if (value == null)
+		{
+			generator.writeNull();
+		}
+		else if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+		{
+			generator.writeNumber(((Number) value).intValue());
+		}
+		else if (value instanceof Long)
+		{
+			generator.writeNumber((Long) value);
+		}
+		else if (value instanceof Double)
+		{
+			generator.writeNumber((Double) value);
+		}
+		else if (value instanceof Float)
+		{
+			generator.writeNumber((Float) value);
+		}
+		else if (value instanceof BigDecimal)
+		{
+			generator.writeNumber((BigDecimal) value);
+		}
+		else if (value instanceof BigInteger)
+		{
+			generator.writeNumber((BigInteger) value);
+		}
+		else if (value instanceof Number)
+		{
+			generator.writeNumber(value.toString());
+		}
+		else if (value instanceof Boolean)
+		{
+			generator.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Date)
+		{
+			generator.writeString(isoDateFormat.format((Date) value));
+		}
+		else
+		{
+			generator.writeString(value.toString());
+		}
+	}
+
+	@Override
+	protected JRStyledText getStyledText(JRPrintText textElement)
+	{
+		JRStyledText styledText = textElement.getFullStyledText(noneSelector);
+		
+		if (styledText != null && !JRCommonText.MARKUP_NONE.equals(textElement.getMarkup()))
+		{
+			styledText = JRStyledTextUtil.getBulletedText(styledText);
+		}
+
+		return styledText;
+	}
+
+	protected class ExporterContext extends BaseExporterContext implements JsonExporterContext
+	{
+		@Override
+		public String getHyperlinkURL(JRPrintHyperlink link)
+		{
+			return "";
+		}
+	}
+
+
+	/**
+	 * The object nodes of a property path, from the root to the object holding the value, 
+	 * and the index of the next path segment among the members of each node.
+	 */
+	private static class JsonPath
+	{
+		private final SchemaNode[] nodes;
+		private final int[] memberIndexes;
+
+		public JsonPath(SchemaNode[] nodes, int[] memberIndexes)
+		{
+			this.nodes = nodes;
+			this.memberIndexes = memberIndexes;
+		}
+	}
+
+	private static class SchemaNode
+	{
+		private final String name;
+		private final boolean array;
+		private final List<SchemaNodeMember> members = new ArrayList<>();
+		private final Map<String, Integer> memberIndexes = new HashMap<>();
+
+		/**
+		 * The index of the last member written in the current object, -1 if none.
+		 */
+		private int lastMemberIndex = -1;
+
+		public SchemaNode(String name, boolean array)
+		{
+			this.name = name;
+			this.array = array;
+		}
+
+		public void addMember(String memberName)
+		{
+			memberIndexes.putIfAbsent(memberName, members.size());
+			members.add(new SchemaNodeMember(memberName));
+		}
+
+		public int indexOfMember(String memberName)
+		{
+			Integer index = memberIndexes.get(memberName);
+			return index == null ? -1 : index;
+		}
+	}
+
+	private static class SchemaNodeMember
+	{
+		private final SerializedString name;
+		private boolean repeatValue;
+		private Object previousValue;
+
+		public SchemaNodeMember(String name)
+		{
+			this.name = new SerializedString(name);
+		}
+	}
+
+	private class LocalTextValueHandler implements TextValueHandler
+	{
+		Object value;
+		boolean hasDataProp;
+		String textStr;
+
+		public LocalTextValueHandler(boolean hasDataProp, String textStr)
+		{
+			this.hasDataProp = hasDataProp;
+			this.textStr = textStr;
+		}
+
+		public Object getValue()
+		{
+			return value;
+		}
+
+		@Override
+		public void handle(StringTextValue textValue) {
+			value = textValue.getText();
+		}
+
+		@Override
+		public void handle(NumberTextValue textValue) {
+			if (hasDataProp) {
+				if (textStr != null) {
+					try {
+						value = Double.parseDouble(textStr);
+					} catch (NumberFormatException nfe) {
+						throw new JRRuntimeException(nfe);
+					}
+				}
+			} else {
+				value = textValue.getValue();
+			}
+		}
+
+		@Override
+		public void handle(DateTextValue textValue) {
+			if (hasDataProp) {
+				if (textStr != null) {
+					try {
+						value = new Date(Long.parseLong(textStr));
+					} catch (NumberFormatException nfe) {
+						try {
+							value = isoDateFormat.parse(textStr);
+						} catch (ParseException pe) {
+							throw new JRRuntimeException(pe);
+						}
+					}
+				}
+			} else {
+				value = textValue.getValue();
+			}
+		}
+
+		@Override
+		public void handle(BooleanTextValue textValue) {
+			value = hasDataProp ? Boolean.valueOf(textStr) : textValue.getValue();
+		}
+
+	}
+}
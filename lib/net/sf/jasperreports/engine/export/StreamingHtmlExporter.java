@@ -0,0 +1,156 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.fill.FillHandle;
+import net.sf.jasperreports.engine.fill.FillPageStream;
+import net.sf.jasperreports.export.SimpleExporterInput;
+
+
+/**
+ * HTML exporter that writes and flushes each page while the report is still being filled.
+ * <p>
+ * {@link #exportReport(FillHandle)} starts the fill and exports a page as soon as it is final,
+ * so the first page reaches the output without waiting for the whole report. The result is the same
+ * as exporting the complete report with {@link HtmlExporter}, without page ranges.
+ * Unless disabled through {@link #setReleaseExportedPages(boolean)}, the elements of exported pages are
+ * released, so the filled report does not accumulate in memory; the returned report then only keeps empty pages.
+ * <pre>
+ * AsynchronousFillHandle handle = AsynchronousFillHandle.createHandle(context, report, parameters, dataSource);
+ * StreamingHtmlExporter exporter = new StreamingHtmlExporter(context);
+ * exporter.setExporterOutput(new SimpleHtmlExporterOutput(out));
+ * exporter.exportReport(handle);
+ * </pre>
+ */
+public class StreamingHtmlExporter extends HtmlExporter
+{
+	
+	protected FillPageStream pageStream;
+	private boolean releaseExportedPages = true;
+
+	public StreamingHtmlExporter()
+	{
+		this(DefaultJasperReportsContext.getInstance());
+	}
+
+	public StreamingHtmlExporter(JasperReportsContext jasperReportsContext)
+	{
+		super(jasperReportsContext);
+	}
+
+	public void setReleaseExportedPages(boolean releaseExportedPages)
+	{
+		this.releaseExportedPages = releaseExportedPages;
+	}
+
+	/**
+	 * Starts the fill of the handle and exports its pages as they are completed.
+	 * 
+	 * @return the filled report
+	 */
+	public JasperPrint exportReport(FillHandle fillHandle) throws JRException
+	{
+		pageStream = new FillPageStream(fillHandle);
+		try
+		{
+			fillHandle.startFill();
+			JasperPrint jasperPrint = pageStream.awaitJasperPrint();
+			setExporterInput(new SimpleExporterInput(jasperPrint));
+			exportReport();
+			return jasperPrint;
+		}
+		catch (JRException | RuntimeException e)
+		{
+			if (!pageStream.isFinished())
+			{
+				try
+				{
+					fillHandle.cancellFill();
+				}
+				catch (IllegalStateException | JRException ce)
+				{
+					// the fill has already ended
+				}
+			}
+			throw e;
+		}
+		finally
+		{
+			pageStream = null;
+		}
+	}
+
+	@Override
+	protected void exportItems(String betweenPagesHtml) throws JRException, IOException
+	{
+		if (pageStream == null)
+		{
+			super.exportItems(betweenPagesHtml);
+			return;
+		}
+		
+		reportIndex = 0;
+		setCurrentExporterInputItem(exporterInput.getItems().get(0));
+		
+		for (pageIndex = 0; ; pageIndex++)
+		{
+			checkInterrupted();
+
+			JRPrintPage page = pageStream.awaitFinalPage(pageIndex);
+			if (page == null)
+			{
+				break;
+			}
+			
+			if (pageIndex > 0)
+			{
+				// same output as HtmlExporter, which writes the separator after every page but the last
+				writer.write(betweenPagesHtml == null ? "<br/>\n<br/>\n" : betweenPagesHtml);
+				writer.write("\n");
+			}
+			
+			exportPage(page);
+			writer.flush();
+			
+			if (releaseExportedPages && page instanceof JRBasePrintPage)
+			{
+				((JRBasePrintPage) page).setElements(new ArrayList<>(0));
+			}
+		}
+		
+		if (pageIndex > 0)
+		{
+			writer.write("\n");
+		}
+	}
+}
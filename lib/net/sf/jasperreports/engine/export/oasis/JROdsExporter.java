@@ -152,6 +152,7 @@ public class JROdsExporter extends JRXlsAbstractExporter<OdsReportConfiguration,
 	protected void openWorkbook(OutputStream os) throws JRException, IOException
 	{
 		oasisZip = new OdsZip();
+		oasisZip.setCompressionProperties(getPropertiesUtil(), jasperPrint);
 
 		tempBodyEntry = new FileBufferedZipEntry(null);
 		tempStyleEntry = new FileBufferedZipEntry(null);
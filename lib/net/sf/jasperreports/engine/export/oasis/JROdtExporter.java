@@ -69,6 +69,7 @@ import net.sf.jasperreports.engine.export.ElementGridCell;
 import net.sf.jasperreports.engine.export.ExporterNature;
 import net.sf.jasperreports.engine.export.GenericElementHandlerEnviroment;
 import net.sf.jasperreports.engine.export.Grid;
+import net.sf.jasperreports.engine.export.GridLayoutCache;
 import net.sf.jasperreports.engine.export.GridRow;
 import net.sf.jasperreports.engine.export.JRExportProgressMonitor;
 import net.sf.jasperreports.engine.export.JRExporterGridCell;
@@ -237,6 +238,8 @@ public class JROdtExporter extends JRAbstractExporter<OdtReportConfiguration, Od
 	protected StyleCache styleCache;
 
 	protected ExporterNature nature;
+	
+	protected GridLayoutCache layoutCache;
 
 	protected Map<Integer, String> rowStyles = new HashMap<>();
 	protected Map<Integer, String> columnStyles = new HashMap<>();
@@ -343,6 +346,7 @@ public class JROdtExporter extends JRAbstractExporter<OdtReportConfiguration, Od
 		}
 
 		nature = new JROdtExporterNature(getJasperReportsContext(), filter);
+		layoutCache = GridLayoutCache.getInstance(getPropertiesUtil(), jasperPrint);
 	}
 
 	
@@ -352,6 +356,7 @@ public class JROdtExporter extends JRAbstractExporter<OdtReportConfiguration, Od
 	protected void exportReportToOasisZip(OutputStream os) throws JRException, IOException
 	{
 		OasisZip oasisZip = new OdtZip();
+		oasisZip.setCompressionProperties(getPropertiesUtil(), jasperPrint);
 
 		ExportZipEntry tempBodyEntry = new FileBufferedZipEntry(null);
 		ExportZipEntry tempStyleEntry = new FileBufferedZipEntry(null);
@@ -461,7 +466,8 @@ public class JROdtExporter extends JRAbstractExporter<OdtReportConfiguration, Od
 				pageFormat.getPageHeight(),
 				configuration.getOffsetX() == null ? 0 : configuration.getOffsetX(), 
 				configuration.getOffsetY() == null ? 0 : configuration.getOffsetY(),
-				null //address
+				null, //address
+				layoutCache
 				);
 
 		exportGrid(layout, null);
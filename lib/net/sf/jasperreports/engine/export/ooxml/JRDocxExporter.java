@@ -72,6 +72,7 @@ import net.sf.jasperreports.engine.export.ExporterFilter;
 import net.sf.jasperreports.engine.export.ExporterNature;
 import net.sf.jasperreports.engine.export.GenericElementHandlerEnviroment;
 import net.sf.jasperreports.engine.export.Grid;
+import net.sf.jasperreports.engine.export.GridLayoutCache;
 import net.sf.jasperreports.engine.export.GridRow;
 import net.sf.jasperreports.engine.export.HyperlinkUtil;
 import net.sf.jasperreports.engine.export.JRExportProgressMonitor;
@@ -217,6 +218,8 @@ public class JRDocxExporter extends JRAbstractExporter<DocxReportConfiguration,
 
 	protected ExporterNature backgroundNature;
 	protected ExporterNature pageNature;
+	
+	protected GridLayoutCache layoutCache;
 
 	protected long bookmarkIndex;
 	
@@ -373,6 +376,8 @@ public class JRDocxExporter extends JRAbstractExporter<DocxReportConfiguration,
 				!configuration.isFramesAsNestedTables()
 				);
 
+		layoutCache = GridLayoutCache.getInstance(getPropertiesUtil(), jasperPrint);
+
 		renderersCache = new RenderersCache(getJasperReportsContext());
 	}
 
@@ -383,6 +388,7 @@ public class JRDocxExporter extends JRAbstractExporter<DocxReportConfiguration,
 	protected void exportReportToStream(OutputStream os) throws JRException, IOException
 	{
 		docxZip = new DocxZip();
+		docxZip.setCompressionProperties(getPropertiesUtil(), jasperPrint);
 
 		docWriter = docxZip.getDocumentEntry().getWriter();
 		
@@ -636,7 +642,8 @@ public class JRDocxExporter extends JRAbstractExporter<DocxReportConfiguration,
 				pageFormat.getPageHeight(),
 				configuration.getOffsetX() == null ? 0 : configuration.getOffsetX(), 
 				configuration.getOffsetY() == null ? 0 : configuration.getOffsetY(),
-				null //address
+				null, //address
+				layoutCache
 				);
 
 		exportGrid(pageGridLayout, null);
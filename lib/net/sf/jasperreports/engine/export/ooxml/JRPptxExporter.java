@@ -370,6 +370,7 @@ public class JRPptxExporter extends JRAbstractExporter<PptxReportConfiguration,
 	protected void exportReportToStream(OutputStream os) throws JRException, IOException
 	{
 		pptxZip = new PptxZip();
+		pptxZip.setCompressionProperties(getPropertiesUtil(), jasperPrint);
 		PptxExporterConfiguration configuration = getCurrentConfiguration();
 
 		presentationWriter = pptxZip.getPresentationEntry().getWriter();
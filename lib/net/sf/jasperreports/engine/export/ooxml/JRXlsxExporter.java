@@ -193,6 +193,8 @@ public class JRXlsxExporter extends JRXlsAbstractExporter<XlsxReportConfiguratio
 	protected Integer currentSheetFirstPageNumber;		
 
 	protected Map<String, Integer> sheetMapping;
+	
+	protected boolean streaming;
 
 	
 	protected class ExporterContext extends BaseExporterContext implements JRXlsxExporterContext
@@ -335,8 +337,15 @@ public class JRXlsxExporter extends JRXlsAbstractExporter<XlsxReportConfiguratio
 		});
 		
 		String sharedString = runHelper.getSharedString();
-		int index = sharedStringsHelper.export(sharedString);
-		sheetHelper.write(String.valueOf(index));
+		if (streaming)
+		{
+			sheetHelper.write(sharedString);
+		}
+		else
+		{
+			int index = sharedStringsHelper.export(sharedString);
+			sheetHelper.write(String.valueOf(index));
+		}
 	}
 
 
@@ -761,7 +770,7 @@ public class JRXlsxExporter extends JRXlsAbstractExporter<XlsxReportConfiguratio
 		Writer drawingWriter = drawingEntry.getWriter();
 		drawingHelper = new XlsxDrawingHelper(jasperReportsContext, drawingWriter, drawingRelsHelper);
 		
-		cellHelper = new XlsxCellHelper(jasperReportsContext, sheetWriter, styleHelper);
+		cellHelper = new XlsxCellHelper(jasperReportsContext, sheetWriter, styleHelper, streaming);
 		
 		boolean showGridlines = true;
 		if (sheetInfo.sheetShowGridlines == null)
@@ -1614,11 +1623,11 @@ public class JRXlsxExporter extends JRXlsAbstractExporter<XlsxReportConfiguratio
 				{	
 					if (textStr != null && textStr.length() > 0)
 					{
-						sheetHelper.write("<v>"); //FIXMENOW make writer util; check everywhere
+						sheetHelper.write(streaming ? "<is>" : "<v>"); //FIXMENOW make writer util; check everywhere
 						String markup = text.getMarkup();
 						boolean isStyledText = markup != null && !JRCommonText.MARKUP_NONE.equals(markup) && !isIgnoreTextFormatting(text);
 						exportStyledText(text.getStyle(), styledText, getTextLocale(text), isStyledText);
-						sheetHelper.write("</v>");
+						sheetHelper.write(streaming ? "</is>" : "</v>");
 					}
 				}
 			};
@@ -1680,6 +1689,7 @@ public class JRXlsxExporter extends JRXlsAbstractExporter<XlsxReportConfiguratio
 			String memoryThreshold = jasperPrint.getPropertiesMap().getProperty(FileBufferedOutputStream.PROPERTY_MEMORY_THRESHOLD);
 			xlsxZip = new XlsxZip(jasperReportsContext, getRepository(), 
 					memoryThreshold == null ? null : JRPropertiesUtil.asInteger(memoryThreshold));
+			xlsxZip.setCompressionProperties(getPropertiesUtil(), jasperPrint);
 
 			wbHelper = new XlsxWorkbookHelper(jasperReportsContext, xlsxZip.getWorkbookEntry().getWriter(), definedNames);
 			wbHelper.exportHeader();
@@ -1692,6 +1702,16 @@ public class JRXlsxExporter extends JRXlsAbstractExporter<XlsxReportConfiguratio
 			
 			XlsxExporterConfiguration configuration = getCurrentConfiguration();
 			
+			// encrypted documents are zipped by POI from the buffered entries
+			String password = configuration.getEncryptionPassword();
+			streaming = 
+				Boolean.TRUE.equals(configuration.isStreaming()) 
+				&& (password == null || password.trim().length() == 0);
+			if (streaming)
+			{
+				xlsxZip.startStreaming(os);
+			}
+			
 			String macro = macroTemplate == null ? configuration.getMacroTemplate() : macroTemplate;
 			if(macro != null)
 			{
@@ -1760,6 +1780,17 @@ public class JRXlsxExporter extends JRXlsAbstractExporter<XlsxReportConfiguratio
 		}
 	}
 
+	@Override
+	protected int getRowBandElements()
+	{
+		if (streaming)
+		{
+			Integer rowBandElements = getCurrentConfiguration().getStreamingRowBandElements();
+			return rowBandElements == null ? 0 : rowBandElements;
+		}
+		return 0;
+	}
+
 	protected void setBackground() {
 		// TODO Auto-generated method stub
 		
@@ -60,6 +60,8 @@ public class XlsxCellHelper extends BaseHelper
 	
 	private final TypeTextValueHandler textValueHandler = new TypeTextValueHandler();
 	
+	private final boolean inlineStrings;
+	
 	/**
 	 *
 	 */
@@ -68,10 +70,24 @@ public class XlsxCellHelper extends BaseHelper
 		Writer writer,
 		XlsxStyleHelper styleHelper
 		)
+	{
+		this(jasperReportsContext, writer, styleHelper, false);
+	}
+	
+	/**
+	 * @param inlineStrings whether text cells contain inline strings instead of indexes in the shared string table
+	 */
+	public XlsxCellHelper(
+		JasperReportsContext jasperReportsContext,
+		Writer writer,
+		XlsxStyleHelper styleHelper,
+		boolean inlineStrings
+		)
 	{
 		super(jasperReportsContext, writer);
 		
 		this.styleHelper = styleHelper;
+		this.inlineStrings = inlineStrings;
 //		borderHelper = new XlsxBorderHelper(writer);
 	}
 
@@ -262,7 +278,7 @@ public class XlsxCellHelper extends BaseHelper
 			+ (rowIndex + 1) 
 			+ "\" s=\"" + styleIndex + "\""
 			);
-		String type = textValueHandler.getType();
+		String type = getType();
 		if (type != null)
 		{
 			write(" t=\"" + type + "\"");
@@ -325,7 +341,7 @@ public class XlsxCellHelper extends BaseHelper
 				+ (rowIndex + 1) 
 				+ "\" s=\"" + styleIndex + "\""
 				);
-		String type = textValueHandler.getType();
+		String type = getType();
 		if (type != null)
 		{
 			write(" t=\"" + type + "\"");
@@ -388,7 +404,7 @@ public class XlsxCellHelper extends BaseHelper
 				+ (rowIndex + 1) 
 				+ "\" s=\"" + styleIndex + "\""
 				);
-		String type = textValueHandler.getType();
+		String type = getType();
 		if (type != null)
 		{
 			write(" t=\"" + type + "\"");
@@ -404,6 +420,12 @@ public class XlsxCellHelper extends BaseHelper
 		write("</c>");
 	}
 
+	protected String getType()
+	{
+		String type = textValueHandler.getType();
+		return inlineStrings && "s".equals(type) ? "inlineStr" : type;
+	}
+
 }
 
 class TypeTextValueHandler implements TextValueHandler 
@@ -153,11 +153,23 @@ public class XlsxZip extends FileBufferedZip
 	}
 	
 	/**
-	 * 
+	 * Adds the entry of a worksheet, which is written directly to the output if the zip is {@link #isStreaming() streaming}.
 	 */
 	public ExportZipEntry addSheet(int index)
 	{
-		return createEntry("xl/worksheets/sheet" + index + ".xml");
+		String name = "xl/worksheets/sheet" + index + ".xml";
+		if (isStreaming())
+		{
+			try
+			{
+				return createStreamingEntry(name);
+			}
+			catch (IOException e)
+			{
+				throw new JRRuntimeException(e);
+			}
+		}
+		return createEntry(name);
 	}
 	
 	/**
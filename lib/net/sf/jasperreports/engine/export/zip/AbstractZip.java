@@ -25,22 +25,95 @@ package net.sf.jasperreports.engine.export.zip;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesHolder;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.util.FileBufferedOutputStream;
+import net.sf.jasperreports.properties.PropertyConstants;
+
 
 /**
  * @author Teodor Danciu (teodord@users.sourceforge.net)
  */
 public abstract class AbstractZip
 {
+	/**
+	 * Property that specifies the number of threads deflating the entries of the zip files produced by the 
+	 * DOCX, PPTX, XLSX, ODT and ODS exporters. By default the entries are deflated on the exporting thread.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_PARALLEL_THREADS = JRPropertiesUtil.PROPERTY_PREFIX + "export.zip.parallel.threads";
+
+	/**
+	 * Property that specifies the deflate level, from 0 to 9, of the zip entries produced by the 
+	 * DOCX, PPTX, XLSX, ODT and ODS exporters. The default is the default level of {@link Deflater}.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "-1",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_COMPRESSION_LEVEL = JRPropertiesUtil.PROPERTY_PREFIX + "export.zip.compression.level";
 
+	/**
+	 * Property that specifies a comma separated list of file extensions of zip entries that are already compressed,
+	 * such as images, and are therefore stored without compression.
+	 * <p>
+	 * The default list only applies when the entries are deflated on {@link #PROPERTY_PARALLEL_THREADS several threads}.
+	 * Otherwise all entries are deflated, unless the property is set.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = AbstractZip.DEFAULT_STORED_EXTENSIONS,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4
+			)
+	public static final String PROPERTY_STORED_EXTENSIONS = JRPropertiesUtil.PROPERTY_PREFIX + "export.zip.stored.extensions";
+
+	public static final String DEFAULT_STORED_EXTENSIONS = "png,jpg,jpeg,gif";
+	
+	private static final Set<String> DEFAULT_STORED_EXTENSIONS_SET = toExtensions(DEFAULT_STORED_EXTENSIONS);
+
+	/**
+	 * The name of the OpenDocument entry that must be stored without compression.
+	 */
+	protected static final String MIMETYPE_ENTRY_NAME = "mimetype";
+
+	/**
+	 * The entries, written in the order in which they were added. 
+	 */
+	protected Map<String, ExportZipEntry> exportZipEntries = new LinkedHashMap<>();
+	
+	private int parallelThreads;
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+	private Set<String> storedExtensions;
+	
 	/**
 	 * 
 	 */
-	protected Map<String, ExportZipEntry> exportZipEntries = new HashMap<>();
+	private ZipOutputStream streamingZipOutputStream;
+	private StreamingZipEntry streamingEntry;
 
 	/**
 	 *
@@ -56,17 +129,174 @@ public abstract class AbstractZip
 		exportZipEntries.put(entry.getName(), entry);
 	}
 	
+	/**
+	 * Opens the zip output stream in which {@link #createStreamingEntry(String) streaming entries} are written.
+	 * The same output stream must be passed to {@link #zipEntries(OutputStream)}, which appends the buffered entries.
+	 */
+	public void startStreaming(OutputStream os)
+	{
+		streamingZipOutputStream = new ZipOutputStream(os);
+		streamingZipOutputStream.setMethod(ZipOutputStream.DEFLATED);
+	}
+	
+	/**
+	 *
+	 */
+	public boolean isStreaming()
+	{
+		return streamingZipOutputStream != null;
+	}
+	
+	/**
+	 * Creates an entry whose content is written directly to the zip output stream opened by {@link #startStreaming(OutputStream)}.
+	 * The previous streaming entry is closed, if still open.
+	 */
+	public ExportZipEntry createStreamingEntry(String name) throws IOException
+	{
+		if (streamingEntry != null)
+		{
+			streamingEntry.close();
+		}
+		
+		streamingZipOutputStream.putNextEntry(new ZipEntry(name));
+		streamingEntry = new StreamingZipEntry(name, streamingZipOutputStream);
+		
+		return streamingEntry;
+	}
+	
+	/**
+	 * Reads the {@link #PROPERTY_PARALLEL_THREADS parallel threads}, the {@link #PROPERTY_COMPRESSION_LEVEL compression level}
+	 * and the {@link #PROPERTY_STORED_EXTENSIONS stored extensions} of the zip.
+	 */
+	public void setCompressionProperties(JRPropertiesUtil propertiesUtil, JRPropertiesHolder propertiesHolder)
+	{
+		parallelThreads = propertiesUtil.getIntegerProperty(propertiesHolder, PROPERTY_PARALLEL_THREADS, 0);
+		compressionLevel = propertiesUtil.getIntegerProperty(propertiesHolder, PROPERTY_COMPRESSION_LEVEL, Deflater.DEFAULT_COMPRESSION);
+		String extensions = propertiesUtil.getProperty(propertiesHolder, PROPERTY_STORED_EXTENSIONS);
+		storedExtensions = extensions == null ? null : toExtensions(extensions);
+	}
+	
+	/**
+	 *
+	 */
+	public void setParallelThreads(int parallelThreads)
+	{
+		this.parallelThreads = parallelThreads;
+	}
+	
 	/**
 	 *
 	 */
+	public void setCompressionLevel(int compressionLevel)
+	{
+		this.compressionLevel = compressionLevel;
+	}
+	
+	/**
+	 * Returns the deflate level of an entry, 0 for entries that are stored.
+	 */
+	protected int getCompressionLevel(String name)
+	{
+		if (MIMETYPE_ENTRY_NAME.equals(name))
+		{
+			return Deflater.NO_COMPRESSION;
+		}
+		
+		Set<String> extensions = storedExtensions;
+		if (extensions == null)
+		{
+			if (parallelThreads <= 0)
+			{
+				return compressionLevel;
+			}
+			extensions = DEFAULT_STORED_EXTENSIONS_SET;
+		}
+		
+		int extensionIndex = name.lastIndexOf('.');
+		if (extensionIndex >= 0 && extensions.contains(name.substring(extensionIndex + 1).toLowerCase(Locale.ROOT)))
+		{
+			return Deflater.NO_COMPRESSION;
+		}
+		
+		return compressionLevel;
+	}
+	
+	protected static Set<String> toExtensions(String extensions)
+	{
+		Set<String> extensionSet = new HashSet<>();
+		for (String extension : extensions.split(","))
+		{
+			extension = extension.trim();
+			if (!extension.isEmpty())
+			{
+				extensionSet.add(extension.toLowerCase(Locale.ROOT));
+			}
+		}
+		return extensionSet;
+	}
+	
+	/**
+	 * Creates the buffer holding an entry deflated by a worker thread.
+	 */
+	protected FileBufferedOutputStream createCompressedBuffer()
+	{
+		return new FileBufferedOutputStream();
+	}
+	
+	/**
+	 * 
+	 */
+	protected ExecutorService createCompressionExecutor(int threads)
+	{
+		AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, runnable -> 
+		{
+			Thread thread = new Thread(runnable, "zip compression #" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * Writes the entries to the output stream. 
+	 * Unless the zip is {@link #isStreaming() streaming}, the entries are deflated on {@link #PROPERTY_PARALLEL_THREADS several threads} if set.
+	 */
 	public void zipEntries(OutputStream os) throws IOException
 	{
-		ZipOutputStream zipos = new ZipOutputStream(os);
-		zipos.setMethod(ZipOutputStream.DEFLATED);
+		if (streamingZipOutputStream == null && parallelThreads > 0)
+		{
+			ExecutorService executor = createCompressionExecutor(parallelThreads);
+			try
+			{
+				ParallelZipWriter writer = new ParallelZipWriter(executor, 2 * parallelThreads, this::createCompressedBuffer);
+				writer.writeEntries(os, exportZipEntries.values(), this::getCompressionLevel);
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+			return;
+		}
+		
+		ZipOutputStream zipos;
+		if (streamingZipOutputStream == null)
+		{
+			zipos = new ZipOutputStream(os);
+			zipos.setMethod(ZipOutputStream.DEFLATED);
+		}
+		else
+		{
+			zipos = streamingZipOutputStream;
+			if (streamingEntry != null)
+			{
+				streamingEntry.close();
+			}
+		}
 		
 		for (ExportZipEntry exportZipEntry : exportZipEntries.values()) 
 		{
 			ZipEntry zipEntry = new ZipEntry(exportZipEntry.getName());
+			zipos.setLevel(getCompressionLevel(exportZipEntry.getName()));
 			zipos.putNextEntry(zipEntry);
 			exportZipEntry.writeData(zipos);
 		}
@@ -25,6 +25,7 @@ package net.sf.jasperreports.engine.export.zip;
 
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.util.FileBufferedOutputStream;
 import net.sf.jasperreports.engine.util.JRLoader;
 
 
@@ -54,6 +55,12 @@ public class FileBufferedZip extends AbstractZip
 		this.memoryThreshold = memoryThreshold;
 	}
 	
+	@Override
+	protected FileBufferedOutputStream createCompressedBuffer()
+	{
+		return memoryThreshold == null ? new FileBufferedOutputStream() : new FileBufferedOutputStream(memoryThreshold);
+	}
+	
 	@Override
 	public ExportZipEntry createEntry(String name)
 	{
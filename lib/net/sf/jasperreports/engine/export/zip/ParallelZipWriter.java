@@ -0,0 +1,456 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export.zip;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.util.FileBufferedOutputStream;
+
+
+/**
+ * Writes a zip file whose entries are deflated on a pool of threads.
+ * <p>
+ * Each entry is compressed into a separate buffer by a worker thread, while the exporting thread writes the 
+ * compressed entries to the output in their original order. At most a given number of entries are compressed 
+ * ahead of the entry being written. Entries with compression level 0 are stored without compression and their 
+ * data is copied to the output from the entry itself.
+ * 
+ * @see AbstractZip#zipEntries(java.io.OutputStream)
+ */
+public class ParallelZipWriter
+{
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+	private static final int ZIP64_EXTRA_ID = 0x0001;
+	private static final int FLAG_UTF8 = 0x0800;
+	private static final int METHOD_STORED = 0;
+	private static final int METHOD_DEFLATED = 8;
+	private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+	private static final int ZIP64_ENTRIES_LIMIT = 0xFFFF;
+
+	private final ExecutorService executor;
+	private final int aheadCount;
+	private final Supplier<FileBufferedOutputStream> bufferFactory;
+
+	/**
+	 * @param executor the executor compressing the entries
+	 * @param aheadCount the number of entries compressed ahead of the entry being written
+	 * @param bufferFactory creates the buffers holding the compressed entries
+	 */
+	public ParallelZipWriter(ExecutorService executor, int aheadCount, Supplier<FileBufferedOutputStream> bufferFactory)
+	{
+		this.executor = executor;
+		this.aheadCount = Math.max(1, aheadCount);
+		this.bufferFactory = bufferFactory;
+	}
+
+	/**
+	 * Writes the entries as a zip file.
+	 * 
+	 * @param os the output stream, which is not closed
+	 * @param entries the entries, written in the iteration order
+	 * @param compressionLevels the deflate level of each entry name, 0 meaning that the entry is stored
+	 */
+	public void writeEntries(OutputStream os, Iterable<ExportZipEntry> entries, ToIntFunction<String> compressionLevels) throws IOException
+	{
+		CountingOutputStream out = new CountingOutputStream(os);
+		int dosTime = dosTime(LocalDateTime.now());
+		
+		List<CompressedEntry> writtenEntries = new ArrayList<>();
+		ArrayDeque<Future<CompressedEntry>> pendingEntries = new ArrayDeque<>();
+		Iterator<ExportZipEntry> entryIterator = entries.iterator();
+		try
+		{
+			while (entryIterator.hasNext() || !pendingEntries.isEmpty())
+			{
+				while (entryIterator.hasNext() && pendingEntries.size() < aheadCount)
+				{
+					ExportZipEntry entry = entryIterator.next();
+					int level = compressionLevels.applyAsInt(entry.getName());
+					pendingEntries.add(executor.submit(() -> compress(entry, level)));
+				}
+				
+				CompressedEntry compressedEntry = getCompressed(pendingEntries.poll());
+				try
+				{
+					compressedEntry.offset = out.getCount();
+					writeLocalHeader(out, compressedEntry, dosTime);
+					if (compressedEntry.data == null)
+					{
+						compressedEntry.entry.writeData(out);
+					}
+					else
+					{
+						compressedEntry.data.writeData(out);
+					}
+				}
+				finally
+				{
+					compressedEntry.dispose();
+				}
+				writtenEntries.add(compressedEntry);
+			}
+		}
+		finally
+		{
+			for (Future<CompressedEntry> pendingEntry : pendingEntries)
+			{
+				disposePending(pendingEntry);
+			}
+		}
+		
+		long directoryOffset = out.getCount();
+		for (CompressedEntry compressedEntry : writtenEntries)
+		{
+			writeCentralHeader(out, compressedEntry, dosTime);
+		}
+		writeEnd(out, writtenEntries.size(), directoryOffset, out.getCount() - directoryOffset);
+		
+		out.flush();
+	}
+
+	protected CompressedEntry compress(ExportZipEntry entry, int level) throws IOException
+	{
+		CompressedEntry compressedEntry = new CompressedEntry(entry, level == 0 ? METHOD_STORED : METHOD_DEFLATED);
+		CRC32 crc = new CRC32();
+		if (compressedEntry.method == METHOD_STORED)
+		{
+			CountingOutputStream counter = new CountingOutputStream(NullOutputStream.INSTANCE);
+			entry.writeData(new CheckedOutputStream(counter, crc));
+			compressedEntry.size = counter.getCount();
+			compressedEntry.compressedSize = compressedEntry.size;
+		}
+		else
+		{
+			FileBufferedOutputStream data = bufferFactory.get();
+			compressedEntry.data = data;
+			Deflater deflater = new Deflater(level, true);
+			try
+			{
+				DeflaterOutputStream deflaterOut = new DeflaterOutputStream(data, deflater, 1 << 14);
+				CountingOutputStream counter = new CountingOutputStream(deflaterOut);
+				entry.writeData(new CheckedOutputStream(counter, crc));
+				deflaterOut.finish();
+				data.close();
+				compressedEntry.size = counter.getCount();
+				compressedEntry.compressedSize = data.size();
+			}
+			catch (IOException | RuntimeException e)
+			{
+				data.dispose();
+				throw e;
+			}
+			finally
+			{
+				deflater.end();
+			}
+		}
+		compressedEntry.crc = crc.getValue();
+		return compressedEntry;
+	}
+
+	protected CompressedEntry getCompressed(Future<CompressedEntry> pendingEntry) throws IOException
+	{
+		try
+		{
+			return pendingEntry.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+			{
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			throw new JRRuntimeException(cause);
+		}
+	}
+
+	protected void disposePending(Future<CompressedEntry> pendingEntry)
+	{
+		if (!pendingEntry.cancel(false))
+		{
+			try
+			{
+				pendingEntry.get().dispose();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException e)
+			{
+				//already reported by the entry being written
+			}
+		}
+	}
+
+	protected void writeLocalHeader(OutputStream out, CompressedEntry entry, int dosTime) throws IOException
+	{
+		boolean zip64 = entry.size >= ZIP64_LIMIT || entry.compressedSize >= ZIP64_LIMIT;
+		ByteBuffer header = header(30 + entry.nameBytes.length + (zip64 ? 20 : 0));
+		header.putInt(LOCAL_HEADER_SIGNATURE);
+		header.putShort((short) versionNeeded(entry, zip64));
+		header.putShort((short) FLAG_UTF8);
+		header.putShort((short) entry.method);
+		header.putInt(dosTime);
+		header.putInt((int) entry.crc);
+		header.putInt((int) (zip64 ? ZIP64_LIMIT : entry.compressedSize));
+		header.putInt((int) (zip64 ? ZIP64_LIMIT : entry.size));
+		header.putShort((short) entry.nameBytes.length);
+		header.putShort((short) (zip64 ? 20 : 0));
+		header.put(entry.nameBytes);
+		if (zip64)
+		{
+			header.putShort((short) ZIP64_EXTRA_ID);
+			header.putShort((short) 16);
+			header.putLong(entry.size);
+			header.putLong(entry.compressedSize);
+		}
+		out.write(header.array());
+	}
+
+	protected void writeCentralHeader(OutputStream out, CompressedEntry entry, int dosTime) throws IOException
+	{
+		boolean zip64Size = entry.size >= ZIP64_LIMIT;
+		boolean zip64CompressedSize = entry.compressedSize >= ZIP64_LIMIT;
+		boolean zip64Offset = entry.offset >= ZIP64_LIMIT;
+		int extraLength = (zip64Size ? 8 : 0) + (zip64CompressedSize ? 8 : 0) + (zip64Offset ? 8 : 0);
+		boolean zip64 = extraLength > 0;
+		int version = versionNeeded(entry, zip64);
+		
+		ByteBuffer header = header(46 + entry.nameBytes.length + (zip64 ? 4 + extraLength : 0));
+		header.putInt(CENTRAL_HEADER_SIGNATURE);
+		header.putShort((short) version);
+		header.putShort((short) version);
+		header.putShort((short) FLAG_UTF8);
+		header.putShort((short) entry.method);
+		header.putInt(dosTime);
+		header.putInt((int) entry.crc);
+		header.putInt((int) (zip64CompressedSize ? ZIP64_LIMIT : entry.compressedSize));
+		header.putInt((int) (zip64Size ? ZIP64_LIMIT : entry.size));
+		header.putShort((short) entry.nameBytes.length);
+		header.putShort((short) (zip64 ? 4 + extraLength : 0));
+		header.putShort((short) 0);//comment length
+		header.putShort((short) 0);//disk number
+		header.putShort((short) 0);//internal attributes
+		header.putInt(0);//external attributes
+		header.putInt((int) (zip64Offset ? ZIP64_LIMIT : entry.offset));
+		header.put(entry.nameBytes);
+		if (zip64)
+		{
+			header.putShort((short) ZIP64_EXTRA_ID);
+			header.putShort((short) extraLength);
+			if (zip64Size)
+			{
+				header.putLong(entry.size);
+			}
+			if (zip64CompressedSize)
+			{
+				header.putLong(entry.compressedSize);
+			}
+			if (zip64Offset)
+			{
+				header.putLong(entry.offset);
+			}
+		}
+		out.write(header.array());
+	}
+
+	protected void writeEnd(CountingOutputStream out, int entryCount, long directoryOffset, long directorySize) throws IOException
+	{
+		boolean zip64 = entryCount >= ZIP64_ENTRIES_LIMIT || directoryOffset >= ZIP64_LIMIT || directorySize >= ZIP64_LIMIT;
+		if (zip64)
+		{
+			long zip64EndOffset = out.getCount();
+			ByteBuffer zip64End = header(56 + 20);
+			zip64End.putInt(ZIP64_END_SIGNATURE);
+			zip64End.putLong(44);//size of the remaining record
+			zip64End.putShort((short) 45);
+			zip64End.putShort((short) 45);
+			zip64End.putInt(0);//disk number
+			zip64End.putInt(0);//directory disk number
+			zip64End.putLong(entryCount);
+			zip64End.putLong(entryCount);
+			zip64End.putLong(directorySize);
+			zip64End.putLong(directoryOffset);
+			zip64End.putInt(ZIP64_LOCATOR_SIGNATURE);
+			zip64End.putInt(0);//zip64 end disk number
+			zip64End.putLong(zip64EndOffset);
+			zip64End.putInt(1);//disk count
+			out.write(zip64End.array());
+		}
+		
+		ByteBuffer end = header(22);
+		end.putInt(END_SIGNATURE);
+		end.putShort((short) 0);//disk number
+		end.putShort((short) 0);//directory disk number
+		end.putShort((short) Math.min(entryCount, ZIP64_ENTRIES_LIMIT));
+		end.putShort((short) Math.min(entryCount, ZIP64_ENTRIES_LIMIT));
+		end.putInt((int) Math.min(directorySize, ZIP64_LIMIT));
+		end.putInt((int) Math.min(directoryOffset, ZIP64_LIMIT));
+		end.putShort((short) 0);//comment length
+		out.write(end.array());
+	}
+
+	protected static int versionNeeded(CompressedEntry entry, boolean zip64)
+	{
+		return zip64 ? 45 : (entry.method == METHOD_STORED ? 10 : 20);
+	}
+
+	protected static ByteBuffer header(int length)
+	{
+		return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	protected static int dosTime(LocalDateTime time)
+	{
+		if (time.getYear() < 1980)
+		{
+			return (1 << 21) | (1 << 16);
+		}
+		return (time.getYear() - 1980) << 25 
+			| time.getMonthValue() << 21 
+			| time.getDayOfMonth() << 16 
+			| time.getHour() << 11 
+			| time.getMinute() << 5 
+			| time.getSecond() >> 1;
+	}
+
+	/**
+	 * 
+	 */
+	protected static class CompressedEntry
+	{
+		private final ExportZipEntry entry;
+		private final byte[] nameBytes;
+		private final int method;
+		private long crc;
+		private long size;
+		private long compressedSize;
+		private long offset;
+		private FileBufferedOutputStream data;
+		
+		protected CompressedEntry(ExportZipEntry entry, int method)
+		{
+			this.entry = entry;
+			this.nameBytes = entry.getName().getBytes(StandardCharsets.UTF_8);
+			this.method = method;
+		}
+		
+		protected void dispose()
+		{
+			if (data != null)
+			{
+				data.dispose();
+				data = null;
+			}
+		}
+	}
+
+	/**
+	 * 
+	 */
+	protected static class CountingOutputStream extends FilterOutputStream
+	{
+		private long count;
+		
+		protected CountingOutputStream(OutputStream out)
+		{
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			out.write(b);
+			++count;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			out.write(b, off, len);
+			count += len;
+		}
+		
+		public long getCount()
+		{
+			return count;
+		}
+	}
+
+	/**
+	 * 
+	 */
+	protected static class NullOutputStream extends OutputStream
+	{
+		protected static final NullOutputStream INSTANCE = new NullOutputStream();
+		
+		@Override
+		public void write(int b)
+		{
+			//discarded
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len)
+		{
+			//discarded
+		}
+	}
+}
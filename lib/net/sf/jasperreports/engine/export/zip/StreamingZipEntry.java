@@ -0,0 +1,173 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export.zip;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipOutputStream;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+
+/**
+ * Zip entry whose content is written directly into the zip output stream of an {@link AbstractZip},
+ * instead of being buffered until the zip is written.
+ * <p>
+ * Closing the writer or the output stream of the entry closes the zip entry. Only one streaming entry
+ * can be written at a time, and its content is no longer available once the entry is closed.
+ * 
+ * @see AbstractZip#createStreamingEntry(String)
+ */
+public class StreamingZipEntry implements ExportZipEntry 
+{
+	/**
+	 * 
+	 */
+	private final String name;
+	private final ZipOutputStream zipos;
+	private final EntryOutputStream os;
+	private Writer writer;
+	private boolean closed;
+	
+	/**
+	 * 
+	 */
+	protected StreamingZipEntry(String name, ZipOutputStream zipos)
+	{
+		this.name = name;
+		this.zipos = zipos;
+		this.os = new EntryOutputStream();
+	}
+	
+	@Override
+	public String getName()
+	{
+		return name;
+	}
+	
+	@Override
+	public Writer getWriter()
+	{
+		if (writer == null)
+		{
+			writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+		}
+		
+		return writer;
+	}
+
+	@Override
+	public OutputStream getOutputStream()
+	{
+		return os;
+	}
+
+	@Override
+	public void writeData(OutputStream out) throws IOException
+	{
+		throw new JRRuntimeException("Zip entry " + name + " has already been written to the output.");
+	}
+
+	@Override
+	public void dispose()
+	{
+		//nothing to dispose, the content is not kept
+	}
+	
+	/**
+	 * Flushes the writer of the entry and closes the zip entry, if not already closed.
+	 */
+	public void close() throws IOException
+	{
+		if (!closed)
+		{
+			if (writer != null)
+			{
+				writer.flush();
+			}
+			zipos.closeEntry();
+			closed = true;
+		}
+	}
+	
+	/**
+	 * 
+	 */
+	public boolean isClosed()
+	{
+		return closed;
+	}
+	
+	/**
+	 * 
+	 */
+	protected class EntryOutputStream extends FilterOutputStream
+	{
+		protected EntryOutputStream()
+		{
+			super(zipos);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			if (closed)
+			{
+				throw new IOException("Zip entry " + name + " is closed.");
+			}
+			zipos.write(b, off, len);
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			if (closed)
+			{
+				throw new IOException("Zip entry " + name + " is closed.");
+			}
+			zipos.write(b);
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			//the zip stream is flushed when the zip is written
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			if (!closed)
+			{
+				zipos.closeEntry();
+				closed = true;
+			}
+		}
+	}
+}
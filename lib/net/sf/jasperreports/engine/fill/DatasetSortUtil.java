@@ -32,9 +32,16 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRField;
 import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JRScriptletException;
 import net.sf.jasperreports.engine.JRSortField;
@@ -44,6 +51,7 @@ import net.sf.jasperreports.engine.fill.DatasetSortInfo.RecordField;
 import net.sf.jasperreports.engine.fill.DatasetSortInfo.SortFieldInfo;
 import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
 import net.sf.jasperreports.engine.type.SortFieldTypeEnum;
+import net.sf.jasperreports.properties.PropertyConstants;
 
 
 /**
@@ -51,9 +59,81 @@ import net.sf.jasperreports.engine.type.SortFieldTypeEnum;
  */
 public class DatasetSortUtil
 {
+	private static final Log log = LogFactory.getLog(DatasetSortUtil.class);
+	
 	public static final String EXCEPTION_MESSAGE_KEY_SORT_FIELD_NOT_FOUND = "fill.dataset.sort.field.not.found";
 	public static final String EXCEPTION_MESSAGE_KEY_SORT_VARIABLE_NOT_FOUND = "fill.dataset.sort.variable.not.found";
 
+	/**
+	 * Property that specifies the number of records kept in memory when sorting a dataset.
+	 * <p>
+	 * When the dataset has more records, they are sorted in runs of this size which are written
+	 * to temporary files, and the sorted records are read by merging the runs.
+	 * The default value 0 keeps all records in memory.
+	 * <p>
+	 * Runs are not written when the fill records a data snapshot, which needs all the records.
+	 * <p>
+	 * Field and variable values are written to the runs by the virtualization serializers or by Java serialization,
+	 * so they have to be serializable. When the first record has a value that is not serializable, such as 
+	 * the <code>_THIS</code> field of a JavaBean data source, all records are kept in memory. If such a value
+	 * only shows up after runs have been written, or if a serializable value refers to an object that is not 
+	 * serializable, the fill fails.
+	 * 
+	 * @see SortRunFiles
+	 * @see MergedSortedDataSource
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_SPILL_THRESHOLD = JRPropertiesUtil.PROPERTY_PREFIX + "dataset.sort.spill.threshold";
+
+	/**
+	 * Property that specifies the directory of the temporary files written when sorting
+	 * datasets with more records than {@link #PROPERTY_SPILL_THRESHOLD}.
+	 * <p>
+	 * If not set, the default temporary directory is used.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4
+			)
+	public static final String PROPERTY_SPILL_DIRECTORY = JRPropertiesUtil.PROPERTY_PREFIX + "dataset.sort.spill.directory";
+
+	/**
+	 * Property that specifies the minimum number of records for which a dataset, or a run of records
+	 * written to a temporary file, is sorted on several threads.
+	 * <p>
+	 * A value of 0 disables parallel sorting.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "100000",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_PARALLEL_THRESHOLD = JRPropertiesUtil.PROPERTY_PREFIX + "dataset.sort.parallel.threshold";
+
+	/**
+	 * Property that specifies the maximum number of runs that are read at the same time when merging
+	 * the runs written for datasets with more records than {@link #PROPERTY_SPILL_THRESHOLD}.
+	 * <p>
+	 * When more runs have been written, groups of runs are first merged into larger runs.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "64",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_MERGE_FAN_IN = JRPropertiesUtil.PROPERTY_PREFIX + "dataset.sort.merge.fan.in";
+
 
 	/**
 	 * Returns all current sort field criteria, including the dynamic ones provided as report parameter.
@@ -111,6 +191,79 @@ public class DatasetSortUtil
 		
 		List<SortedDataSource.SortRecord> records = sortDatasetRun.sort();
 		
+		return createSortedDataSource(sortInfo, locale, records, getParallelThreshold(dataset));
+	}
+
+
+	/**
+	 * Creates a data source that iterates the records of the dataset in sorted order.
+	 * <p>
+	 * If the dataset has more records than the {@link #PROPERTY_SPILL_THRESHOLD spill threshold},
+	 * sorted runs of records are written to temporary files and merged by a {@link MergedSortedDataSource},
+	 * otherwise the records are sorted in memory as done by {@link #getSortedDataSource(BaseReportFiller, JRFillDataset, Locale)}.
+	 */
+	public static JRDataSource createSortedDataSource(
+		BaseReportFiller filler, 
+		JRFillDataset dataset, 
+		Locale locale 
+		) throws JRException
+	{
+		JRPropertiesUtil propertiesUtil = JRPropertiesUtil.getInstance(filler.getJasperReportsContext());
+		int spillThreshold = propertiesUtil.getIntegerProperty(dataset, PROPERTY_SPILL_THRESHOLD, 0);
+		// the data snapshot needs all records in their original order
+		if (spillThreshold <= 0 || dataset.dataRecorder != null)
+		{
+			return getSortedDataSource(filler, dataset, locale);
+		}
+		
+		long start = System.nanoTime();
+		DatasetSortInfo sortInfo = createSortInfo(dataset);
+		int parallelThreshold = getParallelThreshold(dataset);
+		DataSourceComparator comparator = new DataSourceComparator(sortInfo, locale, null, true);
+		SortRunFiles runFiles = new SortRunFiles(filler.getJasperReportsContext(), 
+				propertiesUtil.getProperty(PROPERTY_SPILL_DIRECTORY),
+				(record1, record2) -> comparator.compareValues(record1.getValues(), record2.getValues()),
+				parallelThreshold);
+		// deleting the files when the fill ends
+		filler.getFillContext().setFillCache(SortRunFiles.class.getName() + "." + runFiles.hashCode(), runFiles);
+		
+		SortFillDatasetRun sortDatasetRun = new SortFillDatasetRun(filler, dataset, sortInfo, runFiles, spillThreshold);
+		List<SortedDataSource.SortRecord> records = sortDatasetRun.sort();
+		if (runFiles.getRunCount() == 0)
+		{
+			return createSortedDataSource(sortInfo, locale, records, parallelThreshold);
+		}
+		
+		if (!records.isEmpty())
+		{
+			runFiles.spill(records);
+		}
+		
+		int spilledRuns = runFiles.getRunCount();
+		runFiles.mergeRuns(Math.max(2, propertiesUtil.getIntegerProperty(dataset, PROPERTY_MERGE_FAN_IN, 64)));
+		
+		if (log.isDebugEnabled())
+		{
+			long elapsedNanos = Math.max(1, System.nanoTime() - start);
+			log.debug("sorted " + runFiles.getSpilledRecords() + " records in " + spilledRuns 
+					+ " runs merged to " + runFiles.getRunCount() + " runs, " + runFiles.getSpilledBytes() + " bytes spilled, "
+					+ (long) (runFiles.getSpilledRecords() * 1e9 / elapsedNanos) + " records/s");
+		}
+		
+		return new MergedSortedDataSource(sortInfo, runFiles);
+	}
+	
+	
+	private static int getParallelThreshold(JRFillDataset dataset)
+	{
+		return JRPropertiesUtil.getInstance(dataset.getJasperReportsContext()).getIntegerProperty(
+				dataset, PROPERTY_PARALLEL_THRESHOLD, 100000);
+	}
+	
+	
+	private static SortedDataSource createSortedDataSource(DatasetSortInfo sortInfo, Locale locale, 
+			List<SortedDataSource.SortRecord> records, int parallelThreshold)
+	{
 		// using indirect sorting in order to also preserve the original record order for data caching
 		int recordCount = records.size();
 		// we need wrapper objects for Arrays.sort with comparator
@@ -119,15 +272,30 @@ public class DatasetSortUtil
 			indexes[i] = i;
 		}
 		
-		/*   */
-		Arrays.sort(
-			indexes, 
-			new DataSourceComparator(
-				sortInfo, 
-				locale,
-				records
-				)
-			);
+		// both sorts are stable
+		if (parallelThreshold > 0 && recordCount >= parallelThreshold)
+		{
+			Arrays.parallelSort(
+				indexes, 
+				new DataSourceComparator(
+					sortInfo, 
+					locale,
+					records,
+					true
+					)
+				);
+		}
+		else
+		{
+			Arrays.sort(
+				indexes, 
+				new DataSourceComparator(
+					sortInfo, 
+					locale,
+					records
+					)
+				);
+		}
 		
 		return new SortedDataSource(sortInfo, records, indexes);
 	}
@@ -221,25 +389,39 @@ public class DatasetSortUtil
 class DataSourceComparator implements Comparator<Integer>
 {
 	private final Collator collator;
+	private final ThreadLocal<Collator> threadCollators;
 	private final List<SortFieldInfo> sortFields;
 	private final List<SortedDataSource.SortRecord> records;
 
 	public DataSourceComparator(DatasetSortInfo sortFieldInfo, Locale locale, 
 			List<SortedDataSource.SortRecord> records)
 	{
-		this.collator = Collator.getInstance(locale);
+		this(sortFieldInfo, locale, records, false);
+	}
+
+	/**
+	 * @param concurrent whether the comparator is used by several threads, 
+	 * in which case each thread gets its own collator
+	 */
+	public DataSourceComparator(DatasetSortInfo sortFieldInfo, Locale locale, 
+			List<SortedDataSource.SortRecord> records, boolean concurrent)
+	{
+		this.collator = concurrent ? null : Collator.getInstance(locale);
+		this.threadCollators = concurrent ? ThreadLocal.withInitial(() -> Collator.getInstance(locale)) : null;
 		this.sortFields = sortFieldInfo.getSortFields();
 		this.records = records;
 	}
 
 	@Override
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public int compare(Integer idx1, Integer idx2)
 	{
 		// assuming random access records list
-		Object[] record1 = records.get(idx1).getValues();
-		Object[] record2 = records.get(idx2).getValues();
-		
+		return compareValues(records.get(idx1).getValues(), records.get(idx2).getValues());
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public int compareValues(Object[] record1, Object[] record2)
+	{
 		int ret = 0;
 
 		for (SortFieldInfo info : sortFields)
@@ -259,7 +441,7 @@ class DataSourceComparator implements Comparator<Integer>
 			{
 				if (info.useCollator())
 				{
-					ret = collator.compare(field1, field2);
+					ret = (collator == null ? threadCollators.get() : collator).compare(field1, field2);
 				}
 				else
 				{
@@ -290,13 +472,27 @@ class DataSourceComparator implements Comparator<Integer>
  */
 class SortFillDatasetRun extends JRFillDatasetRun
 {
+	private static final Log log = LogFactory.getLog(SortFillDatasetRun.class);
 
 	private DatasetSortInfo sortInfo;
+	private SortRunFiles runFiles;
+	private int spillThreshold;
 	private int recordIndex;
 	private List<SortedDataSource.SortRecord> records;
 
 	
 	public SortFillDatasetRun(BaseReportFiller filler, JRFillDataset dataset, DatasetSortInfo sortInfo) throws JRException
+	{
+		this(filler, dataset, sortInfo, null, 0);
+	}
+
+	
+	/**
+	 * @param runFiles the files to which records are written in sorted runs of <code>spillThreshold</code> records,
+	 * or <code>null</code> to keep all records in memory
+	 */
+	public SortFillDatasetRun(BaseReportFiller filler, JRFillDataset dataset, DatasetSortInfo sortInfo,
+			SortRunFiles runFiles, int spillThreshold) throws JRException
 	{
 		super(
 			filler, 
@@ -305,6 +501,8 @@ class SortFillDatasetRun extends JRFillDatasetRun
 			);
 
 		this.sortInfo = sortInfo;
+		this.runFiles = runFiles;
+		this.spillThreshold = spillThreshold;
 	}
 
 	
@@ -361,6 +559,33 @@ class SortFillDatasetRun extends JRFillDatasetRun
 		++recordIndex;
 		
 		records.add(sortRecord);
+		
+		if (runFiles != null)
+		{
+			Object notSerializable = SortRunFiles.findNotSerializable(record);
+			if (notSerializable != null)
+			{
+				if (runFiles.getRunCount() > 0)
+				{
+					throw 
+						new JRException(
+							SortRunFiles.EXCEPTION_MESSAGE_KEY_VALUE_NOT_SERIALIZABLE,
+							new Object[]{notSerializable.getClass().getName()});
+				}
+				
+				if (log.isWarnEnabled())
+				{
+					log.warn("Keeping the records of dataset " + dataset.getName() + " in memory for sorting, value of class " 
+							+ notSerializable.getClass().getName() + " is not serializable");
+				}
+				runFiles = null;
+			}
+			else if (records.size() >= spillThreshold)
+			{
+				runFiles.spill(records);
+				records = new ArrayList<>();
+			}
+		}
 	}
 
 
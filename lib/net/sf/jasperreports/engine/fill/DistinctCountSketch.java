@@ -0,0 +1,358 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRVariable;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Distinct values of a DistinctCount variable counted with bounded memory.
+ * <p>
+ * The values are kept in a set, which gives the exact count, until their number exceeds 
+ * {@link #PROPERTY_EXACT_THRESHOLD a threshold}. The set is then replaced by a HyperLogLog sketch of
+ * 2<sup>p</sup> one byte registers, p being {@link #PROPERTY_PRECISION the precision}, and the count becomes
+ * an estimate with a relative standard error of 1.04 / &radic;2<sup>p</sup>: 1.6% for p = 12 (4 KB), 0.81% for
+ * p = 14 (16 KB, the default) and 0.41% for p = 16 (64 KB). 
+ * </p><p>
+ * The sketch uses 64 bit hashes of <code>java.lang.String</code> and <code>java.lang.Number</code> values; for other
+ * values the 32 bit <code>hashCode()</code> is used, so that the estimate also includes the hash collisions
+ * of more than some 10<sup>5</sup> distinct values.
+ * </p>
+ * 
+ * @see #PROPERTY_APPROXIMATE
+ */
+public class DistinctCountSketch
+{
+	/**
+	 * Property that enables the approximate distinct count for all the DistinctCount variables of a dataset.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_APPROXIMATE = 
+		JRPropertiesUtil.PROPERTY_PREFIX + "distinct.count.approximate";
+
+	/**
+	 * Property prefix that enables or disables the approximate distinct count for a single DistinctCount variable,
+	 * by appending the name of the variable.
+	 */
+	@Property(
+			name = "net.sf.jasperreports.distinct.count.approximate.{variable_name}",
+			category = PropertyConstants.CATEGORY_FILL,
+			scopes = {PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_APPROXIMATE_VARIABLE_PREFIX = 
+		JRPropertiesUtil.PROPERTY_PREFIX + "distinct.count.approximate.";
+
+	/**
+	 * Property that specifies the number of distinct values up to which an approximate distinct count is exact.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "10000",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_EXACT_THRESHOLD = 
+		JRPropertiesUtil.PROPERTY_PREFIX + "distinct.count.exact.threshold";
+
+	/**
+	 * Property that specifies the precision p of the HyperLogLog sketch, between 4 and 18.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "14",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_PRECISION = 
+		JRPropertiesUtil.PROPERTY_PREFIX + "distinct.count.precision";
+	
+	public static final int MIN_PRECISION = 4;
+	public static final int MAX_PRECISION = 18;
+	public static final int DEFAULT_PRECISION = 14;
+	public static final int DEFAULT_EXACT_THRESHOLD = 10000;
+
+	private final int precision;
+	private final int exactThreshold;
+	
+	private Set<Object> exactValues = new HashSet<>();
+	
+	private byte[] registers;
+	// the sum of 2^-register and the number of zero registers, maintained as the registers change
+	private double inverseSum;
+	private int zeroRegisters;
+
+	public DistinctCountSketch(int precision, int exactThreshold)
+	{
+		this.precision = Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+		this.exactThreshold = exactThreshold;
+	}
+
+	/**
+	 * Returns an empty sketch for a DistinctCount variable of a dataset if the approximate count is enabled
+	 * for the variable, <code>null</code> otherwise.
+	 */
+	public static DistinctCountSketch forVariable(JRFillDataset dataset, JRVariable variable)
+	{
+		JRPropertiesUtil propertiesUtil = JRPropertiesUtil.getInstance(dataset.getJasperReportsContext());
+		String variableApproximate = propertiesUtil.getProperty(dataset, 
+				PROPERTY_APPROXIMATE_VARIABLE_PREFIX + variable.getName());
+		boolean approximate = variableApproximate == null 
+				? propertiesUtil.getBooleanProperty(dataset, PROPERTY_APPROXIMATE, false)
+				: Boolean.parseBoolean(variableApproximate);
+		if (!approximate)
+		{
+			return null;
+		}
+		
+		return new DistinctCountSketch(
+				propertiesUtil.getIntegerProperty(dataset, PROPERTY_PRECISION, DEFAULT_PRECISION),
+				propertiesUtil.getIntegerProperty(dataset, PROPERTY_EXACT_THRESHOLD, DEFAULT_EXACT_THRESHOLD));
+	}
+	
+	/**
+	 * Creates an empty sketch with the same precision and threshold.
+	 */
+	public DistinctCountSketch createEmpty()
+	{
+		return new DistinctCountSketch(precision, exactThreshold);
+	}
+	
+	public void add(Object value)
+	{
+		if (registers == null)
+		{
+			exactValues.add(value);
+			if (exactValues.size() > exactThreshold)
+			{
+				toRegisters();
+			}
+		}
+		else
+		{
+			long hash = hash(value);
+			int index = registerIndex(hash);
+			int rank = rank(hash);
+			if (rank > registers[index])
+			{
+				setRegister(index, rank);
+			}
+		}
+	}
+
+	/**
+	 * Returns the distinct count, or its estimate once the values have exceeded the exact threshold.
+	 */
+	public long getCount()
+	{
+		return registers == null ? exactValues.size() : estimate(inverseSum, zeroRegisters);
+	}
+
+	/**
+	 * Returns the count as if a value was added, without adding it.
+	 */
+	public long getCount(Object value)
+	{
+		if (value == null)
+		{
+			return getCount();
+		}
+		
+		if (registers == null)
+		{
+			return exactValues.size() + (exactValues.contains(value) ? 0 : 1);
+		}
+		
+		long hash = hash(value);
+		int index = registerIndex(hash);
+		int rank = rank(hash);
+		int register = registers[index];
+		if (rank <= register)
+		{
+			return estimate(inverseSum, zeroRegisters);
+		}
+		return estimate(inverseSum - Math.scalb(1d, -register) + Math.scalb(1d, -rank), 
+				register == 0 ? zeroRegisters - 1 : zeroRegisters);
+	}
+	
+	/**
+	 * Determines whether the count is an estimate.
+	 */
+	public boolean isApproximate()
+	{
+		return registers != null;
+	}
+
+	/**
+	 * Returns the values counted exactly, or <code>null</code> if the count is an estimate.
+	 */
+	public Set<Object> getExactValues()
+	{
+		return exactValues;
+	}
+	
+	public int getPrecision()
+	{
+		return precision;
+	}
+
+	/**
+	 * Returns the relative standard error of the estimate, 1.04 / &radic;2<sup>p</sup>.
+	 */
+	public double getStandardError()
+	{
+		return 1.04 / Math.sqrt(1 << precision);
+	}
+	
+	private void toRegisters()
+	{
+		int registerCount = 1 << precision;
+		registers = new byte[registerCount];
+		inverseSum = registerCount;
+		zeroRegisters = registerCount;
+		
+		Set<Object> values = exactValues;
+		exactValues = null;
+		for (Object value : values)
+		{
+			add(value);
+		}
+	}
+	
+	private void setRegister(int index, int rank)
+	{
+		int register = registers[index];
+		if (register == 0)
+		{
+			--zeroRegisters;
+		}
+		inverseSum += Math.scalb(1d, -rank) - Math.scalb(1d, -register);
+		registers[index] = (byte) rank;
+	}
+	
+	private int registerIndex(long hash)
+	{
+		return (int) (hash >>> (64 - precision));
+	}
+	
+	private int rank(long hash)
+	{
+		// the position of the first one bit after the index bits, at most 65 - p
+		return Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+	}
+	
+	private long estimate(double inverseSum, int zeroRegisters)
+	{
+		int registerCount = 1 << precision;
+		double alpha;
+		switch (registerCount)
+		{
+			case 16 :
+			{
+				alpha = 0.673;
+				break;
+			}
+			case 32 :
+			{
+				alpha = 0.697;
+				break;
+			}
+			case 64 :
+			{
+				alpha = 0.709;
+				break;
+			}
+			default :
+			{
+				alpha = 0.7213 / (1 + 1.079 / registerCount);
+				break;
+			}
+		}
+		
+		double estimate = alpha * registerCount * registerCount / inverseSum;
+		if (estimate <= 2.5 * registerCount && zeroRegisters > 0)
+		{
+			// linear counting for small cardinalities
+			estimate = registerCount * Math.log((double) registerCount / zeroRegisters);
+		}
+		
+		// the sketch is only used above the threshold
+		return Math.max(exactThreshold + 1, Math.round(estimate));
+	}
+	
+	private static long hash(Object value)
+	{
+		long hash;
+		if (value instanceof String)
+		{
+			String text = (String) value;
+			hash = 0xcbf29ce484222325L;
+			for (int i = 0; i < text.length(); i++)
+			{
+				hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+			}
+		}
+		else if (
+			value instanceof Long 
+			|| value instanceof Integer 
+			|| value instanceof Short 
+			|| value instanceof Byte
+			)
+		{
+			hash = ((Number) value).longValue();
+		}
+		else if (value instanceof Double || value instanceof Float)
+		{
+			hash = Double.doubleToLongBits(((Number) value).doubleValue());
+		}
+		else
+		{
+			hash = value.hashCode();
+		}
+		
+		// MurmurHash3 64 bit finalizer
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
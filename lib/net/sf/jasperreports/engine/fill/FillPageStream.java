@@ -0,0 +1,203 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JasperPrint;
+
+/**
+ * Exposes the pages of a report that is being filled asynchronously, in order, as soon as they are final.
+ * <p>
+ * A page becomes available once the filler has moved to the next page and no delayed evaluation
+ * (see {@link DelayedFillActions}) still references it, or once the fill has ended.
+ * The stream registers itself as fill listener on the handle, so it has to be created before
+ * {@link FillHandle#startFill()} is called.
+ * 
+ * @see FillHandle#isPageFinal(int)
+ */
+public class FillPageStream implements FillListener, AsynchronousFilllListener
+{
+	
+	public static final String EXCEPTION_MESSAGE_KEY_FILL_CANCELLED = "fill.page.stream.fill.cancelled";
+	
+	private final FillHandle fillHandle;
+	private final List<JRPrintPage> pages = new ArrayList<>();
+	
+	private JasperPrint jasperPrint;
+	private boolean finished;
+	private boolean cancelled;
+	private Throwable error;
+	private long updateCount;
+
+	public FillPageStream(FillHandle fillHandle)
+	{
+		this.fillHandle = fillHandle;
+		fillHandle.addListener(this);
+		fillHandle.addFillListener(this);
+	}
+
+	@Override
+	public synchronized void pageGenerated(JasperPrint jasperPrint, int pageIndex)
+	{
+		this.jasperPrint = jasperPrint;
+		// called on the fill thread before the next page is added, the list is safe to read
+		List<JRPrintPage> printPages = jasperPrint.getPages();
+		while (pages.size() <= pageIndex)
+		{
+			pages.add(printPages.get(pages.size()));
+		}
+		++updateCount;
+		notifyAll();
+	}
+
+	@Override
+	public synchronized void pageUpdated(JasperPrint jasperPrint, int pageIndex)
+	{
+		++updateCount;
+		notifyAll();
+	}
+
+	@Override
+	public synchronized void reportFinished(JasperPrint jasperPrint)
+	{
+		this.jasperPrint = jasperPrint;
+		List<JRPrintPage> printPages = jasperPrint.getPages();
+		while (pages.size() < printPages.size())
+		{
+			pages.add(printPages.get(pages.size()));
+		}
+		finished = true;
+		notifyAll();
+	}
+
+	@Override
+	public synchronized void reportCancelled()
+	{
+		cancelled = true;
+		notifyAll();
+	}
+
+	@Override
+	public synchronized void reportFillError(Throwable t)
+	{
+		error = t;
+		notifyAll();
+	}
+
+	/**
+	 * Waits until the filler has created the report object, i.e. until the first page is generated
+	 * or the fill has ended.
+	 */
+	public synchronized JasperPrint awaitJasperPrint() throws JRException
+	{
+		while (jasperPrint == null)
+		{
+			checkFailed();
+			waitForUpdate();
+		}
+		return jasperPrint;
+	}
+
+	/**
+	 * Waits until the page at the specified index is final.
+	 * 
+	 * @return the page, or <code>null</code> if the report ended with fewer pages
+	 */
+	public JRPrintPage awaitFinalPage(int pageIndex) throws JRException
+	{
+		while (true)
+		{
+			JRPrintPage page;
+			long observedUpdateCount;
+			synchronized (this)
+			{
+				checkFailed();
+				if (pageIndex >= pages.size())
+				{
+					if (finished)
+					{
+						return null;
+					}
+					waitForUpdate();
+					continue;
+				}
+				
+				page = pages.get(pageIndex);
+				if (finished)
+				{
+					return page;
+				}
+				observedUpdateCount = updateCount;
+			}
+			
+			// not holding the monitor here, the filler notifies page updates while locking its delayed actions
+			if (fillHandle.isPageFinal(pageIndex))
+			{
+				return page;
+			}
+			
+			synchronized (this)
+			{
+				if (updateCount == observedUpdateCount && !finished)
+				{
+					waitForUpdate();
+				}
+			}
+		}
+	}
+
+	public synchronized boolean isFinished()
+	{
+		return finished;
+	}
+
+	protected void checkFailed() throws JRException
+	{
+		if (error != null)
+		{
+			throw error instanceof JRException ? (JRException) error : new JRException(error);
+		}
+		if (cancelled)
+		{
+			throw new JRException(EXCEPTION_MESSAGE_KEY_FILL_CANCELLED, (Object[]) null);
+		}
+	}
+
+	private void waitForUpdate() throws JRException
+	{
+		try
+		{
+			wait();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new JRException(e);
+		}
+	}
+}
@@ -82,6 +82,22 @@ public class JRCalculator implements JRFillExpressionEvaluator
 	public static final String PROPERTY_LEGACY_BAND_EVALUATION_ENABLED = 
 		JRPropertiesUtil.PROPERTY_PREFIX + "legacy.band.evaluation.enabled";
 
+	/**
+	 * Property that determines whether Count, Sum and Average variables of the built-in numeric types
+	 * are incremented in primitive values, which are boxed only when the variable value is read.
+	 * 
+	 * @see PrimitiveAccumulator
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_TRUE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_PRIMITIVE_ACCUMULATORS_ENABLED = 
+		JRPropertiesUtil.PROPERTY_PREFIX + "primitive.accumulators.enabled";
+
 	/**
 	 *
 	 */
@@ -163,6 +179,21 @@ public class JRCalculator implements JRFillExpressionEvaluator
 				.getBooleanProperty(
 					PROPERTY_LEGACY_BAND_EVALUATION_ENABLED
 					);
+		
+		boolean primitiveAccumulatorsEnabled = 
+			JRPropertiesUtil.getInstance(getFillDataset().getJasperReportsContext())
+				.getBooleanProperty(
+					getFillDataset(), 
+					PROPERTY_PRIMITIVE_ACCUMULATORS_ENABLED, 
+					true
+					);
+		if (primitiveAccumulatorsEnabled && variables != null)
+		{
+			for (JRFillVariable variable : variables)
+			{
+				variable.initPrimitiveAccumulator();
+			}
+		}
 	}
 
 
@@ -195,14 +226,17 @@ public class JRCalculator implements JRFillExpressionEvaluator
 			{
 				JRFillVariable variable = variables[i];
 				Object expressionValue = evaluate(variable.getExpression());
-				Object newValue = variable.getIncrementer().increment(variable, expressionValue, AbstractValueProvider.getCurrentValueProvider());
-				variable.setValue(newValue);
+				if (!variable.incrementPrimitive(expressionValue, false))
+				{
+					Object newValue = variable.getIncrementer().increment(variable, expressionValue, AbstractValueProvider.getCurrentValueProvider());
+					variable.setValue(newValue);
+				}
 				variable.setInitialized(false);
-				variable.setPreviousIncrementedValue(variable.getIncrementedValue());
+				variable.storePreviousIncrementedValue();
 
 				if (variable.getIncrementTypeValue() == IncrementTypeEnum.NONE)
 				{
-					variable.setIncrementedValue(variable.getValue());
+					variable.storeIncrementedValue();
 				}
 			}
 		}
@@ -229,7 +263,7 @@ public class JRCalculator implements JRFillExpressionEvaluator
 		{
 			for (JRFillVariable variable : variables)
 			{
-				variable.setIncrementedValue(variable.getPreviousIncrementedValue());
+				variable.restorePreviousIncrementedValue();
 			}
 		}
 		
@@ -248,8 +282,11 @@ public class JRCalculator implements JRFillExpressionEvaluator
 			{
 				JRFillVariable variable = variables[i];
 				Object expressionValue = evaluateEstimated(variable.getExpression());
-				Object newValue = variable.getIncrementer().increment(variable, expressionValue,  AbstractValueProvider.getEstimatedValueProvider());
-				variable.setEstimatedValue(newValue);
+				if (!variable.incrementPrimitive(expressionValue, true))
+				{
+					Object newValue = variable.getIncrementer().increment(variable, expressionValue,  AbstractValueProvider.getEstimatedValueProvider());
+					variable.setEstimatedValue(newValue);
+				}
 				//variable.setInitialized(false);
 			}
 		}
@@ -303,7 +340,7 @@ public class JRCalculator implements JRFillExpressionEvaluator
 						JRFillGroup group = (JRFillGroup)variable.getIncrementGroup();
 						if (group.hasChanged())
 						{
-							variable.setIncrementedValue(variable.getValue());
+							variable.storeIncrementedValue();
 						}
 					}
 				}
@@ -416,10 +453,10 @@ public class JRCalculator implements JRFillExpressionEvaluator
 
 			if (toIncrement)
 			{
-				variable.setIncrementedValue(variable.getValue());
+				variable.storeIncrementedValue();
 				if (toSetPreviousValue && !legacyBandEvaluationEnabled)
 				{
-					variable.setPreviousIncrementedValue(variable.getValue());
+					variable.storePreviousIncrementedValue();
 				}
 //				variable.setValue(
 //					evaluate(variable.getInitialValueExpression())
@@ -429,7 +466,7 @@ public class JRCalculator implements JRFillExpressionEvaluator
 		}
 		else
 		{
-			variable.setIncrementedValue(variable.getValue());
+			variable.storeIncrementedValue();
 //			variable.setValue(
 //				evaluate(variable.getExpression())
 //				);
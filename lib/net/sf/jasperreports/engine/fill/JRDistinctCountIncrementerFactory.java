@@ -73,7 +73,7 @@ public class JRDistinctCountIncrementerFactory implements JRIncrementerFactory
 class JRDistinctCountIncrementer implements JRIncrementer
 {
 
-	private DistinctCountHolder lastHolder = new DistinctCountHolder();
+	private DistinctCountHolder lastHolder;
 	
 	
 	/**
@@ -95,6 +95,11 @@ class JRDistinctCountIncrementer implements JRIncrementer
 
 		if (holder == null)
 		{
+			if (lastHolder == null)
+			{
+				DistinctCountSketch sketch = variable.getDistinctCountSketch();
+				lastHolder = sketch == null ? new DistinctCountHolder() : new DistinctCountHolder(sketch.createEmpty());
+			}
 			holder = lastHolder;
 		}
 		else
@@ -120,6 +125,7 @@ class JRDistinctCountIncrementer implements JRIncrementer
 class DistinctCountHolder
 {
 	private Set<Object> distinctValues;
+	private DistinctCountSketch sketch;
 	private Object lastValue;
 
 	public DistinctCountHolder()
@@ -132,20 +138,36 @@ class DistinctCountHolder
 		this.distinctValues = distinctValues;
 	}
 
+	public DistinctCountHolder(DistinctCountSketch sketch)
+	{
+		this.sketch = sketch;
+	}
+
 	public DistinctCountHolder(DistinctCountHolder holder, Object lastValue)
 	{
-		this.distinctValues = holder.getDistinctValues();
+		this.distinctValues = holder.distinctValues;
+		this.sketch = holder.sketch;
 		this.lastValue = lastValue;
 	}
 
 	public void init()
 	{
-		distinctValues = new HashSet<>();
+		if (sketch == null)
+		{
+			distinctValues = new HashSet<>();
+		}
+		else
+		{
+			sketch = sketch.createEmpty();
+		}
 	}
 
+	/**
+	 * Returns the distinct values, or <code>null</code> if the approximate count has replaced them by a sketch.
+	 */
 	public Set<Object> getDistinctValues()
 	{
-		return distinctValues;
+		return sketch == null ? distinctValues : sketch.getExactValues();
 	}
 
 	public Object getLastValue()
@@ -157,13 +179,24 @@ class DistinctCountHolder
 	{
 		if (lastValue != null)
 		{
-			distinctValues.add(lastValue);
+			if (sketch == null)
+			{
+				distinctValues.add(lastValue);
+			}
+			else
+			{
+				sketch.add(lastValue);
+			}
 		}
 		lastValue = null;
 	}
 
 	public long getCount()
 	{
+		if (sketch != null)
+		{
+			return sketch.getCount(lastValue);
+		}
 		return distinctValues.size() + (lastValue == null || distinctValues.contains(lastValue) ? 0 : 1);
 	}
 }
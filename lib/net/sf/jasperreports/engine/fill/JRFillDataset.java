@@ -399,6 +399,7 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 			{
 				JRVariable countVar = createDistinctCountHelperVariable(parentVariable);
 				JRFillVariable fillCountVar = addVariable(countVar, variableList, factory);
+				fillCountVar.setDistinctCountSketch(DistinctCountSketch.forVariable(this, parentVariable));
 				variable.setHelperVariable(fillCountVar, JRCalculable.HELPER_COUNT);
 
 				break;
@@ -741,11 +742,12 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 		if (DatasetSortUtil.needSorting(this))
 		{
 			sortingData = true;
-			dataSource = DatasetSortUtil.getSortedDataSource(filler, this, locale);
+			dataSource = DatasetSortUtil.createSortedDataSource(filler, this, locale);
 			sortingData = false;
 
 			setParameter(JRParameter.REPORT_DATA_SOURCE, dataSource);
-			sortedDataSource = true;
+			// records merged from sort runs are not recorded in the data snapshot
+			sortedDataSource = dataSource instanceof SortedDataSource;
 		}
 	}
 
@@ -1539,8 +1541,7 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 			for (int i = 0; i < variables.length; i++)
 			{
 				JRFillVariable variable = variables[i];
-				variable.setPreviousOldValue(variable.getOldValue());
-				variable.setOldValue(variable.getValue());
+				variable.storeOldValue();
 			}
 		}
 	}
@@ -1569,8 +1570,7 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 			for (int i = 0; i < variables.length; i++)
 			{
 				JRFillVariable variable = variables[i];
-				variable.setValue(variable.getOldValue());
-				variable.setOldValue(variable.getPreviousOldValue());
+				variable.revertToOldValue();
 			}
 		}
 	}
@@ -1869,6 +1869,7 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 				JRVariable countVar = createDistinctCountHelperVariable(parentVariable);
 				JRFillVariable fillCountVar = factory.getVariable(countVar);
 				checkVariableCalculationReq(fillCountVar, variableList, factory);
+				fillCountVar.setDistinctCountSketch(DistinctCountSketch.forVariable(this, parentVariable));
 				variable.setHelperVariable(fillCountVar, JRCalculable.HELPER_COUNT);
 			}
 		}
@@ -52,12 +52,12 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	/**
 	 *
 	 */
-	private Object previousIncrementedValue;
-	private Object previousOldValue;
-	private Object oldValue;
-	private Object estimatedValue;
-	private Object incrementedValue;
-	private Object value;
+	private final PrimitiveValue previousIncrementedValue = new PrimitiveValue();
+	private final PrimitiveValue previousOldValue = new PrimitiveValue();
+	private final PrimitiveValue oldValue = new PrimitiveValue();
+	private final PrimitiveValue estimatedValue = new PrimitiveValue();
+	private final PrimitiveValue incrementedValue = new PrimitiveValue();
+	private final PrimitiveValue value = new PrimitiveValue();
 	private boolean isInitialized;
 	private Object savedValue;
 	
@@ -67,6 +67,8 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 *
 	 */
 	private JRIncrementer incrementer;
+	private PrimitiveAccumulator accumulator;
+	private DistinctCountSketch distinctCountSketch;
 
 
 	/**
@@ -94,11 +96,11 @@ public class JRFillVariable implements JRVariable, JRCalculable
 
 	protected void reset()
 	{
-		previousOldValue = null;
-		oldValue = null;
-		estimatedValue = null;
-		incrementedValue = null;
-		value = null;
+		previousOldValue.clear();
+		oldValue.clear();
+		estimatedValue.clear();
+		incrementedValue.clear();
+		value.clear();
 		isInitialized = false;
 		savedValue = null;
 	}
@@ -198,7 +200,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public Object getOldValue()
 	{
-		return oldValue;
+		return oldValue.get(accumulator);
 	}
 		
 	/**
@@ -206,7 +208,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setOldValue(Object oldValue)
 	{
-		this.oldValue = oldValue;
+		this.oldValue.set(oldValue);
 	}
 
 	/**
@@ -214,7 +216,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public Object getEstimatedValue()
 	{
-		return estimatedValue;
+		return estimatedValue.get(accumulator);
 	}
 		
 	/**
@@ -222,13 +224,13 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setEstimatedValue(Object estimatedValue)
 	{
-		this.estimatedValue = estimatedValue;
+		this.estimatedValue.set(estimatedValue);
 	}
 
 	@Override
 	public Object getIncrementedValue()
 	{
-		return incrementedValue;
+		return incrementedValue.get(accumulator);
 	}
 		
 	/**
@@ -236,7 +238,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setIncrementedValue(Object incrementedValue)
 	{
-		this.incrementedValue = incrementedValue;
+		this.incrementedValue.set(incrementedValue);
 	}
 
 	/**
@@ -244,7 +246,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public Object getPreviousIncrementedValue()
 	{
-		return previousIncrementedValue;
+		return previousIncrementedValue.get(accumulator);
 	}
 		
 	/**
@@ -252,13 +254,13 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setPreviousIncrementedValue(Object previousIncrementedValue)
 	{
-		this.previousIncrementedValue = previousIncrementedValue;
+		this.previousIncrementedValue.set(previousIncrementedValue);
 	}
 
 	@Override
 	public Object getValue()
 	{
-		return value;
+		return value.get(accumulator);
 	}
 		
 	/**
@@ -266,7 +268,7 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setValue(Object value)
 	{
-		this.value = value;
+		this.value.set(value);
 	}
 
 	@Override
@@ -342,13 +344,13 @@ public class JRFillVariable implements JRVariable, JRCalculable
 		switch (evaluation)
 		{
 			case JRExpression.EVALUATION_OLD:
-				returnValue = oldValue;
+				returnValue = getOldValue();
 				break;
 			case JRExpression.EVALUATION_ESTIMATED:
-				returnValue = estimatedValue;
+				returnValue = getEstimatedValue();
 				break;
 			default:
-				returnValue = value;
+				returnValue = getValue();
 				break;
 		}
 		return returnValue;
@@ -359,16 +361,16 @@ public class JRFillVariable implements JRVariable, JRCalculable
 		switch (evaluation)
 		{
 			case JRExpression.EVALUATION_OLD:
-				savedValue = oldValue;
-				oldValue = newValue;
+				savedValue = getOldValue();
+				oldValue.set(newValue);
 				break;
 			case JRExpression.EVALUATION_ESTIMATED:
-				savedValue = estimatedValue;
-				estimatedValue = newValue;
+				savedValue = getEstimatedValue();
+				estimatedValue.set(newValue);
 				break;
 			default:
-				savedValue = value;
-				value = newValue;
+				savedValue = getValue();
+				value.set(newValue);
 				break;
 		}
 	}
@@ -378,13 +380,13 @@ public class JRFillVariable implements JRVariable, JRCalculable
 		switch (evaluation)
 		{
 			case JRExpression.EVALUATION_OLD:
-				oldValue = savedValue;
+				oldValue.set(savedValue);
 				break;
 			case JRExpression.EVALUATION_ESTIMATED:
-				estimatedValue = savedValue;
+				estimatedValue.set(savedValue);
 				break;
 			default:
-				value = savedValue;
+				value.set(savedValue);
 				break;
 		}
 		savedValue = null;
@@ -394,14 +396,96 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	
 	public Object getPreviousOldValue()
 	{
-		return previousOldValue;
+		return previousOldValue.get(accumulator);
 	}
 
 
 	
 	public void setPreviousOldValue(Object previousOldValue)
 	{
-		this.previousOldValue = previousOldValue;
+		this.previousOldValue.set(previousOldValue);
+	}
+
+	/**
+	 * Returns the empty sketch from which the distinct values of a DistinctCount helper variable are counted
+	 * approximately, <code>null</code> for an exact count.
+	 */
+	public DistinctCountSketch getDistinctCountSketch()
+	{
+		return distinctCountSketch;
+	}
+
+	protected void setDistinctCountSketch(DistinctCountSketch distinctCountSketch)
+	{
+		this.distinctCountSketch = distinctCountSketch;
+	}
+
+	/**
+	 * Enables the incrementing of the variable in primitive values, if the variable calculation and value class allow it.
+	 * 
+	 * @see PrimitiveAccumulator
+	 */
+	protected void initPrimitiveAccumulator()
+	{
+		accumulator = PrimitiveAccumulator.forVariable(this);
+	}
+
+	/**
+	 * Increments the value or the estimated value of the variable in primitive values.
+	 * 
+	 * @param expressionValue the value of the variable expression
+	 * @param estimated whether the estimated value is calculated
+	 * @return whether the variable has been incremented, <code>false</code> if the incrementer needs to be used
+	 */
+	protected boolean incrementPrimitive(Object expressionValue, boolean estimated)
+	{
+		return accumulator != null && accumulator.increment(this, expressionValue, estimated);
+	}
+
+	/*
+	 * The following methods copy values between the slots of the variable without boxing primitive values.
+	 */
+
+	protected void storeIncrementedValue()
+	{
+		incrementedValue.copyFrom(value);
+	}
+
+	protected void storePreviousIncrementedValue()
+	{
+		previousIncrementedValue.copyFrom(incrementedValue);
+	}
+
+	protected void restorePreviousIncrementedValue()
+	{
+		incrementedValue.copyFrom(previousIncrementedValue);
+	}
+
+	protected void storeOldValue()
+	{
+		previousOldValue.copyFrom(oldValue);
+		oldValue.copyFrom(value);
+	}
+
+	protected void revertToOldValue()
+	{
+		value.copyFrom(oldValue);
+		oldValue.copyFrom(previousOldValue);
+	}
+
+	PrimitiveValue getValueSlot()
+	{
+		return value;
+	}
+
+	PrimitiveValue getEstimatedSlot()
+	{
+		return estimatedValue;
+	}
+
+	PrimitiveValue getIncrementedSlot()
+	{
+		return incrementedValue;
 	}
 
 	@Override
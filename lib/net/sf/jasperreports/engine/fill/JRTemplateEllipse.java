@@ -71,6 +71,14 @@ public class JRTemplateEllipse extends JRTemplateGraphicElement
 		this.linePen = new JRBasePen(this);
 	}
 
+	/**
+	 * Creates a template with a given id, used when reading templates written by {@link PrintTemplateSerializer}.
+	 */
+	JRTemplateEllipse(String id)
+	{
+		super(id);
+	}
+
 
 	/**
 	 *
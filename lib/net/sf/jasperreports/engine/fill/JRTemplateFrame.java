@@ -92,6 +92,14 @@ public class JRTemplateFrame extends JRTemplateElement implements JRBoxContainer
 		
 		this.lineBox = new JRBaseLineBox(this);
 	}
+
+	/**
+	 * Creates a template with a given id, used when reading templates written by {@link PrintTemplateSerializer}.
+	 */
+	JRTemplateFrame(String id)
+	{
+		super(id);
+	}
 	
 	@Override
 	public JRLineBox getLineBox()
@@ -87,6 +87,14 @@ public class JRTemplateGenericElement extends JRTemplateElement
 		setElement(element);
 		setGenericType(genericType);
 	}
+
+	/**
+	 * Creates a template with a given id, used when reading templates written by {@link PrintTemplateSerializer}.
+	 */
+	JRTemplateGenericElement(String id)
+	{
+		super(id);
+	}
 	
 	/**
 	 * Returns the type of the generic elements that use this template.
@@ -78,6 +78,14 @@ public abstract class JRTemplateGraphicElement extends JRTemplateElement impleme
 		setGraphicElement(graphicElement);
 	}
 
+	/**
+	 * Creates a template with a given id, used when reading templates written by {@link PrintTemplateSerializer}.
+	 */
+	JRTemplateGraphicElement(String id)
+	{
+		super(id);
+	}
+
 
 	/**
 	 *
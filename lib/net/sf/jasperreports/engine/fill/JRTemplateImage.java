@@ -119,6 +119,14 @@ public class JRTemplateImage extends JRTemplateGraphicElement implements JRCommo
 		this.linePen = new JRBasePen(this);
 	}
 
+	/**
+	 * Creates a template with a given id, used when reading templates written by {@link PrintTemplateSerializer}.
+	 */
+	JRTemplateImage(String id)
+	{
+		super(id);
+	}
+
 	/**
 	 *
 	 */
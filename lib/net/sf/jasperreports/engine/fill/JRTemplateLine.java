@@ -80,6 +80,14 @@ public class JRTemplateLine extends JRTemplateGraphicElement
 		this.linePen = new JRBasePen(this);
 	}
 
+	/**
+	 * Creates a template with a given id, used when reading templates written by {@link PrintTemplateSerializer}.
+	 */
+	JRTemplateLine(String id)
+	{
+		super(id);
+	}
+
 
 	/**
 	 *
@@ -91,6 +91,14 @@ public class JRTemplateRectangle extends JRTemplateGraphicElement implements JRC
 		this.linePen = new JRBasePen(this);
 	}
 
+	/**
+	 * Creates a template with a given id, used when reading templates written by {@link PrintTemplateSerializer}.
+	 */
+	JRTemplateRectangle(String id)
+	{
+		super(id);
+	}
+
 
 	/**
 	 *
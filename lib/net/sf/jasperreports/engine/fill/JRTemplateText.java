@@ -134,6 +134,14 @@ public class JRTemplateText extends JRTemplateElement implements JRTextAlignment
 		lineBox = new JRBaseLineBox(this);
 		paragraph = new JRBaseParagraph(this);
 	}
+
+	/**
+	 * Creates a template with a given id, used when reading templates written by {@link PrintTemplateSerializer}.
+	 */
+	JRTemplateText(String id)
+	{
+		super(id);
+	}
 	
 	/**
 	 *
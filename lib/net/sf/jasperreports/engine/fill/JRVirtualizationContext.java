@@ -60,6 +60,7 @@ import net.sf.jasperreports.engine.base.VirtualizableElementList;
 import net.sf.jasperreports.engine.fonts.FontUtil;
 import net.sf.jasperreports.engine.util.DeepPrintElementVisitor;
 import net.sf.jasperreports.engine.util.UniformPrintElementVisitor;
+import net.sf.jasperreports.engine.virtualization.VirtualizationDictionary;
 import net.sf.jasperreports.renderers.Renderable;
 
 /**
@@ -95,6 +96,7 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 	
 	private transient Set<JRVirtualizationContext> frameContexts;
 	private transient Map<PrintElementId,VirtualizableElementList> virtualizableLists;
+	private transient VirtualizationDictionary dictionary;
 	
 	private volatile boolean readOnly;
 	private volatile boolean disposed;
@@ -119,6 +121,7 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 		cachedRenderers = new ConcurrentHashMap<>(16, 0.75f, 1);
 		cachedTemplates = new ConcurrentHashMap<>(16, 0.75f, 1);
 		virtualizableLists = new ConcurrentHashMap<>(16, 0.75f, 1);
+		dictionary = new VirtualizationDictionary();
 		
 		subContexts = new ConcurrentHashMap<>(16, 0.75f, 1);
 		subContexts.put(this.id, this);
@@ -145,6 +148,7 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 		this.cachedRenderers = parentContext.cachedRenderers;
 		this.cachedTemplates = parentContext.cachedTemplates;
 		this.virtualizableLists = parentContext.virtualizableLists;
+		this.dictionary = parentContext.dictionary;
 		
 		this.subContexts = new ConcurrentHashMap<>(16, 0.75f, 1);
 		this.subContexts.put(this.id, this);
@@ -446,7 +450,11 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 		if (root)
 		{
 			virtualizableLists = new ConcurrentHashMap<>(16, 0.75f, 1);
-			subContexts.values().stream().forEach(context -> {context.virtualizableLists = virtualizableLists;});
+			dictionary = new VirtualizationDictionary();
+			subContexts.values().stream().forEach(context -> {
+				context.virtualizableLists = virtualizableLists;
+				context.dictionary = dictionary;
+			});
 		}
 	}
 
@@ -693,6 +701,17 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 		return cachedTemplates;
 	}
 
+	/**
+	 * Returns the dictionary of repeating values used by the
+	 * {@link net.sf.jasperreports.engine.util.CompactVirtualizationSerializer compact serializer}.
+	 * 
+	 * The dictionary is shared by the master context and all its sub contexts.
+	 */
+	public VirtualizationDictionary getDictionary()
+	{
+		return dictionary;
+	}
+
 	public JRVirtualizationContext getFramesContext()
 	{
 		if (frameContexts == null)
@@ -0,0 +1,168 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.data.IndexedDataSource;
+import net.sf.jasperreports.engine.fill.DatasetSortInfo.RecordField;
+import net.sf.jasperreports.engine.fill.SortRunFiles.RunReader;
+import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
+
+/**
+ * Data source that iterates the sorted records of a dataset by merging the sorted runs written to
+ * {@link SortRunFiles}.
+ * <p>
+ * Only the current record of each run is kept in memory. Records that compare equal are returned
+ * in their original order, as the runs hold consecutive records and are sorted with stable sorts.
+ * <p>
+ * The file of each run is deleted once all its records have been read, so the data source
+ * can only be iterated once.
+ * 
+ * @see DatasetSortUtil#PROPERTY_SPILL_THRESHOLD
+ */
+public class MergedSortedDataSource implements JRDataSource, IndexedDataSource
+{
+	private final SortRunFiles runFiles;
+	private final Map<String, Integer> columnNamesMap = new HashMap<>();
+	
+	private final List<RunReader> readers = new ArrayList<>();
+	private PriorityQueue<RunReader> queue;
+	private RunReader currentReader;
+	private SortRecord currentRecord;
+	
+	public MergedSortedDataSource(DatasetSortInfo sortInfo, SortRunFiles runFiles)
+	{
+		this.runFiles = runFiles;
+		
+		for (ListIterator<RecordField> it = sortInfo.getRecordFields().listIterator(); it.hasNext();)
+		{
+			RecordField recordField = it.next();
+			if (!recordField.isVariable())
+			{
+				columnNamesMap.put(recordField.getName(), it.previousIndex());
+			}
+		}
+	}
+	
+	protected void open() throws JRException
+	{
+		int runCount = runFiles.getRunCount();
+		queue = new PriorityQueue<>(Math.max(1, runCount), runFiles.getReaderComparator());
+		for (int i = 0; i < runCount; i++)
+		{
+			RunReader reader = runFiles.openRun(i);
+			readers.add(reader);
+			if (reader.next())
+			{
+				queue.add(reader);
+			}
+			else
+			{
+				reader.delete();
+			}
+		}
+	}
+	
+	@Override
+	public boolean next() throws JRException
+	{
+		if (queue == null)
+		{
+			open();
+		}
+		
+		// advancing the run of the previous record
+		if (currentReader != null)
+		{
+			if (currentReader.next())
+			{
+				queue.add(currentReader);
+			}
+			else
+			{
+				// releasing the disk space of the run
+				currentReader.delete();
+			}
+			currentReader = null;
+		}
+		
+		currentReader = queue.poll();
+		if (currentReader == null)
+		{
+			currentRecord = null;
+			close();
+			return false;
+		}
+		
+		currentRecord = currentReader.getCurrent();
+		return true;
+	}
+
+	@Override
+	public Object getFieldValue(JRField jrField)
+	{
+		Integer fieldIndex = columnNamesMap.get(jrField.getName());
+		if (fieldIndex == null)
+		{
+			throw 
+				new JRRuntimeException(
+					SortedDataSource.EXCEPTION_MESSAGE_KEY_FIELD_NOT_FOUND,
+					new Object[]{jrField.getName()});
+		}
+		return currentRecord.fieldValue(fieldIndex);
+	}
+
+	@Override
+	public int getRecordIndex()
+	{
+		return currentRecord.getRecordIndex();
+	}
+	
+	/**
+	 * Closes the runs opened for the current iteration.
+	 */
+	protected void close()
+	{
+		for (RunReader reader : readers)
+		{
+			reader.close();
+		}
+		readers.clear();
+	}
+	
+	public SortRunFiles getRunFiles()
+	{
+		return runFiles;
+	}
+}
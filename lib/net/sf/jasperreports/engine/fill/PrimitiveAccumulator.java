@@ -0,0 +1,510 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.math.BigDecimal;
+
+import net.sf.jasperreports.engine.JRVariable;
+import net.sf.jasperreports.engine.type.CalculationEnum;
+
+
+/**
+ * Increments the Count, Sum and Average variables of the built-in numeric types in primitive values, 
+ * producing the same results as the incrementers of {@link JRDefaultIncrementerFactory#getFactory(Class)}.
+ * <p>
+ * The values are kept in the {@link PrimitiveValue} slots of the variable and boxed only when they are read,
+ * by an expression or when printed, so that incrementing a variable does not allocate a value per record.
+ * <code>java.math.BigDecimal</code> values are kept as a scaled <code>long</code> as long as their unscaled
+ * value stays below 10<sup>18</sup>; larger values and Average calculations of <code>java.math.BigDecimal</code>
+ * variables are left to the incrementer.
+ * 
+ * @see JRCalculator#PROPERTY_PRIMITIVE_ACCUMULATORS_ENABLED
+ */
+final class PrimitiveAccumulator
+{
+	private static final byte TYPE_LONG = 0;
+	private static final byte TYPE_INTEGER = 1;
+	private static final byte TYPE_SHORT = 2;
+	private static final byte TYPE_BYTE = 3;
+	private static final byte TYPE_DOUBLE = 4;
+	private static final byte TYPE_FLOAT = 5;
+	private static final byte TYPE_BIG_DECIMAL = 6;
+	
+	private static final long DECIMAL_LIMIT = 1_000_000_000_000_000_000L;
+	private static final int DECIMAL_MAX_DIGITS = 18;
+	private static final long[] POWERS_OF_TEN = new long[DECIMAL_MAX_DIGITS + 1];
+	static
+	{
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++)
+		{
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private final byte type;
+	private final CalculationEnum calculation;
+	
+	// the operand read by readDecimal()
+	private long decimalUnscaled;
+	private int decimalScale;
+	
+	private PrimitiveAccumulator(byte type, CalculationEnum calculation)
+	{
+		this.type = type;
+		this.calculation = calculation;
+	}
+
+	/**
+	 * Returns an accumulator for a variable, or <code>null</code> if the variable uses a custom incrementer,
+	 * a calculation other than Count, Sum and Average or a value class other than the built-in numeric types.
+	 */
+	public static PrimitiveAccumulator forVariable(JRVariable variable)
+	{
+		if (variable.getIncrementerFactoryClassName() != null)
+		{
+			return null;
+		}
+		
+		CalculationEnum calculation = variable.getCalculationValue();
+		if (
+			calculation != CalculationEnum.COUNT
+			&& calculation != CalculationEnum.SUM
+			&& calculation != CalculationEnum.AVERAGE
+			)
+		{
+			return null;
+		}
+		
+		Class<?> valueClass = variable.getValueClass();
+		byte type;
+		if (Long.class.equals(valueClass))
+		{
+			type = TYPE_LONG;
+		}
+		else if (Integer.class.equals(valueClass))
+		{
+			type = TYPE_INTEGER;
+		}
+		else if (Short.class.equals(valueClass))
+		{
+			type = TYPE_SHORT;
+		}
+		else if (Byte.class.equals(valueClass))
+		{
+			type = TYPE_BYTE;
+		}
+		else if (Double.class.equals(valueClass) || Number.class.equals(valueClass))
+		{
+			type = TYPE_DOUBLE;
+		}
+		else if (Float.class.equals(valueClass))
+		{
+			type = TYPE_FLOAT;
+		}
+		else if (BigDecimal.class.equals(valueClass) && calculation != CalculationEnum.AVERAGE)
+		{
+			type = TYPE_BIG_DECIMAL;
+		}
+		else
+		{
+			return null;
+		}
+		
+		return new PrimitiveAccumulator(type, calculation);
+	}
+
+	/**
+	 * Increments a variable.
+	 * 
+	 * @param variable the variable
+	 * @param expressionValue the value of the variable expression
+	 * @param estimated whether the estimated value of the variable is calculated
+	 * @return whether the variable has been incremented, <code>false</code> if the incrementer needs to be used 
+	 */
+	public boolean increment(JRFillVariable variable, Object expressionValue, boolean estimated)
+	{
+		PrimitiveValue result = estimated ? variable.getEstimatedSlot() : variable.getValueSlot();
+		switch (calculation)
+		{
+			case COUNT :
+			{
+				return count(variable, expressionValue, result);
+			}
+			case SUM :
+			{
+				return sum(variable, expressionValue, result);
+			}
+			case AVERAGE :
+			{
+				return average(variable, expressionValue, estimated, result);
+			}
+			default :
+			{
+				return false;
+			}
+		}
+	}
+	
+	private boolean count(JRFillVariable variable, Object expressionValue, PrimitiveValue result)
+	{
+		PrimitiveValue incremented = variable.getIncrementedSlot();
+		boolean zero = incremented.isNull() || variable.isInitialized();
+		if (expressionValue == null)
+		{
+			if (zero)
+			{
+				// the primitive zero of every type
+				result.setPrimitive(0, 0);
+			}
+			else
+			{
+				result.copyFrom(incremented);
+			}
+			return true;
+		}
+		
+		switch (type)
+		{
+			case TYPE_DOUBLE :
+			{
+				double value = zero ? 0 : readDouble(incremented);
+				result.setPrimitive(Double.doubleToRawLongBits(value + 1), 0);
+				return true;
+			}
+			case TYPE_FLOAT :
+			{
+				float value = zero ? 0 : readFloat(incremented);
+				result.setPrimitive(Float.floatToRawIntBits(value + 1), 0);
+				return true;
+			}
+			case TYPE_BIG_DECIMAL :
+			{
+				if (zero)
+				{
+					decimalUnscaled = 0;
+					decimalScale = 0;
+				}
+				else if (!readDecimal(incremented))
+				{
+					return false;
+				}
+				return addDecimal(1, 0, result);
+			}
+			default :
+			{
+				long value = zero ? 0 : readLong(incremented);
+				result.setPrimitive(narrow(value + 1), 0);
+				return true;
+			}
+		}
+	}
+	
+	private boolean sum(JRFillVariable variable, Object expressionValue, PrimitiveValue result)
+	{
+		PrimitiveValue incremented = variable.getIncrementedSlot();
+		if (expressionValue == null)
+		{
+			if (variable.isInitialized())
+			{
+				result.clear();
+			}
+			else
+			{
+				result.copyFrom(incremented);
+			}
+			return true;
+		}
+		
+		boolean zero = incremented.isNull() || variable.isInitialized();
+		Number number = (Number) expressionValue;
+		switch (type)
+		{
+			case TYPE_DOUBLE :
+			{
+				double value = zero ? 0 : readDouble(incremented);
+				result.setPrimitive(Double.doubleToRawLongBits(value + number.doubleValue()), 0);
+				return true;
+			}
+			case TYPE_FLOAT :
+			{
+				float value = zero ? 0 : readFloat(incremented);
+				result.setPrimitive(Float.floatToRawIntBits(value + number.floatValue()), 0);
+				return true;
+			}
+			case TYPE_BIG_DECIMAL :
+			{
+				if (!(expressionValue instanceof BigDecimal))
+				{
+					// the incrementer fails the same way for other types
+					return false;
+				}
+				
+				BigDecimal decimal = (BigDecimal) expressionValue;
+				if (!readDecimal(decimal))
+				{
+					return false;
+				}
+				long addUnscaled = decimalUnscaled;
+				int addScale = decimalScale;
+				
+				if (zero)
+				{
+					decimalUnscaled = 0;
+					decimalScale = 0;
+				}
+				else if (!readDecimal(incremented))
+				{
+					return false;
+				}
+				return addDecimal(addUnscaled, addScale, result);
+			}
+			default :
+			{
+				long value = zero ? 0 : readLong(incremented);
+				result.setPrimitive(narrow(value + narrow(number)), 0);
+				return true;
+			}
+		}
+	}
+	
+	private boolean average(JRFillVariable variable, Object expressionValue, boolean estimated, PrimitiveValue result)
+	{
+		if (expressionValue == null)
+		{
+			if (variable.isInitialized())
+			{
+				result.clear();
+			}
+			else
+			{
+				// the incrementer returns the current value in both modes
+				result.copyFrom(variable.getValueSlot());
+			}
+			return true;
+		}
+		
+		JRFillVariable countVariable = (JRFillVariable) variable.getHelperVariable(JRCalculable.HELPER_COUNT);
+		JRFillVariable sumVariable = (JRFillVariable) variable.getHelperVariable(JRCalculable.HELPER_SUM);
+		PrimitiveValue count = estimated ? countVariable.getEstimatedSlot() : countVariable.getValueSlot();
+		PrimitiveValue sum = estimated ? sumVariable.getEstimatedSlot() : sumVariable.getValueSlot();
+		if (count.isNull() || sum.isNull())
+		{
+			return false;
+		}
+		
+		switch (type)
+		{
+			case TYPE_DOUBLE :
+			{
+				result.setPrimitive(Double.doubleToRawLongBits(readDouble(sum) / readDouble(count)), 0);
+				return true;
+			}
+			case TYPE_FLOAT :
+			{
+				result.setPrimitive(Float.floatToRawIntBits(readFloat(sum) / readFloat(count)), 0);
+				return true;
+			}
+			default :
+			{
+				long countValue = readLong(count);
+				if (countValue == 0)
+				{
+					return false;
+				}
+				result.setPrimitive(narrow(readLong(sum) / countValue), 0);
+				return true;
+			}
+		}
+	}
+	
+	private long narrow(long value)
+	{
+		switch (type)
+		{
+			case TYPE_INTEGER :
+			{
+				return (int) value;
+			}
+			case TYPE_SHORT :
+			{
+				return (short) value;
+			}
+			case TYPE_BYTE :
+			{
+				return (byte) value;
+			}
+			default :
+			{
+				return value;
+			}
+		}
+	}
+	
+	private long narrow(Number number)
+	{
+		switch (type)
+		{
+			case TYPE_INTEGER :
+			{
+				return number.intValue();
+			}
+			case TYPE_SHORT :
+			{
+				return number.shortValue();
+			}
+			case TYPE_BYTE :
+			{
+				return number.byteValue();
+			}
+			default :
+			{
+				return number.longValue();
+			}
+		}
+	}
+	
+	private long readLong(PrimitiveValue value)
+	{
+		return value.isBoxed() ? narrow((Number) value.getBoxed()) : value.getPrimitive();
+	}
+	
+	private double readDouble(PrimitiveValue value)
+	{
+		return value.isBoxed() 
+			? ((Number) value.getBoxed()).doubleValue() 
+			: Double.longBitsToDouble(value.getPrimitive());
+	}
+	
+	private float readFloat(PrimitiveValue value)
+	{
+		return value.isBoxed() 
+			? ((Number) value.getBoxed()).floatValue() 
+			: Float.intBitsToFloat((int) value.getPrimitive());
+	}
+	
+	private boolean readDecimal(PrimitiveValue value)
+	{
+		if (value.isBoxed())
+		{
+			Object boxed = value.getBoxed();
+			return boxed instanceof BigDecimal && readDecimal((BigDecimal) boxed);
+		}
+		
+		decimalUnscaled = value.getPrimitive();
+		decimalScale = value.getScale();
+		return Math.abs(decimalUnscaled) < DECIMAL_LIMIT;
+	}
+	
+	private boolean readDecimal(BigDecimal value)
+	{
+		if (value.precision() > DECIMAL_MAX_DIGITS)
+		{
+			return false;
+		}
+		
+		decimalUnscaled = value.scale() == 0 ? value.longValue() : value.unscaledValue().longValue();
+		decimalScale = value.scale();
+		return true;
+	}
+	
+	/**
+	 * Adds a scaled value to the operand read by {@link #readDecimal(PrimitiveValue)}, with the scale of the result
+	 * being the larger of the two scales as for {@link BigDecimal#add(BigDecimal)}.
+	 */
+	private boolean addDecimal(long unscaled, int scale, PrimitiveValue result)
+	{
+		long value = decimalUnscaled;
+		int resultScale = Math.max(decimalScale, scale);
+		
+		if (resultScale > decimalScale)
+		{
+			value = rescale(value, resultScale - decimalScale);
+		}
+		else if (resultScale > scale)
+		{
+			unscaled = rescale(unscaled, resultScale - scale);
+		}
+		
+		if (value == Long.MIN_VALUE || unscaled == Long.MIN_VALUE)
+		{
+			return false;
+		}
+		
+		// both are below 10^18, the sum does not overflow
+		result.setPrimitive(value + unscaled, resultScale);
+		return true;
+	}
+	
+	private static long rescale(long unscaled, int digits)
+	{
+		if (
+			digits > DECIMAL_MAX_DIGITS 
+			|| Math.abs(unscaled) >= DECIMAL_LIMIT / POWERS_OF_TEN[digits]
+			)
+		{
+			return Long.MIN_VALUE;
+		}
+		return unscaled * POWERS_OF_TEN[digits];
+	}
+	
+	/**
+	 * Creates the value of the variable from a primitive.
+	 */
+	public Object box(long primitive, int scale)
+	{
+		switch (type)
+		{
+			case TYPE_LONG :
+			{
+				return primitive;
+			}
+			case TYPE_INTEGER :
+			{
+				return (int) primitive;
+			}
+			case TYPE_SHORT :
+			{
+				return (short) primitive;
+			}
+			case TYPE_BYTE :
+			{
+				return (byte) primitive;
+			}
+			case TYPE_DOUBLE :
+			{
+				return Double.longBitsToDouble(primitive);
+			}
+			case TYPE_FLOAT :
+			{
+				return Float.intBitsToFloat((int) primitive);
+			}
+			case TYPE_BIG_DECIMAL :
+			default :
+			{
+				return BigDecimal.valueOf(primitive, scale);
+			}
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+
+/**
+ * Value of a variable that can be held as a primitive set by a {@link PrimitiveAccumulator} until it is read.
+ */
+final class PrimitiveValue
+{
+	private Object boxed;
+	private long primitive;
+	private int scale;
+	private boolean isBoxed = true;
+	
+	/**
+	 * Returns the value, boxing the primitive if needed.
+	 */
+	public Object get(PrimitiveAccumulator accumulator)
+	{
+		if (!isBoxed)
+		{
+			boxed = accumulator.box(primitive, scale);
+			isBoxed = true;
+		}
+		return boxed;
+	}
+	
+	public void set(Object value)
+	{
+		boxed = value;
+		isBoxed = true;
+	}
+	
+	/**
+	 * Sets a <code>null</code> value.
+	 */
+	public void clear()
+	{
+		boxed = null;
+		isBoxed = true;
+	}
+	
+	/**
+	 * Copies the value of another slot, without boxing it if it is held as a primitive.
+	 */
+	public void copyFrom(PrimitiveValue value)
+	{
+		boxed = value.boxed;
+		primitive = value.primitive;
+		scale = value.scale;
+		isBoxed = value.isBoxed;
+	}
+	
+	public void setPrimitive(long primitive, int scale)
+	{
+		boxed = null;
+		this.primitive = primitive;
+		this.scale = scale;
+		isBoxed = false;
+	}
+	
+	public boolean isBoxed()
+	{
+		return isBoxed;
+	}
+	
+	public boolean isNull()
+	{
+		return isBoxed && boxed == null;
+	}
+	
+	public Object getBoxed()
+	{
+		return boxed;
+	}
+	
+	public long getPrimitive()
+	{
+		return primitive;
+	}
+	
+	public int getScale()
+	{
+		return scale;
+	}
+}
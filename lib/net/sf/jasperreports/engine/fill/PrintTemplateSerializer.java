@@ -0,0 +1,456 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jasperreports.engine.JRGenericElementType;
+import net.sf.jasperreports.engine.JROrigin;
+import net.sf.jasperreports.engine.JRPropertiesMap;
+import net.sf.jasperreports.engine.base.JRBaseLineBox;
+import net.sf.jasperreports.engine.base.PrintStyleSerializer;
+import net.sf.jasperreports.engine.type.BandTypeEnum;
+import net.sf.jasperreports.engine.type.FillEnum;
+import net.sf.jasperreports.engine.type.HorizontalImageAlignEnum;
+import net.sf.jasperreports.engine.type.HorizontalTextAlignEnum;
+import net.sf.jasperreports.engine.type.LineDirectionEnum;
+import net.sf.jasperreports.engine.type.ModeEnum;
+import net.sf.jasperreports.engine.type.OnErrorTypeEnum;
+import net.sf.jasperreports.engine.type.RotationEnum;
+import net.sf.jasperreports.engine.type.ScaleImageEnum;
+import net.sf.jasperreports.engine.type.VerticalImageAlignEnum;
+import net.sf.jasperreports.engine.type.VerticalTextAlignEnum;
+import net.sf.jasperreports.engine.virtualization.VirtualizationInput;
+import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
+
+
+/**
+ * Writes the element templates and origins of a document field by field for 
+ * {@link net.sf.jasperreports.engine.util.JasperPrintBinaryFormat}.
+ * <p>
+ * Templates keep their id, which the print elements of the pages refer to, and refer to their origin,
+ * style and default style provider by the ids of the document. Templates of other classes than the ones
+ * created by the fill, and templates having custom property maps or boxes, are written with Java serialization.
+ * <p>
+ * An instance keeps the ids of one document and is used either for writing or for reading.
+ * 
+ * @see PrintStyleSerializer
+ */
+public class PrintTemplateSerializer
+{
+	private static final int REFERENCE_NULL = 0;
+	private static final int REFERENCE_NEW = 1;
+	private static final int REFERENCE_OFFSET = 2;
+	
+	private static final int TEMPLATE_SERIALIZED = 0;
+	private static final int TEMPLATE_TEXT = 1;
+	private static final int TEMPLATE_IMAGE = 2;
+	private static final int TEMPLATE_FRAME = 3;
+	private static final int TEMPLATE_RECTANGLE = 4;
+	private static final int TEMPLATE_ELLIPSE = 5;
+	private static final int TEMPLATE_LINE = 6;
+	private static final int TEMPLATE_GENERIC = 7;
+	
+	private final PrintStyleSerializer styleSerializer;
+	
+	private final Map<JROrigin, Integer> originIds = new IdentityHashMap<>();
+	private final List<JROrigin> origins = new ArrayList<>();
+	
+	public PrintTemplateSerializer(PrintStyleSerializer styleSerializer)
+	{
+		this.styleSerializer = styleSerializer;
+	}
+	
+	public void writeOrigin(JROrigin origin, VirtualizationOutput out) throws IOException
+	{
+		if (origin == null)
+		{
+			out.writeIntCompressed(REFERENCE_NULL);
+			return;
+		}
+		
+		Integer id = originIds.get(origin);
+		if (id != null)
+		{
+			out.writeIntCompressed(REFERENCE_OFFSET + id);
+			return;
+		}
+		
+		originIds.put(origin, originIds.size());
+		out.writeIntCompressed(REFERENCE_NEW);
+		out.writeJRObject(origin.getReportName());
+		out.writeJRObject(origin.getGroupName());
+		styleSerializer.writeEnum(origin.getBandTypeValue(), out);
+	}
+	
+	public JROrigin readOrigin(VirtualizationInput in) throws IOException
+	{
+		int reference = in.readIntCompressed();
+		if (reference == REFERENCE_NULL)
+		{
+			return null;
+		}
+		if (reference != REFERENCE_NEW)
+		{
+			return origins.get(reference - REFERENCE_OFFSET);
+		}
+		
+		String reportName = (String) in.readJRObject();
+		String groupName = (String) in.readJRObject();
+		BandTypeEnum bandType = styleSerializer.readEnum(BandTypeEnum.class, in);
+		JROrigin origin = new JROrigin(reportName, groupName, bandType);
+		origins.add(origin);
+		return origin;
+	}
+	
+	public void writeTemplate(JRTemplateElement template, VirtualizationOutput out) throws IOException
+	{
+		int kind = getTemplateKind(template);
+		out.writeByte(kind);
+		if (kind == TEMPLATE_SERIALIZED)
+		{
+			out.writeObject(template);
+			return;
+		}
+		
+		out.writeJRObject(template.getId());
+		writeOrigin(template.origin, out);
+		styleSerializer.writeStyleProvider(template.defaultStyleProvider, out);
+		styleSerializer.writeStyle(template.parentStyle, out);
+		out.writeJRObject(template.getKey());
+		styleSerializer.writeEnum(template.getOwnModeValue(), out);
+		styleSerializer.writeColor(template.getOwnForecolor(), out);
+		styleSerializer.writeColor(template.getOwnBackcolor(), out);
+		
+		if (template.hasProperties())
+		{
+			JRPropertiesMap properties = template.getPropertiesMap();
+			String[] names = properties.getOwnPropertyNames();
+			out.writeIntCompressed(names.length);
+			for (String name : names)
+			{
+				out.writeJRObject(name);
+				out.writeJRObject(properties.getProperty(name));
+			}
+		}
+		else
+		{
+			out.writeIntCompressed(0);
+		}
+		
+		switch (kind)
+		{
+		case TEMPLATE_TEXT:
+			writeText((JRTemplateText) template, out);
+			break;
+		case TEMPLATE_IMAGE:
+			writeImage((JRTemplateImage) template, out);
+			break;
+		case TEMPLATE_FRAME:
+			styleSerializer.writeLineBox(((JRTemplateFrame) template).getLineBox(), out);
+			break;
+		case TEMPLATE_RECTANGLE:
+			writeGraphic((JRTemplateGraphicElement) template, out);
+			out.writeJRObject(((JRTemplateRectangle) template).getOwnRadius());
+			break;
+		case TEMPLATE_ELLIPSE:
+			writeGraphic((JRTemplateGraphicElement) template, out);
+			break;
+		case TEMPLATE_LINE:
+			writeGraphic((JRTemplateGraphicElement) template, out);
+			styleSerializer.writeEnum(((JRTemplateLine) template).getDirectionValue(), out);
+			break;
+		case TEMPLATE_GENERIC:
+			JRGenericElementType genericType = ((JRTemplateGenericElement) template).getGenericType();
+			out.writeBoolean(genericType != null);
+			if (genericType != null)
+			{
+				out.writeJRObject(genericType.getNamespace());
+				out.writeJRObject(genericType.getName());
+			}
+			break;
+		default:
+			break;
+		}
+	}
+	
+	protected int getTemplateKind(JRTemplateElement template)
+	{
+		if (template.hasProperties())
+		{
+			JRPropertiesMap properties = template.getPropertiesMap();
+			if (properties.getClass() != JRPropertiesMap.class || properties.getBaseProperties() != null)
+			{
+				return TEMPLATE_SERIALIZED;
+			}
+		}
+		
+		Class<?> templateClass = template.getClass();
+		if (templateClass == JRTemplateText.class)
+		{
+			JRTemplateText text = (JRTemplateText) template;
+			return PrintStyleSerializer.isBaseLineBox(text.getLineBox()) 
+					&& PrintStyleSerializer.isBaseParagraph(text.getParagraph())
+					? TEMPLATE_TEXT : TEMPLATE_SERIALIZED;
+		}
+		if (templateClass == JRTemplateImage.class)
+		{
+			JRTemplateImage image = (JRTemplateImage) template;
+			return PrintStyleSerializer.isBaseLineBox(image.getLineBox()) 
+					&& PrintStyleSerializer.isBasePen(image.linePen)
+					? TEMPLATE_IMAGE : TEMPLATE_SERIALIZED;
+		}
+		if (templateClass == JRTemplateFrame.class)
+		{
+			return PrintStyleSerializer.isBaseLineBox(((JRTemplateFrame) template).getLineBox())
+					? TEMPLATE_FRAME : TEMPLATE_SERIALIZED;
+		}
+		if (templateClass == JRTemplateGenericElement.class)
+		{
+			return TEMPLATE_GENERIC;
+		}
+		
+		int kind;
+		if (templateClass == JRTemplateRectangle.class)
+		{
+			kind = TEMPLATE_RECTANGLE;
+		}
+		else if (templateClass == JRTemplateEllipse.class)
+		{
+			kind = TEMPLATE_ELLIPSE;
+		}
+		else if (templateClass == JRTemplateLine.class)
+		{
+			kind = TEMPLATE_LINE;
+		}
+		else
+		{
+			return TEMPLATE_SERIALIZED;
+		}
+		return PrintStyleSerializer.isBasePen(((JRTemplateGraphicElement) template).linePen) 
+				? kind : TEMPLATE_SERIALIZED;
+	}
+	
+	protected void writeText(JRTemplateText text, VirtualizationOutput out) throws IOException
+	{
+		styleSerializer.writeEnum(text.getOwnHorizontalTextAlign(), out);
+		styleSerializer.writeEnum(text.getOwnVerticalTextAlign(), out);
+		styleSerializer.writeEnum(text.getOwnRotationValue(), out);
+		out.writeJRObject(text.getOwnMarkup());
+		out.writeJRObject(text.getLinkType());
+		out.writeJRObject(text.getLinkTarget());
+		styleSerializer.writeLineBox(text.getLineBox(), out);
+		styleSerializer.writeParagraph(text.getParagraph(), out);
+		
+		out.writeJRObject(text.getOwnFontName());
+		out.writeJRObject(text.isOwnBold());
+		out.writeJRObject(text.isOwnItalic());
+		out.writeJRObject(text.isOwnUnderline());
+		out.writeJRObject(text.isOwnStrikeThrough());
+		out.writeJRObject(text.getOwnFontsize());
+		out.writeJRObject(text.getOwnPdfFontName());
+		out.writeJRObject(text.getOwnPdfEncoding());
+		out.writeJRObject(text.isOwnPdfEmbedded());
+		
+		out.writeJRObject(text.getValueClassName());
+		out.writeJRObject(text.getPattern());
+		out.writeJRObject(text.getFormatFactoryClass());
+		out.writeJRObject(text.getLocaleCode());
+		out.writeJRObject(text.getTimeZoneId());
+	}
+	
+	protected void writeGraphic(JRTemplateGraphicElement graphic, VirtualizationOutput out) throws IOException
+	{
+		styleSerializer.writePen(graphic.linePen, out);
+		styleSerializer.writeEnum(graphic.getOwnFillValue(), out);
+	}
+	
+	protected void writeImage(JRTemplateImage image, VirtualizationOutput out) throws IOException
+	{
+		writeGraphic(image, out);
+		styleSerializer.writeEnum(image.getOwnScaleImageValue(), out);
+		styleSerializer.writeEnum(image.getOwnRotation(), out);
+		out.writeBoolean(image.isUsingCache());
+		styleSerializer.writeEnum(image.getOwnHorizontalImageAlign(), out);
+		styleSerializer.writeEnum(image.getOwnVerticalImageAlign(), out);
+		out.writeBoolean(image.isLazy());
+		styleSerializer.writeEnum(image.getOnErrorTypeValue(), out);
+		out.writeJRObject(image.getLinkType());
+		out.writeJRObject(image.getLinkTarget());
+		styleSerializer.writeLineBox(image.getLineBox(), out);
+	}
+	
+	public JRTemplateElement readTemplate(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		int kind = in.readUnsignedByte();
+		if (kind == TEMPLATE_SERIALIZED)
+		{
+			return (JRTemplateElement) in.readObject();
+		}
+		
+		String id = (String) in.readJRObject();
+		JRTemplateElement template;
+		switch (kind)
+		{
+		case TEMPLATE_TEXT:
+			template = new JRTemplateText(id);
+			break;
+		case TEMPLATE_IMAGE:
+			template = new JRTemplateImage(id);
+			break;
+		case TEMPLATE_FRAME:
+			template = new JRTemplateFrame(id);
+			break;
+		case TEMPLATE_RECTANGLE:
+			template = new JRTemplateRectangle(id);
+			break;
+		case TEMPLATE_ELLIPSE:
+			template = new JRTemplateEllipse(id);
+			break;
+		case TEMPLATE_LINE:
+			template = new JRTemplateLine(id);
+			break;
+		case TEMPLATE_GENERIC:
+			template = new JRTemplateGenericElement(id);
+			break;
+		default:
+			throw new IOException("Unknown template kind " + kind);
+		}
+		
+		template.origin = readOrigin(in);
+		template.defaultStyleProvider = styleSerializer.readStyleProvider(in);
+		template.parentStyle = styleSerializer.readStyle(in);
+		template.setKey((String) in.readJRObject());
+		template.setMode(styleSerializer.readEnum(ModeEnum.class, in));
+		template.setForecolor(styleSerializer.readColor(in));
+		template.setBackcolor(styleSerializer.readColor(in));
+		
+		int propertyCount = in.readIntCompressed();
+		if (propertyCount > 0)
+		{
+			JRPropertiesMap properties = template.getPropertiesMap();
+			for (int i = 0; i < propertyCount; i++)
+			{
+				String name = (String) in.readJRObject();
+				properties.setProperty(name, (String) in.readJRObject());
+			}
+		}
+		
+		switch (kind)
+		{
+		case TEMPLATE_TEXT:
+			readText((JRTemplateText) template, in);
+			break;
+		case TEMPLATE_IMAGE:
+			readImage((JRTemplateImage) template, in);
+			break;
+		case TEMPLATE_FRAME:
+			JRTemplateFrame frame = (JRTemplateFrame) template;
+			frame.lineBox = styleSerializer.readLineBox(frame, in);
+			break;
+		case TEMPLATE_RECTANGLE:
+			readGraphic((JRTemplateGraphicElement) template, in);
+			((JRTemplateRectangle) template).setRadius((Integer) in.readJRObject());
+			break;
+		case TEMPLATE_ELLIPSE:
+			readGraphic((JRTemplateGraphicElement) template, in);
+			break;
+		case TEMPLATE_LINE:
+			readGraphic((JRTemplateGraphicElement) template, in);
+			((JRTemplateLine) template).setDirection(styleSerializer.readEnum(LineDirectionEnum.class, in));
+			break;
+		case TEMPLATE_GENERIC:
+			if (in.readBoolean())
+			{
+				String namespace = (String) in.readJRObject();
+				String name = (String) in.readJRObject();
+				((JRTemplateGenericElement) template).setGenericType(new JRGenericElementType(namespace, name));
+			}
+			break;
+		default:
+			break;
+		}
+		
+		return template;
+	}
+	
+	protected void readText(JRTemplateText text, VirtualizationInput in) throws IOException
+	{
+		text.setHorizontalTextAlign(styleSerializer.readEnum(HorizontalTextAlignEnum.class, in));
+		text.setVerticalTextAlign(styleSerializer.readEnum(VerticalTextAlignEnum.class, in));
+		text.setRotation(styleSerializer.readEnum(RotationEnum.class, in));
+		text.setMarkup((String) in.readJRObject());
+		text.setLinkType((String) in.readJRObject());
+		text.setLinkTarget((String) in.readJRObject());
+		text.lineBox = styleSerializer.readLineBox(text, in);
+		text.paragraph = styleSerializer.readParagraph(text, in);
+		
+		text.setFontName((String) in.readJRObject());
+		text.setBold((Boolean) in.readJRObject());
+		text.setItalic((Boolean) in.readJRObject());
+		text.setUnderline((Boolean) in.readJRObject());
+		text.setStrikeThrough((Boolean) in.readJRObject());
+		text.setFontSize((Float) in.readJRObject());
+		text.setPdfFontName((String) in.readJRObject());
+		text.setPdfEncoding((String) in.readJRObject());
+		text.setPdfEmbedded((Boolean) in.readJRObject());
+		
+		text.setValueClassName((String) in.readJRObject());
+		text.setPattern((String) in.readJRObject());
+		text.setFormatFactoryClass((String) in.readJRObject());
+		text.setLocaleCode((String) in.readJRObject());
+		text.setTimeZoneId((String) in.readJRObject());
+	}
+	
+	protected void readGraphic(JRTemplateGraphicElement graphic, VirtualizationInput in) throws IOException
+	{
+		graphic.linePen = styleSerializer.readPen(graphic, in);
+		graphic.setFill(styleSerializer.readEnum(FillEnum.class, in));
+	}
+	
+	protected void readImage(JRTemplateImage image, VirtualizationInput in) throws IOException
+	{
+		readGraphic(image, in);
+		image.setScaleImage(styleSerializer.readEnum(ScaleImageEnum.class, in));
+		image.setRotation(styleSerializer.readEnum(RotationEnum.class, in));
+		image.setUsingCache(in.readBoolean());
+		image.setHorizontalImageAlign(styleSerializer.readEnum(HorizontalImageAlignEnum.class, in));
+		image.setVerticalImageAlign(styleSerializer.readEnum(VerticalImageAlignEnum.class, in));
+		image.setLazy(in.readBoolean());
+		image.setOnErrorType(styleSerializer.readEnum(OnErrorTypeEnum.class, in));
+		image.setLinkType((String) in.readJRObject());
+		image.setLinkTarget((String) in.readJRObject());
+		
+		// the box of image templates is private, it is copied
+		JRBaseLineBox lineBox = styleSerializer.readLineBox(null, in);
+		if (lineBox != null)
+		{
+			image.copyLineBox(lineBox);
+		}
+	}
+}
@@ -0,0 +1,490 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
+import net.sf.jasperreports.engine.virtualization.VirtualizationInput;
+import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
+
+/**
+ * Temporary files holding sorted runs of dataset records, written when a dataset has more records
+ * than {@link DatasetSortUtil#PROPERTY_SPILL_THRESHOLD}.
+ * <p>
+ * Each run starts with its record count, followed by the original index and the values of every record.
+ * Values are written by the virtualization serializers without back references, so that reading a run
+ * keeps only the current record in memory. Values that have no such serializer are written by Java
+ * serialization, records having values that are not {@link Serializable} cannot be written.
+ * <p>
+ * When there are too many runs to be read at once, {@link #mergeRuns(int)} merges groups of runs
+ * into larger runs. The file of a run is deleted as soon as its records have been read by a merge, 
+ * the remaining files are deleted when the fill context is disposed.
+ * 
+ * @see MergedSortedDataSource
+ */
+public class SortRunFiles implements JRFillContext.FillCacheDisposable
+{
+	private static final Log log = LogFactory.getLog(SortRunFiles.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_RUN_WRITE_ERROR = "fill.dataset.sort.run.write.error";
+	public static final String EXCEPTION_MESSAGE_KEY_RUN_READ_ERROR = "fill.dataset.sort.run.read.error";
+	public static final String EXCEPTION_MESSAGE_KEY_VALUE_NOT_SERIALIZABLE = "fill.dataset.sort.run.value.not.serializable";
+	
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	// resetting the Java serialization handles of values written as objects, so that they do not pile up
+	private static final int RESET_INTERVAL = 1024;
+
+	private final JRVirtualizationContext virtualizationContext;
+	private final File directory;
+	private final Comparator<SortRecord> comparator;
+	private final int parallelThreshold;
+	private final List<File> files = new ArrayList<>();
+	private final List<Integer> recordCounts = new ArrayList<>();
+	private long spilledBytes;
+	private long spilledRecords;
+	
+	/**
+	 * @param directory the directory of the temporary files, <code>null</code> for the default temporary directory
+	 * @param comparator the comparator that orders the records of a run
+	 * @param parallelThreshold the minimum run size sorted on several threads, 0 to always sort on the calling thread
+	 */
+	public SortRunFiles(JasperReportsContext jasperReportsContext, String directory, 
+			Comparator<SortRecord> comparator, int parallelThreshold)
+	{
+		this.virtualizationContext = new JRVirtualizationContext(jasperReportsContext);
+		this.directory = directory == null ? null : new File(directory);
+		this.comparator = comparator;
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Returns the first value of a record that cannot be written to a run, or <code>null</code> if all values
+	 * can be written.
+	 */
+	public static Object findNotSerializable(Object[] values)
+	{
+		for (Object value : values)
+		{
+			if (value != null && !(value instanceof Serializable))
+			{
+				return value;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sorts records and writes them as a new run.
+	 * 
+	 * @param records the records, in their original order
+	 */
+	public void spill(List<SortRecord> records) throws JRException
+	{
+		SortRecord[] run = records.toArray(new SortRecord[records.size()]);
+		// both sorts are stable, records that compare equal keep their original order
+		if (parallelThreshold > 0 && run.length >= parallelThreshold)
+		{
+			Arrays.parallelSort(run, comparator);
+		}
+		else
+		{
+			Arrays.sort(run, comparator);
+		}
+		
+		File file = null;
+		try
+		{
+			file = File.createTempFile("jasperreports-sort", ".run", directory);
+			files.add(file);
+			try (VirtualizationOutput out = new VirtualizationOutput(
+					new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE), virtualizationContext))
+			{
+				out.writeIntCompressed(run.length);
+				for (int i = 0; i < run.length; i++)
+				{
+					writeRecord(out, run[i], i);
+				}
+			}
+		}
+		catch (NotSerializableException e)
+		{
+			// a serializable value referring to an object that is not serializable
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_VALUE_NOT_SERIALIZABLE,
+					new Object[]{e.getMessage()},
+					e);
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_RUN_WRITE_ERROR,
+					new Object[]{file},
+					e);
+		}
+		
+		recordCounts.add(run.length);
+		spilledRecords += run.length;
+		spilledBytes += file.length();
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("wrote sort run of " + run.length + " records to " + file + ", " + file.length() + " bytes");
+		}
+	}
+	
+	private void writeRecord(VirtualizationOutput out, SortRecord record, int index) throws IOException
+	{
+		if (index > 0 && index % RESET_INTERVAL == 0)
+		{
+			out.reset();
+		}
+		
+		out.writeIntCompressed(record.getRecordIndex());
+		Object[] values = record.getValues();
+		out.writeIntCompressed(values.length);
+		for (Object value : values)
+		{
+			out.writeJRObject(value, false, false);
+		}
+	}
+	
+	/**
+	 * Merges consecutive runs in passes until at most <code>fanIn</code> runs are left, so that the final 
+	 * merge does not keep more than <code>fanIn</code> files open.
+	 * 
+	 * @param fanIn the maximum number of runs read at the same time, at least 2
+	 */
+	public void mergeRuns(int fanIn) throws JRException
+	{
+		while (files.size() > fanIn)
+		{
+			List<File> passFiles = new ArrayList<>();
+			List<Integer> passCounts = new ArrayList<>();
+			try
+			{
+				for (int start = 0; start < files.size(); start += fanIn)
+				{
+					int end = Math.min(files.size(), start + fanIn);
+					if (end - start == 1)
+					{
+						passFiles.add(files.get(start));
+						passCounts.add(recordCounts.get(start));
+					}
+					else
+					{
+						int recordCount = 0;
+						for (int i = start; i < end; i++)
+						{
+							recordCount += recordCounts.get(i);
+						}
+						passFiles.add(mergeRuns(start, end, recordCount));
+						passCounts.add(recordCount);
+					}
+				}
+			}
+			catch (JRException | RuntimeException e)
+			{
+				// the files of the pass are deleted on dispose along with the remaining runs
+				for (File file : passFiles)
+				{
+					if (!files.contains(file))
+					{
+						files.add(file);
+					}
+				}
+				throw e;
+			}
+			
+			if (log.isDebugEnabled())
+			{
+				log.debug("merged " + files.size() + " sort runs into " + passFiles.size() + " runs");
+			}
+			
+			files.clear();
+			files.addAll(passFiles);
+			recordCounts.clear();
+			recordCounts.addAll(passCounts);
+		}
+	}
+	
+	private File mergeRuns(int start, int end, int recordCount) throws JRException
+	{
+		List<RunReader> readers = new ArrayList<>(end - start);
+		File file = null;
+		boolean merged = false;
+		try
+		{
+			file = File.createTempFile("jasperreports-sort", ".run", directory);
+			PriorityQueue<RunReader> queue = new PriorityQueue<>(end - start, getReaderComparator());
+			for (int i = start; i < end; i++)
+			{
+				RunReader reader = openRun(i);
+				readers.add(reader);
+				if (reader.next())
+				{
+					queue.add(reader);
+				}
+				else
+				{
+					reader.delete();
+				}
+			}
+			
+			try (VirtualizationOutput out = new VirtualizationOutput(
+					new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE), virtualizationContext))
+			{
+				out.writeIntCompressed(recordCount);
+				int index = 0;
+				RunReader reader;
+				while ((reader = queue.poll()) != null)
+				{
+					writeRecord(out, reader.getCurrent(), index);
+					++index;
+					
+					if (reader.next())
+					{
+						queue.add(reader);
+					}
+					else
+					{
+						reader.delete();
+					}
+				}
+			}
+			merged = true;
+			return file;
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_RUN_WRITE_ERROR,
+					new Object[]{file},
+					e);
+		}
+		finally
+		{
+			for (RunReader reader : readers)
+			{
+				reader.close();
+			}
+			
+			if (!merged && file != null && !file.delete() && file.exists())
+			{
+				log.warn("Could not delete sort run file " + file);
+			}
+		}
+	}
+	
+	/**
+	 * Returns a comparator that orders run readers by their current records, and by the run index
+	 * for records that compare equal so that merges keep the original record order.
+	 */
+	public Comparator<RunReader> getReaderComparator()
+	{
+		return (reader1, reader2) -> 
+		{
+			int ret = comparator.compare(reader1.getCurrent(), reader2.getCurrent());
+			return ret == 0 ? Integer.compare(reader1.getRunIndex(), reader2.getRunIndex()) : ret;
+		};
+	}
+	
+	public int getRunCount()
+	{
+		return files.size();
+	}
+	
+	public long getSpilledBytes()
+	{
+		return spilledBytes;
+	}
+	
+	public long getSpilledRecords()
+	{
+		return spilledRecords;
+	}
+	
+	public Comparator<SortRecord> getComparator()
+	{
+		return comparator;
+	}
+	
+	/**
+	 * Opens a run for reading.
+	 * 
+	 * @param runIndex the index of the run, in the order in which the runs were written
+	 */
+	public RunReader openRun(int runIndex) throws JRException
+	{
+		File file = files.get(runIndex);
+		try
+		{
+			return new RunReader(file, runIndex, recordCounts.get(runIndex), 
+					new VirtualizationInput(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE), 
+							virtualizationContext));
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_RUN_READ_ERROR,
+					new Object[]{file},
+					e);
+		}
+	}
+
+	@Override
+	public void dispose()
+	{
+		for (File file : files)
+		{
+			if (!file.delete() && file.exists())
+			{
+				log.warn("Could not delete sort run file " + file);
+			}
+		}
+		files.clear();
+	}
+	
+	/**
+	 * Reads the records of a run, one at a time.
+	 */
+	public static class RunReader implements AutoCloseable
+	{
+		private final File file;
+		private final int runIndex;
+		private final VirtualizationInput in;
+		private int remaining;
+		private SortRecord current;
+		
+		protected RunReader(File file, int runIndex, int recordCount, VirtualizationInput in) throws IOException
+		{
+			this.file = file;
+			this.runIndex = runIndex;
+			this.in = in;
+			
+			int count = in.readIntCompressed();
+			if (count != recordCount)
+			{
+				throw new IOException("Run " + file + " has " + count + " records, expected " + recordCount);
+			}
+			this.remaining = count;
+		}
+		
+		public int getRunIndex()
+		{
+			return runIndex;
+		}
+		
+		/**
+		 * Returns the current record, read by the last {@link #next()} call.
+		 */
+		public SortRecord getCurrent()
+		{
+			return current;
+		}
+		
+		/**
+		 * Reads the next record of the run.
+		 * 
+		 * @return <code>false</code> if the run has no more records
+		 */
+		public boolean next() throws JRException
+		{
+			if (remaining == 0)
+			{
+				current = null;
+				return false;
+			}
+			
+			try
+			{
+				int recordIndex = in.readIntCompressed();
+				Object[] values = new Object[in.readIntCompressed()];
+				for (int i = 0; i < values.length; i++)
+				{
+					values[i] = in.readJRObject(false);
+				}
+				current = new SortRecord(values, recordIndex);
+			}
+			catch (IOException e)
+			{
+				throw 
+					new JRException(
+						EXCEPTION_MESSAGE_KEY_RUN_READ_ERROR,
+						new Object[]{file},
+						e);
+			}
+			
+			--remaining;
+			return true;
+		}
+
+		@Override
+		public void close()
+		{
+			try
+			{
+				in.close();
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to close sort run " + file, e);
+			}
+		}
+		
+		/**
+		 * Closes the run and deletes its file, called once all the records of the run have been read.
+		 */
+		public void delete()
+		{
+			close();
+			if (!file.delete() && file.exists())
+			{
+				log.warn("Could not delete sort run file " + file);
+			}
+		}
+	}
+}
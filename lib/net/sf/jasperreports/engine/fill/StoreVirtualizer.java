@@ -26,6 +26,7 @@ package net.sf.jasperreports.engine.fill;
 import java.io.IOException;
 
 import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.util.VirtualizationSerializer;
 
 
 /**
@@ -43,6 +44,21 @@ public class StoreVirtualizer extends JRAbstractLRUVirtualizer
 		this.store = store;
 	}
 
+	/**
+	 * Creates a virtualizer that uses a specific serializer for the data written to the store.
+	 * 
+	 * @param serializer the serializer for the virtualized data, 
+	 * e.g. a {@link net.sf.jasperreports.engine.util.CompactVirtualizationSerializer}
+	 * @param maxSize the maximum size (in JRVirtualizable objects) of the paged in cache
+	 * @param store the store of the virtualized data
+	 */
+	public StoreVirtualizer(VirtualizationSerializer serializer, int maxSize, VirtualizerStore store)
+	{
+		super(serializer, maxSize);
+
+		this.store = store;
+	}
+
 	@Override
 	protected void pageOut(JRVirtualizable o) throws IOException
 	{
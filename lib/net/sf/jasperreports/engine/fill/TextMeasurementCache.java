@@ -0,0 +1,295 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.SharedContextValues;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Size bounded LRU cache of text measurement results, shared by all the fills that use the same
+ * {@link JasperReportsContext}.
+ * <p>
+ * Entries are keyed by everything a {@link TextMeasurer} result depends on except the available
+ * height: the text, its style runs and locale, the element width and horizontal paddings, the 
+ * paragraph settings and the measuring properties. Only measurements that consumed the whole text
+ * are cached, and a cached result is reused for any available height at least as large as its 
+ * text height, in which case measuring again would produce the same result.
+ * <p>
+ * The cache is disabled by default. Cached results are shared between fills and must not be modified.
+ */
+public final class TextMeasurementCache
+{
+
+	/**
+	 * Property that specifies the maximum number of measurement results kept by the cache.
+	 * A value of <code>0</code> disables the cache.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "text.measurement.cache.size";
+
+	private static final String CONTEXT_KEY = "net.sf.jasperreports.text.measurement.cache";
+
+	private static final int SEGMENT_COUNT = 16;
+
+	private final int maxSize;
+	private final Segment[] segments;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+
+	/**
+	 *
+	 */
+	public static TextMeasurementCache getInstance(JasperReportsContext jasperReportsContext)
+	{
+		return SharedContextValues.getValue(jasperReportsContext, CONTEXT_KEY, 
+				sharedContext -> new TextMeasurementCache(
+						JRPropertiesUtil.getInstance(sharedContext).getIntegerProperty(PROPERTY_SIZE, 0)));
+	}
+
+
+	/**
+	 *
+	 */
+	public TextMeasurementCache(int maxSize)
+	{
+		this.maxSize = maxSize;
+		
+		// the entries are spread over segments locked independently so that concurrent fills 
+		// do not contend on a single lock
+		int segmentCount = maxSize < SEGMENT_COUNT ? 1 : SEGMENT_COUNT;
+		this.segments = new Segment[segmentCount];
+		int segmentSize = maxSize / segmentCount;
+		for (int i = 0; i < segmentCount; i++)
+		{
+			segments[i] = new Segment(i < maxSize % segmentCount ? segmentSize + 1 : segmentSize);
+		}
+	}
+
+
+	public boolean isEnabled()
+	{
+		return maxSize > 0;
+	}
+
+
+	/**
+	 * Returns the cached measurement for the key if its text fits the given height, or <code>null</code>.
+	 */
+	public JRMeasuredText get(Key key, int maxHeight)
+	{
+		JRMeasuredText measuredText;
+		Segment segment = segment(key);
+		synchronized (segment)
+		{
+			measuredText = segment.get(key);
+		}
+		
+		if (measuredText != null && measuredText.getTextHeight() <= maxHeight)
+		{
+			hitCount.incrementAndGet();
+			return measuredText;
+		}
+		
+		missCount.incrementAndGet();
+		return null;
+	}
+
+
+	/**
+	 * Caches the measurement of the whole text for the key.
+	 */
+	public void put(Key key, JRMeasuredText measuredText)
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+		
+		Segment segment = segment(key);
+		synchronized (segment)
+		{
+			segment.put(key, measuredText);
+		}
+	}
+
+
+	private Segment segment(Key key)
+	{
+		int hash = key.hashCode();
+		return segments[((hash ^ (hash >>> 16)) & 0x7fffffff) % segments.length];
+	}
+
+
+	/**
+	 *
+	 */
+	public void clear()
+	{
+		for (Segment segment : segments)
+		{
+			synchronized (segment)
+			{
+				segment.clear();
+			}
+		}
+	}
+
+
+	/**
+	 * Returns the number of cached measurements.
+	 */
+	public int getEntryCount()
+	{
+		int count = 0;
+		for (Segment segment : segments)
+		{
+			synchronized (segment)
+			{
+				count += segment.size();
+			}
+		}
+		return count;
+	}
+
+	public int getMaxSize()
+	{
+		return maxSize;
+	}
+
+	public long getHitCount()
+	{
+		return hitCount.get();
+	}
+
+	public long getMissCount()
+	{
+		return missCount.get();
+	}
+
+	public long getEvictionCount()
+	{
+		return evictionCount.get();
+	}
+
+	/**
+	 * Returns the ratio of lookups that returned a cached measurement.
+	 */
+	public double getHitRate()
+	{
+		long hits = getHitCount();
+		long lookups = hits + getMissCount();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "TextMeasurementCache[entries=" + getEntryCount() + ", maxSize=" + maxSize 
+				+ ", hits=" + getHitCount() + ", misses=" + getMissCount() 
+				+ ", hitRate=" + String.format("%.3f", getHitRate())
+				+ ", evictions=" + getEvictionCount() + "]";
+	}
+
+
+	/**
+	 * Measurement cache key, compared by the values it is composed of.
+	 */
+	public static final class Key
+	{
+		private final Object[] values;
+		private final int hash;
+
+		public Key(Object... values)
+		{
+			this.values = values;
+			this.hash = Arrays.hashCode(values);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this)
+			{
+				return true;
+			}
+			if (!(obj instanceof Key))
+			{
+				return false;
+			}
+			Key key = (Key) obj;
+			return hash == key.hash && Arrays.equals(values, key.values);
+		}
+	}
+
+
+	private class Segment extends LinkedHashMap<Key, JRMeasuredText>
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+		private final int segmentMaxSize;
+
+		Segment(int segmentMaxSize)
+		{
+			super(16, 0.75f, true);
+			this.segmentMaxSize = segmentMaxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, JRMeasuredText> eldest)
+		{
+			if (size() > segmentMaxSize)
+			{
+				evictionCount.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	}
+}
@@ -28,6 +28,7 @@ import java.text.AttributedCharacterIterator;
 import java.text.AttributedCharacterIterator.Attribute;
 import java.text.BreakIterator;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
@@ -48,6 +49,7 @@ import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.TabStop;
 import net.sf.jasperreports.engine.export.AbstractTextRenderer;
 import net.sf.jasperreports.engine.export.AwtTextRenderer;
+import net.sf.jasperreports.engine.fonts.FontFamily;
 import net.sf.jasperreports.engine.util.DelegatePropertiesHolder;
 import net.sf.jasperreports.engine.util.JRStringUtil;
 import net.sf.jasperreports.engine.util.JRStyledText;
@@ -230,6 +232,12 @@ public class TextMeasurer implements JRTextMeasurer
 	
 	private boolean hasDynamicSaveLineBreakOffsetsProp;
 	private boolean defaultSaveLineBreakOffsets;
+	private boolean saveLineBreakOffsets;
+	
+	private TextMeasurementCache measurementCache;
+	private boolean measureSimpleTexts;
+	private String measureExact;
+	private List<FontFamily> fontFamilies;
 	
 	protected TextMeasuredState measuredState;
 	protected TextMeasuredState prevMeasuredState;
@@ -441,6 +449,18 @@ public class TextMeasurer implements JRTextMeasurer
 		defaultSaveLineBreakOffsets = propertiesUtil.getBooleanProperty(propertiesHolder, 
 				JRTextElement.PROPERTY_SAVE_LINE_BREAKS, false);
 		
+		TextMeasurementCache cache = TextMeasurementCache.getInstance(jasperReportsContext);
+		if (cache.isEnabled())
+		{
+			measurementCache = cache;
+			// the line wrapper settings and the available fonts are part of the cache key
+			measureSimpleTexts = propertiesUtil.getBooleanProperty(propertiesHolder, 
+					PROPERTY_MEASURE_SIMPLE_TEXTS, true);
+			measureExact = propertiesUtil.getProperty(propertiesHolder, 
+					SimpleTextLineWrapper.PROPERTY_MEASURE_EXACT);
+			fontFamilies = jasperReportsContext.getExtensions(FontFamily.class);
+		}
+		
 		Context measureContext = new Context();
 		simpleLineWrapper = new SimpleTextLineWrapper();
 		simpleLineWrapper.init(measureContext);
@@ -529,7 +549,7 @@ public class TextMeasurer implements JRTextMeasurer
 			}
 		}
 		
-		boolean saveLineBreakOffsets = defaultSaveLineBreakOffsets;
+		saveLineBreakOffsets = defaultSaveLineBreakOffsets;
 		if (hasDynamicSaveLineBreakOffsetsProp)
 		{
 			String dynamicSaveLineBreakOffsetsProp = dynamicPropertiesHolder.getDynamicProperties().getProperty(
@@ -558,6 +578,17 @@ public class TextMeasurer implements JRTextMeasurer
 		/*   */
 		initialize(styledText, remainingTextStart, availableStretchHeight, indentFirstLine, canOverflow);
 
+		TextMeasurementCache.Key cacheKey = measurementCache == null ? null 
+				: createMeasurementCacheKey(styledText, remainingTextStart, indentFirstLine);
+		if (cacheKey != null)
+		{
+			JRMeasuredText cachedMeasuredText = measurementCache.get(cacheKey, maxHeight);
+			if (cachedMeasuredText != null)
+			{
+				return cachedMeasuredText;
+			}
+		}
+
 		TextLineWrapper lineWrapper = simpleLineWrapper;
 		// check if the simple wrapper would handle the text
 		if (!lineWrapper.start(styledText))
@@ -648,9 +679,75 @@ public class TextMeasurer implements JRTextMeasurer
 			allParagraphs.setIndex(runStart);
 		}
 		
+		if (cacheKey != null && verticalSpaceRemaining)
+		{
+			// the whole text fit, the same result is produced for any height that fits the text
+			measurementCache.put(cacheKey, measuredState);
+		}
+		
 		return measuredState;
 	}
 	
+	/**
+	 * Creates the key under which the measurement of the text is cached, or returns <code>null</code> if 
+	 * the text is not to be cached.
+	 * The key contains everything the measurement depends on except the available height.
+	 */
+	protected TextMeasurementCache.Key createMeasurementCacheKey(
+		JRStyledText styledText,
+		int remainingTextStart,
+		boolean indentFirstLine
+		)
+	{
+		List<JRStyledText.Run> runs = styledText.getRuns();
+		
+		TabStop[] tabStops = jrParagraph.getTabStops();
+		int tabStopCount = tabStops == null ? 0 : tabStops.length;
+		
+		Object[] values = new Object[21 + 2 * tabStopCount + 3 * runs.size()];
+		int idx = 0;
+		values[idx++] = getClass();
+		values[idx++] = styledText.getText();
+		values[idx++] = styledText.getLocale();
+		values[idx++] = remainingTextStart;
+		values[idx++] = indentFirstLine;
+		values[idx++] = width;
+		values[idx++] = leftPadding;
+		values[idx++] = rightPadding;
+		values[idx++] = ignoreMissingFont;
+		values[idx++] = saveLineBreakOffsets;
+		values[idx++] = measureSimpleTexts;
+		values[idx++] = measureExact;
+		values[idx++] = fontFamilies;
+		values[idx++] = jrParagraph.getLineSpacing();
+		values[idx++] = jrParagraph.getLineSpacingSize();
+		values[idx++] = jrParagraph.getFirstLineIndent();
+		values[idx++] = jrParagraph.getLeftIndent();
+		values[idx++] = jrParagraph.getRightIndent();
+		values[idx++] = jrParagraph.getSpacingBefore();
+		values[idx++] = jrParagraph.getTabStopWidth();
+		values[idx++] = tabStopCount;
+		for (int i = 0; i < tabStopCount; i++)
+		{
+			values[idx++] = tabStops[i].getPosition();
+			values[idx++] = tabStops[i].getAlignment();
+		}
+		for (JRStyledText.Run run : runs)
+		{
+			if (run.attributes.containsKey(JRTextAttribute.HTML_LIST)
+					|| run.attributes.containsKey(JRTextAttribute.HTML_LIST_ITEM))
+			{
+				// list items keep state about the measured text, do not cache
+				return null;
+			}
+			
+			values[idx++] = run.startIndex;
+			values[idx++] = run.endIndex;
+			values[idx++] = new HashMap<>(run.attributes);
+		}
+		return new TextMeasurementCache.Key(values);
+	}
+	
 	protected boolean hasParagraphIndents()
 	{
 		Integer firstLineIndent = jrParagraph.getFirstLineIndent();
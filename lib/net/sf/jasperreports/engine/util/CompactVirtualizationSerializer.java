@@ -0,0 +1,66 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
+import net.sf.jasperreports.engine.virtualization.CompactVirtualizationInput;
+import net.sf.jasperreports.engine.virtualization.CompactVirtualizationOutput;
+import net.sf.jasperreports.engine.virtualization.VirtualizationDictionary;
+import net.sf.jasperreports.engine.virtualization.VirtualizationInput;
+import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
+
+/**
+ * Virtualization serializer that writes the template ids, UUIDs and other short repeating strings
+ * of the virtualized pages as ids in the {@link VirtualizationDictionary dictionary} of the
+ * virtualization context, instead of repeating them in every serialized block.
+ * <p>
+ * The serialized data can only be read back through the same virtualization context (or one of its
+ * sub contexts), which is always the case for the data written to a virtualizer store.
+ * 
+ * @see net.sf.jasperreports.engine.fill.StoreVirtualizer#StoreVirtualizer(VirtualizationSerializer, int, net.sf.jasperreports.engine.fill.VirtualizerStore)
+ */
+public class CompactVirtualizationSerializer extends LocalVirtualizationSerializer
+{
+
+	public CompactVirtualizationSerializer()
+	{
+	}
+
+	@Override
+	protected VirtualizationOutput createOutput(JRVirtualizationContext context, OutputStream out) throws IOException
+	{
+		return new CompactVirtualizationOutput(out, this, context);
+	}
+
+	@Override
+	protected VirtualizationInput createInput(JRVirtualizationContext context, InputStream in) throws IOException
+	{
+		return new CompactVirtualizationInput(in, this, context);
+	}
+
+}
@@ -85,11 +85,16 @@ public final class DigestUtils
 	}
 	
 	public String sha256(String text)
+	{
+		return sha256(text.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public String sha256(byte[] data)
 	{
 		try
 		{
 			MessageDigest digest = MessageDigest.getInstance("SHA-256");
-			byte[] digestBytes = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+			byte[] digestBytes = digest.digest(data);
 			
 			char[] digestChars = new char[digestBytes.length * 2];
 			for (int i = 0; i < digestBytes.length; i++)
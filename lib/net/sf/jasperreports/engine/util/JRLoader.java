@@ -31,6 +31,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.PushbackInputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
@@ -129,12 +130,9 @@ public final class JRLoader
 
 		Object obj = null;
 
-		try (
-			InputStream is = new BufferedInputStream(new FileInputStream(file));
-			ObjectInputStream ois = new ContextClassLoaderObjectInputStream(jasperReportsContext, is)
-			)
+		try (InputStream is = new BufferedInputStream(new FileInputStream(file)))
 		{
-			obj = ois.readObject();
+			obj = readObject(jasperReportsContext, is);
 		}
 		catch (IOException e)
 		{
@@ -173,12 +171,9 @@ public final class JRLoader
 	{
 		Object obj = null;
 
-		try (
-			InputStream is = url.openStream();
-			ObjectInputStream ois = new ContextClassLoaderObjectInputStream(jasperReportsContext, is)
-			)
+		try (InputStream is = url.openStream())
 		{
-			obj = ois.readObject();
+			obj = readObject(jasperReportsContext, is);
 		}
 		catch (IOException e)
 		{
@@ -217,12 +212,9 @@ public final class JRLoader
 	{
 		Object obj = null;
 
-		ObjectInputStream ois = null;
-
 		try
 		{
-			ois = new ContextClassLoaderObjectInputStream(jasperReportsContext, is);
-			obj = ois.readObject();
+			obj = readObject(jasperReportsContext, is);
 		}
 		catch (IOException e)
 		{
@@ -245,6 +237,30 @@ public final class JRLoader
 	}
 
 
+	/**
+	 * Reads a Java serialized object, a document in the {@link JasperPrintBinaryFormat binary format}
+	 * or a compiled report in the {@link JasperReportBinaryFormat binary format}.
+	 */
+	private static Object readObject(JasperReportsContext jasperReportsContext, InputStream is) 
+			throws IOException, ClassNotFoundException
+	{
+		// not reading ahead of the object, the stream might contain other data
+		PushbackInputStream in = new PushbackInputStream(is, 
+				Math.max(JasperPrintBinaryFormat.SIGNATURE_SIZE, JasperReportBinaryFormat.SIGNATURE_SIZE));
+		if (JasperPrintBinaryFormat.isBinaryFormat(in))
+		{
+			return JasperPrintBinaryFormat.read(jasperReportsContext, in);
+		}
+		if (JasperReportBinaryFormat.isBinaryFormat(in))
+		{
+			return JasperReportBinaryFormat.read(jasperReportsContext, in);
+		}
+		
+		ObjectInputStream ois = new ContextClassLoaderObjectInputStream(jasperReportsContext, in);
+		return ois.readObject();
+	}
+
+
 	/**
 	 *
 	 */
@@ -822,6 +838,32 @@ public final class JRLoader
 		}
 	}
 	
+	/**
+	 * Loads a JasperPrint object from a file, reading the pages only when they are accessed
+	 * if the file contains a document in the indexed {@link JasperPrintBinaryFormat binary format}.
+	 * Other files are loaded as by {@link #loadObject(JasperReportsContext, File)}.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param file the file
+	 * @return a JasperPrint object
+	 * @throws JRException
+	 * @see MappedJasperPrint
+	 */
+	public static JasperPrint openJasperPrint(JasperReportsContext jasperReportsContext, File file) throws JRException
+	{
+		if (!file.exists() || !file.isFile())
+		{
+			throw new JRException( new FileNotFoundException(String.valueOf(file)) );
+		}
+		
+		if (MappedJasperPrint.isIndexed(file))
+		{
+			return MappedJasperPrint.open(jasperReportsContext, file);
+		}
+		
+		return (JasperPrint) loadObject(jasperReportsContext, file);
+	}
+	
 	private JRLoader()
 	{
 	}
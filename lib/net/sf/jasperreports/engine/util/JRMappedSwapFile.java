@@ -0,0 +1,594 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+
+
+/**
+ * Swap file that keeps its data in memory-mapped segments of the file.
+ * <p>
+ * Like {@link JRSwapFile}, data is written in fixed-size blocks allocated inside the file, and the caller
+ * receives a handle based on which it can read the data or free the blocks. The file grows by whole 
+ * segments, each segment being mapped in memory once.
+ * <p>
+ * The implementation is thread-safe and, unlike {@link JRSwapFile}, does not serialize I/O operations:
+ * reads and writes are positional accesses of the mapped segments, free blocks are kept in a lock-free
+ * stack whose links are stored in the free blocks themselves, and a lock is only taken when the file grows
+ * by a new segment.
+ */
+public class JRMappedSwapFile
+{
+	private static final Log log = LogFactory.getLog(JRMappedSwapFile.class);
+
+	protected final File swapFile;
+	private final RandomAccessFile file;
+	private final FileChannel fileChannel;
+	private final int blockSize;
+	private final int segmentBlocks;
+	private final long segmentSize;
+
+	private final Object growLock = new Object();
+	private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+	private volatile boolean disposed;
+	private final AtomicInteger nextBlock = new AtomicInteger();
+	
+	/**
+	 * Head of the free blocks stack, a modification stamp in the high 32 bits and the block index plus one 
+	 * (zero for an empty stack) in the low 32 bits.  The stamp avoids the ABA problem.
+	 */
+	private final AtomicLong freeHead = new AtomicLong();
+	private final AtomicInteger usedBlocks = new AtomicInteger();
+	
+	
+	/**
+	 * Creates a swap file.
+	 * 
+	 * The file name is generated automatically.
+	 * 
+	 * @param directory the directory where the file should be created.
+	 * @param blockSize the size of the blocks allocated by the swap file
+	 * @param segmentBlocks the number of blocks in a mapped segment, the swap file grows by one segment when full
+	 */
+	public JRMappedSwapFile(String directory, int blockSize, int segmentBlocks)
+	{
+		this(DefaultJasperReportsContext.getInstance(), directory, blockSize, segmentBlocks);
+	}
+	
+	/**
+	 * Creates a swap file.
+	 * 
+	 * The file name is generated automatically.
+	 * 
+	 * @param jasperReportsContext the JasperReportsContext to read configuration from.
+	 * @param directory the directory where the file should be created.
+	 * @param blockSize the size of the blocks allocated by the swap file
+	 * @param segmentBlocks the number of blocks in a mapped segment, the swap file grows by one segment when full
+	 * @throws IllegalArgumentException if the block size is less than 4, or if a segment would not be empty
+	 * or would exceed <code>Integer.MAX_VALUE</code> bytes, the largest region that can be mapped
+	 */
+	public JRMappedSwapFile(JasperReportsContext jasperReportsContext, String directory, int blockSize, int segmentBlocks)
+	{
+		if (blockSize < 4)
+		{
+			// free blocks store the link to the next free block
+			throw new IllegalArgumentException("Block size must be at least 4");
+		}
+		if (segmentBlocks < 1 || (long) blockSize * segmentBlocks > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("Segment of " + segmentBlocks + " blocks of " + blockSize 
+					+ " bytes must have between 1 block and " + Integer.MAX_VALUE + " bytes");
+		}
+		
+		try
+		{
+			String filename = "swap_" + System.identityHashCode(this) + "_" + System.currentTimeMillis();
+			swapFile = new File(directory, filename);
+			if (log.isDebugEnabled())
+			{
+				log.debug("Creating mapped swap file " + swapFile.getPath());
+			}
+			
+			boolean deleteOnExit = JRPropertiesUtil.getInstance(jasperReportsContext).getBooleanProperty(JRSwapFile.PROPERTY_DELETE_ON_EXIT);
+			if (deleteOnExit)
+			{
+				swapFile.deleteOnExit();
+			}
+			
+			file = new RandomAccessFile(swapFile, "rw");
+			file.setLength(0);
+			fileChannel = file.getChannel();
+
+			this.blockSize = blockSize;
+			this.segmentBlocks = segmentBlocks;
+			this.segmentSize = (long) blockSize * segmentBlocks;
+		}
+		catch (IOException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "JRMappedSwapFile " + swapFile.getAbsolutePath();
+	}
+
+	public int getBlockSize()
+	{
+		return blockSize;
+	}
+
+	/**
+	 * Returns the number of blocks currently holding data.
+	 */
+	public int getUsedBlocks()
+	{
+		return usedBlocks.get();
+	}
+
+	/**
+	 * Returns the number of blocks in the mapped segments.
+	 */
+	public long getCapacityBlocks()
+	{
+		return (long) segments.length * segmentBlocks;
+	}
+
+	
+	/**
+	 * Allocates blocks in the swap file and writes data in them.
+	 * 
+	 * @param data the data for which to allocate blocks in the file
+	 * @return a handle to the allocated blocks
+	 * @throws IOException
+	 */
+	public MappedSwapHandle write(byte[] data) throws IOException
+	{
+		SwapOutputStream out = createOutputStream();
+		out.write(data);
+		out.close();
+		return out.getHandle();
+	}
+
+	
+	/**
+	 * Creates a stream that writes data directly in blocks allocated as the data is written.
+	 * The handle of the blocks is available after the stream is closed.
+	 */
+	public SwapOutputStream createOutputStream()
+	{
+		return new SwapOutputStream();
+	}
+
+	
+	/**
+	 * Reads all the data from allocated blocks.
+	 * 
+	 * @param handle the allocated blocks handle
+	 * @param free whether to free the blocks after reading
+	 * @return the whole data saved in the blocks
+	 * @throws IOException
+	 */
+	public byte[] read(MappedSwapHandle handle, boolean free) throws IOException
+	{
+		byte[] data = new byte[handle.getLength()];
+		int[] blocks = handle.getBlocks();
+		for (int i = 0; i < blocks.length; ++i)
+		{
+			ByteBuffer buffer = blockBuffer(blocks[i]);
+			buffer.get(data, i * blockSize, i < blocks.length - 1 ? blockSize : handle.getLastSize());
+		}
+		
+		if (free)
+		{
+			free(handle);
+		}
+		
+		return data;
+	}
+
+	
+	/**
+	 * Creates a stream that reads the data directly from the blocks.
+	 * The blocks must not be freed while the stream is in use.
+	 */
+	public InputStream createInputStream(MappedSwapHandle handle)
+	{
+		return new SwapInputStream(handle);
+	}
+	
+	
+	/**
+	 * Frees allocated blocks.
+	 * 
+	 * @param handle the allocated blocks handle
+	 */
+	public void free(MappedSwapHandle handle)
+	{
+		int[] blocks = handle.getBlocks();
+		for (int i = blocks.length - 1; i >= 0; --i)
+		{
+			freeBlock(blocks[i]);
+		}
+	}
+	
+	
+	/**
+	 * Unmaps the segments, closes and deletes the swap file.
+	 * The blocks of the file can no longer be accessed afterwards.
+	 */
+	public void dispose()
+	{
+		synchronized (growLock)
+		{
+			disposed = true;
+			if (swapFile.exists())
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("Disposing mapped swap file " + swapFile.getPath());
+				}
+
+				// the mapped memory is released when the buffers are garbage collected
+				segments = new MappedByteBuffer[0];
+				
+				try
+				{
+					file.close();
+				}
+				catch (IOException e)
+				{
+					log.warn("Not able to close swap file " + swapFile.getPath());
+				}
+
+				if (!swapFile.delete())
+				{
+					// some platforms do not delete files that are still mapped
+					log.warn("Not able to delete swap file " + swapFile.getPath() + ", deleting on exit");
+					swapFile.deleteOnExit();
+				}
+			}
+		}
+	}
+
+	
+	protected int allocateBlock() throws IOException
+	{
+		while (true)
+		{
+			long head = freeHead.get();
+			int block = (int) head - 1;
+			if (block < 0)
+			{
+				break;
+			}
+			
+			// the block might be concurrently popped and overwritten, in which case the stamp has changed and the CAS fails
+			int next = segment(block).getInt(blockOffset(block));
+			long newHead = (((head >>> 32) + 1) << 32) | (next & 0xFFFFFFFFL);
+			if (freeHead.compareAndSet(head, newHead))
+			{
+				usedBlocks.incrementAndGet();
+				return block;
+			}
+		}
+		
+		int block = nextBlock.getAndIncrement();
+		ensureSegment(block / segmentBlocks);
+		usedBlocks.incrementAndGet();
+		return block;
+	}
+
+	
+	protected void freeBlock(int block)
+	{
+		MappedByteBuffer segment = segment(block);
+		int offset = blockOffset(block);
+		while (true)
+		{
+			long head = freeHead.get();
+			segment.putInt(offset, (int) head);
+			long newHead = (((head >>> 32) + 1) << 32) | (block + 1L);
+			if (freeHead.compareAndSet(head, newHead))
+			{
+				usedBlocks.decrementAndGet();
+				return;
+			}
+		}
+	}
+
+	
+	protected ByteBuffer blockBuffer(int block)
+	{
+		ByteBuffer buffer = segment(block).duplicate();
+		int offset = blockOffset(block);
+		buffer.limit(offset + blockSize);
+		buffer.position(offset);
+		return buffer;
+	}
+
+	
+	private MappedByteBuffer segment(int block)
+	{
+		MappedByteBuffer[] current = segments;
+		int segmentIndex = block / segmentBlocks;
+		// dispose() sets the flag before dropping the segments
+		if (disposed || segmentIndex >= current.length)
+		{
+			throw new IllegalStateException("Swap file " + swapFile.getPath() + " has been disposed");
+		}
+		return current[segmentIndex];
+	}
+
+	
+	private int blockOffset(int block)
+	{
+		return (block % segmentBlocks) * blockSize;
+	}
+
+	
+	private void ensureSegment(int segmentIndex) throws IOException
+	{
+		if (segmentIndex < segments.length)
+		{
+			return;
+		}
+		
+		synchronized (growLock)
+		{
+			MappedByteBuffer[] current = segments;
+			if (segmentIndex >= current.length)
+			{
+				if (!fileChannel.isOpen())
+				{
+					throw new IOException("Swap file " + swapFile.getPath() + " has been disposed");
+				}
+				
+				MappedByteBuffer[] grown = Arrays.copyOf(current, segmentIndex + 1);
+				for (int i = current.length; i <= segmentIndex; i++)
+				{
+					if (log.isDebugEnabled())
+					{
+						log.debug("Mapping segment " + i + " of " + segmentSize + " bytes in swap file " + swapFile.getPath());
+					}
+					// mapping past the end grows the file
+					grown[i] = fileChannel.map(FileChannel.MapMode.READ_WRITE, i * segmentSize, segmentSize);
+				}
+				segments = grown;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Stream that writes data in blocks allocated as needed.
+	 */
+	public class SwapOutputStream extends OutputStream
+	{
+		private int[] blocks = new int[4];
+		private int blockCount;
+		private ByteBuffer current;
+		private MappedSwapHandle handle;
+		
+		protected SwapOutputStream()
+		{
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			if (current == null || !current.hasRemaining())
+			{
+				nextBlock();
+			}
+			current.put((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			while (len > 0)
+			{
+				if (current == null || !current.hasRemaining())
+				{
+					nextBlock();
+				}
+				int count = Math.min(len, current.remaining());
+				current.put(b, off, count);
+				off += count;
+				len -= count;
+			}
+		}
+		
+		private void nextBlock() throws IOException
+		{
+			if (handle != null)
+			{
+				throw new IOException("Stream closed");
+			}
+			
+			if (blockCount == blocks.length)
+			{
+				blocks = Arrays.copyOf(blocks, blockCount * 2);
+			}
+			int block = allocateBlock();
+			blocks[blockCount++] = block;
+			current = blockBuffer(block);
+		}
+
+		@Override
+		public void close()
+		{
+			if (handle == null)
+			{
+				int lastSize = current == null ? 0 : blockSize - current.remaining();
+				int length = blockCount == 0 ? 0 : (blockCount - 1) * blockSize + lastSize;
+				handle = new MappedSwapHandle(Arrays.copyOf(blocks, blockCount), lastSize, length);
+				current = null;
+			}
+		}
+
+		/**
+		 * Returns the handle of the written blocks, after the stream has been closed.
+		 */
+		public MappedSwapHandle getHandle()
+		{
+			return handle;
+		}
+
+		/**
+		 * Frees the blocks written so far, for instance when writing the data failed.
+		 */
+		public void discard()
+		{
+			for (int i = blockCount - 1; i >= 0; --i)
+			{
+				freeBlock(blocks[i]);
+			}
+			blockCount = 0;
+			current = null;
+		}
+	}
+
+	
+	protected class SwapInputStream extends InputStream
+	{
+		private final MappedSwapHandle handle;
+		private int blockIndex;
+		private ByteBuffer current;
+		
+		protected SwapInputStream(MappedSwapHandle handle)
+		{
+			this.handle = handle;
+		}
+
+		private boolean ensureData()
+		{
+			int[] blocks = handle.getBlocks();
+			while (current == null || !current.hasRemaining())
+			{
+				if (blockIndex >= blocks.length)
+				{
+					return false;
+				}
+				
+				current = blockBuffer(blocks[blockIndex]);
+				if (blockIndex == blocks.length - 1)
+				{
+					current.limit(current.position() + handle.getLastSize());
+				}
+				++blockIndex;
+			}
+			return true;
+		}
+
+		@Override
+		public int read()
+		{
+			if (!ensureData())
+			{
+				return -1;
+			}
+			return current.get() & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len)
+		{
+			if (len == 0)
+			{
+				return 0;
+			}
+			if (!ensureData())
+			{
+				return -1;
+			}
+			int count = Math.min(len, current.remaining());
+			current.get(b, off, count);
+			return count;
+		}
+
+		@Override
+		public int available()
+		{
+			return current == null ? 0 : current.remaining();
+		}
+	}
+	
+	
+	/**
+	 * A handle of blocks allocated in a mapped swap file.
+	 */
+	public static class MappedSwapHandle
+	{
+		private final int[] blocks;
+		private final int lastSize;
+		private final int length;
+		
+		public MappedSwapHandle(int[] blocks, int lastSize, int length)
+		{
+			this.blocks = blocks;
+			this.lastSize = lastSize;
+			this.length = length;
+		}
+		
+		public int[] getBlocks()
+		{
+			return blocks;
+		}
+		
+		public int getLastSize()
+		{
+			return lastSize;
+		}
+		
+		/**
+		 * Returns the length of the data stored in the blocks.
+		 */
+		public int getLength()
+		{
+			return length;
+		}
+	}
+}
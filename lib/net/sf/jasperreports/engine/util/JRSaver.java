@@ -33,7 +33,11 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
 
 
 /**
@@ -125,6 +129,199 @@ public final class JRSaver
 	}
 		
 
+	/**
+	 * Saves a generated document, in the {@link JasperPrintBinaryFormat binary format} if
+	 * {@link JasperPrintBinaryFormat#PROPERTY_BINARY_FORMAT} is set and the document is supported by the format.
+	 * <p>
+	 * The binary format writes the page elements without Java serialization; the document header, 
+	 * element templates and renderers are still Java serialized.
+	 */
+	public static void saveJasperPrint(
+		JasperReportsContext jasperReportsContext,
+		JasperPrint jasperPrint, 
+		String fileName
+		) throws JRException
+	{
+		saveJasperPrint(jasperReportsContext, jasperPrint, new File(fileName));
+	}
+
+
+	/**
+	 * @see #saveJasperPrint(JasperReportsContext, JasperPrint, String)
+	 */
+	public static void saveJasperPrint(
+		JasperReportsContext jasperReportsContext,
+		JasperPrint jasperPrint, 
+		File file
+		) throws JRException
+	{
+		if (!isBinaryFormat(jasperReportsContext, jasperPrint))
+		{
+			saveObject(jasperPrint, file);
+			return;
+		}
+		
+		boolean written;
+		try (
+			OutputStream os = 
+				new BufferedOutputStream(
+					new FileOutputStream(file)
+					)
+			)
+		{
+			written = JasperPrintBinaryFormat.write(jasperReportsContext, jasperPrint, os);
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_FILE_SAVE_ERROR,
+					new Object[]{file},
+					e);
+		}
+		
+		if (!written)
+		{
+			saveObject(jasperPrint, file);
+		}
+	}
+
+
+	/**
+	 * @see #saveJasperPrint(JasperReportsContext, JasperPrint, String)
+	 */
+	public static void saveJasperPrint(
+		JasperReportsContext jasperReportsContext,
+		JasperPrint jasperPrint, 
+		OutputStream os
+		) throws JRException
+	{
+		boolean written = false;
+		if (isBinaryFormat(jasperReportsContext, jasperPrint))
+		{
+			try
+			{
+				written = JasperPrintBinaryFormat.write(jasperReportsContext, jasperPrint, os);
+			}
+			catch (IOException e)
+			{
+				throw 
+					new JRException(
+						EXCEPTION_MESSAGE_KEY_OUTPUT_STREAM_SAVE_ERROR,
+						null,
+						e);
+			}
+		}
+		
+		if (!written)
+		{
+			saveObject(jasperPrint, os);
+		}
+	}
+	
+	
+	private static boolean isBinaryFormat(JasperReportsContext jasperReportsContext, JasperPrint jasperPrint)
+	{
+		return JRPropertiesUtil.getInstance(jasperReportsContext).getBooleanProperty(
+				jasperPrint, JasperPrintBinaryFormat.PROPERTY_BINARY_FORMAT, false);
+	}
+
+
+	/**
+	 * Saves a compiled report, in the {@link JasperReportBinaryFormat binary format} if
+	 * {@link JasperReportBinaryFormat#PROPERTY_BINARY_FORMAT} is set and the report is supported by the format.
+	 */
+	public static void saveJasperReport(
+		JasperReportsContext jasperReportsContext,
+		JasperReport jasperReport, 
+		String fileName
+		) throws JRException
+	{
+		saveJasperReport(jasperReportsContext, jasperReport, new File(fileName));
+	}
+
+
+	/**
+	 * @see #saveJasperReport(JasperReportsContext, JasperReport, String)
+	 */
+	public static void saveJasperReport(
+		JasperReportsContext jasperReportsContext,
+		JasperReport jasperReport, 
+		File file
+		) throws JRException
+	{
+		if (!isBinaryFormat(jasperReportsContext, jasperReport))
+		{
+			saveObject(jasperReport, file);
+			return;
+		}
+		
+		boolean written;
+		try (
+			OutputStream os = 
+				new BufferedOutputStream(
+					new FileOutputStream(file)
+					)
+			)
+		{
+			written = JasperReportBinaryFormat.write(jasperReportsContext, jasperReport, os);
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_FILE_SAVE_ERROR,
+					new Object[]{file},
+					e);
+		}
+		
+		if (!written)
+		{
+			saveObject(jasperReport, file);
+		}
+	}
+
+
+	/**
+	 * @see #saveJasperReport(JasperReportsContext, JasperReport, String)
+	 */
+	public static void saveJasperReport(
+		JasperReportsContext jasperReportsContext,
+		JasperReport jasperReport, 
+		OutputStream os
+		) throws JRException
+	{
+		boolean written = false;
+		if (isBinaryFormat(jasperReportsContext, jasperReport))
+		{
+			try
+			{
+				written = JasperReportBinaryFormat.write(jasperReportsContext, jasperReport, os);
+			}
+			catch (IOException e)
+			{
+				throw 
+					new JRException(
+						EXCEPTION_MESSAGE_KEY_OUTPUT_STREAM_SAVE_ERROR,
+						null,
+						e);
+			}
+		}
+		
+		if (!written)
+		{
+			saveObject(jasperReport, os);
+		}
+	}
+	
+	
+	private static boolean isBinaryFormat(JasperReportsContext jasperReportsContext, JasperReport jasperReport)
+	{
+		return JRPropertiesUtil.getInstance(jasperReportsContext).getBooleanProperty(
+				jasperReport, JasperReportBinaryFormat.PROPERTY_BINARY_FORMAT, false);
+	}
+		
+
 	/**
 	 *
 	 */
@@ -0,0 +1,645 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintImage;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JROrigin;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JRVirtualizationHelper;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
+import net.sf.jasperreports.engine.base.PrintStyleSerializer;
+import net.sf.jasperreports.engine.base.VirtualElementsData;
+import net.sf.jasperreports.engine.base.VirtualizableElementList;
+import net.sf.jasperreports.engine.fill.JRTemplateElement;
+import net.sf.jasperreports.engine.fill.JRTemplatePrintElement;
+import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
+import net.sf.jasperreports.engine.fill.PrintTemplateSerializer;
+import net.sf.jasperreports.engine.virtualization.VirtualizationInput;
+import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
+import net.sf.jasperreports.properties.PropertyConstants;
+import net.sf.jasperreports.renderers.Renderable;
+
+/**
+ * Binary format for {@link JasperPrint} documents that stores the pages the way the
+ * virtualizers do, instead of serializing the whole object graph.
+ * <p>
+ * A document starts with a 4 byte signature and a format version, which allows
+ * {@link JRLoader} to tell it apart from Java serialized objects. The signature is
+ * followed by the header block, containing the document without its pages, the styles and origins,
+ * the element templates and image renderers used on all pages and the number of pages, 
+ * and then by one block for each page with the elements written by
+ * {@link VirtualElementsData}. Elements refer to their template and renderer by id, coordinates 
+ * are written as compressed integers and repeating values are written once per page, so that 
+ * no class descriptor or per element field metadata is processed when the document is loaded.
+ * <p>
+ * The styles and the element templates are written field by field by {@link PrintStyleSerializer} and
+ * {@link PrintTemplateSerializer}. The rest of the header, i.e. the document properties, parts and bookmarks,
+ * and the image renderers are written with Java serialization inside the block; the header is read once
+ * per document. Compiled reports (<code>.jasper</code> files) are written by {@link JasperReportBinaryFormat}.
+ * <p>
+ * Values written by Java serialization in any block share the class descriptors of the whole file:
+ * a descriptor is written in full where it is first used, and as an id in the following blocks.
+ * All descriptors are also written in a table block after the pages, so that a single page can be 
+ * read without reading the blocks before it.
+ * <p>
+ * Every block is preceded by its length. The document ends with an index of the page block offsets, 
+ * the offset of the class descriptor table and the offset of the index, which {@link MappedJasperPrint}
+ * uses to read single pages of a file.
+ * <p>
+ * Documents having frames with virtualized element lists are not supported by the format, 
+ * {@link #write(JasperReportsContext, JasperPrint, OutputStream)} returns <code>false</code> for them
+ * and {@link JRSaver} saves them as Java serialized objects.
+ * 
+ * @see JRSaver#saveJasperPrint(JasperReportsContext, JasperPrint, OutputStream)
+ * @see JRLoader#loadObject(JasperReportsContext, InputStream)
+ */
+public final class JasperPrintBinaryFormat
+{
+	public static final String EXCEPTION_MESSAGE_KEY_UNSUPPORTED_VERSION = "util.print.binary.format.unsupported.version";
+
+	/**
+	 * Property that determines whether {@link JRSaver#saveJasperPrint(JasperReportsContext, JasperPrint, OutputStream)}
+	 * and the fill to file/stream methods of {@link net.sf.jasperreports.engine.JasperFillManager JasperFillManager}
+	 * write documents in the binary format.
+	 * <p>
+	 * Documents in the binary format can be loaded by {@link JRLoader} regardless of this property.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_BINARY_FORMAT = JRPropertiesUtil.PROPERTY_PREFIX + "print.binary.format";
+
+	private static final byte[] SIGNATURE = {'J', 'R', 'P', 'B'};
+	
+	/**
+	 * Version of the format written by {@link #write(JasperReportsContext, JasperPrint, OutputStream)}.
+	 */
+	public static final int FORMAT_VERSION = 2;
+
+	/**
+	 * The number of bytes that {@link #isBinaryFormat(PushbackInputStream)} needs to push back.
+	 */
+	public static final int SIGNATURE_SIZE = SIGNATURE.length;
+	
+	static final int PREAMBLE_SIZE = SIGNATURE_SIZE + 1;
+
+	/**
+	 * Determines whether a stream contains a document in the binary format.
+	 * <p>
+	 * The bytes read to check the signature are pushed back into the stream.
+	 * 
+	 * @param in the stream, able to push back at least {@link #SIGNATURE_SIZE} bytes
+	 * @return whether the stream starts with the signature of the binary format
+	 */
+	public static boolean isBinaryFormat(PushbackInputStream in) throws IOException
+	{
+		byte[] signature = new byte[SIGNATURE.length];
+		int count = 0;
+		int read;
+		while (count < signature.length
+				&& (read = in.read(signature, count, signature.length - count)) > 0)
+		{
+			count += read;
+		}
+		
+		if (count > 0)
+		{
+			in.unread(signature, 0, count);
+		}
+		
+		return count == signature.length && hasSignature(signature);
+	}
+	
+	static boolean hasSignature(byte[] preamble)
+	{
+		for (int i = 0; i < SIGNATURE.length; i++)
+		{
+			if (preamble[i] != SIGNATURE[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes a document in the binary format.
+	 * <p>
+	 * The output stream is flushed but not closed.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param jasperPrint the document
+	 * @param os the stream to write the document to
+	 * @return <code>false</code> if the document contains elements not supported by the format,
+	 * in which case nothing is written to the stream
+	 */
+	public static boolean write(JasperReportsContext jasperReportsContext, JasperPrint jasperPrint, 
+			OutputStream os) throws IOException
+	{
+		JRVirtualizationContext virtualizationContext = new JRVirtualizationContext(jasperReportsContext);
+		
+		List<JRPrintPage> pages = jasperPrint.getPages();
+		for (JRPrintPage page : pages)
+		{
+			if (!cacheElements(virtualizationContext, page.getElements()))
+			{
+				return false;
+			}
+		}
+		
+		JasperPrint header = new JasperPrint();
+		header.copyFrom(jasperPrint);
+		header.getPages().clear();
+		// the styles and origins are written by the serializers, together with the templates that refer to them
+		header.getStylesList().clear();
+		header.getStylesMap().clear();
+		header.setDefaultStyle(null);
+		header.getOriginsList().clear();
+		header.getOriginsMap().clear();
+		
+		DataOutputStream dataOut = new DataOutputStream(os);
+		dataOut.write(SIGNATURE);
+		dataOut.write(FORMAT_VERSION);
+		
+		ClassDescriptorTable classTable = new ClassDescriptorTable();
+		ByteArrayOutputStream block = new ByteArrayOutputStream();
+		VirtualizationOutput out = new PrintOutput(block, virtualizationContext, classTable);
+		out.writeObject(header);
+		
+		PrintStyleSerializer styleSerializer = new PrintStyleSerializer(jasperPrint);
+		PrintTemplateSerializer templateSerializer = new PrintTemplateSerializer(styleSerializer);
+		
+		List<JRStyle> styles = jasperPrint.getStylesList();
+		out.writeIntCompressed(styles.size());
+		for (JRStyle style : styles)
+		{
+			styleSerializer.writeStyle(style, out);
+		}
+		
+		List<JROrigin> origins = jasperPrint.getOriginsList();
+		out.writeIntCompressed(origins.size());
+		for (JROrigin origin : origins)
+		{
+			templateSerializer.writeOrigin(origin, out);
+		}
+		
+		Collection<JRTemplateElement> templates = virtualizationContext.getCachedTemplates().values();
+		out.writeIntCompressed(templates.size());
+		for (JRTemplateElement template : templates)
+		{
+			templateSerializer.writeTemplate(template, out);
+		}
+		styleSerializer.writeStyleProviders(out);
+		
+		Collection<Renderable> renderers = virtualizationContext.getCachedRenderers().values();
+		out.writeIntCompressed(renderers.size());
+		for (Renderable renderer : renderers)
+		{
+			out.writeObject(renderer);
+		}
+		
+		out.writeIntCompressed(pages.size());
+		out.flush();
+		long offset = PREAMBLE_SIZE + writeBlock(dataOut, block);
+		
+		long[] pageOffsets = new long[pages.size()];
+		for (int i = 0; i < pageOffsets.length; i++)
+		{
+			pageOffsets[i] = offset;
+			
+			block.reset();
+			out = new PrintOutput(block, virtualizationContext, classTable);
+			out.writeJRObject(new VirtualElementsData(pages.get(i).getElements()));
+			out.flush();
+			offset += writeBlock(dataOut, block);
+		}
+		
+		long classTableOffset = offset;
+		block.reset();
+		classTable.write(block);
+		offset += writeBlock(dataOut, block);
+		
+		long indexOffset = offset;
+		for (long pageOffset : pageOffsets)
+		{
+			dataOut.writeLong(pageOffset);
+		}
+		dataOut.writeLong(classTableOffset);
+		dataOut.writeLong(indexOffset);
+		
+		dataOut.flush();
+		return true;
+	}
+	
+	/**
+	 * @return the number of bytes written
+	 */
+	private static int writeBlock(DataOutputStream dataOut, ByteArrayOutputStream block) throws IOException
+	{
+		dataOut.writeInt(block.size());
+		block.writeTo(dataOut);
+		return Integer.BYTES + block.size();
+	}
+
+	private static boolean cacheElements(JRVirtualizationContext virtualizationContext, List<JRPrintElement> elements)
+	{
+		for (JRPrintElement element : elements)
+		{
+			if (element instanceof JRTemplatePrintElement)
+			{
+				JRTemplateElement template = ((JRTemplatePrintElement) element).getTemplate();
+				if (template != null)
+				{
+					virtualizationContext.cacheTemplate(template);
+				}
+			}
+			
+			if (element instanceof JRPrintImage)
+			{
+				virtualizationContext.cacheRenderer(((JRPrintImage) element).getRenderer());
+			}
+			
+			if (element instanceof JRPrintFrame)
+			{
+				List<JRPrintElement> frameElements = ((JRPrintFrame) element).getElements();
+				// written by the frames as references to the virtualization context
+				if (frameElements instanceof VirtualizableElementList
+						|| !cacheElements(virtualizationContext, frameElements))
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads a document in the binary format.
+	 * <p>
+	 * If a virtualizer has been set for the current thread via
+	 * {@link JRVirtualizationHelper#setThreadVirtualizer(JRVirtualizer)}, the pages of the document
+	 * are created as virtualizable pages, as done when loading Java serialized documents.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param is the stream positioned at the signature of the document
+	 * @return the document
+	 */
+	public static JasperPrint read(JasperReportsContext jasperReportsContext, InputStream is) 
+			throws IOException, ClassNotFoundException
+	{
+		DataInputStream dataIn = new DataInputStream(is);
+		byte[] preamble = new byte[PREAMBLE_SIZE];
+		dataIn.readFully(preamble);
+		checkPreamble(preamble);
+		
+		JRVirtualizationContext virtualizationContext = new JRVirtualizationContext(jasperReportsContext);
+		JRVirtualizer virtualizer = JRVirtualizationHelper.getThreadVirtualizer();
+		if (virtualizer != null)
+		{
+			virtualizationContext.setVirtualizer(virtualizer);
+		}
+		
+		// the descriptors are read where they are first used, the table after the pages is not needed
+		ClassDescriptorTable classTable = new ClassDescriptorTable();
+		VirtualizationInput in = createInput(readBlock(dataIn), virtualizationContext, classTable);
+		JasperPrint jasperPrint = readHeader(in);
+		
+		int pageCount = in.readIntCompressed();
+		for (int i = 0; i < pageCount; i++)
+		{
+			List<JRPrintElement> elements = readPageElements(
+					createInput(readBlock(dataIn), virtualizationContext, classTable));
+			jasperPrint.addPage(createPage(virtualizationContext, virtualizer, elements));
+		}
+		
+		// consuming the descriptor table and the index so that the stream is positioned after the document
+		readBlock(dataIn);
+		dataIn.readFully(new byte[(pageCount + 2) * Long.BYTES]);
+		
+		if (virtualizer != null)
+		{
+			virtualizationContext.setReadOnly(true);
+			JRVirtualizationContext.register(virtualizationContext, jasperPrint);
+		}
+		
+		return jasperPrint;
+	}
+	
+	private static InputStream readBlock(DataInputStream dataIn) throws IOException
+	{
+		byte[] block = new byte[dataIn.readInt()];
+		dataIn.readFully(block);
+		return new ByteArrayInputStream(block);
+	}
+	
+	private static JRPrintPage createPage(JRVirtualizationContext virtualizationContext, JRVirtualizer virtualizer,
+			List<JRPrintElement> elements)
+	{
+		JRPrintPage page = virtualizer == null 
+				? new JRBasePrintPage() 
+				: new JRVirtualPrintPage(virtualizationContext);
+		page.setElements(elements);
+		return page;
+	}
+	
+	/**
+	 * Checks the signature and version of a document.
+	 */
+	static void checkPreamble(byte[] preamble) throws IOException
+	{
+		if (!hasSignature(preamble))
+		{
+			throw new IOException("Data does not contain a binary format document");
+		}
+		
+		int version = preamble[SIGNATURE_SIZE] & 0xff;
+		if (version != FORMAT_VERSION)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_UNSUPPORTED_VERSION,
+					new Object[]{version});
+		}
+	}
+	
+	static VirtualizationInput createInput(InputStream is, JRVirtualizationContext virtualizationContext,
+			ClassDescriptorTable classTable) throws IOException
+	{
+		return new PrintInput(is, virtualizationContext, classTable);
+	}
+	
+	/**
+	 * Reads the document without pages and caches the templates and renderers in the virtualization context of the input.
+	 */
+	static JasperPrint readHeader(VirtualizationInput in) throws IOException, ClassNotFoundException
+	{
+		JRVirtualizationContext virtualizationContext = in.getVirtualizationContext();
+		JasperPrint jasperPrint = (JasperPrint) in.readObject();
+		
+		PrintStyleSerializer styleSerializer = new PrintStyleSerializer(jasperPrint);
+		PrintTemplateSerializer templateSerializer = new PrintTemplateSerializer(styleSerializer);
+		
+		int styleCount = in.readIntCompressed();
+		for (int i = 0; i < styleCount; i++)
+		{
+			JRStyle style = styleSerializer.readStyle(in);
+			jasperPrint.getStylesList().add(style);
+			jasperPrint.getStylesMap().put(style.getName(), style);
+		}
+		
+		int originCount = in.readIntCompressed();
+		for (int i = 0; i < originCount; i++)
+		{
+			jasperPrint.addOrigin(templateSerializer.readOrigin(in));
+		}
+		
+		int templateCount = in.readIntCompressed();
+		for (int i = 0; i < templateCount; i++)
+		{
+			virtualizationContext.cacheTemplate(templateSerializer.readTemplate(in));
+		}
+		styleSerializer.readStyleProviders(in);
+		
+		int rendererCount = in.readIntCompressed();
+		for (int i = 0; i < rendererCount; i++)
+		{
+			virtualizationContext.cacheRenderer((Renderable) in.readObject());
+		}
+		
+		return jasperPrint;
+	}
+	
+	static List<JRPrintElement> readPageElements(VirtualizationInput in) throws IOException
+	{
+		return ((VirtualElementsData) in.readJRObject()).getElements();
+	}
+	
+	/**
+	 * The class descriptors of the values written by Java serialization in a file, indexed by id.
+	 * <p>
+	 * Blocks write a descriptor in full when it is first used in the file and refer to it by id afterwards. 
+	 * Readers that read the blocks in order collect the descriptors as they are read, readers that read
+	 * single blocks load the whole table first.
+	 */
+	static class ClassDescriptorTable
+	{
+		private final List<ObjectStreamClass> descriptors = new ArrayList<>();
+		private final Map<ObjectStreamClass, Integer> ids = new IdentityHashMap<>();
+		
+		/**
+		 * Returns the id of a descriptor, or <code>null</code> if the descriptor has not been added.
+		 */
+		protected synchronized Integer getId(ObjectStreamClass descriptor)
+		{
+			return ids.get(descriptor);
+		}
+		
+		/**
+		 * Adds a descriptor with the next id.
+		 * 
+		 * @return the id of the added descriptor
+		 */
+		protected synchronized int add(ObjectStreamClass descriptor)
+		{
+			int id = descriptors.size();
+			descriptors.add(descriptor);
+			ids.put(descriptor, id);
+			return id;
+		}
+		
+		/**
+		 * Adds a descriptor read in full, if the table does not already contain the id.
+		 */
+		protected synchronized void put(int id, ObjectStreamClass descriptor)
+		{
+			if (id == descriptors.size())
+			{
+				descriptors.add(descriptor);
+			}
+		}
+		
+		protected synchronized ObjectStreamClass get(int id) throws IOException
+		{
+			if (id < 0 || id >= descriptors.size())
+			{
+				throw new IOException("Unknown class descriptor " + id);
+			}
+			return descriptors.get(id);
+		}
+		
+		/**
+		 * Writes all descriptors, in the order of their ids.
+		 */
+		protected synchronized void write(OutputStream os) throws IOException
+		{
+			ObjectOutputStream out = new ObjectOutputStream(os);
+			out.writeInt(descriptors.size());
+			for (ObjectStreamClass descriptor : descriptors)
+			{
+				out.writeObject(descriptor);
+			}
+			out.flush();
+		}
+		
+		/**
+		 * Reads a table written by {@link #write(OutputStream)}.
+		 */
+		protected static ClassDescriptorTable read(JasperReportsContext jasperReportsContext, InputStream is) 
+				throws IOException, ClassNotFoundException
+		{
+			ClassDescriptorTable table = new ClassDescriptorTable();
+			ObjectInputStream in = new ContextClassLoaderObjectInputStream(jasperReportsContext, is);
+			int count = in.readInt();
+			for (int i = 0; i < count; i++)
+			{
+				table.add((ObjectStreamClass) in.readObject());
+			}
+			return table;
+		}
+	}
+	
+	/**
+	 * Virtualization output that writes class descriptors as ids in the {@link ClassDescriptorTable} of the file.
+	 */
+	private static class PrintOutput extends VirtualizationOutput
+	{
+		private final ClassDescriptorTable classTable;
+		
+		public PrintOutput(OutputStream out, JRVirtualizationContext virtualizationContext, 
+				ClassDescriptorTable classTable) throws IOException
+		{
+			super(out, virtualizationContext);
+			
+			this.classTable = classTable;
+		}
+
+		@Override
+		protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException
+		{
+			Integer id = classTable.getId(desc);
+			if (id == null)
+			{
+				writeIntCompressed(classTable.add(desc) << 1 | 1);
+				super.writeClassDescriptor(desc);
+			}
+			else
+			{
+				writeIntCompressed(id << 1);
+			}
+		}
+	}
+	
+	/**
+	 * Virtualization input that reads class descriptors from the {@link ClassDescriptorTable} of the file,
+	 * and also resolves classes using the context class loader, like {@link ContextClassLoaderObjectInputStream}.
+	 */
+	private static class PrintInput extends VirtualizationInput
+	{
+		private final ClassDescriptorTable classTable;
+		
+		public PrintInput(InputStream in, JRVirtualizationContext virtualizationContext, 
+				ClassDescriptorTable classTable) throws IOException
+		{
+			super(in, virtualizationContext);
+			
+			this.classTable = classTable;
+		}
+
+		@Override
+		protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException
+		{
+			int value = readIntCompressed();
+			int id = value >>> 1;
+			if ((value & 1) != 0)
+			{
+				ObjectStreamClass descriptor = super.readClassDescriptor();
+				classTable.put(id, descriptor);
+				return descriptor;
+			}
+			return classTable.get(id);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+		{
+			try
+			{
+				return super.resolveClass(desc);
+			}
+			catch (ClassNotFoundException e)
+			{
+				ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+				if (contextClassLoader == null)
+				{
+					throw e;
+				}
+				
+				try
+				{
+					return Class.forName(desc.getName(), false, contextClassLoader);
+				}
+				catch (ClassNotFoundException e2)
+				{
+					throw e;
+				}
+			}
+		}
+	}
+	
+	private JasperPrintBinaryFormat()
+	{
+	}
+}
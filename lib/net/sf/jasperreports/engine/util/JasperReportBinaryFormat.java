@@ -0,0 +1,277 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Serializable;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.base.ReportObjectSerializer;
+import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
+import net.sf.jasperreports.engine.virtualization.VirtualizationInput;
+import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Binary format for compiled reports (<code>.jasper</code> files) that writes the report objects
+ * field by field instead of serializing the whole object graph.
+ * <p>
+ * A report starts with a 4 byte signature and a format version, which allows {@link JRLoader}
+ * to tell it apart from Java serialized objects and from documents in the {@link JasperPrintBinaryFormat}.
+ * The signature is followed by the compile information of the report and by the report objects written by
+ * {@link ReportObjectSerializer}: styles, datasets, parameters, fields, variables, groups, sections, bands,
+ * expressions and the common elements are written without class descriptors or per field metadata.
+ * Charts, crosstabs, subreports, component elements and report templates are written with Java
+ * serialization, and refer to the other report objects by id.
+ *
+ * @see JRSaver#saveJasperReport(JasperReportsContext, JasperReport, OutputStream)
+ * @see JRLoader#loadObject(JasperReportsContext, InputStream)
+ */
+public final class JasperReportBinaryFormat
+{
+	public static final String EXCEPTION_MESSAGE_KEY_UNSUPPORTED_VERSION = "util.report.binary.format.unsupported.version";
+
+	/**
+	 * Property that determines whether {@link JRSaver#saveJasperReport(JasperReportsContext, JasperReport, OutputStream)}
+	 * and the compile to file/stream methods of {@link net.sf.jasperreports.engine.JasperCompileManager JasperCompileManager}
+	 * write compiled reports in the binary format.
+	 * <p>
+	 * Reports in the binary format can be loaded by {@link JRLoader} regardless of this property.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_BINARY_FORMAT = JRPropertiesUtil.PROPERTY_PREFIX + "report.binary.format";
+
+	private static final byte[] SIGNATURE = {'J', 'R', 'R', 'B'};
+
+	/**
+	 * Version of the format written by {@link #write(JasperReportsContext, JasperReport, OutputStream)}.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	/**
+	 * The number of bytes that {@link #isBinaryFormat(PushbackInputStream)} needs to push back.
+	 */
+	public static final int SIGNATURE_SIZE = SIGNATURE.length;
+
+	/**
+	 * Determines whether a stream contains a report in the binary format.
+	 * <p>
+	 * The bytes read to check the signature are pushed back into the stream.
+	 *
+	 * @param in the stream, able to push back at least {@link #SIGNATURE_SIZE} bytes
+	 * @return whether the stream starts with the signature of the binary format
+	 */
+	public static boolean isBinaryFormat(PushbackInputStream in) throws IOException
+	{
+		byte[] signature = new byte[SIGNATURE.length];
+		int count = 0;
+		int read;
+		while (count < signature.length
+				&& (read = in.read(signature, count, signature.length - count)) > 0)
+		{
+			count += read;
+		}
+
+		if (count > 0)
+		{
+			in.unread(signature, 0, count);
+		}
+
+		return count == signature.length && hasSignature(signature);
+	}
+
+	private static boolean hasSignature(byte[] preamble)
+	{
+		for (int i = 0; i < SIGNATURE.length; i++)
+		{
+			if (preamble[i] != SIGNATURE[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes a compiled report in the binary format.
+	 * <p>
+	 * The output stream is flushed but not closed.
+	 *
+	 * @param jasperReportsContext the context
+	 * @param jasperReport the report
+	 * @param os the stream to write the report to
+	 * @return <code>false</code> if the report is an instance of a {@link JasperReport} subclass,
+	 * in which case nothing is written to the stream
+	 */
+	public static boolean write(JasperReportsContext jasperReportsContext, JasperReport jasperReport,
+			OutputStream os) throws IOException
+	{
+		if (jasperReport.getClass() != JasperReport.class)
+		{
+			return false;
+		}
+
+		os.write(SIGNATURE);
+		os.write(FORMAT_VERSION);
+
+		ReportObjectSerializer serializer = new ReportObjectSerializer(jasperReport);
+		VirtualizationOutput out = new ReportOutput(os, new JRVirtualizationContext(jasperReportsContext), serializer);
+		out.writeJRObject(jasperReport.getCompilerClass());
+		out.writeJRObject(jasperReport.getCompileNameSuffix());
+		out.writeObject(jasperReport.getCompileData());
+		serializer.writeReport(jasperReport, out);
+		out.flush();
+		return true;
+	}
+
+	/**
+	 * Reads a compiled report in the binary format.
+	 *
+	 * @param jasperReportsContext the context
+	 * @param is the stream positioned at the signature of the report
+	 * @return the report
+	 */
+	public static JasperReport read(JasperReportsContext jasperReportsContext, InputStream is)
+			throws IOException, ClassNotFoundException
+	{
+		DataInputStream dataIn = new DataInputStream(is);
+		byte[] preamble = new byte[SIGNATURE_SIZE + 1];
+		dataIn.readFully(preamble);
+		if (!hasSignature(preamble))
+		{
+			throw new IOException("Data does not contain a binary format report");
+		}
+
+		int version = preamble[SIGNATURE_SIZE] & 0xff;
+		if (version != FORMAT_VERSION)
+		{
+			throw
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_UNSUPPORTED_VERSION,
+					new Object[]{version});
+		}
+
+		ReportInput in = new ReportInput(is, new JRVirtualizationContext(jasperReportsContext));
+		String compilerClass = (String) in.readJRObject();
+		String compileNameSuffix = (String) in.readJRObject();
+		Serializable compileData = (Serializable) in.readObject();
+
+		JasperReport jasperReport = new JasperReport(compilerClass, compileData, compileNameSuffix);
+		ReportObjectSerializer serializer = new ReportObjectSerializer(jasperReport);
+		in.serializer = serializer;
+		serializer.readReport(jasperReport, in);
+		return jasperReport;
+	}
+
+	/**
+	 * Virtualization output that writes the report objects found in Java serialized values as references.
+	 */
+	private static class ReportOutput extends VirtualizationOutput
+	{
+		private final ReportObjectSerializer serializer;
+
+		public ReportOutput(OutputStream out, JRVirtualizationContext virtualizationContext,
+				ReportObjectSerializer serializer) throws IOException
+		{
+			super(out, virtualizationContext);
+
+			this.serializer = serializer;
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException
+		{
+			return serializer.replaceObject(obj);
+		}
+	}
+
+	/**
+	 * Virtualization input that resolves the references written by {@link ReportOutput},
+	 * and also resolves classes using the context class loader, like {@link ContextClassLoaderObjectInputStream}.
+	 */
+	private static class ReportInput extends VirtualizationInput
+	{
+		// set once the report has been created from the compile information
+		private ReportObjectSerializer serializer;
+
+		public ReportInput(InputStream in, JRVirtualizationContext virtualizationContext) throws IOException
+		{
+			super(in, virtualizationContext);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException
+		{
+			Object resolved = super.resolveObject(obj);
+			return serializer == null ? resolved : serializer.resolveObject(resolved);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+		{
+			try
+			{
+				return super.resolveClass(desc);
+			}
+			catch (ClassNotFoundException e)
+			{
+				ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+				if (contextClassLoader == null)
+				{
+					throw e;
+				}
+
+				try
+				{
+					return Class.forName(desc.getName(), false, contextClassLoader);
+				}
+				catch (ClassNotFoundException e2)
+				{
+					throw e;
+				}
+			}
+		}
+	}
+
+	private JasperReportBinaryFormat()
+	{
+	}
+}
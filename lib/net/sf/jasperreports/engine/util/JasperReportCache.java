@@ -0,0 +1,325 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.xml.JRXmlWriter;
+import net.sf.jasperreports.properties.PropertyConstants;
+import net.sf.jasperreports.repo.ReportCompiler;
+
+
+/**
+ * Bounded LRU cache of loaded and compiled {@link JasperReport} objects, shared by the
+ * fill and run managers and by the repository report services of a {@link JasperReportsContext}.
+ * <p>
+ * Reports loaded from files are keyed by canonical path, last modification time and size,
+ * so a changed file is loaded again. Reports loaded from serialized data are keyed by the
+ * SHA-256 digest of the data, and compiled report designs by the digest of their JRXML.
+ * <p>
+ * Cached reports are shared between fills and must not be modified.
+ */
+public final class JasperReportCache
+{
+
+	private static final Log log = LogFactory.getLog(JasperReportCache.class);
+
+	/**
+	 * Property that specifies the maximum number of reports kept by the cache.
+	 * A value of <code>0</code> disables the cache.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "32",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_MAX_ENTRIES = JRPropertiesUtil.PROPERTY_PREFIX + "report.cache.max.entries";
+
+	private static final String CONTEXT_KEY = "net.sf.jasperreports.report.cache";
+
+	private final int maxEntries;
+	private final Map<Object, JasperReport> reports;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+
+	/**
+	 *
+	 */
+	public static JasperReportCache getInstance(JasperReportsContext jasperReportsContext)
+	{
+		return SharedContextValues.getValue(jasperReportsContext, CONTEXT_KEY, 
+				sharedContext -> new JasperReportCache(
+						JRPropertiesUtil.getInstance(sharedContext).getIntegerProperty(PROPERTY_MAX_ENTRIES, 32)));
+	}
+
+
+	/**
+	 *
+	 */
+	public JasperReportCache(int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+		this.reports = new LinkedHashMap<Object, JasperReport>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, JasperReport> eldest)
+			{
+				boolean remove = size() > JasperReportCache.this.maxEntries;
+				if (remove)
+				{
+					evictionCount.incrementAndGet();
+				}
+				return remove;
+			}
+		};
+	}
+
+
+	/**
+	 * Returns the report serialized in the given file, loading it if the file is not cached
+	 * or has changed since it was cached.
+	 */
+	public JasperReport getReport(JasperReportsContext jasperReportsContext, File file) throws JRException
+	{
+		if (!file.isFile())
+		{
+			throw new JRException(new FileNotFoundException(String.valueOf(file)));
+		}
+
+		FileKey key = new FileKey(file);
+		JasperReport report = get(key);
+		if (report == null)
+		{
+			report = (JasperReport) JRLoader.loadObject(jasperReportsContext, file);
+			put(key, report);
+		}
+		return report;
+	}
+
+
+	/**
+	 * Returns the report serialized in the given data, keyed by the data digest.
+	 */
+	public JasperReport getReport(JasperReportsContext jasperReportsContext, byte[] data) throws JRException
+	{
+		if (maxEntries <= 0)
+		{
+			return (JasperReport) JRLoader.loadObject(jasperReportsContext, new ByteArrayInputStream(data));
+		}
+
+		String key = "sha256:" + DigestUtils.instance().sha256(data);
+		JasperReport report = get(key);
+		if (report == null)
+		{
+			report = (JasperReport) JRLoader.loadObject(jasperReportsContext, new ByteArrayInputStream(data));
+			put(key, report);
+		}
+		return report;
+	}
+
+
+	/**
+	 * Returns the report compiled from the given design, keyed by the digest of the design JRXML.
+	 */
+	public JasperReport getReport(JasperReportsContext jasperReportsContext, JasperDesign design,
+			ReportCompiler compiler) throws JRException
+	{
+		if (maxEntries <= 0)
+		{
+			return compiler.compile(design);
+		}
+
+		String jrxml = new JRXmlWriter(jasperReportsContext).write(design, "UTF-8");
+		String key = "jrxml:" + DigestUtils.instance().sha256(jrxml);
+		JasperReport report = get(key);
+		if (report == null)
+		{
+			report = compiler.compile(design);
+			put(key, report);
+		}
+		return report;
+	}
+
+
+	private JasperReport get(Object key)
+	{
+		JasperReport report;
+		synchronized (reports)
+		{
+			report = reports.get(key);
+		}
+
+		if (report == null)
+		{
+			missCount.incrementAndGet();
+		}
+		else
+		{
+			hitCount.incrementAndGet();
+		}
+
+		if (log.isDebugEnabled())
+		{
+			log.debug((report == null ? "miss " : "hit ") + key);
+		}
+		return report;
+	}
+
+
+	private void put(Object key, JasperReport report)
+	{
+		if (maxEntries > 0)
+		{
+			synchronized (reports)
+			{
+				reports.put(key, report);
+			}
+		}
+	}
+
+
+	/**
+	 *
+	 */
+	public void clear()
+	{
+		synchronized (reports)
+		{
+			reports.clear();
+		}
+	}
+
+
+	/**
+	 *
+	 */
+	public int size()
+	{
+		synchronized (reports)
+		{
+			return reports.size();
+		}
+	}
+
+	public int getMaxEntries()
+	{
+		return maxEntries;
+	}
+
+	public long getHitCount()
+	{
+		return hitCount.get();
+	}
+
+	public long getMissCount()
+	{
+		return missCount.get();
+	}
+
+	public long getEvictionCount()
+	{
+		return evictionCount.get();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "JasperReportCache[size=" + size() + ", maxEntries=" + maxEntries + ", hits=" + getHitCount()
+				+ ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+
+
+	private static final class FileKey
+	{
+		private final String path;
+		private final long lastModified;
+		private final long length;
+
+		FileKey(File file)
+		{
+			String filePath;
+			try
+			{
+				filePath = file.getCanonicalPath();
+			}
+			catch (IOException e)
+			{
+				filePath = file.getAbsolutePath();
+			}
+			this.path = filePath;
+			this.lastModified = file.lastModified();
+			this.length = file.length();
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return path.hashCode() * 31 + Long.hashCode(lastModified ^ length);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof FileKey))
+			{
+				return false;
+			}
+			FileKey key = (FileKey) obj;
+			return path.equals(key.path) && lastModified == key.lastModified && length == key.length;
+		}
+
+		@Override
+		public String toString()
+		{
+			return path;
+		}
+	}
+}
@@ -0,0 +1,527 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Fast stream compression using the LZ4 block format, trading compression ratio for speed
+ * compared to {@link DeflateStreamCompression}.
+ * <p>
+ * The data is compressed in blocks of at most 64KB. Each block is written as its uncompressed length
+ * and its compressed length as variable length ints, followed by the compressed data; a compressed
+ * length of 0 marks a block which did not compress and is stored as is.
+ */
+public class LZ4StreamCompression implements StreamCompression
+{
+
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+	
+	private static final int MIN_MATCH = 4;
+	private static final int LAST_LITERALS = 5;
+	private static final int MATCH_FIND_LIMIT = 12;
+	private static final int MAX_OFFSET = 0xFFFF;
+	private static final int HASH_LOG = 12;
+	private static final int SKIP_TRIGGER = 6;
+
+	private final int blockSize;
+	
+	public LZ4StreamCompression()
+	{
+		this(DEFAULT_BLOCK_SIZE);
+	}
+	
+	public LZ4StreamCompression(int blockSize)
+	{
+		this.blockSize = blockSize;
+	}
+
+	@Override
+	public OutputStream compressedOutput(OutputStream stream)
+	{
+		return new LZ4OutputStream(stream, blockSize);
+	}
+
+	@Override
+	public InputStream uncompressedInput(InputStream stream)
+	{
+		return new LZ4InputStream(stream);
+	}
+
+	/**
+	 * Returns the maximum size of a compressed block.
+	 * 
+	 * @param length the uncompressed size
+	 * @return the maximum compressed size
+	 */
+	public static int maxCompressedLength(int length)
+	{
+		return length + length / 255 + 16;
+	}
+
+	/**
+	 * Compresses a block of data.
+	 * 
+	 * @param source the data to compress
+	 * @param length the length of the data
+	 * @param dest the destination buffer, of at least {@link #maxCompressedLength(int)} bytes
+	 * @param hashTable a buffer of <code>1 &lt;&lt; 12</code> ints
+	 * @return the compressed length
+	 */
+	public static int compress(byte[] source, int length, byte[] dest, int[] hashTable)
+	{
+		int destIdx = 0;
+		int anchor = 0;
+		if (length > MATCH_FIND_LIMIT)
+		{
+			Arrays.fill(hashTable, -1);
+			int matchLimit = length - LAST_LITERALS;
+			int findLimit = length - MATCH_FIND_LIMIT;
+			int idx = 0;
+			while (idx < findLimit)
+			{
+				int sequence = readInt(source, idx);
+				int hash = hash(sequence);
+				int ref = hashTable[hash];
+				hashTable[hash] = idx;
+				if (ref < 0 || idx - ref > MAX_OFFSET || readInt(source, ref) != sequence)
+				{
+					// skipping faster over data that doesn't compress
+					idx += 1 + ((idx - anchor) >>> SKIP_TRIGGER);
+					continue;
+				}
+				
+				while (idx > anchor && ref > 0 && source[idx - 1] == source[ref - 1])
+				{
+					--idx;
+					--ref;
+				}
+				
+				int matchEnd = idx + MIN_MATCH;
+				int refEnd = ref + MIN_MATCH;
+				while (matchEnd < matchLimit && source[matchEnd] == source[refEnd])
+				{
+					++matchEnd;
+					++refEnd;
+				}
+				
+				// the token is the first byte of the sequence, the match length is added after the literals
+				int tokenIdx = destIdx;
+				destIdx = writeSequence(source, anchor, idx - anchor, dest, destIdx);
+				dest[destIdx++] = (byte) (idx - ref);
+				dest[destIdx++] = (byte) ((idx - ref) >>> 8);
+				int extraMatch = matchEnd - idx - MIN_MATCH;
+				if (extraMatch >= 0x0F)
+				{
+					dest[tokenIdx] |= 0x0F;
+					destIdx = writeLength(dest, destIdx, extraMatch - 0x0F);
+				}
+				else
+				{
+					dest[tokenIdx] |= extraMatch;
+				}
+				
+				idx = matchEnd;
+				anchor = idx;
+			}
+		}
+		
+		return writeSequence(source, anchor, length - anchor, dest, destIdx);
+	}
+
+	/**
+	 * Decompresses a block of data.
+	 * 
+	 * @param source the compressed data
+	 * @param length the compressed length
+	 * @param dest the destination buffer
+	 * @param destLength the uncompressed length
+	 * @throws IOException if the data is corrupted
+	 */
+	public static void decompress(byte[] source, int length, byte[] dest, int destLength) throws IOException
+	{
+		int idx = 0;
+		int destIdx = 0;
+		try
+		{
+			while (true)
+			{
+				int token = source[idx++] & 0xFF;
+				int literalLength = token >>> 4;
+				if (literalLength == 0x0F)
+				{
+					int lengthByte;
+					do
+					{
+						lengthByte = source[idx++] & 0xFF;
+						literalLength += lengthByte;
+					}
+					while (lengthByte == 0xFF);
+				}
+				
+				if (idx + literalLength > length || destIdx + literalLength > destLength)
+				{
+					throw new IOException("Corrupted LZ4 block");
+				}
+				System.arraycopy(source, idx, dest, destIdx, literalLength);
+				idx += literalLength;
+				destIdx += literalLength;
+				
+				if (idx >= length)
+				{
+					// the last sequence only has literals
+					break;
+				}
+				
+				int offset = (source[idx] & 0xFF) | ((source[idx + 1] & 0xFF) << 8);
+				idx += 2;
+				int matchLength = token & 0x0F;
+				if (matchLength == 0x0F)
+				{
+					int lengthByte;
+					do
+					{
+						lengthByte = source[idx++] & 0xFF;
+						matchLength += lengthByte;
+					}
+					while (lengthByte == 0xFF);
+				}
+				matchLength += MIN_MATCH;
+				
+				int ref = destIdx - offset;
+				if (offset == 0 || ref < 0 || destIdx + matchLength > destLength)
+				{
+					throw new IOException("Corrupted LZ4 block");
+				}
+				if (offset >= matchLength)
+				{
+					System.arraycopy(dest, ref, dest, destIdx, matchLength);
+					destIdx += matchLength;
+				}
+				else
+				{
+					// overlapping match, copying byte by byte
+					for (int end = destIdx + matchLength; destIdx < end; ++destIdx, ++ref)
+					{
+						dest[destIdx] = dest[ref];
+					}
+				}
+			}
+		}
+		catch (ArrayIndexOutOfBoundsException e)
+		{
+			throw new IOException("Corrupted LZ4 block", e);
+		}
+		
+		if (destIdx != destLength)
+		{
+			throw new IOException("Corrupted LZ4 block");
+		}
+	}
+	
+	private static int readInt(byte[] data, int idx)
+	{
+		return (data[idx] & 0xFF) | ((data[idx + 1] & 0xFF) << 8)
+				| ((data[idx + 2] & 0xFF) << 16) | ((data[idx + 3] & 0xFF) << 24);
+	}
+	
+	private static int hash(int sequence)
+	{
+		return (sequence * -1640531535) >>> (32 - HASH_LOG);
+	}
+	
+	/**
+	 * Writes the token, with the literal length, and the literals of a sequence.
+	 */
+	private static int writeSequence(byte[] source, int literalStart, int literalLength, byte[] dest, int destIdx)
+	{
+		if (literalLength >= 0x0F)
+		{
+			dest[destIdx++] = (byte) 0xF0;
+			destIdx = writeLength(dest, destIdx, literalLength - 0x0F);
+		}
+		else
+		{
+			dest[destIdx++] = (byte) (literalLength << 4);
+		}
+		
+		System.arraycopy(source, literalStart, dest, destIdx, literalLength);
+		return destIdx + literalLength;
+	}
+	
+	private static int writeLength(byte[] dest, int destIdx, int length)
+	{
+		int remaining = length;
+		while (remaining >= 0xFF)
+		{
+			dest[destIdx++] = (byte) 0xFF;
+			remaining -= 0xFF;
+		}
+		dest[destIdx++] = (byte) remaining;
+		return destIdx;
+	}
+	
+	protected static class LZ4OutputStream extends FilterOutputStream
+	{
+		private final byte[] buffer;
+		private final byte[] compressed;
+		private final int[] hashTable;
+		private int count;
+		private boolean closed;
+
+		public LZ4OutputStream(OutputStream out, int blockSize)
+		{
+			super(out);
+			
+			this.buffer = new byte[blockSize];
+			this.compressed = new byte[maxCompressedLength(blockSize)];
+			this.hashTable = new int[1 << HASH_LOG];
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			if (count == buffer.length)
+			{
+				writeBlock();
+			}
+			buffer[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			int offset = off;
+			int remaining = len;
+			while (remaining > 0)
+			{
+				if (count == buffer.length)
+				{
+					writeBlock();
+				}
+				
+				int chunk = Math.min(remaining, buffer.length - count);
+				System.arraycopy(b, offset, buffer, count, chunk);
+				count += chunk;
+				offset += chunk;
+				remaining -= chunk;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			writeBlock();
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			if (!closed)
+			{
+				closed = true;
+				try
+				{
+					writeBlock();
+				}
+				finally
+				{
+					out.close();
+				}
+			}
+		}
+		
+		protected void writeBlock() throws IOException
+		{
+			if (count == 0)
+			{
+				return;
+			}
+			
+			int compressedLength = compress(buffer, count, compressed, hashTable);
+			writeVarInt(count);
+			if (compressedLength < count)
+			{
+				writeVarInt(compressedLength);
+				out.write(compressed, 0, compressedLength);
+			}
+			else
+			{
+				writeVarInt(0);
+				out.write(buffer, 0, count);
+			}
+			count = 0;
+		}
+		
+		private void writeVarInt(int value) throws IOException
+		{
+			int remaining = value;
+			while ((remaining & ~0x7F) != 0)
+			{
+				out.write((remaining & 0x7F) | 0x80);
+				remaining >>>= 7;
+			}
+			out.write(remaining);
+		}
+	}
+	
+	protected static class LZ4InputStream extends InputStream
+	{
+		private final InputStream in;
+		private byte[] buffer = new byte[0];
+		private byte[] compressed = new byte[0];
+		private int position;
+		private int count;
+		private boolean eof;
+
+		public LZ4InputStream(InputStream in)
+		{
+			this.in = in;
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			if (position == count && !readBlock())
+			{
+				return -1;
+			}
+			return buffer[position++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException
+		{
+			if (len == 0)
+			{
+				return 0;
+			}
+			
+			if (position == count && !readBlock())
+			{
+				return -1;
+			}
+			
+			int chunk = Math.min(len, count - position);
+			System.arraycopy(buffer, position, b, off, chunk);
+			position += chunk;
+			return chunk;
+		}
+
+		@Override
+		public int available() throws IOException
+		{
+			return count - position;
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			in.close();
+		}
+		
+		protected boolean readBlock() throws IOException
+		{
+			if (eof)
+			{
+				return false;
+			}
+			
+			int first = in.read();
+			if (first < 0)
+			{
+				eof = true;
+				return false;
+			}
+			
+			int length = readVarInt(first);
+			int compressedLength = readVarInt(in.read());
+			if (buffer.length < length)
+			{
+				buffer = new byte[length];
+			}
+			
+			if (compressedLength == 0)
+			{
+				readFully(buffer, length);
+			}
+			else
+			{
+				if (compressed.length < compressedLength)
+				{
+					compressed = new byte[compressedLength];
+				}
+				readFully(compressed, compressedLength);
+				decompress(compressed, compressedLength, buffer, length);
+			}
+			
+			position = 0;
+			count = length;
+			return true;
+		}
+		
+		private int readVarInt(int first) throws IOException
+		{
+			int value = 0;
+			int shift = 0;
+			int b = first;
+			while (true)
+			{
+				if (b < 0)
+				{
+					throw new EOFException();
+				}
+				
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+				{
+					return value;
+				}
+				
+				shift += 7;
+				b = in.read();
+			}
+		}
+		
+		private void readFully(byte[] data, int length) throws IOException
+		{
+			int offset = 0;
+			while (offset < length)
+			{
+				int read = in.read(data, offset, length - offset);
+				if (read < 0)
+				{
+					throw new EOFException();
+				}
+				offset += read;
+			}
+		}
+	}
+}
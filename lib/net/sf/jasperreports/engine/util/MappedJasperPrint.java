@@ -0,0 +1,389 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
+
+/**
+ * Read-only view of a document saved in the {@link JasperPrintBinaryFormat binary format}, 
+ * which reads the pages from the memory-mapped file when they are accessed.
+ * <p>
+ * Only the document header, the element templates and the image renderers are read when the file 
+ * is opened. The list returned by {@link #getPages()} decodes a page on {@link List#get(int)} and 
+ * keeps it softly referenced, so that exporting a page range or showing a page in the viewer only
+ * reads the pages involved. Pages cannot be added to or removed from the document.
+ * <p>
+ * Files that fit in a single mapping are mapped once and the file is closed right away; larger
+ * files are kept open until {@link #close()} and each page is mapped when read.
+ * When serialized, the object is replaced by a regular {@link JasperPrint} containing all pages.
+ * 
+ * @see JRLoader#openJasperPrint(JasperReportsContext, File)
+ */
+public class MappedJasperPrint extends JasperPrint implements Closeable
+{
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+	public static final String EXCEPTION_MESSAGE_KEY_FILE_NOT_INDEXED = "util.mapped.print.file.not.indexed";
+	public static final String EXCEPTION_MESSAGE_KEY_FILE_OPEN_ERROR = "util.mapped.print.file.open.error";
+	public static final String EXCEPTION_MESSAGE_KEY_PAGE_READ_ERROR = "util.mapped.print.page.read.error";
+
+	private final transient MappedPageList mappedPages;
+	
+	private MappedJasperPrint(MappedPageList mappedPages)
+	{
+		super(mappedPages);
+		
+		this.mappedPages = mappedPages;
+	}
+
+	/**
+	 * Determines whether a file contains a document in the binary format, which can be opened
+	 * by {@link #open(JasperReportsContext, File)}.
+	 */
+	public static boolean isIndexed(File file) throws JRException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			if (channel.size() < JasperPrintBinaryFormat.PREAMBLE_SIZE)
+			{
+				return false;
+			}
+			
+			byte[] preamble = readFully(channel, 0, JasperPrintBinaryFormat.PREAMBLE_SIZE);
+			return JasperPrintBinaryFormat.hasSignature(preamble)
+					&& preamble[JasperPrintBinaryFormat.SIGNATURE_SIZE] == JasperPrintBinaryFormat.FORMAT_VERSION;
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_FILE_OPEN_ERROR,
+					new Object[]{file},
+					e);
+		}
+	}
+	
+	/**
+	 * Opens a document saved in the binary format.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param file the file
+	 * @return the document, reading pages from the file on access
+	 * @throws JRException if the file cannot be read or does not contain a binary format document 
+	 */
+	public static MappedJasperPrint open(JasperReportsContext jasperReportsContext, File file) throws JRException
+	{
+		FileChannel channel = null;
+		try
+		{
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			long size = channel.size();
+			if (size < JasperPrintBinaryFormat.PREAMBLE_SIZE + 2 * Long.BYTES)
+			{
+				throw 
+					new JRException(
+						EXCEPTION_MESSAGE_KEY_FILE_NOT_INDEXED,
+						new Object[]{file});
+			}
+			
+			JasperPrintBinaryFormat.checkPreamble(readFully(channel, 0, JasperPrintBinaryFormat.PREAMBLE_SIZE));
+			
+			ByteBuffer mappedFile = null;
+			if (size <= Integer.MAX_VALUE)
+			{
+				// the mapping stays valid after the channel is closed
+				mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+				channel.close();
+				channel = null;
+			}
+			
+			MappedFile mapped = new MappedFile(channel, mappedFile);
+			
+			ByteBuffer trailer = mapped.region(size - 2 * Long.BYTES, 2 * Long.BYTES);
+			long classTableOffset = trailer.getLong();
+			long indexOffset = trailer.getLong();
+			int pageCount = (int) ((size - 2 * Long.BYTES - indexOffset) / Long.BYTES);
+			long[] pageOffsets = new long[pageCount];
+			mapped.region(indexOffset, pageCount * Long.BYTES).asLongBuffer().get(pageOffsets);
+			
+			// the pages can refer to class descriptors written in any block before them
+			JasperPrintBinaryFormat.ClassDescriptorTable classTable = 
+					JasperPrintBinaryFormat.ClassDescriptorTable.read(jasperReportsContext, mapped.block(classTableOffset));
+			
+			JRVirtualizationContext virtualizationContext = new JRVirtualizationContext(jasperReportsContext);
+			JasperPrint header = JasperPrintBinaryFormat.readHeader(
+					JasperPrintBinaryFormat.createInput(mapped.block(JasperPrintBinaryFormat.PREAMBLE_SIZE), 
+							virtualizationContext, classTable));
+			
+			MappedJasperPrint jasperPrint = new MappedJasperPrint(
+					new MappedPageList(mapped, pageOffsets, virtualizationContext, classTable));
+			jasperPrint.copyFrom(header);
+			channel = null;
+			return jasperPrint;
+		}
+		catch (IOException | ClassNotFoundException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_FILE_OPEN_ERROR,
+					new Object[]{file},
+					e);
+		}
+		finally
+		{
+			if (channel != null)
+			{
+				try
+				{
+					channel.close();
+				}
+				catch (IOException e)
+				{
+					//NOP
+				}
+			}
+		}
+	}
+	
+	private static byte[] readFully(FileChannel channel, long position, int length) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining())
+		{
+			if (channel.read(buffer, position + buffer.position()) < 0)
+			{
+				throw new IOException("Unexpected end of file");
+			}
+		}
+		return buffer.array();
+	}
+	
+	/**
+	 * Returns the number of pages that have been read from the file and are still referenced.
+	 */
+	public int getLoadedPageCount()
+	{
+		return mappedPages.getLoadedCount();
+	}
+
+	/**
+	 * Closes the file of documents that are not mapped at once.
+	 * <p>
+	 * Pages that have not been read can no longer be accessed after the file has been closed.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		mappedPages.mapped.close();
+	}
+	
+	protected Object writeReplace()
+	{
+		JasperPrint jasperPrint = new JasperPrint();
+		jasperPrint.copyFrom(this);
+		return jasperPrint;
+	}
+
+	/**
+	 * The document file, mapped at once or per region.
+	 */
+	protected static class MappedFile implements Closeable
+	{
+		private final FileChannel channel;
+		private final ByteBuffer mappedFile;
+		
+		protected MappedFile(FileChannel channel, ByteBuffer mappedFile)
+		{
+			this.channel = channel;
+			this.mappedFile = mappedFile;
+		}
+		
+		public ByteBuffer region(long offset, int length) throws IOException
+		{
+			if (mappedFile == null)
+			{
+				return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+			}
+			
+			ByteBuffer region = mappedFile.duplicate();
+			region.position((int) offset);
+			region.limit((int) offset + length);
+			return region.slice();
+		}
+		
+		public InputStream block(long offset) throws IOException
+		{
+			int length = region(offset, Integer.BYTES).getInt();
+			return new BufferInputStream(region(offset + Integer.BYTES, length));
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			if (channel != null)
+			{
+				channel.close();
+			}
+		}
+	}
+	
+	/**
+	 * Page list that reads pages from the file on access.
+	 */
+	protected static class MappedPageList extends AbstractList<JRPrintPage> implements RandomAccess
+	{
+		private final MappedFile mapped;
+		private final long[] pageOffsets;
+		private final JRVirtualizationContext virtualizationContext;
+		private final JasperPrintBinaryFormat.ClassDescriptorTable classTable;
+		private final AtomicReferenceArray<SoftReference<JRPrintPage>> pages;
+		
+		protected MappedPageList(MappedFile mapped, long[] pageOffsets, JRVirtualizationContext virtualizationContext,
+				JasperPrintBinaryFormat.ClassDescriptorTable classTable)
+		{
+			this.mapped = mapped;
+			this.pageOffsets = pageOffsets;
+			this.virtualizationContext = virtualizationContext;
+			this.classTable = classTable;
+			this.pages = new AtomicReferenceArray<>(pageOffsets.length);
+		}
+
+		@Override
+		public JRPrintPage get(int index)
+		{
+			SoftReference<JRPrintPage> pageRef = pages.get(index);
+			JRPrintPage page = pageRef == null ? null : pageRef.get();
+			if (page == null)
+			{
+				// concurrent readers might read the same page, the last one is kept
+				page = readPage(index);
+				pages.set(index, new SoftReference<>(page));
+			}
+			return page;
+		}
+		
+		protected JRPrintPage readPage(int index)
+		{
+			try
+			{
+				List<JRPrintElement> elements = JasperPrintBinaryFormat.readPageElements(
+						JasperPrintBinaryFormat.createInput(mapped.block(pageOffsets[index]), virtualizationContext, classTable));
+				JRBasePrintPage page = new JRBasePrintPage();
+				page.setElements(elements);
+				return page;
+			}
+			catch (IOException e)
+			{
+				throw 
+					new JRRuntimeException(
+						EXCEPTION_MESSAGE_KEY_PAGE_READ_ERROR,
+						new Object[]{index},
+						e);
+			}
+		}
+
+		@Override
+		public int size()
+		{
+			return pageOffsets.length;
+		}
+		
+		protected int getLoadedCount()
+		{
+			int count = 0;
+			for (int i = 0; i < pages.length(); i++)
+			{
+				SoftReference<JRPrintPage> pageRef = pages.get(i);
+				if (pageRef != null && pageRef.get() != null)
+				{
+					++count;
+				}
+			}
+			return count;
+		}
+	}
+	
+	/**
+	 * Input stream reading the remaining bytes of a buffer.
+	 */
+	protected static class BufferInputStream extends InputStream
+	{
+		private final ByteBuffer buffer;
+		
+		public BufferInputStream(ByteBuffer buffer)
+		{
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read()
+		{
+			return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len)
+		{
+			if (len == 0)
+			{
+				return 0;
+			}
+			if (!buffer.hasRemaining())
+			{
+				return -1;
+			}
+			
+			int count = Math.min(len, buffer.remaining());
+			buffer.get(b, off, count);
+			return count;
+		}
+
+		@Override
+		public int available()
+		{
+			return buffer.remaining();
+		}
+	}
+}
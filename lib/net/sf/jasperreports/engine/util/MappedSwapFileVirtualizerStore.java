@@ -0,0 +1,204 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.fill.VirtualizerStore;
+
+/**
+ * Virtualizer store that serializes objects directly into the blocks of a {@link JRMappedSwapFile} 
+ * and deserializes them directly from the mapped blocks, without intermediate byte arrays.
+ * <p>
+ * Neither the handles map nor the swap file use a global lock, so that several fills sharing 
+ * the store can swap pages concurrently.
+ */
+public class MappedSwapFileVirtualizerStore implements VirtualizerStore
+{
+	private static final Log log = LogFactory.getLog(MappedSwapFileVirtualizerStore.class);
+	
+	private final JRMappedSwapFile swap;
+	private final boolean swapOwner;
+	private final Map<String,JRMappedSwapFile.MappedSwapHandle> handles;
+	private final StreamCompression compression;
+
+	public MappedSwapFileVirtualizerStore(JRMappedSwapFile swap, boolean swapOwner)
+	{
+		this(swap, swapOwner, null);
+	}
+
+	public MappedSwapFileVirtualizerStore(JRMappedSwapFile swap, boolean swapOwner, StreamCompression compression)
+	{
+		this.swap = swap;
+		this.swapOwner = swapOwner;
+		this.handles = new ConcurrentHashMap<>();
+		this.compression = compression;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "MappedSwapFileVirtualizerStore " + swap.toString(); 
+	}
+	
+	protected boolean isStored(JRVirtualizable<?> o)
+	{
+		return handles.containsKey(o.getUID());
+	}
+	
+	@Override
+	public boolean store(JRVirtualizable<?> o, VirtualizationSerializer serializer)
+	{
+		if (isStored(o))
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("object " + o.getUID() + " already stored");
+			}
+			return false;
+		}
+		
+		JRMappedSwapFile.SwapOutputStream swapOut = swap.createOutputStream();
+		try
+		{
+			OutputStream out = compression == null ? swapOut : compression.compressedOutput(swapOut);
+			serializer.writeData(o, out);
+			out.close();
+			swapOut.close();
+			
+			JRMappedSwapFile.MappedSwapHandle handle = swapOut.getHandle();
+			if (log.isTraceEnabled())
+			{
+				log.trace("wrote " + handle.getLength() + " for object " + o.getUID() + " to " + swap);
+			}
+			
+			handles.put(o.getUID(), handle);
+			return true;
+		}
+		catch (IOException e)
+		{
+			swapOut.discard();
+			
+			log.error("Error virtualizing object " + o.getUID() + " to " + swap, e);
+			throw 
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_VIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+	
+	@Override
+	public void retrieve(JRVirtualizable<?> o, boolean remove, VirtualizationSerializer serializer)
+	{
+		JRMappedSwapFile.MappedSwapHandle handle = handles.get(o.getUID());
+		if (handle == null)
+		{
+			log.error("No swap handle found for " + o.getUID() + " in " + this);
+			throw 
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_UNABLE_TO_READ_DATA,
+					(Object[])null);
+		}
+		
+		try
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("reading " + handle.getLength() + " for object " + o.getUID() + " from " + swap);
+			}
+			
+			InputStream rawInput = swap.createInputStream(handle);
+			InputStream input = compression == null ? rawInput : compression.uncompressedInput(rawInput);
+			serializer.readData(o, input);
+			input.close();
+		}
+		catch (IOException e)
+		{
+			log.error("Error reading object data " + o.getUID() + " from " + swap, e);
+			throw 
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_DEVIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+		
+		if (remove && handles.remove(o.getUID(), handle))
+		{
+			// the blocks are only freed after the data has been read from them
+			swap.free(handle);
+		}
+	}
+	
+	@Override
+	public void remove(String objectId)
+	{
+		JRMappedSwapFile.MappedSwapHandle handle = handles.remove(objectId);
+		if (handle == null)
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("object " + objectId + " not found for removal");
+			}
+		}
+		else
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("removing object " + objectId + " from " + swap);
+			}
+			
+			swap.free(handle);
+		}
+	}
+
+
+	/**
+	 * Disposes the swap file used if this store owns it.
+	 * @see #MappedSwapFileVirtualizerStore(JRMappedSwapFile, boolean)
+	 */
+	@Override
+	public void dispose()
+	{
+		handles.clear();
+		if (swapOwner)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("disposing " + swap);
+			}
+			
+			swap.dispose();
+		}
+	}
+}
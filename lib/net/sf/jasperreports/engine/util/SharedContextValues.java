@@ -0,0 +1,95 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.util.function.Function;
+
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+
+
+/**
+ * Stores objects, such as caches, that are shared by all the operations using a {@link JasperReportsContext}.
+ * <p>
+ * Fills create a {@link LocalJasperReportsContext} on top of the context they were started with, which is
+ * discarded when the fill ends. Shared values are therefore stored in the nearest context that is not 
+ * a local context, so that they are found again by the following fills.
+ */
+public final class SharedContextValues
+{
+
+	private SharedContextValues()
+	{
+	}
+
+
+	/**
+	 * Returns the context in which values shared by the operations using a context are stored.
+	 */
+	@SuppressWarnings("deprecation")
+	public static JasperReportsContext getSharedContext(JasperReportsContext jasperReportsContext)
+	{
+		JasperReportsContext context = jasperReportsContext;
+		while (context instanceof LocalJasperReportsContext 
+				&& ((SimpleJasperReportsContext) context).getParent() != null)
+		{
+			context = ((SimpleJasperReportsContext) context).getParent();
+		}
+		return context;
+	}
+
+
+	/**
+	 * Returns the value stored under a key in the {@link #getSharedContext(JasperReportsContext) shared context}, 
+	 * creating and storing it on the first call.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param key the key of the value
+	 * @param factory creates the value, from the shared context
+	 */
+	public static <T> T getValue(JasperReportsContext jasperReportsContext, String key, 
+			Function<JasperReportsContext, T> factory)
+	{
+		// values are read from the shared context only, a context with a parent would otherwise
+		// find the value created for its parent and ignore its own settings
+		JasperReportsContext sharedContext = getSharedContext(jasperReportsContext);
+		@SuppressWarnings("unchecked")
+		T value = (T) sharedContext.getOwnValue(key);
+		if (value == null)
+		{
+			synchronized (SharedContextValues.class)
+			{
+				@SuppressWarnings("unchecked")
+				T sharedValue = (T) sharedContext.getOwnValue(key);
+				value = sharedValue;
+				if (value == null)
+				{
+					value = factory.apply(sharedContext);
+					sharedContext.setValue(key, value);
+				}
+			}
+		}
+		return value;
+	}
+}
@@ -40,6 +40,15 @@ public class SortedIntList
 		this.values = new int[64];
 	}
 
+	/**
+	 * Creates a list containing the values of an array that is sorted and does not contain duplicates.
+	 */
+	public SortedIntList(int[] sortedValues)
+	{
+		this.size = sortedValues.length;
+		this.values = Arrays.copyOf(sortedValues, Math.max(sortedValues.length, 64));
+	}
+
 	public int size()
 	{
 		return size;
@@ -102,6 +111,11 @@ public class SortedIntList
 		return true;
 	}
 	
+	public int[] toArray()
+	{
+		return Arrays.copyOf(values, size);
+	}
+	
 	public int indexOf(int value)
 	{
 		int idx = Arrays.binarySearch(values, 0, size, value);
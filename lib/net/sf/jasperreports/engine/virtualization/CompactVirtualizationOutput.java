@@ -0,0 +1,66 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.virtualization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
+import net.sf.jasperreports.engine.util.LocalVirtualizationSerializer;
+
+/**
+ * Virtualization output that writes short strings and UUIDs as ids in the
+ * {@link JRVirtualizationContext#getDictionary() dictionary} of the virtualization context.
+ * 
+ * @see CompactVirtualizationInput
+ */
+public class CompactVirtualizationOutput extends LocalVirtualizationOutput
+{
+
+	private final VirtualizationDictionary dictionary;
+
+	public CompactVirtualizationOutput(OutputStream out, LocalVirtualizationSerializer serializer,
+			JRVirtualizationContext virtualizationContext) throws IOException
+	{
+		super(out, serializer, virtualizationContext);
+		
+		this.dictionary = virtualizationContext.getDictionary();
+	}
+
+	@Override
+	public void writeJRObject(Object o, Boolean lookupReference, Boolean storeReference) throws IOException
+	{
+		int id = o == null ? VirtualizationDictionary.NOT_FOUND : dictionary.getId(o);
+		if (id == VirtualizationDictionary.NOT_FOUND)
+		{
+			super.writeJRObject(o, lookupReference, storeReference);
+		}
+		else
+		{
+			writeByte(SerializationConstants.OBJECT_DICTIONARY);
+			writeIntCompressed(id);
+		}
+	}
+
+}
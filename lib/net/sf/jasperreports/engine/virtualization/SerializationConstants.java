@@ -31,6 +31,7 @@ public interface SerializationConstants
 
 	int OBJECT_NULL = 0x01;
 	int OBJECT_ARBITRARY = 0x02;
+	int OBJECT_DICTIONARY = 0x03;
 
 	int OBJECT_REF_MASK = 0x80;
 	
@@ -0,0 +1,149 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.virtualization;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of frequently repeating values shared by all the virtualized objects of a
+ * {@link net.sf.jasperreports.engine.fill.JRVirtualizationContext virtualization context}.
+ * <p>
+ * Short strings (such as template ids, property names and repeating text values) and UUIDs are assigned
+ * a stable numeric id the first time they are looked up, so that
+ * {@link CompactVirtualizationOutput} can write them as a compressed int instead of the full value.
+ * Ids are never reassigned; once the dictionary is full, new values are no longer added and
+ * are written inline as before.
+ */
+public class VirtualizationDictionary
+{
+	public static final int DEFAULT_MAX_ENTRIES = 1 << 16;
+	public static final int DEFAULT_MAX_STRING_LENGTH = 64;
+	
+	private static final int INITIAL_CAPACITY = 256;
+	
+	public static final int NOT_FOUND = -1;
+
+	private final int maxEntries;
+	private final int maxStringLength;
+	
+	private final ConcurrentHashMap<Object, Integer> ids;
+	// replaced or reassigned after each addition so that readers see the values
+	private volatile Object[] values;
+	private int size;
+
+	public VirtualizationDictionary()
+	{
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_STRING_LENGTH);
+	}
+
+	public VirtualizationDictionary(int maxEntries, int maxStringLength)
+	{
+		this.maxEntries = maxEntries;
+		this.maxStringLength = maxStringLength;
+		this.ids = new ConcurrentHashMap<>(INITIAL_CAPACITY, 0.75f, 1);
+		this.values = new Object[Math.min(INITIAL_CAPACITY, maxEntries)];
+	}
+
+	/**
+	 * Decides whether a value can be stored in the dictionary.
+	 * 
+	 * @param value the value
+	 * @return whether the value is a short string or a UUID
+	 */
+	public boolean accepts(Object value)
+	{
+		return (value instanceof String && ((String) value).length() <= maxStringLength)
+				|| value instanceof UUID;
+	}
+
+	/**
+	 * Returns the id of a value, adding the value to the dictionary if not already present.
+	 * 
+	 * @param value the value
+	 * @return the id of the value, or {@link #NOT_FOUND} if the value is not accepted
+	 * or the dictionary is full
+	 */
+	public int getId(Object value)
+	{
+		if (!accepts(value))
+		{
+			return NOT_FOUND;
+		}
+		
+		Integer id = ids.get(value);
+		if (id != null)
+		{
+			return id;
+		}
+		
+		return add(value);
+	}
+	
+	protected synchronized int add(Object value)
+	{
+		Integer id = ids.get(value);
+		if (id != null)
+		{
+			return id;
+		}
+		
+		if (size >= maxEntries)
+		{
+			return NOT_FOUND;
+		}
+		
+		Object[] currentValues = values;
+		if (size == currentValues.length)
+		{
+			Object[] newValues = new Object[Math.min(currentValues.length * 2, maxEntries)];
+			System.arraycopy(currentValues, 0, newValues, 0, size);
+			currentValues = newValues;
+		}
+		
+		int valueId = size;
+		currentValues[valueId] = value;
+		values = currentValues;
+		ids.put(value, valueId);
+		++size;
+		return valueId;
+	}
+
+	/**
+	 * Returns the value having a specified id.
+	 * 
+	 * @param id the value id, as returned by {@link #getId(Object)}
+	 * @return the value
+	 */
+	public Object getValue(int id)
+	{
+		return values[id];
+	}
+
+	public int size()
+	{
+		return ids.size();
+	}
+
+}
@@ -76,6 +76,11 @@ public class VirtualizationInput extends ObjectInputStream
 	public Object readJRObject(Boolean storeReference) throws IOException
 	{
 		int type = readUnsignedByte();
+		return readJRObject(type, storeReference);
+	}
+	
+	protected Object readJRObject(int type, Boolean storeReference) throws IOException
+	{
 		if (type == SerializationConstants.OBJECT_NULL)
 		{
 			return null;
@@ -47,12 +47,15 @@ import org.apache.commons.digester.Digester;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
 import net.sf.jasperreports.engine.DefaultJasperReportsContext;
 import net.sf.jasperreports.engine.JRDataset;
 import net.sf.jasperreports.engine.JRDatasetRun;
 import net.sf.jasperreports.engine.JRElementDataset;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRGroup;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JRVariable;
 import net.sf.jasperreports.engine.JasperReportsContext;
@@ -68,6 +71,7 @@ import net.sf.jasperreports.engine.design.JasperDesign;
 import net.sf.jasperreports.engine.type.DatasetResetTypeEnum;
 import net.sf.jasperreports.engine.type.IncrementTypeEnum;
 import net.sf.jasperreports.engine.type.ResetTypeEnum;
+import net.sf.jasperreports.properties.PropertyConstants;
 
 
 /**
@@ -86,6 +90,25 @@ public class JRXmlLoader
 	public static final String EXCEPTION_MESSAGE_KEY_UNKNOWN_SUBDATASET = "xml.loader.unknown.subdataset";
 	public static final String EXCEPTION_MESSAGE_KEY_SUBDATASET_NOT_FOUND = "xml.loader.subdataset.not.found";
 
+	/**
+	 * Property that selects the loader used for JRXML reports.
+	 * <p>
+	 * The default <code>digester</code> loader parses reports with the digester rules of
+	 * {@link JRXmlDigesterFactory}. The <code>stax</code> loader uses the streaming
+	 * {@link JRXmlStaxLoader}, which does not validate reports unless
+	 * {@link JRXmlStaxLoader#PROPERTY_VALIDATION} is set.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = JRXmlLoader.XML_LOADER_DIGESTER,
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4
+			)
+	public static final String PROPERTY_XML_LOADER = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.xml.loader";
+
+	public static final String XML_LOADER_DIGESTER = "digester";
+	public static final String XML_LOADER_STAX = "stax";
+
 	/**
 	 *
 	 */
@@ -241,6 +264,12 @@ public class JRXmlLoader
 	 */
 	public static JasperDesign load(JasperReportsContext jasperReportsContext, InputStream is) throws JRException
 	{
+		String loader = JRPropertiesUtil.getInstance(jasperReportsContext).getProperty(PROPERTY_XML_LOADER);
+		if (XML_LOADER_STAX.equals(loader))
+		{
+			return JRXmlStaxLoader.load(jasperReportsContext, is);
+		}
+
 		JasperDesign jasperDesign = null;
 
 		JRXmlLoader xmlLoader = null;
@@ -289,6 +318,15 @@ public class JRXmlLoader
 			digester.clear();
 		}
 		
+		return resolveReferences();
+	}
+
+	/**
+	 * Reports the errors collected while parsing and resolves the group references
+	 * of the loaded design.
+	 */
+	protected JasperDesign resolveReferences() throws JRException
+	{
 		if (errors.size() > 0)
 		{
 			Exception e = errors.get(0);
@@ -0,0 +1,1301 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.beanutils.MethodUtils;
+import org.apache.commons.digester.Digester;
+import org.apache.commons.digester.ObjectCreationFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParagraph;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.TabStop;
+import net.sf.jasperreports.engine.design.DesignDatasetPropertyExpression;
+import net.sf.jasperreports.engine.design.DesignExpressionReturnValue;
+import net.sf.jasperreports.engine.design.JRDesignBand;
+import net.sf.jasperreports.engine.design.JRDesignConditionalStyle;
+import net.sf.jasperreports.engine.design.JRDesignDataset;
+import net.sf.jasperreports.engine.design.JRDesignElement;
+import net.sf.jasperreports.engine.design.JRDesignElementGroup;
+import net.sf.jasperreports.engine.design.JRDesignExpression;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.design.JRDesignFrame;
+import net.sf.jasperreports.engine.design.JRDesignGroup;
+import net.sf.jasperreports.engine.design.JRDesignHyperlinkParameter;
+import net.sf.jasperreports.engine.design.JRDesignImage;
+import net.sf.jasperreports.engine.design.JRDesignParameter;
+import net.sf.jasperreports.engine.design.JRDesignPropertyExpression;
+import net.sf.jasperreports.engine.design.JRDesignQuery;
+import net.sf.jasperreports.engine.design.JRDesignReportTemplate;
+import net.sf.jasperreports.engine.design.JRDesignScriptlet;
+import net.sf.jasperreports.engine.design.JRDesignSection;
+import net.sf.jasperreports.engine.design.JRDesignSortField;
+import net.sf.jasperreports.engine.design.JRDesignStaticText;
+import net.sf.jasperreports.engine.design.JRDesignStyle;
+import net.sf.jasperreports.engine.design.JRDesignSubreport;
+import net.sf.jasperreports.engine.design.JRDesignSubreportParameter;
+import net.sf.jasperreports.engine.design.JRDesignSubreportReturnValue;
+import net.sf.jasperreports.engine.design.JRDesignTextField;
+import net.sf.jasperreports.engine.design.JRDesignVariable;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.type.BorderSplitType;
+import net.sf.jasperreports.engine.type.EnumUtil;
+import net.sf.jasperreports.engine.type.NamedEnum;
+import net.sf.jasperreports.engine.type.OverflowType;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Streaming JRXML loader that reads the report with a StAX parser and builds the
+ * {@link net.sf.jasperreports.engine.design.JasperDesign JasperDesign} directly,
+ * without matching every element against the digester rules.
+ * <p>
+ * The loader handles the report structure, datasets, styles, bands and the basic
+ * report elements, and creates the design objects with the same factories as the
+ * digester rules in {@link JRXmlDigesterFactory}, so that the resulting design is the
+ * same as the one produced by {@link JRXmlLoader}. Reports that use content the
+ * loader does not handle, such as charts, crosstabs, components, report parts or
+ * a DTD, are loaded by {@link JRXmlLoader} instead, unless the fallback is disabled with
+ * {@link #setDigesterFallback(boolean)}. Malformed XML and any other error fail the load.
+ * </p>
+ * <p>
+ * The loader is used by {@link JRXmlLoader#load(JasperReportsContext, InputStream)}
+ * when {@link JRXmlLoader#PROPERTY_XML_LOADER} is set to <code>stax</code>.
+ * </p>
+ *
+ * @see #PROPERTY_VALIDATION
+ */
+public class JRXmlStaxLoader
+{
+
+	private static final Log log = LogFactory.getLog(JRXmlStaxLoader.class);
+
+	public static final String EXCEPTION_MESSAGE_KEY_UNSUPPORTED_CONTENT = "xml.stax.loader.unsupported.content";
+
+	/**
+	 * Whether the StAX loader should validate the report against the JRXML schemas
+	 * before loading it.
+	 * <p>
+	 * Validation is done with the report SAX parser in a separate pass over the report.
+	 * Defaults to <code>false</code>.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_VALIDATION = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.xml.stax.validation";
+
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depStringExprFactoryClass = JRExpressionFactory.StringExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depObjectExprFactoryClass = JRExpressionFactory.ObjectExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depBooleanExprFactoryClass = JRExpressionFactory.BooleanExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depIntegerExprFactoryClass = JRExpressionFactory.IntegerExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depMapExprFactoryClass = JRExpressionFactory.MapExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depConnectionExprFactoryClass = JRExpressionFactory.ConnectionExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depDataSourceExprFactoryClass = JRExpressionFactory.DataSourceExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> lcDepStringExprFactoryClass = JRStringExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depDefaultValueExprFactoryClass = JRDefaultValueExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depVariableExprFactoryClass = JRVariableExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depInitialValueExprFactoryClass = JRInitialValueExpressionFactory.class;
+	@SuppressWarnings("deprecation")
+	private final static Class<? extends ObjectCreationFactory> depSubreportExprFactoryClass = JRSubreportExpressionFactory.class;
+
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+	private static XMLInputFactory createInputFactory()
+	{
+		XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+		inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+		inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return inputFactory;
+	}
+
+	private final JasperReportsContext jasperReportsContext;
+
+	private final boolean validating;
+
+	private boolean digesterFallback = true;
+
+	private JRXmlLoader xmlLoader;
+
+	/**
+	 * The object stack seen by the factories, which peek at the loader, the design
+	 * and the parent object of the element they create.
+	 */
+	private Digester stack;
+
+	private final Map<Class<?>, ObjectCreationFactory> factories = new HashMap<>();
+
+	private XMLStreamReader reader;
+
+	private final StreamAttributes attributes = new StreamAttributes();
+
+	/**
+	 *
+	 */
+	public JRXmlStaxLoader(JasperReportsContext jasperReportsContext)
+	{
+		this.jasperReportsContext = jasperReportsContext;
+		this.validating = JRPropertiesUtil.getInstance(jasperReportsContext).getBooleanProperty(PROPERTY_VALIDATION);
+	}
+
+	/**
+	 * Sets whether reports having content that the loader does not handle are loaded with the digester,
+	 * which is the default. When disabled, such reports fail with a {@link JRException}, which allows
+	 * checking that a report is loaded by this loader.
+	 */
+	public void setDigesterFallback(boolean digesterFallback)
+	{
+		this.digesterFallback = digesterFallback;
+	}
+
+	/**
+	 *
+	 */
+	public static JasperDesign load(JasperReportsContext jasperReportsContext, InputStream is) throws JRException
+	{
+		return new JRXmlStaxLoader(jasperReportsContext).loadXML(JRLoader.loadBytes(is));
+	}
+
+	/**
+	 *
+	 */
+	public JasperDesign loadXML(byte[] data) throws JRException
+	{
+		if (validating)
+		{
+			validate(data);
+		}
+
+		xmlLoader = new JRXmlLoader(jasperReportsContext, null);
+		stack = new Digester();
+		try
+		{
+			reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(data));
+			try
+			{
+				stack.push(xmlLoader);
+				parseReport();
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+		catch (UnsupportedContentException e)
+		{
+			if (!digesterFallback)
+			{
+				throw 
+					new JRException(
+						EXCEPTION_MESSAGE_KEY_UNSUPPORTED_CONTENT,
+						new Object[]{e.getMessage()});
+			}
+			if (log.isDebugEnabled())
+			{
+				log.debug("Loading report with the digester: " + e.getMessage());
+			}
+			return loadWithDigester(data);
+		}
+		catch (XMLStreamException e)
+		{
+			// malformed XML, reported like the SAX parse errors of the digester
+			throw new JRException(e);
+		}
+		catch (JRException | RuntimeException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			throw new JRException(e);
+		}
+		finally
+		{
+			stack.clear();
+			reader = null;
+		}
+
+		return xmlLoader.resolveReferences();
+	}
+
+	protected JasperDesign loadWithDigester(byte[] data) throws JRException
+	{
+		JRXmlLoader digesterLoader;
+		try
+		{
+			digesterLoader = new JRXmlLoader(jasperReportsContext, JRXmlDigesterFactory.createDigester(jasperReportsContext));
+		}
+		catch (Exception e)
+		{
+			throw new JRException(e);
+		}
+		return digesterLoader.loadXML(new ByteArrayInputStream(data));
+	}
+
+	protected void validate(byte[] data) throws JRException
+	{
+		SimpleJasperReportsContext validatingContext = new SimpleJasperReportsContext(jasperReportsContext);
+		validatingContext.setProperty(JRReportSaxParserFactory.COMPILER_XML_VALIDATION, Boolean.TRUE.toString());
+		try
+		{
+			XMLReader xmlReader = JRXmlDigesterFactory.createParser(validatingContext).getXMLReader();
+			DefaultHandler handler = new DefaultHandler()
+			{
+				@Override
+				public void error(SAXParseException e) throws SAXException
+				{
+					throw e;
+				}
+			};
+			xmlReader.setContentHandler(handler);
+			xmlReader.setErrorHandler(handler);
+			xmlReader.parse(new InputSource(new ByteArrayInputStream(data)));
+		}
+		catch (Exception e)
+		{
+			throw new JRException(e);
+		}
+	}
+
+	protected void parseReport() throws Exception
+	{
+		while (true)
+		{
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT)
+			{
+				break;
+			}
+			if (event == XMLStreamConstants.DTD || event == XMLStreamConstants.END_DOCUMENT)
+			{
+				throw unsupported();
+			}
+		}
+		checkNamespace();
+		if (!JRXmlConstants.ELEMENT_jasperReport.equals(reader.getLocalName()))
+		{
+			throw unsupported();
+		}
+
+		JasperDesign design = (JasperDesign) push(JasperDesignFactory.class);
+		JRDesignDataset dataset = design.getMainDesignDataset();
+		while (nextChild())
+		{
+			JRDesignBand band;
+			switch (reader.getLocalName())
+			{
+				case "import" :
+					String value = attributes.getValue(JRXmlConstants.ATTRIBUTE_value);
+					readText();
+					if (value != null)
+					{
+						design.addImport(value);
+					}
+					break;
+				case "template" :
+					JRDesignReportTemplate template = new JRDesignReportTemplate();
+					template.setSourceExpression(parseExpression(lcDepStringExprFactoryClass));
+					design.addTemplate(template);
+					break;
+				case "reportFont" :
+				case "style" :
+					design.addStyle(parseStyle(JRStyleFactory.class));
+					break;
+				case "subDataset" :
+					design.addDataset(parseSubDataset());
+					break;
+				case "background" :
+					band = parseBandContainer();
+					if (band != null)
+					{
+						design.setBackground(band);
+					}
+					break;
+				case "title" :
+					band = parseBandContainer();
+					if (band != null)
+					{
+						design.setTitle(band);
+					}
+					break;
+				case "pageHeader" :
+					band = parseBandContainer();
+					if (band != null)
+					{
+						design.setPageHeader(band);
+					}
+					break;
+				case "columnHeader" :
+					band = parseBandContainer();
+					if (band != null)
+					{
+						design.setColumnHeader(band);
+					}
+					break;
+				case "detail" :
+					parseSection(JRSectionFactory.DetailSectionFactory.class);
+					break;
+				case "columnFooter" :
+					band = parseBandContainer();
+					if (band != null)
+					{
+						design.setColumnFooter(band);
+					}
+					break;
+				case "pageFooter" :
+					band = parseBandContainer();
+					if (band != null)
+					{
+						design.setPageFooter(band);
+					}
+					break;
+				case "lastPageFooter" :
+					band = parseBandContainer();
+					if (band != null)
+					{
+						design.setLastPageFooter(band);
+					}
+					break;
+				case "summary" :
+					band = parseBandContainer();
+					if (band != null)
+					{
+						design.setSummary(band);
+					}
+					break;
+				case "noData" :
+					band = parseBandContainer();
+					if (band != null)
+					{
+						design.setNoData(band);
+					}
+					break;
+				default :
+					if (!parseDatasetChild(dataset, true))
+					{
+						throw unsupported();
+					}
+			}
+		}
+		stack.pop();
+
+		xmlLoader.setJasperDesign(design);
+	}
+
+	protected JRDesignDataset parseSubDataset() throws Exception
+	{
+		JRDesignDataset dataset = (JRDesignDataset) push(JRDatasetFactory.class);
+		while (nextChild())
+		{
+			if (!parseDatasetChild(dataset, false))
+			{
+				throw unsupported();
+			}
+		}
+		stack.pop();
+		return dataset;
+	}
+
+	/**
+	 * Parses an element shared by the report and the subdatasets; the main dataset
+	 * methods of the report design delegate to its main dataset.
+	 */
+	protected boolean parseDatasetChild(JRDesignDataset dataset, boolean mainDataset) throws Exception
+	{
+		switch (reader.getLocalName())
+		{
+			case "property" :
+				parseProperty();
+				break;
+			case "propertyExpression" :
+				DesignDatasetPropertyExpression propertyExpression = (DesignDatasetPropertyExpression) create(DatasetPropertyExpressionFactory.class);
+				propertyExpression.setValueExpression(parseExpression(depStringExprFactoryClass));
+				dataset.addPropertyExpression(propertyExpression);
+				break;
+			case "scriptlet" :
+				JRDesignScriptlet scriptlet = (JRDesignScriptlet) push(JRScriptletFactory.class);
+				while (nextChild())
+				{
+					if (!"scriptletDescription".equals(reader.getLocalName()))
+					{
+						throw unsupported();
+					}
+					scriptlet.setDescription(readText().trim());
+				}
+				stack.pop();
+				dataset.addScriptlet(scriptlet);
+				break;
+			case "parameter" :
+				dataset.addParameter(parseParameter());
+				break;
+			case "queryString" :
+				JRDesignQuery query = (JRDesignQuery) create(JRQueryFactory.class);
+				query.setText(readText().trim());
+				dataset.setQuery(query);
+				break;
+			case "field" :
+				dataset.addField(parseField());
+				break;
+			case "sortField" :
+				JRDesignSortField sortField = (JRDesignSortField) create(JRSortFieldFactory.class);
+				readText();
+				dataset.addSortField(sortField);
+				break;
+			case "variable" :
+				dataset.addVariable(parseVariable());
+				break;
+			case "filterExpression" :
+				dataset.setFilterExpression(parseExpression(depBooleanExprFactoryClass));
+				break;
+			case "group" :
+				dataset.addGroup(parseGroup(mainDataset));
+				break;
+			default :
+				return false;
+		}
+		return true;
+	}
+
+	protected JRDesignParameter parseParameter() throws Exception
+	{
+		JRDesignParameter parameter = (JRDesignParameter) push(JRParameterFactory.class);
+		while (nextChild())
+		{
+			switch (reader.getLocalName())
+			{
+				case "property" :
+					parseProperty();
+					break;
+				case "parameterDescription" :
+					parameter.setDescription(readText().trim());
+					break;
+				case "defaultValueExpression" :
+					parameter.setDefaultValueExpression(parseExpression(depDefaultValueExprFactoryClass));
+					break;
+				default :
+					throw unsupported();
+			}
+		}
+		stack.pop();
+		return parameter;
+	}
+
+	protected JRDesignField parseField() throws Exception
+	{
+		JRDesignField field = (JRDesignField) push(JRFieldFactory.class);
+		while (nextChild())
+		{
+			switch (reader.getLocalName())
+			{
+				case "property" :
+					parseProperty();
+					break;
+				case "propertyExpression" :
+					field.addPropertyExpression(parsePropertyExpression());
+					break;
+				case "fieldDescription" :
+					field.setDescription(readText().trim());
+					break;
+				default :
+					throw unsupported();
+			}
+		}
+		stack.pop();
+		return field;
+	}
+
+	protected JRDesignVariable parseVariable() throws Exception
+	{
+		JRDesignVariable variable = (JRDesignVariable) push(JRVariableFactory.class);
+		while (nextChild())
+		{
+			switch (reader.getLocalName())
+			{
+				case "variableDescription" :
+					variable.setDescription(readText().trim());
+					break;
+				case "variableExpression" :
+					variable.setExpression(parseExpression(depVariableExprFactoryClass));
+					break;
+				case "initialValueExpression" :
+					variable.setInitialValueExpression(parseExpression(depInitialValueExprFactoryClass));
+					break;
+				default :
+					throw unsupported();
+			}
+		}
+		stack.pop();
+		return variable;
+	}
+
+	protected JRDesignGroup parseGroup(boolean mainDataset) throws Exception
+	{
+		JRDesignGroup group = (JRDesignGroup) push(JRGroupFactory.class);
+		while (nextChild())
+		{
+			switch (reader.getLocalName())
+			{
+				case "groupExpression" :
+					group.setExpression(parseExpression(depObjectExprFactoryClass));
+					break;
+				case "groupHeader" :
+					if (!mainDataset)
+					{
+						throw unsupported();
+					}
+					parseSection(JRSectionFactory.GroupHeaderSectionFactory.class);
+					break;
+				case "groupFooter" :
+					if (!mainDataset)
+					{
+						throw unsupported();
+					}
+					parseSection(JRSectionFactory.GroupFooterSectionFactory.class);
+					break;
+				default :
+					throw unsupported();
+			}
+		}
+		stack.pop();
+		return group;
+	}
+
+	protected JRStyle parseStyle(Class<? extends ObjectCreationFactory> factoryClass) throws Exception
+	{
+		JRStyle style = (JRStyle) push(factoryClass);
+		while (nextChild())
+		{
+			if ("conditionalStyle".equals(reader.getLocalName()) && style instanceof JRDesignStyle)
+			{
+				parseConditionalStyle();
+			}
+			else if (!parseStyleChild())
+			{
+				throw unsupported();
+			}
+		}
+		stack.pop();
+		return style;
+	}
+
+	protected void parseConditionalStyle() throws Exception
+	{
+		JRDesignConditionalStyle conditionalStyle = (JRDesignConditionalStyle) push(JRConditionalStyleFactory.class);
+		while (nextChild())
+		{
+			switch (reader.getLocalName())
+			{
+				case "conditionExpression" :
+					conditionalStyle.setConditionExpression(parseExpression(depBooleanExprFactoryClass));
+					break;
+				case "style" :
+					parseStyle(JRConditionalStyleFillerFactory.class);
+					break;
+				default :
+					throw unsupported();
+			}
+		}
+		stack.pop();
+	}
+
+	protected boolean parseStyleChild() throws Exception
+	{
+		switch (reader.getLocalName())
+		{
+			case "pen" :
+				create(JRPenFactory.Style.class);
+				readText();
+				break;
+			case "box" :
+				parseBox();
+				break;
+			case "paragraph" :
+				parseParagraph();
+				break;
+			default :
+				return false;
+		}
+		return true;
+	}
+
+	protected void parseSection(Class<? extends ObjectCreationFactory> factoryClass) throws Exception
+	{
+		JRDesignSection section = (JRDesignSection) push(factoryClass);
+		while (nextChild())
+		{
+			if (!"band".equals(reader.getLocalName()))
+			{
+				throw unsupported();
+			}
+			section.addBand(parseBand());
+		}
+		stack.pop();
+	}
+
+	protected JRDesignBand parseBandContainer() throws Exception
+	{
+		JRDesignBand band = null;
+		while (nextChild())
+		{
+			if (!"band".equals(reader.getLocalName()))
+			{
+				throw unsupported();
+			}
+			band = parseBand();
+		}
+		return band;
+	}
+
+	protected JRDesignBand parseBand() throws Exception
+	{
+		JRDesignBand band = (JRDesignBand) push(JRBandFactory.class);
+		while (nextChild())
+		{
+			switch (reader.getLocalName())
+			{
+				case "property" :
+					parseProperty();
+					break;
+				case "printWhenExpression" :
+					band.setPrintWhenExpression(parseExpression(depBooleanExprFactoryClass));
+					break;
+				case "returnValue" :
+					DesignExpressionReturnValue returnValue = (DesignExpressionReturnValue) push(ExpressionReturnValueFactory.class);
+					while (nextChild())
+					{
+						if (!"expression".equals(reader.getLocalName()))
+						{
+							throw unsupported();
+						}
+						returnValue.setExpression(parseExpression(depObjectExprFactoryClass));
+					}
+					stack.pop();
+					band.addReturnValue(returnValue);
+					break;
+				default :
+					if (!parseElement(band))
+					{
+						throw unsupported();
+					}
+			}
+		}
+		stack.pop();
+		return band;
+	}
+
+	/**
+	 * Parses a report element or an element group into a band, an element group or a frame.
+	 */
+	protected boolean parseElement(Object container) throws Exception
+	{
+		JRDesignElement element;
+		switch (reader.getLocalName())
+		{
+			case "break" :
+				element = (JRDesignElement) push(JRBreakFactory.class);
+				break;
+			case "line" :
+				element = (JRDesignElement) push(JRLineFactory.class);
+				break;
+			case "rectangle" :
+				element = (JRDesignElement) push(JRRectangleFactory.class);
+				break;
+			case "ellipse" :
+				element = (JRDesignElement) push(JREllipseFactory.class);
+				break;
+			case "image" :
+				element = (JRDesignElement) push(JRImageFactory.class);
+				break;
+			case "staticText" :
+				element = (JRDesignElement) push(JRStaticTextFactory.class);
+				break;
+			case "textField" :
+				element = (JRDesignElement) push(JRTextFieldFactory.class);
+				break;
+			case "subreport" :
+				element = (JRDesignElement) push(JRSubreportFactory.class);
+				OverflowType overflowType = constantAttribute(JRXmlConstants.ATTRIBUTE_overflowType, OverflowType.values());
+				if (overflowType != null)
+				{
+					((JRDesignSubreport) element).setOverflowType(overflowType);
+				}
+				break;
+			case "frame" :
+				element = (JRDesignElement) push(JRFrameFactory.class);
+				BorderSplitType borderSplitType = constantAttribute(JRXmlConstants.ATTRIBUTE_borderSplitType, BorderSplitType.values());
+				if (borderSplitType != null)
+				{
+					((JRDesignFrame) element).setBorderSplitType(borderSplitType);
+				}
+				break;
+			case "elementGroup" :
+				JRDesignElementGroup elementGroup = (JRDesignElementGroup) push(JRElementGroupFactory.class);
+				while (nextChild())
+				{
+					if (!parseElement(elementGroup))
+					{
+						throw unsupported();
+					}
+				}
+				stack.pop();
+				if (container instanceof JRDesignFrame)
+				{
+					((JRDesignFrame) container).addElementGroup(elementGroup);
+				}
+				else
+				{
+					((JRDesignElementGroup) container).addElementGroup(elementGroup);
+				}
+				return true;
+			default :
+				return false;
+		}
+
+		while (nextChild())
+		{
+			if (!parseElementChild(element))
+			{
+				throw unsupported();
+			}
+		}
+		stack.pop();
+
+		if (container instanceof JRDesignFrame)
+		{
+			((JRDesignFrame) container).addElement(element);
+		}
+		else
+		{
+			((JRDesignElementGroup) container).addElement(element);
+		}
+		return true;
+	}
+
+	protected boolean parseElementChild(JRDesignElement element) throws Exception
+	{
+		String name = reader.getLocalName();
+		switch (name)
+		{
+			case "reportElement" :
+				parseReportElement(element);
+				break;
+			case "box" :
+				parseBox();
+				break;
+			case "graphicElement" :
+				push(JRGraphicElementFactory.class);
+				while (nextChild())
+				{
+					if (!"pen".equals(reader.getLocalName()))
+					{
+						throw unsupported();
+					}
+					create(JRPenFactory.class);
+					readText();
+				}
+				stack.pop();
+				break;
+			case "textElement" :
+				push(JRTextElementFactory.class);
+				while (nextChild())
+				{
+					switch (reader.getLocalName())
+					{
+						case "font" :
+							create(JRFontFactory.TextElementFontFactory.class);
+							readText();
+							break;
+						case "paragraph" :
+							parseParagraph();
+							break;
+						default :
+							throw unsupported();
+					}
+				}
+				stack.pop();
+				break;
+			case "text" :
+				if (!(element instanceof JRDesignStaticText))
+				{
+					throw unsupported();
+				}
+				// the static text is not trimmed
+				((JRDesignStaticText) element).setText(readText());
+				break;
+			case "textFieldExpression" :
+				if (!(element instanceof JRDesignTextField))
+				{
+					throw unsupported();
+				}
+				((JRDesignTextField) element).setExpression(parseExpression(lcDepStringExprFactoryClass));
+				break;
+			case "patternExpression" :
+				if (!(element instanceof JRDesignTextField))
+				{
+					throw unsupported();
+				}
+				((JRDesignTextField) element).setPatternExpression(parseExpression(JRExpressionFactory.class));
+				break;
+			case "imageExpression" :
+				if (!(element instanceof JRDesignImage))
+				{
+					throw unsupported();
+				}
+				((JRDesignImage) element).setExpression(parseExpression(lcDepStringExprFactoryClass));
+				break;
+			case "anchorNameExpression" :
+			case "bookmarkLevelExpression" :
+			case "hyperlinkReferenceExpression" :
+			case "hyperlinkAnchorExpression" :
+			case "hyperlinkTooltipExpression" :
+				setNext(element, name, parseExpression(depStringExprFactoryClass));
+				break;
+			case "hyperlinkWhenExpression" :
+				setNext(element, name, parseExpression(depBooleanExprFactoryClass));
+				break;
+			case "hyperlinkPageExpression" :
+				setNext(element, name, parseExpression(depIntegerExprFactoryClass));
+				break;
+			case "hyperlinkParameter" :
+				JRDesignHyperlinkParameter hyperlinkParameter = (JRDesignHyperlinkParameter) push(JRHyperlinkParameterFactory.class);
+				while (nextChild())
+				{
+					if (!"hyperlinkParameterExpression".equals(reader.getLocalName()))
+					{
+						throw unsupported();
+					}
+					hyperlinkParameter.setValueExpression(parseExpression(lcDepStringExprFactoryClass));
+				}
+				stack.pop();
+				MethodUtils.invokeMethod(element, "addHyperlinkParameter", hyperlinkParameter);
+				break;
+			default :
+				if (element instanceof JRDesignSubreport)
+				{
+					return parseSubreportChild((JRDesignSubreport) element);
+				}
+				if (element instanceof JRDesignFrame)
+				{
+					return parseElement(element);
+				}
+				return false;
+		}
+		return true;
+	}
+
+	protected void parseReportElement(JRDesignElement element) throws Exception
+	{
+		push(JRElementFactory.class);
+		while (nextChild())
+		{
+			switch (reader.getLocalName())
+			{
+				case "property" :
+					parseProperty();
+					break;
+				case "propertyExpression" :
+					element.addPropertyExpression(parsePropertyExpression());
+					break;
+				case "printWhenExpression" :
+					element.setPrintWhenExpression(parseExpression(depBooleanExprFactoryClass));
+					break;
+				case "styleExpression" :
+					element.setStyleExpression(parseExpression(depStringExprFactoryClass));
+					break;
+				default :
+					throw unsupported();
+			}
+		}
+		stack.pop();
+	}
+
+	protected boolean parseSubreportChild(JRDesignSubreport subreport) throws Exception
+	{
+		switch (reader.getLocalName())
+		{
+			case "parametersMapExpression" :
+				subreport.setParametersMapExpression(parseExpression(depMapExprFactoryClass));
+				break;
+			case "subreportParameter" :
+				JRDesignSubreportParameter parameter = (JRDesignSubreportParameter) push(JRSubreportParameterFactory.class);
+				while (nextChild())
+				{
+					if (!"subreportParameterExpression".equals(reader.getLocalName()))
+					{
+						throw unsupported();
+					}
+					parameter.setExpression(parseExpression(depObjectExprFactoryClass));
+				}
+				stack.pop();
+				subreport.addParameter(parameter);
+				break;
+			case "connectionExpression" :
+				subreport.setConnectionExpression(parseExpression(depConnectionExprFactoryClass));
+				break;
+			case "dataSourceExpression" :
+				subreport.setDataSourceExpression(parseExpression(depDataSourceExprFactoryClass));
+				break;
+			case "returnValue" :
+				JRDesignSubreportReturnValue returnValue = (JRDesignSubreportReturnValue) create(JRSubreportReturnValueFactory.class);
+				readText();
+				subreport.addReturnValue(returnValue);
+				break;
+			case "subreportExpression" :
+				subreport.setExpression(parseExpression(depSubreportExprFactoryClass));
+				break;
+			default :
+				return false;
+		}
+		return true;
+	}
+
+	protected void parseBox() throws Exception
+	{
+		push(JRBoxFactory.class);
+		while (nextChild())
+		{
+			switch (reader.getLocalName())
+			{
+				case "pen" :
+					create(JRPenFactory.Box.class);
+					break;
+				case "topPen" :
+					create(JRPenFactory.Top.class);
+					break;
+				case "leftPen" :
+					create(JRPenFactory.Left.class);
+					break;
+				case "bottomPen" :
+					create(JRPenFactory.Bottom.class);
+					break;
+				case "rightPen" :
+					create(JRPenFactory.Right.class);
+					break;
+				default :
+					throw unsupported();
+			}
+			readText();
+		}
+		stack.pop();
+	}
+
+	protected void parseParagraph() throws Exception
+	{
+		JRParagraph paragraph = (JRParagraph) push(JRParagraphFactory.class);
+		while (nextChild())
+		{
+			if (!"tabStop".equals(reader.getLocalName()))
+			{
+				throw unsupported();
+			}
+			TabStop tabStop = (TabStop) create(TabStopFactory.class);
+			readText();
+			paragraph.addTabStop(tabStop);
+		}
+		stack.pop();
+	}
+
+	protected void parseProperty() throws Exception
+	{
+		JRPropertyObject property = (JRPropertyObject) create(JRPropertyFactory.class);
+		property.setValue(readText().trim());
+	}
+
+	protected JRDesignPropertyExpression parsePropertyExpression() throws Exception
+	{
+		JRDesignPropertyExpression propertyExpression = (JRDesignPropertyExpression) create(JRPropertyExpressionFactory.class);
+		propertyExpression.setValueExpression(parseExpression(depStringExprFactoryClass));
+		return propertyExpression;
+	}
+
+	/**
+	 * Creates an expression with the given factory and sets its trimmed text, like the
+	 * <code>setText</code> call method rules of the digester.
+	 */
+	protected JRDesignExpression parseExpression(Class<? extends ObjectCreationFactory> factoryClass) throws Exception
+	{
+		JRDesignExpression expression = (JRDesignExpression) create(factoryClass);
+		expression.setText(readText().trim());
+		return expression;
+	}
+
+	protected Object create(Class<? extends ObjectCreationFactory> factoryClass) throws Exception
+	{
+		ObjectCreationFactory factory = factories.get(factoryClass);
+		if (factory == null)
+		{
+			factory = factoryClass.getDeclaredConstructor().newInstance();
+			factory.setDigester(stack);
+			factories.put(factoryClass, factory);
+		}
+		return factory.createObject(attributes);
+	}
+
+	protected Object push(Class<? extends ObjectCreationFactory> factoryClass) throws Exception
+	{
+		Object object = create(factoryClass);
+		stack.push(object);
+		return object;
+	}
+
+	protected void setNext(Object parent, String elementName, Object child) throws Exception
+	{
+		String methodName = "set" + Character.toUpperCase(elementName.charAt(0)) + elementName.substring(1);
+		MethodUtils.invokeMethod(parent, methodName, child);
+	}
+
+	protected <T extends NamedEnum> T constantAttribute(String name, T[] values)
+	{
+		String value = attributes.getValue(name);
+		if (value == null)
+		{
+			return null;
+		}
+
+		T constant = EnumUtil.getEnumByName(values, value);
+		if (constant == null)
+		{
+			log.warn("Unrecognized attribute value \"" + value + "\" for " + name);
+		}
+		return constant;
+	}
+
+	/**
+	 * Moves to the next child element of the current element, or to the end of the
+	 * current element if it has no more children.
+	 */
+	protected boolean nextChild() throws Exception
+	{
+		while (true)
+		{
+			switch (reader.next())
+			{
+				case XMLStreamConstants.START_ELEMENT :
+					checkNamespace();
+					return true;
+				case XMLStreamConstants.END_ELEMENT :
+					return false;
+				default :
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Reads the text of the current element up to its end.
+	 */
+	protected String readText() throws Exception
+	{
+		StringBuilder text = null;
+		while (true)
+		{
+			switch (reader.next())
+			{
+				case XMLStreamConstants.CHARACTERS :
+				case XMLStreamConstants.CDATA :
+				case XMLStreamConstants.SPACE :
+					if (text == null)
+					{
+						text = new StringBuilder();
+					}
+					text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+					break;
+				case XMLStreamConstants.START_ELEMENT :
+					throw unsupported();
+				case XMLStreamConstants.END_ELEMENT :
+					return text == null ? "" : text.toString();
+				default :
+					break;
+			}
+		}
+	}
+
+	protected void checkNamespace()
+	{
+		if (!JRXmlConstants.JASPERREPORTS_NAMESPACE.equals(reader.getNamespaceURI()))
+		{
+			throw unsupported();
+		}
+	}
+
+	private UnsupportedContentException unsupported()
+	{
+		return new UnsupportedContentException(reader.getLocalName() + " at line "
+				+ reader.getLocation().getLineNumber());
+	}
+
+	/**
+	 * Thrown for content that is left to the digester.
+	 */
+	private static class UnsupportedContentException extends RuntimeException
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+		public UnsupportedContentException(String message)
+		{
+			super(message);
+		}
+	}
+
+	/**
+	 * SAX attributes view of the attributes of the current StAX element, as expected by
+	 * the object creation factories.
+	 */
+	private class StreamAttributes implements Attributes
+	{
+		@Override
+		public int getLength()
+		{
+			return reader.getAttributeCount();
+		}
+
+		@Override
+		public String getURI(int index)
+		{
+			String uri = reader.getAttributeNamespace(index);
+			return uri == null ? "" : uri;
+		}
+
+		@Override
+		public String getLocalName(int index)
+		{
+			return reader.getAttributeLocalName(index);
+		}
+
+		@Override
+		public String getQName(int index)
+		{
+			String prefix = reader.getAttributePrefix(index);
+			String localName = reader.getAttributeLocalName(index);
+			return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+		}
+
+		@Override
+		public String getType(int index)
+		{
+			return reader.getAttributeType(index);
+		}
+
+		@Override
+		public String getValue(int index)
+		{
+			return reader.getAttributeValue(index);
+		}
+
+		@Override
+		public int getIndex(String uri, String localName)
+		{
+			for (int i = 0; i < reader.getAttributeCount(); i++)
+			{
+				if (getURI(i).equals(uri) && reader.getAttributeLocalName(i).equals(localName))
+				{
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public int getIndex(String qName)
+		{
+			for (int i = 0; i < reader.getAttributeCount(); i++)
+			{
+				if (getQName(i).equals(qName))
+				{
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public String getType(String uri, String localName)
+		{
+			int index = getIndex(uri, localName);
+			return index < 0 ? null : getType(index);
+		}
+
+		@Override
+		public String getType(String qName)
+		{
+			int index = getIndex(qName);
+			return index < 0 ? null : getType(index);
+		}
+
+		@Override
+		public String getValue(String uri, String localName)
+		{
+			int index = getIndex(uri, localName);
+			return index < 0 ? null : getValue(index);
+		}
+
+		@Override
+		public String getValue(String qName)
+		{
+			int index = getIndex(qName);
+			return index < 0 ? null : getValue(index);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.export;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.export.CsvValueEncoder;
+import net.sf.jasperreports.engine.export.JRCsvDataExporter;
+import net.sf.jasperreports.export.annotations.ExporterProperty;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Interface containing settings used by the streaming metadata based CSV exporter.
+ *
+ * @see JRCsvDataExporter
+ */
+public interface CsvDataExporterConfiguration extends CsvMetadataExporterConfiguration
+{
+	/**
+	 * The value of {@link #PROPERTY_VALUE_ENCODER} that writes the text of the elements.
+	 */
+	public static final String VALUE_ENCODER_TEXT = "text";
+
+	/**
+	 * The value of {@link #PROPERTY_VALUE_ENCODER} that writes the values of the text fields.
+	 */
+	public static final String VALUE_ENCODER_VALUE = "value";
+
+	/**
+	 * Property whose value is used as default for the {@link #getValueEncoder()} export configuration setting.
+	 * 
+	 * @see JRPropertiesUtil
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = VALUE_ENCODER_TEXT,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4
+			)
+	public static final String PROPERTY_VALUE_ENCODER = JRPropertiesUtil.PROPERTY_PREFIX + "export.csv.value.encoder";
+
+	/**
+	 * Property whose value is used as default for the {@link #getRecordsPerFile()} export configuration setting.
+	 * 
+	 * @see JRPropertiesUtil
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_RECORDS_PER_FILE = JRPropertiesUtil.PROPERTY_PREFIX + "export.csv.records.per.file";
+
+	/**
+	 * Returns the encoder that writes the field values: {@link #VALUE_ENCODER_TEXT} (the default) for the text of the 
+	 * elements, {@link #VALUE_ENCODER_VALUE} for the unformatted values of the text fields, or the name of a 
+	 * {@link CsvValueEncoder} implementation class.
+	 * @see #PROPERTY_VALUE_ENCODER
+	 */
+	@ExporterProperty(PROPERTY_VALUE_ENCODER)
+	public String getValueEncoder();
+
+	/**
+	 * Returns the maximum number of records written in a file, the header not included. 
+	 * When the output is a {@link MultiFileWriterExporterOutput}, the records that follow are written in a new file,
+	 * starting with the header if one is written. 
+	 * The default value of 0 writes all the records in a single file.
+	 * @see #PROPERTY_RECORDS_PER_FILE
+	 */
+	@ExporterProperty(
+			value=PROPERTY_RECORDS_PER_FILE, 
+			intDefault=0
+			)
+	public Integer getRecordsPerFile();
+}
@@ -218,6 +218,19 @@ public interface HtmlReportConfiguration extends ReportExportConfiguration
 	public static final String PROPERTY_USE_BACKGROUND_IMAGE_TO_ALIGN = HtmlExporter.HTML_EXPORTER_PROPERTIES_PREFIX + "use.background.image.to.align";
 
 
+	/**
+	 * Property that provides a default for the {@link #isEmbeddedImageReuse()} export configuration flag.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT, PropertyScope.IMAGE_ELEMENT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_EMBEDDED_IMAGE_REUSE = HtmlExporter.HTML_EXPORTER_PROPERTIES_PREFIX + "embedded.image.reuse";
+
+
 	/**
 	 * Boolean property that provides a default for the {@link #isIncludeElementUUID()} flag.
 	 * 
@@ -404,6 +417,20 @@ public interface HtmlReportConfiguration extends ReportExportConfiguration
 		)
 	public Boolean isUseBackgroundImageToAlign();
 
+	/**
+	 * Specifies whether embedded images having the same data are written only once in the output.
+	 * The first occurrence of the image data is written as a CSS class having the image as background and all 
+	 * the image elements showing that data are rendered as <code>div</code> elements referencing the class.
+	 * Only applies when images are embedded, to image elements without image map hyperlinks that have the 
+	 * <code>RetainShape</code> or <code>FillFrame</code> scale type, which background images render the same way.
+	 * @see #PROPERTY_EMBEDDED_IMAGE_REUSE
+	 */
+	@ExporterProperty(
+		value=PROPERTY_EMBEDDED_IMAGE_REUSE, 
+		booleanDefault=false
+		)
+	public Boolean isEmbeddedImageReuse();
+
 	/**
 	 * Determines whether design element UUIDs are included
 	 * in the HTML output as <code>data-eluuid</code> attributes of <code>td</code> elements.
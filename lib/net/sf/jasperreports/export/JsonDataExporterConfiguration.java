@@ -0,0 +1,69 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.export;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.export.JsonDataExporter;
+import net.sf.jasperreports.export.annotations.ExporterProperty;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Interface containing settings used by the streaming JSON metadata exporter.
+ *
+ * @see JsonDataExporter
+ */
+public interface JsonDataExporterConfiguration extends JsonExporterConfiguration
+{
+	/**
+	 * Property whose value is used as default for the {@link #isLineDelimited()} export configuration setting.
+	 * <p>
+	 * The property itself defaults to <code>false</code>.
+	 * </p>
+	 *
+	 * @see JRPropertiesUtil
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_LINE_DELIMITED = JRPropertiesUtil.PROPERTY_PREFIX + "export.json.line.delimited";
+
+	/**
+	 * A flag that determines whether the output is newline delimited JSON (NDJSON): when the root of the JSON
+	 * schema is an array, each of its objects is written on its own line, without the enclosing array, 
+	 * and a root object is written on a single line.
+	 * @see #PROPERTY_LINE_DELIMITED
+	 */
+	@ExporterProperty(
+		value=PROPERTY_LINE_DELIMITED,
+		booleanDefault=false
+		)
+	public Boolean isLineDelimited();
+}
@@ -0,0 +1,48 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.export;
+
+import java.io.Writer;
+
+
+/**
+ * Writer output that can continue in a new file, used by exporters that split their output by size.
+ * 
+ * @see CsvDataExporterConfiguration#getRecordsPerFile()
+ */
+public interface MultiFileWriterExporterOutput extends WriterExporterOutput
+{
+
+	/**
+	 * Closes the current file and returns the writer of the next file, 
+	 * which is also returned by {@link #getWriter()} from then on.
+	 */
+	public Writer nextFile();
+
+	/**
+	 * Returns the number of files created so far.
+	 */
+	public int getFileCount();
+
+}
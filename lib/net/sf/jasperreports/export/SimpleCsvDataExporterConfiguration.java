@@ -0,0 +1,69 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.export;
+
+
+/**
+ * 
+ */
+public class SimpleCsvDataExporterConfiguration extends SimpleCsvMetadataExporterConfiguration implements CsvDataExporterConfiguration
+{
+	private String valueEncoder;
+	private Integer recordsPerFile;
+
+	/**
+	 * 
+	 */
+	public SimpleCsvDataExporterConfiguration()
+	{
+	}
+	
+	@Override
+	public String getValueEncoder()
+	{
+		return valueEncoder;
+	}
+	
+	/**
+	 * 
+	 */
+	public void setValueEncoder(String valueEncoder)
+	{
+		this.valueEncoder = valueEncoder;
+	}
+	
+	@Override
+	public Integer getRecordsPerFile()
+	{
+		return recordsPerFile;
+	}
+	
+	/**
+	 * 
+	 */
+	public void setRecordsPerFile(Integer recordsPerFile)
+	{
+		this.recordsPerFile = recordsPerFile;
+	}
+}
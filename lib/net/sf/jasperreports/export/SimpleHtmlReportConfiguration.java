@@ -45,6 +45,7 @@ public class SimpleHtmlReportConfiguration extends SimpleReportExportConfigurati
 	private Boolean isEmbeddedSvgUseFonts;
 	private Boolean isConvertSvgToImage;
 	private Boolean isUseBackgroundImageToAlign;
+	private Boolean isEmbeddedImageReuse;
 	private Boolean includeElementUUID;
 
 	
@@ -237,6 +238,20 @@ public class SimpleHtmlReportConfiguration extends SimpleReportExportConfigurati
 		this.isUseBackgroundImageToAlign = isUseBackgroundImageToAlign;
 	}
 
+	@Override
+	public Boolean isEmbeddedImageReuse()
+	{
+		return isEmbeddedImageReuse;
+	}
+	
+	/**
+	 * 
+	 */
+	public void setEmbeddedImageReuse(Boolean isEmbeddedImageReuse)
+	{
+		this.isEmbeddedImageReuse = isEmbeddedImageReuse;
+	}
+
 	@Override
 	public Boolean isIncludeElementUUID()
 	{
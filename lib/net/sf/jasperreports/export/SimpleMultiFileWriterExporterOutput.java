@@ -0,0 +1,182 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.export;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+
+/**
+ * Writes the export result into one or more files, optionally compressed with gzip.
+ * <p>
+ * The first file is the one provided. The following files are created in the same directory, with the number of
+ * the file inserted before the extension: <code>report.csv</code>, <code>report-2.csv</code>, 
+ * <code>report-3.csv</code>, or <code>report.csv.gz</code>, <code>report-2.csv.gz</code> when compressed.
+ */
+public class SimpleMultiFileWriterExporterOutput implements MultiFileWriterExporterOutput
+{
+	private static final int BUFFER_SIZE = 65536;
+	
+	private final File file;
+	private final String encoding;
+	private final boolean gzip;
+	
+	private Writer writer;
+	private int fileCount;
+
+	
+	/**
+	 * 
+	 */
+	public SimpleMultiFileWriterExporterOutput(File file)
+	{
+		this(file, "UTF-8", false);
+	}
+
+	
+	/**
+	 * @param file the first file
+	 * @param encoding the character encoding
+	 * @param gzip whether the files are compressed with gzip
+	 */
+	public SimpleMultiFileWriterExporterOutput(File file, String encoding, boolean gzip)
+	{
+		this.file = file;
+		this.encoding = encoding;
+		this.gzip = gzip;
+		
+		writer = openFile(file);
+		fileCount = 1;
+	}
+
+	
+	/**
+	 * 
+	 */
+	public SimpleMultiFileWriterExporterOutput(String fileName, String encoding, boolean gzip)
+	{
+		this(new File(fileName), encoding, gzip);
+	}
+
+	
+	@Override
+	public String getEncoding()
+	{
+		return encoding;
+	}
+
+	
+	@Override
+	public Writer getWriter()
+	{
+		return writer;
+	}
+
+	
+	@Override
+	public Writer nextFile()
+	{
+		close();
+		
+		++fileCount;
+		writer = openFile(getFile(fileCount));
+		return writer;
+	}
+
+	
+	@Override
+	public int getFileCount()
+	{
+		return fileCount;
+	}
+
+	
+	/**
+	 * Returns the file with the given number, starting from 1.
+	 */
+	public File getFile(int number)
+	{
+		if (number == 1)
+		{
+			return file;
+		}
+		
+		String name = file.getName();
+		int extensionIndex = name.lastIndexOf('.');
+		if (extensionIndex > 0 && name.endsWith(".gz"))
+		{
+			int index = name.lastIndexOf('.', extensionIndex - 1);
+			if (index > 0)
+			{
+				extensionIndex = index;
+			}
+		}
+		
+		String partName = extensionIndex > 0 
+				? name.substring(0, extensionIndex) + "-" + number + name.substring(extensionIndex)
+				: name + "-" + number;
+		return new File(file.getParentFile(), partName);
+	}
+
+	
+	protected Writer openFile(File partFile)
+	{
+		try
+		{
+			OutputStream os = new FileOutputStream(partFile);
+			os = gzip ? new GZIPOutputStream(os, BUFFER_SIZE) : new BufferedOutputStream(os, BUFFER_SIZE);
+			return new OutputStreamWriter(os, encoding);
+		}
+		catch (IOException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+	}
+
+	
+	@Override
+	public void close()
+	{
+		if (writer != null)
+		{
+			try
+			{
+				writer.close();
+			}
+			catch (IOException e)
+			{
+				throw new JRRuntimeException(e);
+			}
+			writer = null;
+		}
+	}
+}
@@ -30,6 +30,8 @@ package net.sf.jasperreports.export;
 public class SimpleXlsxExporterConfiguration extends SimpleXlsExporterConfiguration implements XlsxExporterConfiguration
 {
 	private String macroTemplate;
+	private Boolean streaming;
+	private Integer streamingRowBandElements;
 	
 	/**
 	 * 
@@ -51,4 +53,32 @@ public class SimpleXlsxExporterConfiguration extends SimpleXlsExporterConfigurat
 	{
 		this.macroTemplate = macroTemplate;
 	}
+
+	@Override
+	public Boolean isStreaming()
+	{
+		return streaming;
+	}
+
+	/**
+	 * 
+	 */
+	public void setStreaming(Boolean streaming)
+	{
+		this.streaming = streaming;
+	}
+
+	@Override
+	public Integer getStreamingRowBandElements()
+	{
+		return streamingRowBandElements;
+	}
+
+	/**
+	 * 
+	 */
+	public void setStreamingRowBandElements(Integer streamingRowBandElements)
+	{
+		this.streamingRowBandElements = streamingRowBandElements;
+	}
 }
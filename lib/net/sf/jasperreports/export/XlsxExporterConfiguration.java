@@ -64,4 +64,61 @@ public interface XlsxExporterConfiguration extends XlsExporterConfiguration
 	@ExporterProperty(PROPERTY_MACRO_TEMPLATE)
 	public String getMacroTemplate();
 
+	/**
+	 * Property used to provide a default value for the {@link #isStreaming()} export configuration setting.
+	 * 
+	 * @see JRPropertiesUtil
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_STREAMING = JRPropertiesUtil.PROPERTY_PREFIX + "export.xlsx.streaming";
+
+	/**
+	 * Property used to provide a default value for the {@link #getStreamingRowBandElements()} export configuration setting.
+	 * 
+	 * @see JRPropertiesUtil
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "1000",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_STREAMING_ROW_BAND_ELEMENTS = JRPropertiesUtil.PROPERTY_PREFIX + "export.xlsx.streaming.row.band.elements";
+
+	/**
+	 * Flag that specifies whether the worksheets are written directly into the output zip as the pages are exported,
+	 * instead of being buffered and zipped at the end. Text cells are then written as inline strings, so no shared
+	 * string table is kept in memory, and pages exported on a common sheet are laid out in row bands of
+	 * {@link #getStreamingRowBandElements()} elements instead of a single grid.
+	 * <p>
+	 * The setting is ignored when an {@link #getEncryptionPassword() encryption password} is set.
+	 * @see #PROPERTY_STREAMING
+	 */
+	@ExporterProperty(
+		value=PROPERTY_STREAMING, 
+		booleanDefault=false
+		)
+	public Boolean isStreaming();
+
+	/**
+	 * Specifies the minimum number of page elements laid out in a row band when the document is exported in
+	 * {@link #isStreaming() streaming} mode. A page is split in bands only at positions not crossed by any element,
+	 * so the resulting grid is the same as the grid of the whole page. Pages having elements that set sheet level 
+	 * properties, such as the sheet name, freeze panes or print settings, or that break the sheet, are not split.
+	 * Zero or negative values disable the bands.
+	 * @see #PROPERTY_STREAMING_ROW_BAND_ELEMENTS
+	 */
+	@ExporterProperty(
+		value=PROPERTY_STREAMING_ROW_BAND_ELEMENTS, 
+		intDefault=1000
+		)
+	public Integer getStreamingRowBandElements();
+
 }
@@ -266,4 +266,6 @@ public interface PropertyConstants
 	
 	String VERSION_6_21_3 = "6.21.3";
 	
+	String VERSION_6_21_4 = "6.21.4";
+	
 }
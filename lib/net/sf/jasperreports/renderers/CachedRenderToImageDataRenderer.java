@@ -0,0 +1,94 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.renderers;
+
+import java.awt.Color;
+import java.awt.geom.Dimension2D;
+
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+
+
+/**
+ * Renders a {@link Graphics2DRenderable} to PNG data through the {@link RenderedImageCache}, so that
+ * the same source rendered with the same size, background color and resolution is only rendered once.
+ */
+public class CachedRenderToImageDataRenderer extends WrappingRenderToImageDataRenderer
+{
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+	private final String sourceKey;
+
+	
+	/**
+	 * @param sourceKey the key of the rendered source, see {@link RenderedImageCache#getDataKey(byte[])}
+	 */
+	public CachedRenderToImageDataRenderer(
+		String sourceKey,
+		Graphics2DRenderable renderer, 
+		Dimension2D dimension,
+		Color backcolor
+		)
+	{
+		super(renderer, dimension, backcolor);
+		
+		this.sourceKey = sourceKey;
+	}
+
+	
+	/**
+	 * @param sourceKey the key of the rendered source, see {@link RenderedImageCache#getDataKey(byte[])}
+	 */
+	public CachedRenderToImageDataRenderer(
+		String sourceKey,
+		Graphics2DRenderable renderer, 
+		DimensionRenderable dimensionRender,
+		Color backcolor
+		)
+	{
+		super(renderer, dimensionRender, backcolor);
+		
+		this.sourceKey = sourceKey;
+	}
+
+	
+	@Override
+	public byte[] getData(JasperReportsContext jasperReportsContext) throws JRException
+	{
+		String key = 
+			RenderedImageCache.getKey(
+				sourceKey, 
+				getDimension(jasperReportsContext), 
+				getBackcolor(), 
+				getImageDataDPI(jasperReportsContext), 
+				RenderedImageCache.FORMAT_PNG
+				);
+		return RenderedImageCache.getInstance(jasperReportsContext).getData(key, jasperReportsContext, super::getData);
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.renderers;
+
+
+/**
+ * This interface is implemented by {@link Graphics2DRenderable} objects that can describe the graphics they draw 
+ * by a stable key, so that the images rendered from them can be kept in the {@link RenderedImageCache}.
+ * Renderers that draw the same graphics need to return equal keys, regardless of their ids or of the fill that 
+ * created them.
+ */
+public interface ContentKeyRenderable
+{
+	/**
+	 * Returns the key describing the drawn graphics, or <code>null</code> if the renderer cannot provide one.
+	 */
+	public String getContentKey();
+}
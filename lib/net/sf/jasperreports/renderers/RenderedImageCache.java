@@ -0,0 +1,301 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.renderers;
+
+import java.awt.Color;
+import java.awt.geom.Dimension2D;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.DigestUtils;
+import net.sf.jasperreports.engine.util.SharedContextValues;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Size bounded LRU cache of rendered image data, shared by all the exports that use the same
+ * {@link JasperReportsContext}.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the source data of the image, or by the key of 
+ * {@link ContentKeyRenderable} renderers such as Barbecue barcodes, together with the rendering size, 
+ * background color, resolution and image format. Images drawn by other {@link Graphics2DRenderable} 
+ * renderers, such as charts, are not cached. The cache is bounded by the total number of bytes of 
+ * the cached data and is disabled by default.
+ * <p>
+ * Cached data arrays are shared between exports and must not be modified.
+ */
+public final class RenderedImageCache
+{
+
+	private static final Log log = LogFactory.getLog(RenderedImageCache.class);
+
+	/**
+	 * Property that specifies the maximum total size, in bytes, of the image data kept by the cache.
+	 * A value of <code>0</code> disables the cache.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_4,
+			valueType = Long.class
+			)
+	public static final String PROPERTY_MAX_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "rendered.image.cache.max.size";
+
+	public static final String FORMAT_PNG = "png";
+
+	private static final String CONTEXT_KEY = "net.sf.jasperreports.rendered.image.cache";
+
+	private final long maxSize;
+	private final Map<String, byte[]> images;
+	private long size;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicLong evictedBytes = new AtomicLong();
+
+
+	/**
+	 *
+	 */
+	public static RenderedImageCache getInstance(JasperReportsContext jasperReportsContext)
+	{
+		return SharedContextValues.getValue(jasperReportsContext, CONTEXT_KEY, 
+				sharedContext -> new RenderedImageCache(
+						JRPropertiesUtil.getInstance(sharedContext).getLongProperty(PROPERTY_MAX_SIZE, 0L)));
+	}
+
+
+	/**
+	 *
+	 */
+	public RenderedImageCache(long maxSize)
+	{
+		this.maxSize = maxSize;
+		this.images = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+
+	/**
+	 * Returns the cache key of the source data of an image, based on the data digest.
+	 */
+	public static String getDataKey(byte[] data)
+	{
+		return "sha256:" + DigestUtils.instance().sha256(data);
+	}
+
+
+	/**
+	 * Returns the cache key of an image rendered from the given source.
+	 */
+	public static String getKey(String sourceKey, Dimension2D dimension, Color backcolor, int dpi, String format)
+	{
+		StringBuilder key = new StringBuilder(sourceKey.length() + 48);
+		key.append(sourceKey);
+		key.append('|');
+		if (dimension != null)
+		{
+			key.append(dimension.getWidth()).append('x').append(dimension.getHeight());
+		}
+		key.append('|');
+		if (backcolor != null)
+		{
+			key.append(Integer.toHexString(backcolor.getRGB()));
+		}
+		key.append('|').append(dpi);
+		key.append('|').append(format);
+		return key.toString();
+	}
+
+
+	public boolean isEnabled()
+	{
+		return maxSize > 0;
+	}
+
+
+	/**
+	 * Returns the cached data for the key, or renders it with the given renderer and caches it.
+	 */
+	public byte[] getData(String key, JasperReportsContext jasperReportsContext, DataRenderable renderer) throws JRException
+	{
+		if (!isEnabled())
+		{
+			return renderer.getData(jasperReportsContext);
+		}
+
+		byte[] data = get(key);
+		if (data == null)
+		{
+			data = renderer.getData(jasperReportsContext);
+			put(key, data);
+		}
+		return data;
+	}
+
+
+	/**
+	 *
+	 */
+	public byte[] get(String key)
+	{
+		byte[] data;
+		synchronized (images)
+		{
+			data = images.get(key);
+		}
+
+		if (data == null)
+		{
+			missCount.incrementAndGet();
+		}
+		else
+		{
+			hitCount.incrementAndGet();
+		}
+
+		if (log.isDebugEnabled())
+		{
+			log.debug((data == null ? "miss " : "hit ") + key);
+		}
+		return data;
+	}
+
+
+	/**
+	 * Caches the data, evicting the least recently used entries to stay within the maximum size.
+	 * Data larger than the maximum size is not cached.
+	 */
+	public void put(String key, byte[] data)
+	{
+		if (data == null || data.length > maxSize)
+		{
+			return;
+		}
+
+		synchronized (images)
+		{
+			byte[] previous = images.put(key, data);
+			if (previous != null)
+			{
+				size -= previous.length;
+			}
+			size += data.length;
+
+			Iterator<Map.Entry<String, byte[]>> it = images.entrySet().iterator();
+			while (size > maxSize && it.hasNext())
+			{
+				Map.Entry<String, byte[]> eldest = it.next();
+				if (eldest.getKey().equals(key))
+				{
+					continue;
+				}
+				it.remove();
+				size -= eldest.getValue().length;
+				evictionCount.incrementAndGet();
+				evictedBytes.addAndGet(eldest.getValue().length);
+			}
+		}
+	}
+
+
+	/**
+	 *
+	 */
+	public void clear()
+	{
+		synchronized (images)
+		{
+			images.clear();
+			size = 0;
+		}
+	}
+
+
+	/**
+	 * Returns the number of cached images.
+	 */
+	public int getEntryCount()
+	{
+		synchronized (images)
+		{
+			return images.size();
+		}
+	}
+
+	/**
+	 * Returns the total size in bytes of the cached image data.
+	 */
+	public long getSize()
+	{
+		synchronized (images)
+		{
+			return size;
+		}
+	}
+
+	public long getMaxSize()
+	{
+		return maxSize;
+	}
+
+	public long getHitCount()
+	{
+		return hitCount.get();
+	}
+
+	public long getMissCount()
+	{
+		return missCount.get();
+	}
+
+	public long getEvictionCount()
+	{
+		return evictionCount.get();
+	}
+
+	public long getEvictedBytes()
+	{
+		return evictedBytes.get();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "RenderedImageCache[entries=" + getEntryCount() + ", size=" + getSize() + ", maxSize=" + maxSize 
+				+ ", hits=" + getHitCount() + ", misses=" + getMissCount() 
+				+ ", evictions=" + getEvictionCount() + ", evictedBytes=" + getEvictedBytes() + "]";
+	}
+}
@@ -44,9 +44,12 @@ import net.sf.jasperreports.engine.type.OnErrorTypeEnum;
 import net.sf.jasperreports.engine.util.JRImageLoader;
 import net.sf.jasperreports.engine.util.JRLoader;
 import net.sf.jasperreports.engine.util.JRTypeSniffer;
+import net.sf.jasperreports.renderers.CachedRenderToImageDataRenderer;
+import net.sf.jasperreports.renderers.ContentKeyRenderable;
 import net.sf.jasperreports.renderers.DataRenderable;
 import net.sf.jasperreports.renderers.Graphics2DRenderable;
 import net.sf.jasperreports.renderers.Renderable;
+import net.sf.jasperreports.renderers.RenderedImageCache;
 import net.sf.jasperreports.renderers.RenderersCache;
 import net.sf.jasperreports.renderers.ResourceRenderer;
 import net.sf.jasperreports.renderers.SimpleDataRenderer;
@@ -506,7 +509,8 @@ public class RendererUtil
 				}
 
 				imageRenderer =
-					new WrappingRenderToImageDataRenderer(
+					getRenderToImageDataRenderable(
+						renderer,
 						grxRenderer,
 						dimension,
 						backcolor
@@ -538,7 +542,8 @@ public class RendererUtil
 				if (isSvgData)
 				{
 					imageRenderer =
-						new WrappingRenderToImageDataRenderer(
+						getRenderToImageDataRenderable(
+							renderer,
 							(Graphics2DRenderable)renderersCache.getWrappingRenderable(renderer.getId(), (DataRenderable)renderer), 
 							dimension, 
 							backcolor
@@ -571,7 +576,8 @@ public class RendererUtil
 				}
 
 				imageRenderer =
-					new WrappingRenderToImageDataRenderer(
+					getRenderToImageDataRenderable(
+						renderer,
 						grxRenderer,
 						dimension,
 						backcolor
@@ -581,4 +587,54 @@ public class RendererUtil
 			
 		return imageRenderer;
 	}
+
+
+	
+	/**
+	 * Returns a renderer that renders the graphics to PNG data, going through the {@link RenderedImageCache}
+	 * when the cache is enabled and the source renderer is a {@link DataRenderable} or a {@link ContentKeyRenderable}.
+	 * <p>
+	 * Other renderers, such as charts, are not cached since their ids are random and they do not 
+	 * provide their content in a form that could be used as a cache key.
+	 */
+	protected DataRenderable getRenderToImageDataRenderable(
+		Renderable sourceRenderer, 
+		Graphics2DRenderable grxRenderer, 
+		Dimension dimension, 
+		Color backcolor
+		) throws JRException
+	{
+		JasperReportsContext jasperReportsContext = context.getJasperReportsContext();
+		String sourceKey = null;
+		if (RenderedImageCache.getInstance(jasperReportsContext).isEnabled())
+		{
+			// keyed by content, so that the same image loaded by different fills is rendered only once
+			if (sourceRenderer instanceof DataRenderable)
+			{
+				sourceKey = RenderedImageCache.getDataKey(((DataRenderable)sourceRenderer).getData(jasperReportsContext));
+			}
+			else if (sourceRenderer instanceof ContentKeyRenderable)
+			{
+				sourceKey = ((ContentKeyRenderable)sourceRenderer).getContentKey();
+			}
+		}
+		
+		if (sourceKey != null)
+		{
+			return 
+				new CachedRenderToImageDataRenderer(
+					sourceKey,
+					grxRenderer,
+					dimension,
+					backcolor
+					);
+		}
+		
+		return
+			new WrappingRenderToImageDataRenderer(
+				grxRenderer,
+				dimension,
+				backcolor
+				);
+	}
 }
@@ -31,6 +31,7 @@ import net.sf.jasperreports.engine.JasperCompileManager;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.util.JasperReportCache;
 
 /**
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
@@ -49,6 +50,11 @@ public class DefaultReportCompiler implements ReportCompiler, Serializable//TODO
 
 	@Override
 	public JasperReport compile(JasperDesign design) throws JRException
+	{
+		return JasperReportCache.getInstance(jasperReportsContext).getReport(jasperReportsContext, design, this::compileDesign);
+	}
+
+	protected JasperReport compileDesign(JasperDesign design) throws JRException
 	{
 		return JasperCompileManager.getInstance(jasperReportsContext).compile(design);
 	}
@@ -60,7 +60,7 @@ public class DefaultRepositoryPersistenceServiceFactory implements PersistenceSe
 			}
 			else if (ReportResource.class.getName().equals(resourceType.getName()))
 			{
-				return new SerializedReportPersistenceService();
+				return new SerializedReportPersistenceService(jasperReportsContext);
 			}
 			else if (ResourceBundleResource.class.getName().equals(resourceType.getName()))
 			{
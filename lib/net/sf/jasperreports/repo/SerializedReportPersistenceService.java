@@ -23,7 +23,15 @@
  */
 package net.sf.jasperreports.repo;
 
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JasperReportCache;
 
 
 /**
@@ -31,6 +39,21 @@ import net.sf.jasperreports.engine.JasperReport;
  */
 public class SerializedReportPersistenceService extends SerializedObjectPersistenceService
 {
+	
+	private final JasperReportsContext jasperReportsContext;
+
+	public SerializedReportPersistenceService()
+	{
+		this(null);
+	}
+
+	/**
+	 * Creates a service that loads reports through the {@link JasperReportCache} of the context.
+	 */
+	public SerializedReportPersistenceService(JasperReportsContext jasperReportsContext)
+	{
+		this.jasperReportsContext = jasperReportsContext;
+	}
 
 	@Override
 	public Resource load(String uri, RepositoryService repositoryService)
@@ -40,6 +63,45 @@ public class SerializedReportPersistenceService extends SerializedObjectPersiste
 	
 	@Override
 	public Resource load(RepositoryContext context, String uri, RepositoryService repositoryService)
+	{
+		if (jasperReportsContext == null)
+		{
+			return loadSerialized(context, uri, repositoryService);
+		}
+		
+		ReportResource reportResource = null;
+		
+		InputStreamResource isResource = repositoryService.getResource(context, uri, InputStreamResource.class);
+		
+		InputStream is = isResource == null ? null : isResource.getInputStream();
+		if (is != null)
+		{
+			try
+			{
+				byte[] data = JRLoader.readBytes(is);
+				reportResource = new ReportResource();
+				reportResource.setReport(JasperReportCache.getInstance(jasperReportsContext).getReport(jasperReportsContext, data));
+			}
+			catch (IOException | JRException e)
+			{
+				throw new JRRuntimeException(e);
+			}
+			finally
+			{
+				try
+				{
+					is.close();
+				}
+				catch (IOException e)
+				{
+				}
+			}
+		}
+		
+		return reportResource;
+	}
+	
+	protected Resource loadSerialized(RepositoryContext context, String uri, RepositoryService repositoryService)
 	{
 		ReportResource reportResource = null;
 		
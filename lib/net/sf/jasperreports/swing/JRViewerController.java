@@ -23,7 +23,9 @@
  */
 package net.sf.jasperreports.swing;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -72,6 +74,10 @@ public class JRViewerController
 	protected boolean reloadSupported;
 	
 	protected JasperPrint jasperPrint;
+	/**
+	 * The document opened from a file by this controller, which is closed when it is replaced or cleared.
+	 */
+	private Closeable openedDocument;
 	protected RenderersCache renderersCache;
 	private int pageIndex;
 	private float zoom;
@@ -141,15 +147,23 @@ public class JRViewerController
 	
 	protected void setReport(String fileName, boolean isXmlReport) throws JRException
 	{
+		JasperPrint print;
 		if (isXmlReport)
 		{
-			jasperPrint = JRPrintXmlLoader.loadFromFile(jasperReportsContext, fileName);
+			print = JRPrintXmlLoader.loadFromFile(jasperReportsContext, fileName);
 		}
 		else
 		{
-			jasperPrint = (JasperPrint)JRLoader.loadObjectFromFile(fileName);
+			// pages of indexed binary documents are read as they are viewed
+			print = JRLoader.openJasperPrint(jasperReportsContext, new File(fileName));
 		}
 
+		closeDocument();
+		jasperPrint = print;
+		if (print instanceof Closeable)
+		{
+			openedDocument = (Closeable) print;
+		}
 		renderersCache = null;
 	}
 
@@ -179,15 +193,18 @@ public class JRViewerController
 
 	protected void setReport(InputStream is, boolean isXmlReport) throws JRException
 	{
+		JasperPrint print;
 		if (isXmlReport)
 		{
-			jasperPrint = JRPrintXmlLoader.load(jasperReportsContext, is);
+			print = JRPrintXmlLoader.load(jasperReportsContext, is);
 		}
 		else
 		{
-			jasperPrint = (JasperPrint)JRLoader.loadObject(is);
+			print = (JasperPrint)JRLoader.loadObject(is);
 		}
 
+		closeDocument();
+		jasperPrint = print;
 		renderersCache = null;
 	}
 
@@ -204,6 +221,10 @@ public class JRViewerController
 
 	public void loadReport(JasperPrint jrPrint)
 	{
+		if (jrPrint != openedDocument)
+		{
+			closeDocument();
+		}
 		jasperPrint = jrPrint;
 		renderersCache = null;
 		type = TYPE_OBJECT;
@@ -227,6 +248,7 @@ public class JRViewerController
 				{
 					log.debug("Reload failed.", e);
 				}
+				closeDocument();
 				jasperPrint = null;
 				renderersCache = null;
 				setPageIndex(0);
@@ -349,10 +371,31 @@ public class JRViewerController
 
 	public void clear()
 	{
+		closeDocument();
 		jasperPrint = null;
 		renderersCache = null;
 	}
 
+	/**
+	 * Closes the file of the document opened by {@link #loadReport(String, boolean)}, if any.
+	 * Documents passed to {@link #loadReport(JasperPrint)} are not closed, they belong to the caller.
+	 */
+	protected void closeDocument()
+	{
+		if (openedDocument != null)
+		{
+			try
+			{
+				openedDocument.close();
+			}
+			catch (IOException e)
+			{
+				log.warn("Error closing the document file.", e);
+			}
+			openedDocument = null;
+		}
+	}
+
 	public int getPageIndex()
 	{
 		return pageIndex;
@@ -28,6 +28,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Base64.Encoder;
@@ -44,6 +45,15 @@ public class Base64Util
 	public static final Integer DEFAULT_LINE_LENGTH = 76;
 	public static final byte[] DEFAULT_LINE_SEPARATOR = "\n".getBytes();
 	
+	/**
+	 * Number of source bytes encoded at a time by {@link #encode(byte[], Writer)}; a multiple of 3 so that no padding
+	 * is produced before the last chunk.
+	 */
+	public static final int ENCODE_CHUNK_SIZE = 3 * 1024;
+	
+	private static final char[] ENCODE_ALPHABET = 
+		"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+	
 	/**
 	 * Decode an input stream and write processed data to an output stream
 	 * @param in the input stream to be decoded
@@ -117,6 +127,48 @@ public class Base64Util
 		return encode(data, true);
 	}
 	
+	/**
+	 * Base64 encodes data on a single line directly to a writer, in chunks of {@link #ENCODE_CHUNK_SIZE} bytes,
+	 * without creating an intermediate copy of the whole encoded data.
+	 * @param data the data to be encoded
+	 * @param writer the writer to write the encoded characters to
+	 * @throws IOException
+	 */
+	public static void encode(byte[] data, Writer writer) throws IOException
+	{
+		char[] chars = new char[ENCODE_CHUNK_SIZE / 3 * 4];
+		int count = 0;
+		int offset = 0;
+		for (; offset + 3 <= data.length; offset += 3)
+		{
+			int bits = (data[offset] & 0xff) << 16 | (data[offset + 1] & 0xff) << 8 | (data[offset + 2] & 0xff);
+			chars[count++] = ENCODE_ALPHABET[bits >>> 18];
+			chars[count++] = ENCODE_ALPHABET[(bits >>> 12) & 0x3f];
+			chars[count++] = ENCODE_ALPHABET[(bits >>> 6) & 0x3f];
+			chars[count++] = ENCODE_ALPHABET[bits & 0x3f];
+			if (count == chars.length)
+			{
+				writer.write(chars, 0, count);
+				count = 0;
+			}
+		}
+		
+		int remaining = data.length - offset;
+		if (remaining > 0)
+		{
+			int bits = (data[offset] & 0xff) << 16 | (remaining > 1 ? (data[offset + 1] & 0xff) << 8 : 0);
+			chars[count++] = ENCODE_ALPHABET[bits >>> 18];
+			chars[count++] = ENCODE_ALPHABET[(bits >>> 12) & 0x3f];
+			chars[count++] = remaining > 1 ? ENCODE_ALPHABET[(bits >>> 6) & 0x3f] : '=';
+			chars[count++] = '=';
+		}
+		
+		if (count > 0)
+		{
+			writer.write(chars, 0, count);
+		}
+	}
+	
 	/**
 	 * @param in the input stream to be read
 	 * @param out the output stream to write